@@ -0,0 +1,713 @@
+package org.hyperfit.apt;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates an implementation of every resource interface that uses the hyperfit annotations, plus a
+ * GeneratedResourceRegistry listing them which is registered as a {@link java.util.ServiceLoader} service.
+ *
+ * HyperResource pass through methods and @Data methods are implemented with plain calls to the wrapped resource,
+ * unless the @Data method is memoized.
+ * All other methods resolve their method invoker the first time they are called.  Interfaces that can't be
+ * implemented from their own package, generic interfaces, and default methods are left alone, those keep using the
+ * dynamic proxy or run as is.
+ *
+ * A snapshot implementation holding the results of the @Data methods in fields is generated alongside each
+ * implementation, HyperfitProcessor#snapshot uses it instead of a dynamic proxy.
+ *
+ * The registry is named HyperfitGeneratedResourceRegistry and goes in the package of the first interface processed,
+ * use the hyperfit.registry option to give it a fully qualified name when several modules share a package.
+ */
+@SupportedAnnotationTypes({
+    ResourceInterfaceProcessor.DATA,
+    ResourceInterfaceProcessor.LINK,
+    ResourceInterfaceProcessor.NAMED_LINK,
+    ResourceInterfaceProcessor.FIRST_LINK,
+    ResourceInterfaceProcessor.NAMED_FORM,
+    ResourceInterfaceProcessor.PROFILES
+})
+@SupportedOptions(ResourceInterfaceProcessor.REGISTRY_OPTION)
+public class ResourceInterfaceProcessor extends AbstractProcessor {
+
+    static final String DATA = "org.hyperfit.annotation.Data";
+    static final String LINK = "org.hyperfit.annotation.Link";
+    static final String NAMED_LINK = "org.hyperfit.annotation.NamedLink";
+    static final String FIRST_LINK = "org.hyperfit.annotation.FirstLink";
+    static final String NAMED_FORM = "org.hyperfit.annotation.NamedForm";
+    static final String PROFILES = "org.hyperfit.annotation.Profiles";
+    static final String NULL_WHEN_MISSING = "org.hyperfit.annotation.NullWhenMissing";
+    static final String MEMOIZE = "org.hyperfit.annotation.Memoize";
+    static final String OPTIONAL = "java.util.Optional";
+
+    static final String REGISTRY_OPTION = "hyperfit.registry";
+
+    static final String HYPER_RESOURCE = "org.hyperfit.resource.HyperResource";
+    static final String IMPLEMENTATION_SUFFIX = "_HyperfitResource";
+    static final String SNAPSHOT_SUFFIX = "_HyperfitSnapshot";
+    static final String DEFAULT_REGISTRY_NAME = "HyperfitGeneratedResourceRegistry";
+
+    private static final String REGISTRY_SERVICE = "META-INF/services/org.hyperfit.proxy.GeneratedResourceRegistry";
+    private static final String SNAPSHOT_REGISTRY_SERVICE = "META-INF/services/org.hyperfit.proxy.GeneratedSnapshotRegistry";
+
+    private Elements elements;
+    private Types types;
+    private Filer filer;
+    private Messager messager;
+
+    //interface name to implementation name, across all rounds
+    private final Map<String, String> generated = new LinkedHashMap<String, String>();
+    //interface name to snapshot implementation name, across all rounds
+    private final Map<String, String> generatedSnapshots = new LinkedHashMap<String, String>();
+    private boolean registryWritten;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+        filer = processingEnv.getFiler();
+        messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement hyperResource = elements.getTypeElement(HYPER_RESOURCE);
+        if (hyperResource == null) {
+            return false;
+        }
+
+        if (roundEnv.processingOver()) {
+            if (!registryWritten) {
+                writeRegistry();
+            }
+            return false;
+        }
+
+        Set<TypeElement> resourceInterfaces = new LinkedHashSet<TypeElement>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                Element type = element.getKind() == ElementKind.METHOD ? element.getEnclosingElement() : element;
+                if (type.getKind() == ElementKind.INTERFACE) {
+                    resourceInterfaces.add((TypeElement) type);
+                }
+            }
+        }
+
+        int generatedThisRound = 0;
+        for (TypeElement resourceInterface : resourceInterfaces) {
+            String interfaceName = resourceInterface.getQualifiedName().toString();
+            if (generated.containsKey(interfaceName) || !canImplement(resourceInterface, hyperResource)) {
+                continue;
+            }
+
+            if (registryWritten) {
+                messager.printMessage(Diagnostic.Kind.WARNING, "Resource interface found after the registry was written, a dynamic proxy is used", resourceInterface);
+                continue;
+            }
+
+            try {
+                generated.put(interfaceName, generateImplementation(resourceInterface, hyperResource));
+                String snapshotName = generateSnapshot(resourceInterface);
+                if (snapshotName != null) {
+                    generatedSnapshots.put(interfaceName, snapshotName);
+                }
+                generatedThisRound++;
+            } catch (IOException e) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Could not write implementation: " + e.getMessage(), resourceInterface);
+            }
+        }
+
+        //write the registry once a round adds nothing so it is compiled like any other source
+        if (generatedThisRound == 0 && !registryWritten) {
+            writeRegistry();
+        }
+
+        return false;
+    }
+
+    private boolean canImplement(TypeElement resourceInterface, TypeElement hyperResource) {
+        if (!types.isAssignable(types.erasure(resourceInterface.asType()), hyperResource.asType())) {
+            return false;
+        }
+
+        if (!resourceInterface.getTypeParameters().isEmpty()) {
+            messager.printMessage(Diagnostic.Kind.NOTE, "Generic resource interfaces are not generated, a dynamic proxy is used", resourceInterface);
+            return false;
+        }
+
+        for (Element element = resourceInterface; element.getKind() != ElementKind.PACKAGE; element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                messager.printMessage(Diagnostic.Kind.NOTE, "Private resource interfaces are not generated, a dynamic proxy is used", resourceInterface);
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private String generateImplementation(TypeElement resourceInterface, TypeElement hyperResource) throws IOException {
+        PackageElement packageElement = elements.getPackageOf(resourceInterface);
+        String packageName = packageElement.getQualifiedName().toString();
+        String simpleName = flatName(resourceInterface) + IMPLEMENTATION_SUFFIX;
+        String qualifiedName = packageName.length() == 0 ? simpleName : packageName + "." + simpleName;
+        String interfaceName = resourceInterface.getQualifiedName().toString();
+
+        Writer writer = filer.createSourceFile(qualifiedName, resourceInterface).openWriter();
+        PrintWriter out = new PrintWriter(writer);
+        try {
+            if (packageName.length() > 0) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+
+            out.println("/**");
+            out.println(" * Implementation of {@link " + interfaceName + "} generated by " + getClass().getName());
+            out.println(" */");
+            out.println("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+            out.println("public final class " + simpleName + " implements " + interfaceName + ", org.hyperfit.proxy.GeneratedResourceProxy {");
+            out.println();
+            out.println("    public static final org.hyperfit.proxy.GeneratedResourceFactory FACTORY = new org.hyperfit.proxy.GeneratedResourceFactory() {");
+            out.println("        public Object newInstance(org.hyperfit.HyperResourceInvokeHandler handler) {");
+            out.println("            return new " + simpleName + "(handler);");
+            out.println("        }");
+            out.println("    };");
+            out.println();
+            out.println("    private final org.hyperfit.HyperResourceInvokeHandler handler;");
+            out.println("    private final org.hyperfit.resource.HyperResource resource;");
+            out.println();
+            out.println("    public " + simpleName + "(org.hyperfit.HyperResourceInvokeHandler handler) {");
+            out.println("        this.handler = handler;");
+            out.println("        this.resource = handler.getHyperResource();");
+            out.println("    }");
+            out.println();
+            out.println("    public org.hyperfit.HyperResourceInvokeHandler getHyperResourceInvokeHandler() {");
+            out.println("        return handler;");
+            out.println("    }");
+
+            List<String> holders = new ArrayList<String>();
+            DeclaredType interfaceType = (DeclaredType) resourceInterface.asType();
+            for (ExecutableElement method : abstractMethods(resourceInterface)) {
+                ExecutableType methodType = (ExecutableType) types.asMemberOf(interfaceType, method);
+
+                out.println();
+                out.println("    public " + typeParameters(method) + methodType.getReturnType() + " " + method.getSimpleName() + "(" + parameters(method, methodType) + ") {");
+
+                String passThrough = passThroughCall(method, hyperResource);
+                String data = dataCall(method);
+                Boolean memoize = memoizeValue(method);
+                if (passThrough != null) {
+                    out.println("        " + (methodType.getReturnType().getKind() == TypeKind.VOID ? "" : "return ") + passThrough + ";");
+                } else if (data != null && Boolean.FALSE.equals(memoize)) {
+                    out.println("        " + returnStatement(methodType.getReturnType(), data));
+                } else {
+                    String holder = "Method" + holders.size();
+                    holders.add(
+                        "    private static final class " + holder + " {\n" +
+                        "        static final java.lang.reflect.Method METHOD = org.hyperfit.proxy.GeneratedResources.findMethod(" + interfaceName + ".class, \"" + method.getSimpleName() + "\"" + parameterClasses(method) + ");\n" +
+                        "    }\n"
+                    );
+                    //memoized @Data methods go through the invoker which keeps their results
+                    if (data != null && memoize == null) {
+                        out.println("        if (!handler.isMemoizing()) {");
+                        out.println("            " + returnStatement(methodType.getReturnType(), data));
+                        out.println("        }");
+                    }
+                    out.println("        " + returnStatement(methodType.getReturnType(), invokeCall(holder, method)));
+                }
+                out.println("    }");
+            }
+
+            out.println();
+            out.println("    public boolean equals(Object other) {");
+            out.println("        return (Boolean) handler.invoke(this, EqualsMethod.METHOD, handler.resolveInvoker(EqualsMethod.METHOD), new Object[]{other});");
+            out.println("    }");
+            out.println();
+            out.println("    public int hashCode() {");
+            out.println("        return resource.hashCode();");
+            out.println("    }");
+            out.println();
+            out.println("    public String toString() {");
+            out.println("        return resource.toString();");
+            out.println("    }");
+            out.println();
+            out.println("    private static final class EqualsMethod {");
+            out.println("        static final java.lang.reflect.Method METHOD = org.hyperfit.proxy.GeneratedResources.findMethod(Object.class, \"equals\", Object.class);");
+            out.println("    }");
+
+            for (String holder : holders) {
+                out.println();
+                out.print(holder);
+            }
+
+            out.println();
+            out.println("}");
+        } finally {
+            out.close();
+        }
+
+        return qualifiedName;
+    }
+
+    /**
+     * Generates the snapshot implementation of the interface, which holds the results of its @Data methods without
+     * parameters in fields, ordered by method name as HyperfitProcessor#snapshot reads them.
+     * Arrays are copied on return, collections are already unmodifiable copies when HyperfitProcessor#snapshot
+     * hands them over.
+     *
+     * @return the name of the snapshot implementation, null when one of those methods is generic so the snapshot
+     * is left to a dynamic proxy
+     */
+    private String generateSnapshot(TypeElement resourceInterface) throws IOException {
+        DeclaredType interfaceType = (DeclaredType) resourceInterface.asType();
+        List<ExecutableElement> methods = abstractMethods(resourceInterface);
+
+        List<ExecutableElement> dataMethods = new ArrayList<ExecutableElement>();
+        for (ExecutableElement method : methods) {
+            if (method.getParameters().isEmpty() && hasAnnotation(method, DATA)) {
+                if (!method.getTypeParameters().isEmpty()) {
+                    return null;
+                }
+                dataMethods.add(method);
+            }
+        }
+        Collections.sort(dataMethods, new Comparator<ExecutableElement>() {
+            public int compare(ExecutableElement a, ExecutableElement b) {
+                return a.getSimpleName().toString().compareTo(b.getSimpleName().toString());
+            }
+        });
+
+        PackageElement packageElement = elements.getPackageOf(resourceInterface);
+        String packageName = packageElement.getQualifiedName().toString();
+        String simpleName = flatName(resourceInterface) + SNAPSHOT_SUFFIX;
+        String qualifiedName = packageName.length() == 0 ? simpleName : packageName + "." + simpleName;
+        String interfaceName = resourceInterface.getQualifiedName().toString();
+
+        PrintWriter out = new PrintWriter(filer.createSourceFile(qualifiedName, resourceInterface).openWriter());
+        try {
+            if (packageName.length() > 0) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+
+            out.println("/**");
+            out.println(" * Snapshot implementation of {@link " + interfaceName + "} generated by " + getClass().getName());
+            out.println(" */");
+            out.println("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+            out.println("public final class " + simpleName + " extends org.hyperfit.proxy.GeneratedSnapshot implements " + interfaceName + " {");
+            out.println();
+            out.println("    public static final org.hyperfit.proxy.GeneratedSnapshotFactory FACTORY = new org.hyperfit.proxy.GeneratedSnapshotFactory() {");
+            out.println("        public Object newInstance(Object[] values) {");
+            out.println("            return new " + simpleName + "(values);");
+            out.println("        }");
+            out.println("    };");
+            out.println();
+
+            StringBuilder values = new StringBuilder();
+            for (ExecutableElement method : dataMethods) {
+                TypeMirror returnType = ((ExecutableType) types.asMemberOf(interfaceType, method)).getReturnType();
+                out.println("    private final " + returnType + " " + method.getSimpleName() + ";");
+                values.append(values.length() == 0 ? "" : ", ").append(method.getSimpleName());
+            }
+
+            out.println();
+            out.println("    public " + simpleName + "(Object[] values) {");
+            for (int i = 0; i < dataMethods.size(); i++) {
+                ExecutableElement method = dataMethods.get(i);
+                TypeMirror returnType = ((ExecutableType) types.asMemberOf(interfaceType, method)).getReturnType();
+                out.println("        this." + method.getSimpleName() + " = (" + boxedName(returnType) + ") values[" + i + "];");
+            }
+            out.println("    }");
+
+            for (ExecutableElement method : methods) {
+                ExecutableType methodType = (ExecutableType) types.asMemberOf(interfaceType, method);
+
+                out.println();
+                out.println("    public " + typeParameters(method) + methodType.getReturnType() + " " + method.getSimpleName() + "(" + parameters(method, methodType) + ") {");
+                if (dataMethods.contains(method) && methodType.getReturnType().getKind() == TypeKind.ARRAY) {
+                    //the array is copied so callers can't change the snapshot
+                    out.println("        return " + method.getSimpleName() + " == null ? null : " + method.getSimpleName() + ".clone();");
+                } else if (dataMethods.contains(method)) {
+                    out.println("        return " + method.getSimpleName() + ";");
+                } else {
+                    out.println("        throw unsupported(\"" + method.getSimpleName() + "\");");
+                }
+                out.println("    }");
+            }
+
+            out.println();
+            out.println("    protected Object[] snapshotValues() {");
+            out.println("        return new Object[]{" + values + "};");
+            out.println("    }");
+            out.println();
+            out.println("}");
+        } finally {
+            out.close();
+        }
+
+        return qualifiedName;
+    }
+
+    private void writeRegistry() {
+        if (generated.isEmpty()) {
+            return;
+        }
+        registryWritten = true;
+
+        String registryName = processingEnv.getOptions().get(REGISTRY_OPTION);
+        if (registryName == null || registryName.length() == 0) {
+            String firstInterface = generated.keySet().iterator().next();
+            String packageName = elements.getPackageOf(elements.getTypeElement(firstInterface)).getQualifiedName().toString();
+            registryName = packageName.length() == 0 ? DEFAULT_REGISTRY_NAME : packageName + "." + DEFAULT_REGISTRY_NAME;
+        }
+
+        int lastDot = registryName.lastIndexOf('.');
+        String packageName = lastDot < 0 ? "" : registryName.substring(0, lastDot);
+        String simpleName = registryName.substring(lastDot + 1);
+
+        try {
+            PrintWriter out = new PrintWriter(filer.createSourceFile(registryName).openWriter());
+            try {
+                if (packageName.length() > 0) {
+                    out.println("package " + packageName + ";");
+                    out.println();
+                }
+
+                out.println("/**");
+                out.println(" * Registry of the resource interface implementations generated by " + getClass().getName());
+                out.println(" */");
+                out.println("public final class " + simpleName + " implements org.hyperfit.proxy.GeneratedResourceRegistry, org.hyperfit.proxy.GeneratedSnapshotRegistry {");
+                out.println();
+                out.println("    public org.hyperfit.proxy.GeneratedResourceFactory getFactory(Class<?> resourceInterface) {");
+                for (Map.Entry<String, String> entry : generated.entrySet()) {
+                    out.println("        if (resourceInterface == " + entry.getKey() + ".class) {");
+                    out.println("            return " + entry.getValue() + ".FACTORY;");
+                    out.println("        }");
+                }
+                out.println("        return null;");
+                out.println("    }");
+                out.println();
+                out.println("    public org.hyperfit.proxy.GeneratedSnapshotFactory getSnapshotFactory(Class<?> resourceInterface) {");
+                for (Map.Entry<String, String> entry : generatedSnapshots.entrySet()) {
+                    out.println("        if (resourceInterface == " + entry.getKey() + ".class) {");
+                    out.println("            return " + entry.getValue() + ".FACTORY;");
+                    out.println("        }");
+                }
+                out.println("        return null;");
+                out.println("    }");
+                out.println();
+                out.println("}");
+            } finally {
+                out.close();
+            }
+
+            for (String service : new String[]{REGISTRY_SERVICE, SNAPSHOT_REGISTRY_SERVICE}) {
+                FileObject services = filer.createResource(StandardLocation.CLASS_OUTPUT, "", service);
+                PrintWriter servicesOut = new PrintWriter(services.openWriter());
+                try {
+                    servicesOut.println(registryName);
+                } finally {
+                    servicesOut.close();
+                }
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Could not write resource registry " + registryName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the abstract methods of the interface and the interfaces it extends, one per signature,
+     * leaving out the Object methods which are always generated
+     */
+    private List<ExecutableElement> abstractMethods(TypeElement resourceInterface) {
+        Map<String, ExecutableElement> methods = new LinkedHashMap<String, ExecutableElement>();
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(resourceInterface))) {
+            Set<Modifier> modifiers = method.getModifiers();
+            if (!modifiers.contains(Modifier.ABSTRACT) || modifiers.contains(Modifier.STATIC)) {
+                continue;
+            }
+
+            String signature = method.getSimpleName() + parameterClasses(method);
+            if (isObjectMethod(signature) || methods.containsKey(signature)) {
+                continue;
+            }
+            methods.put(signature, method);
+        }
+        return new ArrayList<ExecutableElement>(methods.values());
+    }
+
+    private static boolean isObjectMethod(String signature) {
+        return signature.equals("equals, java.lang.Object.class") || signature.equals("hashCode") || signature.equals("toString");
+    }
+
+    /**
+     * @return a direct call of the HyperResource method the given method matches, null if it doesn't match one.
+     * getLink, tryGetLink and getLinks are left to the invoker, which wraps the links.
+     */
+    private String passThroughCall(ExecutableElement method, TypeElement hyperResource) {
+        String name = method.getSimpleName().toString();
+        if (name.equals("getLink") || name.equals("tryGetLink") || name.equals("getLinks")) {
+            return null;
+        }
+
+        for (ExecutableElement resourceMethod : ElementFilter.methodsIn(hyperResource.getEnclosedElements())) {
+            if (resourceMethod.getSimpleName().toString().equals(name)
+                && parameterClasses(resourceMethod).equals(parameterClasses(method))
+                && types.isSameType(types.erasure(resourceMethod.getReturnType()), types.erasure(method.getReturnType()))) {
+                return "resource." + name + "(" + arguments(method) + ")";
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the getPathAs call for an @Data method, null if the method isn't one or returns an Optional which is
+     * left to the invoker
+     */
+    private String dataCall(ExecutableElement method) {
+        String[] path = null;
+        boolean nullWhenMissing = false;
+        for (javax.lang.model.element.AnnotationMirror annotation : method.getAnnotationMirrors()) {
+            String annotationName = ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+            if (annotationName.equals(DATA)) {
+                path = stringArrayValue(annotation);
+            } else if (annotationName.equals(NULL_WHEN_MISSING)) {
+                nullWhenMissing = true;
+            }
+        }
+
+        if (path == null || types.erasure(method.getReturnType()).toString().equals(OPTIONAL)) {
+            return null;
+        }
+
+        StringBuilder call = new StringBuilder(nullWhenMissing ? "resource.tryGetPathAs(" : "resource.getPathAs(")
+            .append(classLiteral(method.getReturnType()));
+        if (!nullWhenMissing) {
+            call.append(", false");
+        }
+        for (String segment : path) {
+            call.append(", ").append(stringLiteral(segment));
+        }
+        return call.append(")").toString();
+    }
+
+    /**
+     * @return the value of the method's @Memoize annotation, null if it doesn't have one
+     */
+    private Boolean memoizeValue(ExecutableElement method) {
+        for (javax.lang.model.element.AnnotationMirror annotation : method.getAnnotationMirrors()) {
+            if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(MEMOIZE)) {
+                for (Map.Entry<? extends ExecutableElement, ? extends javax.lang.model.element.AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+                    if (entry.getKey().getSimpleName().contentEquals("value")) {
+                        return (Boolean) entry.getValue().getValue();
+                    }
+                }
+                return Boolean.TRUE;
+            }
+        }
+        return null;
+    }
+
+    private String[] stringArrayValue(javax.lang.model.element.AnnotationMirror annotation) {
+        for (Map.Entry<? extends ExecutableElement, ? extends javax.lang.model.element.AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) {
+                Object value = entry.getValue().getValue();
+                if (value instanceof List) {
+                    List<?> values = (List<?>) value;
+                    String[] result = new String[values.size()];
+                    for (int i = 0; i < result.length; i++) {
+                        result[i] = (String) ((javax.lang.model.element.AnnotationValue) values.get(i)).getValue();
+                    }
+                    return result;
+                }
+                return new String[]{(String) value};
+            }
+        }
+        return new String[0];
+    }
+
+    private String invokeCall(String holder, ExecutableElement method) {
+        String args = method.getParameters().isEmpty() ? "null" : "new Object[]{" + arguments(method) + "}";
+        //resolved through the handler so the processor's method info cache is used
+        return "handler.invoke(this, " + holder + ".METHOD, handler.resolveInvoker(" + holder + ".METHOD), " + args + ")";
+    }
+
+    private String returnStatement(TypeMirror returnType, String call) {
+        if (returnType.getKind() == TypeKind.VOID) {
+            return call + ";";
+        }
+
+        return "return (" + boxedName(returnType) + ") " + call + ";";
+    }
+
+    /**
+     * @return the name of the type, or of its box for primitives, to cast an Object to
+     */
+    private String boxedName(TypeMirror type) {
+        return type.getKind().isPrimitive()
+            ? types.boxedClass(types.getPrimitiveType(type.getKind())).getQualifiedName().toString()
+            : type.toString();
+    }
+
+    private static boolean hasAnnotation(ExecutableElement method, String annotationName) {
+        for (javax.lang.model.element.AnnotationMirror annotation : method.getAnnotationMirrors()) {
+            if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String typeParameters(ExecutableElement method) {
+        List<? extends TypeParameterElement> typeParameters = method.getTypeParameters();
+        if (typeParameters.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder result = new StringBuilder("<");
+        for (int i = 0; i < typeParameters.size(); i++) {
+            TypeParameterElement typeParameter = typeParameters.get(i);
+            if (i > 0) {
+                result.append(", ");
+            }
+            result.append(typeParameter.getSimpleName());
+
+            List<? extends TypeMirror> bounds = typeParameter.getBounds();
+            for (int j = 0; j < bounds.size(); j++) {
+                if (j == 0 && bounds.size() == 1 && bounds.get(0).toString().equals("java.lang.Object")) {
+                    break;
+                }
+                result.append(j == 0 ? " extends " : " & ").append(bounds.get(j));
+            }
+        }
+        return result.append("> ").toString();
+    }
+
+    private String parameters(ExecutableElement method, ExecutableType methodType) {
+        List<? extends TypeMirror> parameterTypes = methodType.getParameterTypes();
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            if (i > 0) {
+                result.append(", ");
+            }
+
+            String type = parameterTypes.get(i).toString();
+            if (method.isVarArgs() && i == parameterTypes.size() - 1 && type.endsWith("[]")) {
+                type = type.substring(0, type.length() - 2) + "...";
+            }
+            result.append(type).append(" a").append(i);
+        }
+        return result.toString();
+    }
+
+    private static String arguments(ExecutableElement method) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < method.getParameters().size(); i++) {
+            if (i > 0) {
+                result.append(", ");
+            }
+            result.append("a").append(i);
+        }
+        return result.toString();
+    }
+
+    /**
+     * @return the erased parameter class literals of the method, each preceded by a comma
+     */
+    private String parameterClasses(ExecutableElement method) {
+        StringBuilder result = new StringBuilder();
+        for (VariableElement parameter : method.getParameters()) {
+            result.append(", ").append(classLiteral(parameter.asType()));
+        }
+        return result.toString();
+    }
+
+    private String classLiteral(TypeMirror type) {
+        return types.erasure(type) + ".class";
+    }
+
+    private static String flatName(TypeElement type) {
+        StringBuilder result = new StringBuilder(type.getSimpleName());
+        Element enclosing = type.getEnclosingElement();
+        while (type.getNestingKind() == NestingKind.MEMBER && enclosing instanceof TypeElement) {
+            type = (TypeElement) enclosing;
+            result.insert(0, type.getSimpleName() + "_");
+            enclosing = type.getEnclosingElement();
+        }
+        return result.toString();
+    }
+
+    private static String stringLiteral(String value) {
+        StringBuilder result = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    result.append("\\\"");
+                    break;
+                case '\\':
+                    result.append("\\\\");
+                    break;
+                case '\n':
+                    result.append("\\n");
+                    break;
+                case '\r':
+                    result.append("\\r");
+                    break;
+                case '\t':
+                    result.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        result.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        result.append(c);
+                    }
+            }
+        }
+        return result.append("\"").toString();
+    }
+
+}
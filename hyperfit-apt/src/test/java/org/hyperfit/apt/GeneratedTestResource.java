@@ -0,0 +1,47 @@
+package org.hyperfit.apt;
+
+import org.hyperfit.annotation.Data;
+import org.hyperfit.annotation.Link;
+import org.hyperfit.annotation.Memoize;
+import org.hyperfit.annotation.NullWhenMissing;
+import org.hyperfit.annotation.Param;
+import org.hyperfit.resource.HyperResource;
+
+import java.util.List;
+
+public interface GeneratedTestResource extends HyperResource {
+
+    @Data("name")
+    String getName();
+
+    @Data({"stats", "count"})
+    int getCount();
+
+    @NullWhenMissing
+    @Data("aliases")
+    String[] getAliases();
+
+    @NullWhenMissing
+    @Data("tags")
+    List<String> getTags();
+
+    @Memoize
+    @Data("title")
+    String getTitle();
+
+    @Memoize(false)
+    @Data("subtitle")
+    String getSubtitle();
+
+    @Link("bb:next")
+    boolean hasNext();
+
+    @Link("bb:next")
+    GeneratedTestResource next(@Param("page") Integer page);
+
+    interface Nested extends HyperResource {
+        @Data("value")
+        String getValue();
+    }
+
+}
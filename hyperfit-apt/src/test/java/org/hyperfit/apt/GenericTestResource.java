@@ -0,0 +1,11 @@
+package org.hyperfit.apt;
+
+import org.hyperfit.annotation.Data;
+import org.hyperfit.resource.HyperResource;
+
+public interface GenericTestResource<T> extends HyperResource {
+
+    @Data("value")
+    T getValue();
+
+}
@@ -0,0 +1,228 @@
+package org.hyperfit.apt;
+
+import org.hyperfit.HyperfitProcessor;
+import org.hyperfit.methodinfo.ConcurrentHashMapMethodInfoCache;
+import org.hyperfit.methodinfo.ConcurrentHashMapResourceMethodInfoCache;
+import org.hyperfit.methodinfo.MethodInfoCache;
+import org.hyperfit.methodinfo.ResourceMethodInfoCache;
+import org.hyperfit.net.HyperClient;
+import org.hyperfit.proxy.GeneratedResourceProxy;
+import org.hyperfit.resource.HyperResource;
+import org.hyperfit.resource.controls.link.HyperLink;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * The test sources are compiled with the processor so these check the implementations it generated for them
+ */
+public class ResourceInterfaceProcessorTest {
+
+    @Mock
+    HyperResource mockHyperResource;
+
+    @Mock
+    HyperResource otherMockHyperResource;
+
+    @Mock
+    HyperClient mockHyperClient;
+
+    HyperfitProcessor processor;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(mockHyperClient.getSchemes()).thenReturn(new String[]{"http", "https"});
+
+        processor = HyperfitProcessor.builder()
+            .hyperClient(mockHyperClient)
+            .build();
+    }
+
+    @Test
+    public void testGeneratedImplementationIsUsed() {
+        GeneratedTestResource result = processor.processResource(GeneratedTestResource.class, mockHyperResource, null);
+
+        assertThat(result, instanceOf(GeneratedTestResource_HyperfitResource.class));
+        assertThat(result, instanceOf(GeneratedResourceProxy.class));
+        assertFalse(Proxy.isProxyClass(result.getClass()));
+    }
+
+    @Test
+    public void testNestedInterfaceIsGenerated() {
+        when(mockHyperResource.getPathAs(String.class, false, "value")).thenReturn("nested");
+
+        GeneratedTestResource.Nested result = processor.processResource(GeneratedTestResource.Nested.class, mockHyperResource, null);
+
+        assertThat(result, instanceOf(GeneratedTestResource_Nested_HyperfitResource.class));
+        assertEquals("nested", result.getValue());
+    }
+
+    @Test
+    public void testGenericInterfaceUsesProxy() {
+        GenericTestResource result = processor.processResource(GenericTestResource.class, mockHyperResource, null);
+
+        assertTrue(Proxy.isProxyClass(result.getClass()));
+    }
+
+    @Test
+    public void testDataMethods() {
+        when(mockHyperResource.getPathAs(String.class, false, "name")).thenReturn("bob");
+        when(mockHyperResource.getPathAs(int.class, false, "stats", "count")).thenReturn(3);
+        when(mockHyperResource.tryGetPathAs(java.util.List.class, "tags")).thenReturn(Arrays.asList("a", "b"));
+
+        GeneratedTestResource result = processor.processResource(GeneratedTestResource.class, mockHyperResource, null);
+
+        assertEquals("bob", result.getName());
+        assertEquals(3, result.getCount());
+        assertEquals(Arrays.asList("a", "b"), result.getTags());
+    }
+
+    @Test
+    public void testMemoizedDataMethods() {
+        when(mockHyperResource.getPathAs(String.class, false, "name")).thenReturn("bob");
+        when(mockHyperResource.getPathAs(String.class, false, "title")).thenReturn("boss");
+        when(mockHyperResource.getPathAs(String.class, false, "subtitle")).thenReturn("big");
+
+        GeneratedTestResource result = processor.processResource(GeneratedTestResource.class, mockHyperResource, null);
+
+        assertEquals("boss", result.getTitle());
+        assertEquals("boss", result.getTitle());
+        verify(mockHyperResource, times(1)).getPathAs(String.class, false, "title");
+
+        result.getName();
+        result.getName();
+        verify(mockHyperResource, times(2)).getPathAs(String.class, false, "name");
+
+        GeneratedTestResource memoizing = HyperfitProcessor.builder()
+            .hyperClient(mockHyperClient)
+            .memoize(true)
+            .build()
+            .processResource(GeneratedTestResource.class, mockHyperResource, null);
+
+        assertEquals("bob", memoizing.getName());
+        assertEquals("bob", memoizing.getName());
+        verify(mockHyperResource, times(3)).getPathAs(String.class, false, "name");
+
+        memoizing.getSubtitle();
+        memoizing.getSubtitle();
+        verify(mockHyperResource, times(2)).getPathAs(String.class, false, "subtitle");
+    }
+
+    @Test
+    public void testPassThroughMethods() {
+        when(mockHyperResource.hasLink("bb:other")).thenReturn(true);
+        when(mockHyperResource.getPathAs(String.class, "some", "path")).thenReturn("value");
+        when(mockHyperResource.toString()).thenReturn("the resource");
+
+        GeneratedTestResource result = processor.processResource(GeneratedTestResource.class, mockHyperResource, null);
+
+        assertTrue(result.hasLink("bb:other"));
+        assertEquals("value", result.getPathAs(String.class, "some", "path"));
+        assertEquals("the resource", result.toString());
+        assertEquals(mockHyperResource.hashCode(), result.hashCode());
+    }
+
+    @Test
+    public void testLinkMethods() {
+        HyperLink mockHyperLink = mock(HyperLink.class);
+        when(mockHyperResource.hasLink("bb:next")).thenReturn(true);
+        when(mockHyperResource.getLink("bb:next")).thenReturn(mockHyperLink);
+        when(mockHyperLink.getRel()).thenReturn("bb:next");
+
+        GeneratedTestResource result = processor.processResource(GeneratedTestResource.class, mockHyperResource, null);
+
+        assertTrue(result.hasNext());
+        assertEquals("bb:next", result.getLink("bb:next").getRel());
+    }
+
+    @Test
+    public void testInvokersResolvedThroughProcessorMethodInfoCache() throws Exception {
+        final MethodInfoCache methodInfoCache = spy(new ConcurrentHashMapMethodInfoCache());
+        ResourceMethodInfoCache resourceMethodInfoCache = new ConcurrentHashMapResourceMethodInfoCache() {
+            @Override
+            public MethodInfoCache get(Class<?> clazz) {
+                return methodInfoCache;
+            }
+        };
+        when(mockHyperResource.hasLink("bb:next")).thenReturn(true);
+
+        GeneratedTestResource result = HyperfitProcessor.builder()
+            .hyperClient(mockHyperClient)
+            .resourceMethodInfoCache(resourceMethodInfoCache)
+            .build()
+            .processResource(GeneratedTestResource.class, mockHyperResource, null);
+
+        reset(methodInfoCache);
+        assertTrue(result.hasNext());
+        verify(methodInfoCache).get(GeneratedTestResource.class.getMethod("hasNext"));
+    }
+
+    @Test
+    public void testEquals() {
+        GeneratedTestResource result = processor.processResource(GeneratedTestResource.class, mockHyperResource, null);
+        GeneratedTestResource same = processor.processResource(GeneratedTestResource.class, mockHyperResource, null);
+        GeneratedTestResource other = processor.processResource(GeneratedTestResource.class, otherMockHyperResource, null);
+
+        assertEquals(result, same);
+        assertNotEquals(result, other);
+        assertNotEquals(result, "not a resource");
+    }
+
+    @Test
+    public void testGeneratedSnapshot() {
+        when(mockHyperResource.getPathAs(String.class, false, "name")).thenReturn("bob");
+        when(mockHyperResource.getPathAs(int.class, false, "stats", "count")).thenReturn(3);
+        when(mockHyperResource.tryGetPathAs(java.util.List.class, "tags")).thenReturn(new java.util.ArrayList<String>(Arrays.asList("a", "b")));
+        when(mockHyperResource.getPathAs(String.class, false, "title")).thenReturn("boss");
+        when(mockHyperResource.tryGetPathAs(String[].class, "aliases")).thenReturn(new String[]{"bobby"});
+
+        GeneratedTestResource result = processor.processResource(GeneratedTestResource.class, mockHyperResource, null);
+        GeneratedTestResource snapshot = processor.snapshot(GeneratedTestResource.class, result);
+
+        assertThat(snapshot, instanceOf(GeneratedTestResource_HyperfitSnapshot.class));
+        verify(mockHyperResource, times(1)).getPathAs(String.class, false, "name");
+
+        assertEquals("bob", snapshot.getName());
+        assertEquals(3, snapshot.getCount());
+        assertEquals(Arrays.asList("a", "b"), snapshot.getTags());
+        assertEquals("boss", snapshot.getTitle());
+        assertNull(snapshot.getSubtitle());
+        verify(mockHyperResource, times(1)).getPathAs(String.class, false, "name");
+
+        snapshot.getAliases()[0] = "rob";
+        assertArrayEquals(new String[]{"bobby"}, snapshot.getAliases());
+        try {
+            snapshot.getTags().add("c");
+            fail("collections are unmodifiable");
+        } catch (UnsupportedOperationException e) {
+            assertEquals(Arrays.asList("a", "b"), snapshot.getTags());
+        }
+
+        assertEquals(snapshot, processor.snapshot(GeneratedTestResource.class, result));
+        assertEquals(snapshot.hashCode(), processor.snapshot(GeneratedTestResource.class, result).hashCode());
+
+        try {
+            snapshot.hasNext();
+            fail("link methods need the resource");
+        } catch (UnsupportedOperationException e) {
+            assertThat(e.getMessage(), containsString("hasNext"));
+        }
+    }
+
+    @Test
+    public void testGenericInterfaceSnapshotUsesProxy() {
+        GenericTestResource result = processor.processResource(GenericTestResource.class, mockHyperResource, null);
+
+        assertTrue(Proxy.isProxyClass(processor.snapshot(GenericTestResource.class, result).getClass()));
+    }
+
+}
@@ -0,0 +1,395 @@
+package org.hyperfit.proxy.bytebuddy;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.modifier.FieldManifestation;
+import net.bytebuddy.description.modifier.Ownership;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.dynamic.loading.MultipleParentClassLoader;
+import net.bytebuddy.dynamic.scaffold.subclass.ConstructorStrategy;
+import net.bytebuddy.implementation.FieldAccessor;
+import net.bytebuddy.implementation.LoadedTypeInitializer;
+import net.bytebuddy.implementation.MethodCall;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
+import net.bytebuddy.matcher.ElementMatcher;
+import org.hyperfit.HyperResourceInvokeHandler;
+import org.hyperfit.MethodInvoker;
+import org.hyperfit.annotation.Memoize;
+import org.hyperfit.exception.HyperfitException;
+import org.hyperfit.methodinfo.MethodInfo;
+import org.hyperfit.methodinfo.MethodInfoCache;
+import org.hyperfit.proxy.GeneratedResourceProxy;
+import org.hyperfit.proxy.JdkResourceProxyFactory;
+import org.hyperfit.proxy.ResourceProxyFactory;
+import org.hyperfit.resource.HyperResource;
+import org.hyperfit.utils.WeakClassCache;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.bytebuddy.matcher.ElementMatchers.*;
+
+/**
+ * Implements resource interfaces with classes generated by Byte Buddy instead of {@link java.lang.reflect.Proxy}.
+ *
+ * A class is generated once per class loader, set of interfaces and whether the processor memoizes, and reused for
+ * every resource implementing that set.  Methods that have the same signature as a {@link HyperResource} method and
+ * @Data methods that aren't memoized call the wrapped resource directly, default methods run as is, so none go
+ * through reflection.  All other methods are handed to the handler with their invoker, which is resolved once through
+ * the method info cache of the processor the class is generated for.
+ *
+ * Interfaces that aren't public can't be implemented from another class loader, those are handed to
+ * a {@link JdkResourceProxyFactory}.  Generated classes are cached per first interface in a {@link WeakClassCache},
+ * so they don't keep the interfaces' class loaders from being unloaded.
+ */
+public class ByteBuddyResourceProxyFactory implements ResourceProxyFactory {
+
+    private static final String HANDLER_FIELD = "handler";
+    private static final String RESOURCE_FIELD = "resource";
+    private static final String METHOD_FIELD = "method$";
+    private static final String INVOKER_FIELD = "invoker$";
+    private static final String PATH_FIELD = "path$";
+
+    private static final Method HANDLER_INVOKE;
+    private static final Method GET_PATH_AS;
+    private static final Method TRY_GET_PATH_AS;
+    private static final Method OBJECT_EQUALS;
+    private static final Method OBJECT_HASH_CODE;
+    private static final Method OBJECT_TO_STRING;
+
+    static {
+        try {
+            HANDLER_INVOKE = HyperResourceInvokeHandler.class.getMethod("invoke", Object.class, Method.class, MethodInvoker.class, Object[].class);
+            GET_PATH_AS = HyperResource.class.getMethod("getPathAs", Class.class, boolean.class, String[].class);
+            TRY_GET_PATH_AS = HyperResource.class.getMethod("tryGetPathAs", Class.class, String[].class);
+            OBJECT_EQUALS = Object.class.getMethod("equals", Object.class);
+            OBJECT_HASH_CODE = Object.class.getMethod("hashCode");
+            OBJECT_TO_STRING = Object.class.getMethod("toString");
+        } catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final ResourceProxyFactory fallbackFactory = new JdkResourceProxyFactory();
+    private final WeakClassCache<ProxyConstructors> constructorCache = new WeakClassCache<ProxyConstructors>() {
+        @Override
+        protected ProxyConstructors compute(Class<?> clazz) {
+            return new ProxyConstructors();
+        }
+    };
+    private final AtomicInteger classCounter = new AtomicInteger();
+    private final ByteBuddy byteBuddy = new ByteBuddy();
+
+    public Object newProxyInstance(
+        ClassLoader classLoader,
+        Class<?>[] interfaces,
+        HyperResourceInvokeHandler handler
+    ) {
+        for (Class<?> anInterface : interfaces) {
+            if (!Modifier.isPublic(anInterface.getModifiers())) {
+                return fallbackFactory.newProxyInstance(classLoader, interfaces, handler);
+            }
+        }
+
+        ProxyConstructors constructors = constructorCache.get(interfaces[0]);
+        boolean memoizing = handler.isMemoizing();
+        Constructor<?> constructor = constructors.get(classLoader, interfaces, memoizing);
+        if (constructor == null) {
+            constructor = constructors.add(classLoader, interfaces, handler.getMethodInfoCache(), memoizing, this);
+        }
+
+        try {
+            return constructor.newInstance(handler, handler.getHyperResource());
+        } catch (InstantiationException e) {
+            throw new HyperfitException("Could not create resource proxy for " + Arrays.toString(interfaces), e);
+        } catch (IllegalAccessException e) {
+            throw new HyperfitException("Could not create resource proxy for " + Arrays.toString(interfaces), e);
+        } catch (InvocationTargetException e) {
+            throw new HyperfitException("Could not create resource proxy for " + Arrays.toString(interfaces), e);
+        }
+    }
+
+    public void prepare(
+        ClassLoader classLoader,
+        Class<?>[] interfaces,
+        MethodInfoCache methodInfoCache,
+        boolean memoizing
+    ) {
+        for (Class<?> anInterface : interfaces) {
+            if (!Modifier.isPublic(anInterface.getModifiers())) {
+                fallbackFactory.prepare(classLoader, interfaces, methodInfoCache, memoizing);
+                return;
+            }
+        }
+
+        ProxyConstructors constructors = constructorCache.get(interfaces[0]);
+        if (constructors.get(classLoader, interfaces, memoizing) == null) {
+            constructors.add(classLoader, interfaces, methodInfoCache, memoizing, this);
+        }
+    }
+
+    /**
+     * Generates the class implementing the interfaces for resources of a processor
+     *
+     * @param classLoader the class loader the resource interfaces are wanted from
+     * @param interfaces the interfaces to implement
+     * @param methodInfoCache the processor's method info cache, invokers are resolved through it
+     * @param memoizing whether the processor's handlers memoize
+     * @return the class' constructor taking the handler and its hyper resource
+     */
+    protected Constructor<?> generate(ClassLoader classLoader, Class<?>[] interfaces, MethodInfoCache methodInfoCache, boolean memoizing) {
+        DynamicType.Builder<Object> builder = byteBuddy
+            .subclass(Object.class, ConstructorStrategy.Default.NO_CONSTRUCTORS)
+            .name(interfaces[0].getName() + "$HyperfitProxy$" + classCounter.incrementAndGet())
+            .implement(interfaces)
+            .implement(GeneratedResourceProxy.class)
+            .defineField(HANDLER_FIELD, HyperResourceInvokeHandler.class, Visibility.PRIVATE, FieldManifestation.FINAL)
+            .defineField(RESOURCE_FIELD, HyperResource.class, Visibility.PRIVATE, FieldManifestation.FINAL);
+
+        try {
+            builder = builder
+                .defineConstructor(Visibility.PUBLIC)
+                .withParameters(HyperResourceInvokeHandler.class, HyperResource.class)
+                .intercept(
+                    MethodCall.invoke(Object.class.getConstructor())
+                        .andThen(FieldAccessor.ofField(HANDLER_FIELD).setsArgumentAt(0))
+                        .andThen(FieldAccessor.ofField(RESOURCE_FIELD).setsArgumentAt(1))
+                );
+        } catch (NoSuchMethodException e) {
+            throw new HyperfitException("Could not find Object constructor", e);
+        }
+
+        int index = 0;
+        for (Method method : resolveMethods(interfaces).values()) {
+            if (!Modifier.isAbstract(method.getModifiers()) && !hasConflictingDefault(method, interfaces)) {
+                //a default method only one interface provides can just run
+                continue;
+            }
+
+            builder = implement(builder, named(method.getName()).and(takesArguments(method.getParameterTypes())), method, methodInfoCache, memoizing, index++);
+        }
+
+        builder = implement(builder, isEquals(), OBJECT_EQUALS, methodInfoCache, memoizing, index);
+
+        builder = builder
+            .method(named("getHyperResourceInvokeHandler").and(takesArguments(0)).and(isDeclaredBy(GeneratedResourceProxy.class)))
+            .intercept(FieldAccessor.ofField(HANDLER_FIELD))
+            .method(isHashCode())
+            .intercept(MethodCall.invoke(OBJECT_HASH_CODE).onField(RESOURCE_FIELD))
+            .method(isToString())
+            .intercept(MethodCall.invoke(OBJECT_TO_STRING).onField(RESOURCE_FIELD));
+
+        ClassLoader parent = new MultipleParentClassLoader.Builder()
+            .append(classLoader)
+            .append(interfaces)
+            .append(GeneratedResourceProxy.class, HyperResourceInvokeHandler.class)
+            .build();
+
+        Class<?> proxyClass = builder
+            .make()
+            .load(parent, ClassLoadingStrategy.Default.WRAPPER)
+            .getLoaded();
+
+        try {
+            return proxyClass.getConstructor(HyperResourceInvokeHandler.class, HyperResource.class);
+        } catch (NoSuchMethodException e) {
+            throw new HyperfitException("Generated resource proxy " + proxyClass + " has no constructor", e);
+        }
+    }
+
+    /**
+     * @return the first method found for each distinct signature across all the interfaces, which is also
+     * the method a {@link java.lang.reflect.Proxy} would pass to its handler
+     */
+    private static Map<String, Method> resolveMethods(Class<?>[] interfaces) {
+        Map<String, Method> methods = new LinkedHashMap<String, Method>();
+        for (Class<?> anInterface : interfaces) {
+            for (Method method : anInterface.getMethods()) {
+                if (Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+
+                String signature = method.getName() + Arrays.toString(method.getParameterTypes());
+                if (!methods.containsKey(signature)) {
+                    methods.put(signature, method);
+                }
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * Implements the method matched by the matcher, fields the implementation needs are suffixed with the index
+     */
+    private static DynamicType.Builder<Object> implement(
+        DynamicType.Builder<Object> builder,
+        ElementMatcher<? super MethodDescription> matcher,
+        Method method,
+        MethodInfoCache methodInfoCache,
+        boolean memoizing,
+        int index
+    ) {
+        boolean isAbstract = Modifier.isAbstract(method.getModifiers());
+        Method resourceMethod = isAbstract ? findPassThroughMethod(method) : null;
+        if (resourceMethod != null) {
+            return builder.method(matcher).intercept(MethodCall.invoke(resourceMethod).onField(RESOURCE_FIELD).withAllArguments());
+        }
+
+        MethodInfo methodInfo = methodInfoCache.get(method);
+        if (isAbstract && isDirectData(methodInfo, memoizing)) {
+            MethodCall getPath = methodInfo.isNullWhenMissing()
+                ? MethodCall.invoke(TRY_GET_PATH_AS).onField(RESOURCE_FIELD).with(methodInfo.getReturnType())
+                : MethodCall.invoke(GET_PATH_AS).onField(RESOURCE_FIELD).with(methodInfo.getReturnType(), false);
+
+            return staticField(builder, PATH_FIELD + index, String[].class, methodInfo.getDataAnnotation().value())
+                .method(matcher)
+                .intercept(getPath.withField(PATH_FIELD + index).withAssigner(Assigner.DEFAULT, Assigner.Typing.DYNAMIC));
+        }
+
+        MethodCall invoke = MethodCall.invoke(HANDLER_INVOKE)
+            .onField(HANDLER_FIELD)
+            .withThis()
+            .withField(METHOD_FIELD + index, INVOKER_FIELD + index);
+        //no arguments are passed as null, same as for a java.lang.reflect.Proxy
+        invoke = method.getParameterTypes().length == 0 ? invoke.with(new Object[]{null}) : invoke.withArgumentArray();
+
+        builder = staticField(builder, METHOD_FIELD + index, Method.class, method);
+        MethodInvoker invoker = memoizing ? methodInfo.getMemoizingInvoker() : methodInfo.getInvoker();
+        builder = staticField(builder, INVOKER_FIELD + index, MethodInvoker.class, invoker);
+        return builder
+            .method(matcher)
+            .intercept(invoke.withAssigner(Assigner.DEFAULT, Assigner.Typing.DYNAMIC));
+    }
+
+    /**
+     * @return true when the @Data method can call the resource itself as it's never memoized for the processor
+     */
+    private static boolean isDirectData(MethodInfo methodInfo, boolean memoizing) {
+        if (methodInfo.getDataAnnotation() == null || methodInfo.getMethodType() != null
+            || methodInfo.getOptionalHandler() != null || methodInfo.getFutureHandler() != null) {
+            return false;
+        }
+
+        //the generated class refers to the return type, which it can only do when it's public
+        for (Class<?> type = methodInfo.getReturnType(); type != null; type = type.getEnclosingClass()) {
+            if (!Modifier.isPublic(type.getModifiers())) {
+                return false;
+            }
+        }
+
+        Memoize memoize = methodInfo.getMemoizeAnnotation();
+        return memoize != null ? !memoize.value() : !memoizing;
+    }
+
+    /**
+     * Defines a static field set to the value once the class is loaded
+     */
+    private static DynamicType.Builder<Object> staticField(DynamicType.Builder<Object> builder, String name, Class<?> type, Object value) {
+        return builder
+            .defineField(name, type, Visibility.PRIVATE, Ownership.STATIC)
+            .initializer(new LoadedTypeInitializer.ForStaticField(name, value));
+    }
+
+    /**
+     * @return the HyperResource method that can be called directly in place of the given method, if any.
+     * getLink, tryGetLink and getLinks are left to the handler which wraps the links it returns.
+     */
+    private static Method findPassThroughMethod(Method method) {
+        String name = method.getName();
+        if (MethodInfo.MethodType.GET_LINK.is(name) || MethodInfo.MethodType.TRY_GET_LINK.is(name) || MethodInfo.MethodType.GET_LINKS.is(name)) {
+            return null;
+        }
+
+        try {
+            Method resourceMethod = HyperResource.class.getMethod(name, method.getParameterTypes());
+            return resourceMethod.getReturnType().equals(method.getReturnType()) ? resourceMethod : null;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static boolean hasConflictingDefault(Method method, Class<?>[] interfaces) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        for (Class<?> anInterface : interfaces) {
+            try {
+                Method other = anInterface.getMethod(method.getName(), method.getParameterTypes());
+                Class<?> otherDeclaringClass = other.getDeclaringClass();
+                if (!Modifier.isAbstract(other.getModifiers())
+                    && !otherDeclaringClass.isAssignableFrom(declaringClass)
+                    && !declaringClass.isAssignableFrom(otherDeclaringClass)) {
+                    return true;
+                }
+            } catch (NoSuchMethodException e) {
+                //not in this interface
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * The generated constructors of the interface lists starting with the same interface, usually only one
+     */
+    private static final class ProxyConstructors {
+        private volatile ProxyConstructor[] constructors = new ProxyConstructor[0];
+
+        Constructor<?> get(ClassLoader classLoader, Class<?>[] interfaces, boolean memoizing) {
+            for (ProxyConstructor constructor : constructors) {
+                if (constructor.classLoader == classLoader && constructor.memoizing == memoizing
+                    && Arrays.equals(constructor.interfaces, interfaces)) {
+                    return constructor.constructor;
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * Generates the class unless another thread just did, so each class loader, interface list and memoizing has
+         * one class
+         */
+        synchronized Constructor<?> add(
+            ClassLoader classLoader,
+            Class<?>[] interfaces,
+            MethodInfoCache methodInfoCache,
+            boolean memoizing,
+            ByteBuddyResourceProxyFactory factory
+        ) {
+            Constructor<?> constructor = get(classLoader, interfaces, memoizing);
+            if (constructor != null) {
+                return constructor;
+            }
+
+            constructor = factory.generate(classLoader, interfaces, methodInfoCache, memoizing);
+
+            ProxyConstructor[] added = Arrays.copyOf(constructors, constructors.length + 1);
+            //copy the interfaces so later changes to the caller's array can't change the entry
+            added[constructors.length] = new ProxyConstructor(classLoader, interfaces.clone(), memoizing, constructor);
+            constructors = added;
+            return constructor;
+        }
+    }
+
+    private static final class ProxyConstructor {
+        private final ClassLoader classLoader;
+        private final Class<?>[] interfaces;
+        private final boolean memoizing;
+        private final Constructor<?> constructor;
+
+        ProxyConstructor(ClassLoader classLoader, Class<?>[] interfaces, boolean memoizing, Constructor<?> constructor) {
+            this.classLoader = classLoader;
+            this.interfaces = interfaces;
+            this.memoizing = memoizing;
+            this.constructor = constructor;
+        }
+    }
+
+}
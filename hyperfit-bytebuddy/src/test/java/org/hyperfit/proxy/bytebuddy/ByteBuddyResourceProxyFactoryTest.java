@@ -0,0 +1,234 @@
+package org.hyperfit.proxy.bytebuddy;
+
+import org.hyperfit.HyperResourceInvokeHandler;
+import org.hyperfit.HyperfitProcessor;
+import org.hyperfit.annotation.Data;
+import org.hyperfit.annotation.NullWhenMissing;
+import org.hyperfit.methodinfo.ConcurrentHashMapMethodInfoCache;
+import org.hyperfit.methodinfo.ConcurrentHashMapResourceMethodInfoCache;
+import org.hyperfit.methodinfo.MethodInfoCache;
+import org.hyperfit.methodinfo.ResourceMethodInfoCache;
+import org.hyperfit.proxy.GeneratedResourceProxy;
+import org.hyperfit.resource.HyperResource;
+import org.hyperfit.resource.controls.link.HyperLink;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.lang.reflect.Proxy;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ByteBuddyResourceProxyFactoryTest {
+
+    public interface DataResource extends HyperResource {
+        @Data("name")
+        String getName();
+
+        @Data("count")
+        int getCount();
+
+        @NullWhenMissing
+        @Data("nick")
+        String getNick();
+    }
+
+    public interface OtherResource extends HyperResource {
+    }
+
+    interface HiddenResource extends HyperResource {
+    }
+
+    @Mock
+    HyperResource mockHyperResource;
+
+    @Mock
+    HyperResource otherMockHyperResource;
+
+    @Mock
+    HyperfitProcessor mockHyperfitProcessor;
+
+    ResourceMethodInfoCache resourceMethodInfoCache = new ConcurrentHashMapResourceMethodInfoCache();
+
+    ByteBuddyResourceProxyFactory factory;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        factory = new ByteBuddyResourceProxyFactory();
+    }
+
+    private Object newProxy(HyperResource hyperResource, Class<?>... interfaces) {
+        HyperResourceInvokeHandler handler = new HyperResourceInvokeHandler(
+            hyperResource,
+            mockHyperfitProcessor,
+            resourceMethodInfoCache.get(interfaces[0]),
+            null,
+            null
+        );
+
+        return factory.newProxyInstance(interfaces[0].getClassLoader(), interfaces, handler);
+    }
+
+    @Test
+    public void testDataMethods() {
+        when(mockHyperResource.getPathAs(String.class, false, "name")).thenReturn("bob");
+        when(mockHyperResource.getPathAs(int.class, false, "count")).thenReturn(5);
+
+        DataResource resource = (DataResource) newProxy(mockHyperResource, DataResource.class);
+
+        assertFalse(Proxy.isProxyClass(resource.getClass()));
+        assertEquals("bob", resource.getName());
+        assertEquals(5, resource.getCount());
+        assertNull(resource.getNick());
+        verify(mockHyperResource).tryGetPathAs(String.class, "nick");
+    }
+
+    @Test
+    public void testPassThroughMethods() {
+        when(mockHyperResource.hasLink("bb:next")).thenReturn(true);
+        when(mockHyperResource.getDataFieldNames()).thenReturn(new String[]{"name"});
+        when(mockHyperResource.toString()).thenReturn("some resource");
+
+        DataResource resource = (DataResource) newProxy(mockHyperResource, DataResource.class);
+
+        assertTrue(resource.hasLink("bb:next"));
+        assertArrayEquals(new String[]{"name"}, resource.getDataFieldNames());
+        assertEquals("some resource", resource.toString());
+        assertEquals(mockHyperResource.hashCode(), resource.hashCode());
+    }
+
+    @Test
+    public void testGetLinkIsWrapped() {
+        HyperLink mockHyperLink = mock(HyperLink.class);
+        when(mockHyperLink.getRel()).thenReturn("bb:next");
+        when(mockHyperResource.getLink("bb:next")).thenReturn(mockHyperLink);
+
+        DataResource resource = (DataResource) newProxy(mockHyperResource, DataResource.class);
+
+        HyperLink result = resource.getLink("bb:next");
+
+        assertNotSame(mockHyperLink, result);
+        assertEquals("bb:next", result.getRel());
+    }
+
+    @Test
+    public void testEquals() {
+        Object resource = newProxy(mockHyperResource, DataResource.class);
+        Object sameResource = newProxy(mockHyperResource, DataResource.class);
+        Object otherResource = newProxy(otherMockHyperResource, DataResource.class);
+
+        assertTrue(resource instanceof GeneratedResourceProxy);
+        assertEquals(resource, sameResource);
+        assertNotEquals(resource, otherResource);
+        assertNotEquals(resource, "not a resource");
+    }
+
+    @Test
+    public void testClassIsGeneratedOncePerInterfaceSet() {
+        Object resource = newProxy(mockHyperResource, DataResource.class);
+        Object sameInterfaces = newProxy(otherMockHyperResource, DataResource.class);
+        Object moreInterfaces = newProxy(mockHyperResource, DataResource.class, OtherResource.class);
+
+        assertSame(resource.getClass(), sameInterfaces.getClass());
+        assertNotSame(resource.getClass(), moreInterfaces.getClass());
+        assertThat(moreInterfaces, instanceOf(OtherResource.class));
+    }
+
+    @Test
+    public void testNonPublicInterfaceFallsBackToJdkProxy() {
+        Object resource = newProxy(mockHyperResource, HiddenResource.class);
+
+        assertTrue(Proxy.isProxyClass(resource.getClass()));
+        assertThat(resource, instanceOf(HiddenResource.class));
+    }
+
+    @Test
+    public void testClassIsGeneratedPerClassLoader() {
+        ClassLoader otherLoader = new ClassLoader(DataResource.class.getClassLoader()) {
+        };
+        HyperResourceInvokeHandler handler = new HyperResourceInvokeHandler(
+            mockHyperResource,
+            mockHyperfitProcessor,
+            resourceMethodInfoCache.get(DataResource.class),
+            null,
+            null
+        );
+
+        Object resource = newProxy(mockHyperResource, DataResource.class);
+        Object otherLoaderResource = factory.newProxyInstance(otherLoader, new Class<?>[]{DataResource.class}, handler);
+
+        assertNotSame(resource.getClass(), otherLoaderResource.getClass());
+        assertSame(otherLoaderResource.getClass(), factory.newProxyInstance(otherLoader, new Class<?>[]{DataResource.class}, handler).getClass());
+    }
+
+    @Test
+    public void testInvokersResolvedThroughHandlerMethodInfoCacheOnce() throws Exception {
+        HyperLink mockHyperLink = mock(HyperLink.class);
+        when(mockHyperResource.getLink("bb:next")).thenReturn(mockHyperLink);
+        when(mockHyperResource.getPathAs(String.class, false, "name")).thenReturn("bob");
+        MethodInfoCache methodInfoCache = spy(new ConcurrentHashMapMethodInfoCache());
+        HyperResourceInvokeHandler handler = new HyperResourceInvokeHandler(
+            mockHyperResource,
+            mockHyperfitProcessor,
+            methodInfoCache,
+            null,
+            null
+        );
+
+        DataResource resource = (DataResource) factory.newProxyInstance(DataResource.class.getClassLoader(), new Class<?>[]{DataResource.class}, handler);
+
+        resource.getLink("bb:next");
+        resource.getLink("bb:next");
+        assertEquals("bob", resource.getName());
+        assertEquals("bob", resource.getName());
+
+        verify(methodInfoCache, times(1)).get(HyperResource.class.getMethod("getLink", String.class));
+        verify(methodInfoCache, times(1)).get(DataResource.class.getMethod("getName"));
+        verify(mockHyperResource, times(2)).getPathAs(String.class, false, "name");
+    }
+
+    @Test
+    public void testDataMethodsMemoizedWhenHandlerMemoizes() {
+        when(mockHyperResource.getPathAs(String.class, false, "name")).thenReturn("bob");
+        HyperResourceInvokeHandler handler = new HyperResourceInvokeHandler(
+            mockHyperResource,
+            mockHyperfitProcessor,
+            resourceMethodInfoCache.get(DataResource.class),
+            null,
+            null
+        ) {
+            @Override
+            public boolean isMemoizing() {
+                return true;
+            }
+        };
+
+        DataResource resource = (DataResource) factory.newProxyInstance(DataResource.class.getClassLoader(), new Class<?>[]{DataResource.class}, handler);
+        assertEquals("bob", resource.getName());
+        assertEquals("bob", resource.getName());
+        verify(mockHyperResource, times(1)).getPathAs(String.class, false, "name");
+
+        assertNotSame(resource.getClass(), newProxy(mockHyperResource, DataResource.class).getClass());
+    }
+
+    @Test
+    public void testPrepareGeneratesClassWithoutResource() {
+        factory = spy(new ByteBuddyResourceProxyFactory());
+        MethodInfoCache methodInfoCache = resourceMethodInfoCache.get(DataResource.class);
+
+        factory.prepare(DataResource.class.getClassLoader(), new Class<?>[]{DataResource.class}, methodInfoCache, false);
+        verify(factory, times(1)).generate(DataResource.class.getClassLoader(), new Class<?>[]{DataResource.class}, methodInfoCache, false);
+
+        when(mockHyperResource.getPathAs(String.class, false, "name")).thenReturn("bob");
+        DataResource resource = (DataResource) newProxy(mockHyperResource, DataResource.class);
+
+        assertEquals("bob", resource.getName());
+        verify(factory, times(1)).generate(Mockito.any(ClassLoader.class), Mockito.any(Class[].class), Mockito.any(MethodInfoCache.class), anyBoolean());
+    }
+
+}
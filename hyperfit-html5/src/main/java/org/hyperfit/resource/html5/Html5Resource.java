@@ -164,6 +164,9 @@ public class Html5Resource extends BaseHyperResource {
         for(String step : path){
             node = node.select("*[name=" + step + "]").first();
             if(node == null){
+                if(nullWhenMissing){
+                    return null;
+                }
                 throw new HyperResourceException("Resource data with path [" + Arrays.toString(path) + "] was not found in [" + htmlResource + "]");
             }
 
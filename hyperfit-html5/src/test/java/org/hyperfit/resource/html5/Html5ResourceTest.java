@@ -545,6 +545,16 @@ public class Html5ResourceTest {
         assertNull(new Html5Resource(doc).getPathAs(String.class,true, "_embedded", "promotionResourceList", "title"));
     }
 
+    @Test
+    public void testTryGetPathAsMissingNestedNode() {
+        Element dataSection = body.appendElement("section");
+        dataSection.addClass("data");
+        dataSection.appendElement("span").attr("name", "errorMessage").text(UUID.randomUUID().toString());
+
+        assertNull(new Html5Resource(doc).tryGetPathAs(String.class, "errorMessage", "code"));
+        assertNull(new Html5Resource(doc).tryGetPathAs(String.class, UUID.randomUUID().toString()));
+    }
+
 
     @Test(expected = HyperResourceException.class)
     public void testGetPathAsNullPath() {
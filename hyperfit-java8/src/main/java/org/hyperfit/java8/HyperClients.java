@@ -0,0 +1,59 @@
+package org.hyperfit.java8;
+
+import org.hyperfit.net.HyperClient;
+import org.hyperfit.net.Request;
+import org.hyperfit.net.Response;
+import org.hyperfit.net.ResponseCallback;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * Adapts {@link HyperClient#executeAsync(Request, ResponseCallback)} to {@link CompletableFuture}
+ */
+public final class HyperClients {
+
+    private HyperClients() {
+
+    }
+
+    /**
+     * Executes a request without waiting for its response
+     * @param client the client executing the request
+     * @param request the request to execute
+     * @return a future completed with the response, or failed with why the request failed.  Cancelling it cancels
+     * the request.
+     */
+    public static CompletableFuture<Response> executeAsync(HyperClient client, Request request) {
+        ResponseCompletableFuture result = new ResponseCompletableFuture();
+
+        result.request = client.executeAsync(request, new ResponseCallback() {
+            @Override
+            public void onResponse(Response response) {
+                result.complete(response);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+
+        return result;
+    }
+
+
+    private static final class ResponseCompletableFuture extends CompletableFuture<Response> {
+        private volatile Future<Response> request;
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                request.cancel(mayInterruptIfRunning);
+            }
+
+            return cancelled;
+        }
+    }
+}
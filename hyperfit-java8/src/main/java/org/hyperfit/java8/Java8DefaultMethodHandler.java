@@ -1,38 +1,42 @@
 package org.hyperfit.java8;
 
 import org.hyperfit.exception.HyperfitException;
+import org.hyperfit.resource.HyperResource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Proxy;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
 import java.util.Arrays;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Provides an implementation for invoking java8 default methods.  This class requires java 8 runtime.
+ *
+ * The method handle of a default method is resolved the first time it's called on a resource class and reused after,
+ * so calling a default method is a map lookup plus a method handle invocation.
  */
 public class Java8DefaultMethodHandler implements org.hyperfit.handlers.Java8DefaultMethodHandler {
     private static final Logger LOG = LoggerFactory.getLogger(Java8DefaultMethodHandler.class);
 
-    // We need the lookup that has private access to instantiate the interface with MethodHandles.Lookup.PRIVATE
-    private static final Constructor<MethodHandles.Lookup> LOOKUP_CONSTRUCTOR;
+    //every cached handle is adapted to this type so they can all be invoked exactly the same way
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
 
-    static {
+    // We need a lookup that has private access to the interface to be able to call its default method implementation
+    private static final LookupFactory LOOKUP_FACTORY = lookupFactory();
 
-        try {
-            LOOKUP_CONSTRUCTOR = MethodHandles.Lookup.class.getDeclaredConstructor(
-                Class.class,
-                int.class
-            );
-        } catch (NoSuchMethodException e) {
-            throw new RuntimeException(e);
+    //resource class -> default method -> handle calling the default implementation
+    private final ClassValue<ConcurrentMap<Method, MethodHandle>> handleCache = new ClassValue<ConcurrentMap<Method, MethodHandle>>() {
+        @Override
+        protected ConcurrentMap<Method, MethodHandle> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
         }
-
-        LOOKUP_CONSTRUCTOR.setAccessible(true);
-    }
+    };
 
 
     @Override
@@ -40,57 +44,107 @@ public class Java8DefaultMethodHandler implements org.hyperfit.handlers.Java8Def
         final DefaultMethodContext context,
         final Object[] args
     ) {
+        HyperResource hyperResource = context.getHyperResource();
+        ConcurrentMap<Method, MethodHandle> handles = handleCache.get(hyperResource.getClass());
+
+        MethodHandle handle = handles.get(context.getMethod());
+        if (handle == null) {
+            handle = handles.computeIfAbsent(context.getMethod(), m -> resolve(context));
+        }
+
+        try {
+            //bound to the hyper resource (usually the proxy) so default methods can call proxied @Link or @Data methods
+            return handle.invokeExact((Object) hyperResource, args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Exception e) {
+            throw new HyperfitException("Default method " + context.getMethod() + " threw an exception", e);
+        } catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+
+
+    private static MethodHandle resolve(DefaultMethodContext context) {
+        Method method = context.getMethod();
+        Class<?> resourceClass = context.getHyperResource().getClass();
+
+        for (Class<?> anInterface : context.getInterfaces()) {
+            if (!anInterface.isAssignableFrom(resourceClass)) {
+                continue;
+            }
+
+            Method defaultMethod;
+            try {
+                defaultMethod = anInterface.getMethod(method.getName(), method.getParameterTypes());
+            } catch (NoSuchMethodException e) {
+                LOG.debug("{} does not have method {}", anInterface, method);
+                continue;
+            }
+
+            // unreflectSpecial gives a handle that doesn't check for overrides so it calls the default implementation
+            // instead of coming right back to the proxy.  The special caller has to be the declaring interface.
+            Class<?> declaringInterface = defaultMethod.getDeclaringClass();
+            try {
+                return LOOKUP_FACTORY.in(declaringInterface)
+                    .unreflectSpecial(defaultMethod, declaringInterface)
+                    .asSpreader(Object[].class, defaultMethod.getParameterCount())
+                    .asType(INVOKER_TYPE);
+            } catch (ReflectiveOperationException e) {
+                throw new HyperfitException("Could not get a method handle for default method " + defaultMethod, e);
+            }
+        }
 
-        return Stream.of(context.getInterfaces())
-            .filter(tClass -> {
+        throw new HyperfitException(
+            "No interface in " + Arrays.toString(context.getInterfaces()) + " has default method " + method.toString()
+        );
+    }
+
+
+    @FunctionalInterface
+    private interface LookupFactory {
+        MethodHandles.Lookup in(Class<?> lookupClass) throws ReflectiveOperationException;
+    }
+
+    private static LookupFactory lookupFactory() {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+        try {
+            //java 9+ has a supported way to get a lookup with private access
+            MethodHandle privateLookupIn = lookup.findStatic(
+                MethodHandles.class,
+                "privateLookupIn",
+                MethodType.methodType(MethodHandles.Lookup.class, Class.class, MethodHandles.Lookup.class)
+            );
+
+            return lookupClass -> {
                 try {
-                    if(tClass.isAssignableFrom(context.getHyperResource().getClass())) {
-                        //Make sure the method exists. TODO: is there a better way that doesn't throw?
-                        tClass.getMethod(context.getMethod().getName(), context.getMethod().getParameterTypes());
-                        return true;
-                    }
-                } catch (NoSuchMethodException e) {
-                    LOG.warn(e.getMessage(), e);
+                    return (MethodHandles.Lookup) privateLookupIn.invokeExact(lookupClass, lookup);
+                } catch (RuntimeException | Error | IllegalAccessException e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new UndeclaredThrowableException(t);
                 }
+            };
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            LOG.debug("MethodHandles.privateLookupIn not available, using the private Lookup constructor");
+        }
 
-                return false;
-            })
-            .findFirst()
-            .map(t -> Proxy.newProxyInstance(
-                    t.getClassLoader(),
-                    new Class[]{t},
-                    (proxy, method, params) ->
-                        //This technique was stolen from https://zeroturnaround.com/rebellabs/recognize-and-conquer-java-proxies-default-methods-and-method-handles/
-                        // 1. Instantiate the MethodHandle.Lookup with the private access constructor
-                        // 2. Builder method handle that doesn't check for overrides and will be able
-                        // to call the default method on the interface. `unreflectSpecial()`
-                        // 3. Bind to the Proxy created above/passed in
-                        // 4. Invoke the method handle with the args.
-                         LOOKUP_CONSTRUCTOR.newInstance(t, MethodHandles.Lookup.PRIVATE)
-                             //TODO: could/should we cache the result after this call instead of calling new instance each time?
-                            .unreflectSpecial(method, t)
-                             //bind it to the underlying hyper resource so default methods can call proxied @Link or @Data methods
-                            .bindTo(context.getHyperResource())
-                            .invokeWithArguments(params)
-
-                )
-            )
-            .map(
-                i -> {
-                    try {
-                        return context.getMethod().invoke(i, args);
-                    } catch (IllegalAccessException | InvocationTargetException e) {
-                       throw new RuntimeException(e);
-                    }
-                }
-            )
-            .orElseThrow(
-                () -> new HyperfitException(
-                    "No interface in " + Arrays.toString(context.getInterfaces()) + " has default method " + context.getMethod().toString()
-                )
-            )
-            ;
+        //This technique was stolen from https://zeroturnaround.com/rebellabs/recognize-and-conquer-java-proxies-default-methods-and-method-handles/
+        //instantiate the Lookup with its private access constructor, only possible on java 8
+        final Constructor<MethodHandles.Lookup> lookupConstructor;
+        try {
+            lookupConstructor = MethodHandles.Lookup.class.getDeclaredConstructor(
+                Class.class,
+                int.class
+            );
+        } catch (NoSuchMethodException e) {
+            throw new RuntimeException(e);
+        }
+
+        lookupConstructor.setAccessible(true);
 
+        return lookupClass -> lookupConstructor.newInstance(lookupClass, MethodHandles.Lookup.PRIVATE);
     }
 
 
@@ -0,0 +1,44 @@
+package org.hyperfit.java8;
+
+import org.hyperfit.handlers.FutureHandler;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Allows @Link and @NamedForm resource methods to return {@link CompletableFuture} or {@link CompletionStage}, the
+ * request is then made and its response processed on the processor's executor.  The future fails with whatever the
+ * method would have thrown.
+ *
+ * Registered as a {@link java.util.ServiceLoader} service so having this module on the class path is enough.
+ */
+public class Java8FutureHandler implements FutureHandler {
+
+    @Override
+    public Class<?>[] getFutureTypes() {
+        return new Class<?>[]{CompletableFuture.class, CompletionStage.class};
+    }
+
+    @Override
+    public Object submit(Callable<?> work, Executor executor) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(work.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+}
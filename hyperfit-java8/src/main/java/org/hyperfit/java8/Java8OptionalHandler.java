@@ -0,0 +1,30 @@
+package org.hyperfit.java8;
+
+import org.hyperfit.handlers.OptionalHandler;
+
+import java.util.Optional;
+
+/**
+ * Allows resource methods to return {@link Optional}, an empty Optional is returned where a method annotated with
+ * {@link org.hyperfit.annotation.NullWhenMissing} would return null.
+ *
+ * Registered as a {@link java.util.ServiceLoader} service so having this module on the class path is enough.
+ */
+public class Java8OptionalHandler implements OptionalHandler {
+
+    @Override
+    public Class<?> getOptionalType() {
+        return Optional.class;
+    }
+
+    @Override
+    public Object empty() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Object of(Object value) {
+        return Optional.of(value);
+    }
+
+}
@@ -93,6 +93,16 @@ public class Java8HyperResourceInvokeHandlerTest {
                 return null;
             }
 
+            @Override
+            public HyperLink tryGetLink(String relationship) {
+                return null;
+            }
+
+            @Override
+            public HyperLink tryGetLink(String relationship, String name) {
+                return null;
+            }
+
             @Override
             public <T> T getPathAs(Class<T> classToReturn, String... path) {
                 return null;
@@ -103,6 +113,11 @@ public class Java8HyperResourceInvokeHandlerTest {
                 return null;
             }
 
+            @Override
+            public <T> T tryGetPathAs(Class<T> classToReturn, String... path) {
+                return null;
+            }
+
             @Override
             public boolean hasPath(String... path) {
                 return false;
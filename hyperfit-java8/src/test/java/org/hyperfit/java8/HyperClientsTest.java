@@ -0,0 +1,79 @@
+package org.hyperfit.java8;
+
+import org.hyperfit.net.HyperClient;
+import org.hyperfit.net.Request;
+import org.hyperfit.net.Response;
+import org.hyperfit.net.ResponseCallback;
+import org.hyperfit.net.ResponseFuture;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.*;
+
+public class HyperClientsTest {
+
+    @Mock
+    HyperClient mockHyperClient;
+
+    @Mock
+    Request mockRequest;
+
+    @Mock
+    Response mockResponse;
+
+    ResponseFuture responseFuture;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        when(mockHyperClient.executeAsync(same(mockRequest), any(ResponseCallback.class))).thenAnswer(invocation -> {
+            responseFuture = new ResponseFuture((ResponseCallback) invocation.getArguments()[1]);
+            return responseFuture;
+        });
+    }
+
+    @Test
+    public void testComplete() {
+        CompletableFuture<Response> future = HyperClients.executeAsync(mockHyperClient, mockRequest);
+        assertFalse(future.isDone());
+
+        responseFuture.complete(mockResponse);
+
+        assertSame(mockResponse, future.join());
+    }
+
+    @Test
+    public void testFail() {
+        CompletableFuture<Response> future = HyperClients.executeAsync(mockHyperClient, mockRequest);
+        RuntimeException fakeException = new RuntimeException("unreachable");
+
+        responseFuture.fail(fakeException);
+
+        try {
+            future.join();
+            fail("expected the failure");
+        } catch (CompletionException e) {
+            assertSame(fakeException, e.getCause());
+        }
+    }
+
+    @Test
+    public void testCancelCancelsRequest() {
+        CompletableFuture<Response> future = HyperClients.executeAsync(mockHyperClient, mockRequest);
+
+        assertTrue(future.cancel(true));
+
+        assertTrue(responseFuture.isCancelled());
+        assertTrue(future.isCancelled());
+    }
+
+}
@@ -50,6 +50,24 @@ public class Java8DefaultMethodHandlerTest {
         default Integer iCallADefaultThatCallsAnAbstractMethod() {
             return this.iCallAnAbstractMethod() + 1;
         }
+
+        default String iTakeArguments(String prefix, int times) {
+            StringBuilder result = new StringBuilder();
+            for (int i = 0; i < times; i++) {
+                result.append(prefix);
+            }
+            return result.toString();
+        }
+
+        default String iThrow(String message) {
+            throw new HyperfitException(message);
+        }
+    }
+
+    public interface InterfaceInheritingDefaultMethods extends InterfaceWithDefaultMethod {
+    }
+
+    public class FakeHyperResourceInheritingDefaultMethods extends FakeHyperResourceWithDefaultMethods implements InterfaceInheritingDefaultMethods {
     }
 
     public class FakeHyperResourceWithDefaultMethods implements InterfaceWithDefaultMethod {
@@ -84,6 +102,16 @@ public class Java8DefaultMethodHandlerTest {
             return null;
         }
 
+        @Override
+        public HyperLink tryGetLink(String relationship) {
+            return null;
+        }
+
+        @Override
+        public HyperLink tryGetLink(String relationship, String name) {
+            return null;
+        }
+
         @Override
         public <T> T getPathAs(Class<T> classToReturn, String... path) {
             return null;
@@ -94,6 +122,11 @@ public class Java8DefaultMethodHandlerTest {
             return null;
         }
 
+        @Override
+        public <T> T tryGetPathAs(Class<T> classToReturn, String... path) {
+            return null;
+        }
+
         @Override
         public boolean hasPath(String... path) {
             return false;
@@ -324,6 +357,16 @@ public class Java8DefaultMethodHandlerTest {
                         return null;
                     }
 
+                    @Override
+                    public HyperLink tryGetLink(String relationship) {
+                        return null;
+                    }
+
+                    @Override
+                    public HyperLink tryGetLink(String relationship, String name) {
+                        return null;
+                    }
+
                     @Override
                     public <T> T getPathAs(Class<T> classToReturn, String... path) {
                         return null;
@@ -334,6 +377,11 @@ public class Java8DefaultMethodHandlerTest {
                         return null;
                     }
 
+                    @Override
+                    public <T> T tryGetPathAs(Class<T> classToReturn, String... path) {
+                        return null;
+                    }
+
                     @Override
                     public boolean hasPath(String... path) {
                         return false;
@@ -416,4 +464,49 @@ public class Java8DefaultMethodHandlerTest {
         assertThat(val, equalTo("imastring"));
 
     }
+
+
+    @Test
+    public void invokeWithArguments() throws Exception {
+        Java8DefaultMethodHandler handler = new Java8DefaultMethodHandler();
+        Method method = InterfaceWithDefaultMethod.class.getMethod("iTakeArguments", String.class, int.class);
+        FakeHyperResourceWithDefaultMethods fake = new FakeHyperResourceWithDefaultMethods();
+
+        assertThat(
+            handler.invoke(new org.hyperfit.handlers.Java8DefaultMethodHandler.DefaultMethodContext(fake, method), new Object[]{"ab", 3}),
+            equalTo("ababab")
+        );
+
+        //second call uses the cached handle
+        assertThat(
+            handler.invoke(new org.hyperfit.handlers.Java8DefaultMethodHandler.DefaultMethodContext(fake, method), new Object[]{"c", 2}),
+            equalTo("cc")
+        );
+    }
+
+    @Test
+    public void invokeDefaultMethodInheritedFromSuperInterface() throws Exception {
+        Object val = new Java8DefaultMethodHandler().invoke(
+            new org.hyperfit.handlers.Java8DefaultMethodHandler.DefaultMethodContext(
+                new FakeHyperResourceInheritingDefaultMethods(),
+                InterfaceWithDefaultMethod.class.getMethod("iCallADefaultMethod")
+            ),
+            null
+        );
+        assertThat(val, equalTo("called imastring"));
+    }
+
+    @Test
+    public void exceptionsFromDefaultMethodsAreNotWrapped() throws Exception {
+        ee.expect(HyperfitException.class);
+        ee.expectMessage("thrown from default");
+
+        new Java8DefaultMethodHandler().invoke(
+            new org.hyperfit.handlers.Java8DefaultMethodHandler.DefaultMethodContext(
+                new FakeHyperResourceWithDefaultMethods(),
+                InterfaceWithDefaultMethod.class.getMethod("iThrow", String.class)
+            ),
+            new Object[]{"thrown from default"}
+        );
+    }
 }
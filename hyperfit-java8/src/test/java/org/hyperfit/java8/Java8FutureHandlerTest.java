@@ -0,0 +1,189 @@
+package org.hyperfit.java8;
+
+import org.hyperfit.HyperfitProcessor;
+import org.hyperfit.annotation.Data;
+import org.hyperfit.annotation.Header;
+import org.hyperfit.annotation.Link;
+import org.hyperfit.annotation.NamedForm;
+import org.hyperfit.content.ContentType;
+import org.hyperfit.content.ContentTypeHandler;
+import org.hyperfit.exception.HyperfitException;
+import org.hyperfit.net.BoringRequestBuilder;
+import org.hyperfit.net.HyperClient;
+import org.hyperfit.net.Request;
+import org.hyperfit.net.Response;
+import org.hyperfit.resource.HyperResource;
+import org.hyperfit.resource.controls.form.Form;
+import org.hyperfit.resource.controls.link.HyperLink;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class Java8FutureHandlerTest {
+
+    public interface RootResource extends HyperResource {
+        @Link("bb:next")
+        CompletableFuture<NextResource> next();
+
+        @Link("bb:next")
+        CompletionStage<Optional<NextResource>> maybeNext();
+
+        @NamedForm("search")
+        CompletableFuture<NextResource> search(@Header("X-Query") String query);
+    }
+
+    public interface NextResource extends HyperResource {
+        @Data("name")
+        String getName();
+    }
+
+    public interface DataFutureResource extends HyperResource {
+        @Data("name")
+        CompletableFuture<String> getName();
+    }
+
+    @Mock
+    HyperResource mockRootResource;
+
+    @Mock
+    HyperResource mockNextResource;
+
+    @Mock
+    HyperClient mockHyperClient;
+
+    @Mock
+    ContentTypeHandler mockContentTypeHandler;
+
+    List<Runnable> queued = new ArrayList<>();
+
+    HyperfitProcessor processor;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(mockHyperClient.getSchemes()).thenReturn(new String[]{"http"});
+        when(mockContentTypeHandler.getDefaultContentType()).thenReturn(ContentType.parse("application/hal+json"));
+        when(mockContentTypeHandler.canParseResponse()).thenReturn(true);
+        when(mockContentTypeHandler.parseResponse(any(Response.class))).thenReturn(mockNextResource);
+        when(mockNextResource.getPathAs(String.class, false, "name")).thenReturn("next");
+
+        when(mockHyperClient.execute(any(Request.class))).thenAnswer(invocation ->
+            Response.builder()
+                .addRequest((Request) invocation.getArguments()[0])
+                .addCode(200)
+                .addContentType("application/hal+json")
+                .build()
+        );
+
+        processor = HyperfitProcessor.builder()
+            .hyperClient(mockHyperClient)
+            .addContentTypeHandler(mockContentTypeHandler)
+            .executor(queued::add)
+            .build();
+    }
+
+    private RootResource root() {
+        return processor.processResource(RootResource.class, mockRootResource, null);
+    }
+
+    private void runQueued() {
+        assertEquals(1, queued.size());
+        queued.remove(0).run();
+    }
+
+    @Test
+    public void testFollowLink() {
+        HyperLink mockLink = mock(HyperLink.class);
+        when(mockLink.toRequestBuilder()).thenReturn(BoringRequestBuilder.get("http://host/next"));
+        when(mockRootResource.getLink("bb:next")).thenReturn(mockLink);
+
+        CompletableFuture<NextResource> next = root().next();
+
+        assertFalse(next.isDone());
+        verify(mockRootResource, never()).getLink("bb:next");
+        verify(mockHyperClient, never()).execute(any(Request.class));
+
+        runQueued();
+
+        assertEquals("next", next.join().getName());
+        verify(mockHyperClient, times(1)).execute(BoringRequestBuilder.get("http://host/next").build());
+    }
+
+    @Test
+    public void testMissingOptionalLink() {
+        CompletionStage<Optional<NextResource>> next = root().maybeNext();
+
+        runQueued();
+
+        assertEquals(Optional.empty(), next.toCompletableFuture().join());
+        verify(mockHyperClient, never()).execute(any(Request.class));
+    }
+
+    @Test
+    public void testSubmitForm() {
+        Form mockForm = mock(Form.class);
+        when(mockForm.toRequestBuilder()).thenReturn(BoringRequestBuilder.get("http://host/search"));
+        when(mockRootResource.getForm("search")).thenReturn(mockForm);
+
+        CompletableFuture<NextResource> result = root().search("dogs");
+        runQueued();
+
+        assertEquals("next", result.join().getName());
+        verify(mockHyperClient, times(1)).execute(
+            BoringRequestBuilder.get("http://host/search").addHeader("X-Query", "dogs").build()
+        );
+    }
+
+    @Test
+    public void testFailure() {
+        HyperfitException fakeException = new HyperfitException("no next");
+        when(mockRootResource.getLink("bb:next")).thenThrow(fakeException);
+
+        CompletableFuture<NextResource> next = root().next();
+        runQueued();
+
+        assertTrue(next.isCompletedExceptionally());
+        try {
+            next.join();
+            fail("expected the link's exception");
+        } catch (CompletionException e) {
+            assertSame(fakeException, e.getCause());
+        }
+    }
+
+    @Test
+    public void testRejected() {
+        CompletableFuture<NextResource> next = HyperfitProcessor.builder()
+            .hyperClient(mockHyperClient)
+            .executor(command -> {
+                throw new RejectedExecutionException("full");
+            })
+            .build()
+            .processResource(RootResource.class, mockRootResource, null)
+            .next();
+
+        assertTrue(next.isCompletedExceptionally());
+    }
+
+    @Test(expected = HyperfitException.class)
+    public void testOnlyRequestingMethodsReturnFutures() {
+        HyperfitProcessor.builder()
+            .hyperClient(mockHyperClient)
+            .addResourceInterfaces(DataFutureResource.class)
+            .build();
+    }
+
+}
@@ -0,0 +1,115 @@
+package org.hyperfit.java8;
+
+import org.hyperfit.HyperResourceInvokeHandler;
+import org.hyperfit.HyperfitProcessor;
+import org.hyperfit.annotation.Data;
+import org.hyperfit.annotation.Link;
+import org.hyperfit.methodinfo.ConcurrentHashMapResourceMethodInfoCache;
+import org.hyperfit.net.RequestBuilder;
+import org.hyperfit.resource.HyperResource;
+import org.hyperfit.resource.controls.link.HyperLink;
+import org.hyperfit.utils.TypeInfo;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+public class Java8OptionalHandlerTest {
+
+    public interface OptionalResource extends HyperResource {
+        @Data("name")
+        Optional<String> getName();
+
+        @Link("bb:next")
+        Optional<HyperLink> nextLink();
+
+        @Link("bb:next")
+        Optional<OptionalResource> next();
+    }
+
+    @Mock
+    HyperResource mockHyperResource;
+
+    @Mock
+    HyperfitProcessor mockHyperfitProcessor;
+
+    OptionalResource resource;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        resource = (OptionalResource) Proxy.newProxyInstance(
+            OptionalResource.class.getClassLoader(),
+            new Class[]{OptionalResource.class},
+            new HyperResourceInvokeHandler(
+                mockHyperResource,
+                mockHyperfitProcessor,
+                new ConcurrentHashMapResourceMethodInfoCache().get(OptionalResource.class),
+                null,
+                new Java8DefaultMethodHandler()
+            )
+        );
+    }
+
+    @Test
+    public void testData() {
+        when(mockHyperResource.tryGetPathAs(String.class, "name")).thenReturn("bob");
+
+        assertEquals(Optional.of("bob"), resource.getName());
+    }
+
+    @Test
+    public void testMissingData() {
+        assertEquals(Optional.empty(), resource.getName());
+
+        verify(mockHyperResource, never()).getPathAs(any(Class.class), anyString());
+    }
+
+    @Test
+    public void testLink() {
+        HyperLink mockHyperLink = mock(HyperLink.class);
+        when(mockHyperLink.getRel()).thenReturn("bb:next");
+        when(mockHyperResource.tryGetLink("bb:next")).thenReturn(mockHyperLink);
+
+        assertEquals("bb:next", resource.nextLink().get().getRel());
+        assertEquals("bb:next", resource.tryGetLink("bb:next").getRel());
+    }
+
+    @Test
+    public void testMissingLink() {
+        assertEquals(Optional.empty(), resource.nextLink());
+        assertNull(resource.tryGetLink("bb:next"));
+
+        verify(mockHyperResource, never()).getLink(anyString());
+    }
+
+    @Test
+    public void testEmbeddedResource() {
+        HyperResource embedded = mock(HyperResource.class);
+        OptionalResource expected = mock(OptionalResource.class);
+        when(mockHyperResource.canResolveLinkLocal("bb:next")).thenReturn(true);
+        when(mockHyperResource.resolveLinkLocal("bb:next")).thenReturn(embedded);
+        when(mockHyperfitProcessor.processResource(eq(OptionalResource.class), eq(embedded), any(TypeInfo.class))).thenReturn(expected);
+
+        assertSame(expected, resource.next().get());
+    }
+
+    @Test
+    public void testMissingResource() {
+        assertEquals(Optional.empty(), resource.next());
+
+        verify(mockHyperResource, never()).getLink(anyString());
+        verify(mockHyperfitProcessor, never()).processRequest(any(Class.class), any(RequestBuilder.class), any(TypeInfo.class));
+    }
+
+}
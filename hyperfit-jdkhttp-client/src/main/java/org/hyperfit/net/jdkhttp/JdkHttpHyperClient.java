@@ -0,0 +1,280 @@
+package org.hyperfit.net.jdkhttp;
+
+import org.hyperfit.exception.HyperfitException;
+import org.hyperfit.net.BaseHyperClient;
+import org.hyperfit.net.HttpUtils;
+import org.hyperfit.net.HyperClient;
+import org.hyperfit.net.Request;
+import org.hyperfit.net.Response;
+import org.hyperfit.net.ResponseCallback;
+import org.hyperfit.net.ResponseFuture;
+import org.hyperfit.utils.StringUtils;
+
+import java.io.IOException;
+import java.net.CookieHandler;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hyperfit.net.HttpUtils.ACCEPT;
+import static org.hyperfit.net.HttpUtils.CONTENT_TYPE;
+
+/**
+ * Implementation of hypermedia provider, making http requests using the JDK's java.net.http.HttpClient, which
+ * multiplexes requests over HTTP/2 connections when the server supports it.
+ *
+ * On java 21+ blocking navigations are cheap on virtual threads, use {@link #newVirtualThreadPerTaskExecutor()} as the
+ * HttpClient's executor and as the executor of {@link org.hyperfit.HyperfitProcessor.Builder#executor}.
+ */
+public class JdkHttpHyperClient extends BaseHyperClient {
+
+    private static final String[] COOKIE_HEADERS = {"Cookie", "Cookie2"};
+
+    private final HttpClient client;
+
+    private volatile CookieHandler cookieHandler;
+
+
+    public JdkHttpHyperClient() {
+        this(HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NORMAL).build());
+    }
+
+    /**
+     * Create a Hyper Client backed by a JDK http client
+     *
+     * @param httpClient {@link java.net.http.HttpClient}
+     */
+    public JdkHttpHyperClient(HttpClient httpClient) {
+        if (httpClient == null) {
+            throw new IllegalArgumentException("httpClient cannot be null.");
+        }
+
+        this.client = httpClient;
+    }
+
+
+    /**
+     * @param request {@link org.hyperfit.net.Request}
+     * @return {@inheritDoc}
+     */
+    public Response execute(Request request) {
+        checkRequest(request);
+
+        HttpRequest httpRequest = prepareRequest(request);
+
+        HttpResponse<String> response;
+        try {
+            response = client.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException ex) {
+            throw new HyperfitException("The request [" + request + "] could not be executed.", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new HyperfitException("Interrupted executing the request [" + request + "]", ex);
+        }
+
+        return doResponse(response, request);
+    }
+
+    /**
+     * Sends the request with the HttpClient's async API, the response is processed on the HttpClient's executor.
+     * Cancelling the returned future cancels the exchange.
+     * @param request {@link org.hyperfit.net.Request}
+     * @param callback {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    public Future<Response> executeAsync(final Request request, ResponseCallback callback) {
+        checkRequest(request);
+
+        final CompletableFuture<HttpResponse<String>> exchange = client.sendAsync(
+            prepareRequest(request),
+            HttpResponse.BodyHandlers.ofString()
+        );
+
+        final ResponseFuture future = new ResponseFuture(callback) {
+            @Override
+            protected void onCancel() {
+                exchange.cancel(true);
+            }
+        };
+
+        exchange.whenComplete((response, failure) -> {
+            if (failure != null) {
+                Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+                future.fail(
+                    cause instanceof Exception
+                        ? new HyperfitException("The request [" + request + "] could not be executed.", (Exception) cause)
+                        : new HyperfitException("The request [" + request + "] could not be executed: " + cause)
+                );
+                return;
+            }
+
+            try {
+                future.complete(doResponse(response, request));
+            } catch (RuntimeException e) {
+                future.fail(e);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Cookies are added to requests and stored from responses by this client, so a handler can be set after the
+     * HttpClient is built
+     * @param handler the cookie handler, null for none
+     * @return this client
+     */
+    public HyperClient setCookieHandler(CookieHandler handler) {
+        this.cookieHandler = handler;
+        return this;
+    }
+
+    public String[] getSchemes() {
+        return new String[]{"http", "https"};
+    }
+
+    /**
+     * @return an executor that starts a virtual thread per task
+     * @throws UnsupportedOperationException before java 21
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new UnsupportedOperationException("Virtual threads need java 21 or later");
+        } catch (ReflectiveOperationException e) {
+            throw new HyperfitException("Could not create a virtual thread executor", e);
+        }
+    }
+
+
+    private static void checkRequest(Request request) {
+        if (request == null) {
+            throw new IllegalArgumentException("request cannot be null.");
+        }
+
+        if (request.getMethod() == null) {
+            throw new IllegalArgumentException("request's method cannot be null.");
+        }
+
+        if (StringUtils.isEmpty(request.getUrl())) {
+            throw new IllegalArgumentException("request's url cannot be empty.");
+        }
+    }
+
+    /**
+     * Builds the JDK request from the request's url, method, headers and content
+     *
+     * @param request {@link org.hyperfit.net.Request}
+     * @return {@link java.net.http.HttpRequest}
+     */
+    @SuppressWarnings("unchecked")
+    HttpRequest prepareRequest(Request request) {
+        URI uri = URI.create(request.getUrl());
+
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.noBody();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri);
+
+        if (request.getContentType() != null && request.getContent() != null) {
+            body = HttpRequest.BodyPublishers.ofString(request.getContent());
+            builder.header(CONTENT_TYPE, request.getContentType());
+        }
+
+        builder.method(request.getMethod().name(), body);
+
+        Map<String, List<String>> headers = new LinkedHashMap<String, List<String>>();
+        Iterable<Entry<String, String>> requestHeaders = request.getHeaders();
+        if (requestHeaders != null) {
+            for (Entry<String, String> h : requestHeaders) {
+                builder.header(h.getKey(), h.getValue());
+                headers.put(h.getKey(), Collections.singletonList(h.getValue()));
+            }
+        }
+
+        String accept = HttpUtils.buildAcceptHeaderValue(request.getAcceptedContentTypes(), this.getAcceptedContentTypes());
+        if (!accept.isEmpty()) {
+            builder.header(ACCEPT, accept);
+        }
+
+        addCookies(builder, uri, headers);
+
+        return builder.build();
+    }
+
+    private void addCookies(HttpRequest.Builder builder, URI uri, Map<String, List<String>> headers) {
+        CookieHandler handler = cookieHandler;
+        if (handler == null) {
+            return;
+        }
+
+        Map<String, List<String>> cookies;
+        try {
+            cookies = handler.get(uri, headers);
+        } catch (IOException ex) {
+            throw new HyperfitException("Could not get the cookies for [" + uri + "]", ex);
+        }
+
+        for (String cookieHeader : COOKIE_HEADERS) {
+            List<String> values = cookies.get(cookieHeader);
+            if (values != null) {
+                for (String value : values) {
+                    builder.header(cookieHeader, value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Build HyperMedia Response based on {@link java.net.http.HttpResponse}
+     *
+     * @return {@link org.hyperfit.net.Response}
+     */
+    Response doResponse(HttpResponse<String> response, Request request) {
+        HttpHeaders headers = response.headers();
+
+        CookieHandler handler = cookieHandler;
+        if (handler != null) {
+            try {
+                handler.put(response.uri(), headers.map());
+            } catch (IOException ex) {
+                throw new HyperfitException("Could not store the cookies from [" + response.uri() + "]", ex);
+            }
+        }
+
+        Response.ResponseBuilder b = Response.builder()
+            .addCode(response.statusCode())
+            .addRequest(request);
+
+        for (Entry<String, List<String>> h : headers.map().entrySet()) {
+            //HTTP/2 pseudo headers aren't headers of the response
+            if (h.getKey().startsWith(":")) {
+                continue;
+            }
+
+            for (String val : h.getValue()) {
+                b.addHeader(h.getKey(), val);
+            }
+        }
+
+        //Set the content type explicitly, even though it comes from the headers.  Hyperfit needs to know this
+        //abstracted from the headers
+        b.addContentType(headers.firstValue(CONTENT_TYPE).orElse(null));
+
+        b.addBody(response.body());
+
+        return b.build();
+    }
+
+}
@@ -0,0 +1,232 @@
+package org.hyperfit.net.jdkhttp;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.hyperfit.exception.HyperfitException;
+import org.hyperfit.net.BoringRequestBuilder;
+import org.hyperfit.net.Method;
+import org.hyperfit.net.RFC6570RequestBuilder;
+import org.hyperfit.net.Request;
+import org.hyperfit.net.Response;
+import org.hyperfit.net.ResponseCallback;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.CookieManager;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.*;
+
+public class JdkHttpHyperClientTest {
+
+    private static final String ACCEPT_VALUE = "application/hal+json";
+
+    private HttpServer server;
+    private String url;
+    private final List<HttpExchange> exchanges = new CopyOnWriteArrayList<>();
+    private final List<String> requestBodies = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private JdkHttpHyperClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            exchanges.add(exchange);
+            requestBodies.add(read(exchange.getRequestBody()));
+
+            byte[] body = "{\"name\":\"hyperfit\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", ACCEPT_VALUE);
+            exchange.getResponseHeaders().add("X-Multi", "one");
+            exchange.getResponseHeaders().add("X-Multi", "two");
+            exchange.getResponseHeaders().add("Set-Cookie", "session=abc; Path=/");
+            exchange.sendResponseHeaders(201, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+
+        client = new JdkHttpHyperClient();
+        client.setAcceptedContentTypes(Collections.singleton(ACCEPT_VALUE));
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testExecute() {
+        Request request = BoringRequestBuilder.get(url + "resource")
+            .addHeader("X-Custom", "custom")
+            .build();
+
+        Response response = client.execute(request);
+
+        assertEquals(201, response.getCode());
+        assertEquals("{\"name\":\"hyperfit\"}", response.getBody());
+        assertEquals(ACCEPT_VALUE, response.getContentType());
+        assertSame(request, response.getRequest());
+
+        int multi = 0;
+        for (Map.Entry<String, String> header : response.getHeaders()) {
+            if (header.getKey().equalsIgnoreCase("X-Multi")) {
+                multi++;
+            }
+        }
+        assertEquals(2, multi);
+
+        HttpExchange exchange = exchanges.get(0);
+        assertEquals("GET", exchange.getRequestMethod());
+        assertEquals(ACCEPT_VALUE, exchange.getRequestHeaders().getFirst("Accept"));
+        assertEquals("custom", exchange.getRequestHeaders().getFirst("X-Custom"));
+    }
+
+    @Test
+    public void testExecuteSendsContent() {
+        Request request = new RFC6570RequestBuilder()
+            .setUrlTemplate(url)
+            .setMethod(Method.POST)
+            .setContent("{test:\"test\"}")
+            .setContentType("application/json")
+            .build();
+
+        client.execute(request);
+
+        HttpExchange exchange = exchanges.get(0);
+        assertEquals("POST", exchange.getRequestMethod());
+        assertEquals("application/json", exchange.getRequestHeaders().getFirst("Content-Type"));
+        assertEquals("{test:\"test\"}", requestBodies.get(0));
+    }
+
+    @Test
+    public void testCookies() {
+        client.setCookieHandler(new CookieManager());
+
+        client.execute(BoringRequestBuilder.get(url).build());
+        client.execute(BoringRequestBuilder.get(url).build());
+
+        assertNull(exchanges.get(0).getRequestHeaders().getFirst("Cookie"));
+        assertEquals("session=abc", exchanges.get(1).getRequestHeaders().getFirst("Cookie"));
+    }
+
+    @Test
+    public void testExecuteAsync() throws Exception {
+        CompletableFuture<Response> notified = new CompletableFuture<>();
+        Future<Response> future = client.executeAsync(BoringRequestBuilder.get(url).build(), new ResponseCallback() {
+            public void onResponse(Response response) {
+                notified.complete(response);
+            }
+
+            public void onFailure(Exception e) {
+                notified.completeExceptionally(e);
+            }
+        });
+
+        Response response = future.get(10, TimeUnit.SECONDS);
+        assertEquals(201, response.getCode());
+        assertSame(response, notified.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testExecuteAsyncCancel() throws Exception {
+        Future<Response> future = client.executeAsync(BoringRequestBuilder.get(url + "slow").build(), null);
+
+        assertTrue(future.cancel(true));
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    public void testExecuteAsyncFailure() throws Exception {
+        server.stop(0);
+
+        Future<Response> future = client.executeAsync(BoringRequestBuilder.get(url).build(), null);
+
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail("nothing is listening");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(HyperfitException.class));
+        }
+    }
+
+    @Test(expected = HyperfitException.class)
+    public void testExecuteFailure() {
+        server.stop(0);
+
+        client.execute(BoringRequestBuilder.get(url).build());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExecuteNullRequest() {
+        client.execute(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullClient() {
+        new JdkHttpHyperClient(null);
+    }
+
+    @Test
+    public void testVirtualThreads() throws Exception {
+        Assume.assumeTrue(Runtime.version().feature() >= 21);
+
+        ExecutorService executor = JdkHttpHyperClient.newVirtualThreadPerTaskExecutor();
+        try {
+            JdkHttpHyperClient virtualClient = new JdkHttpHyperClient(HttpClient.newBuilder().executor(executor).build());
+            virtualClient.setAcceptedContentTypes(Collections.singleton(ACCEPT_VALUE));
+
+            Future<Response> response = executor.submit(() -> virtualClient.execute(BoringRequestBuilder.get(url).build()));
+
+            assertEquals(201, response.get(10, TimeUnit.SECONDS).getCode());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testGetSchemes() {
+        assertArrayEquals(new String[]{"http", "https"}, client.getSchemes());
+    }
+
+}
@@ -1,8 +1,10 @@
 package org.hyperfit.net.okhttp2;
 
+import java.io.IOException;
 import java.net.CookieHandler;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Future;
 
 import com.squareup.okhttp.internal.http.HttpMethod;
 import org.hyperfit.exception.HyperfitException;
@@ -11,6 +13,8 @@ import org.hyperfit.utils.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.squareup.okhttp.Call;
+import com.squareup.okhttp.Callback;
 import com.squareup.okhttp.Headers;
 import com.squareup.okhttp.MediaType;
 import com.squareup.okhttp.OkHttpClient;
@@ -52,7 +56,48 @@ public class OkHttp2HyperClient extends BaseHyperClient {
      * @return {@inheritDoc}
      */
     public Response execute(Request request) {
-        // Validate required elements
+        checkRequest(request);
+
+        return doResponse(doRequest(prepareRequest(request)), request);
+    }
+
+    /**
+     * Enqueues the request on the OkHttp client's dispatcher, the response is read on the dispatcher's thread.
+     * Cancelling the returned future cancels the call.
+     * @param request {@link org.hyperfit.net.Request}
+     * @param callback {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    public Future<Response> executeAsync(final Request request, ResponseCallback callback) {
+        checkRequest(request);
+
+        final Call call = client.newCall(prepareRequest(request));
+        final ResponseFuture future = new ResponseFuture(callback) {
+            @Override
+            protected void onCancel() {
+                call.cancel();
+            }
+        };
+
+        call.enqueue(new Callback() {
+            public void onFailure(com.squareup.okhttp.Request okRequest, IOException e) {
+                LOG.error("Unable to Execute Request", e);
+                future.fail(new HyperfitException("The request [" + okRequest + "] could not be executed.", e));
+            }
+
+            public void onResponse(com.squareup.okhttp.Response response) {
+                try {
+                    future.complete(doResponse(response, request));
+                } catch (RuntimeException e) {
+                    future.fail(e);
+                }
+            }
+        });
+
+        return future;
+    }
+
+    private static void checkRequest(Request request) {
         if (request == null) {
             throw new IllegalArgumentException("request cannot be null.");
         }
@@ -64,8 +109,6 @@ public class OkHttp2HyperClient extends BaseHyperClient {
         if (StringUtils.isEmpty(request.getUrl())) {
             throw new IllegalArgumentException("request's url cannot be empty.");
         }
-
-        return doResponse(doRequest(prepareRequest(request)), request);
     }
 
     public OkHttp2HyperClient setAcceptedContentTypes(Set<String> acceptedContentTypes) {
@@ -6,18 +6,25 @@ import org.hyperfit.net.*;
 import com.google.common.base.Charsets;
 import com.squareup.okhttp.*;
 
+import java.io.IOException;
 import java.net.CookieManager;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import static org.hyperfit.net.HttpUtils.ACCEPT;
 import static org.junit.Assert.*;
+import static org.hamcrest.Matchers.instanceOf;
 
 import com.squareup.okhttp.Request;
 import com.squareup.okhttp.Response;
+import com.squareup.okhttp.Call;
+import com.squareup.okhttp.Callback;
 import okio.Buffer;
 import okio.BufferedSource;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
@@ -312,4 +319,80 @@ public class OkHttp2HyperClientTest {
         Arrays.sort(real);
         Arrays.equals(expected,real);
     }
+
+    private org.hyperfit.net.Request asyncRequest() {
+        return new RFC6570RequestBuilder()
+            .setUrlTemplate(URL)
+            .setMethod(Method.GET)
+            .build();
+    }
+
+    @Test
+    public void testExecuteAsync() throws Exception {
+        Call mockCall = mock(Call.class);
+        when(mockOkHttpClient.newCall(any(Request.class))).thenReturn(mockCall);
+        ResponseCallback mockCallback = mock(ResponseCallback.class);
+
+        org.hyperfit.net.Request request = asyncRequest();
+        Future<org.hyperfit.net.Response> future = okHttp2HyperClient.executeAsync(request, mockCallback);
+
+        ArgumentCaptor<Callback> okCallback = ArgumentCaptor.forClass(Callback.class);
+        verify(mockCall).enqueue(okCallback.capture());
+        verify(mockCall, never()).execute();
+        assertFalse(future.isDone());
+
+        String fakeContent = UUID.randomUUID().toString();
+        okCallback.getValue().onResponse(
+            okResponseBuilder
+                .request(okRequestBuilder.url(URL).build())
+                .code(200)
+                .protocol(Protocol.HTTP_1_1)
+                .body(ResponseBody.create(null, fakeContent))
+                .build()
+        );
+
+        assertEquals(fakeContent, future.get().getBody());
+        assertSame(request, future.get().getRequest());
+        verify(mockCallback).onResponse(future.get());
+    }
+
+    @Test
+    public void testExecuteAsyncFailure() throws Exception {
+        Call mockCall = mock(Call.class);
+        when(mockOkHttpClient.newCall(any(Request.class))).thenReturn(mockCall);
+
+        Future<org.hyperfit.net.Response> future = okHttp2HyperClient.executeAsync(asyncRequest(), null);
+
+        ArgumentCaptor<Callback> okCallback = ArgumentCaptor.forClass(Callback.class);
+        verify(mockCall).enqueue(okCallback.capture());
+
+        IOException fakeException = new IOException("unreachable");
+        okCallback.getValue().onFailure(okRequestBuilder.url(URL).build(), fakeException);
+
+        try {
+            future.get();
+            fail("expected the request to fail");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(HyperfitException.class));
+            assertSame(fakeException, e.getCause().getCause());
+        }
+    }
+
+    @Test
+    public void testExecuteAsyncCancel() {
+        Call mockCall = mock(Call.class);
+        when(mockOkHttpClient.newCall(any(Request.class))).thenReturn(mockCall);
+
+        Future<org.hyperfit.net.Response> future = okHttp2HyperClient.executeAsync(asyncRequest(), null);
+
+        assertTrue(future.cancel(true));
+        verify(mockCall).cancel();
+        assertTrue(future.isCancelled());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExecuteAsyncNullRequest() {
+        okHttp2HyperClient.executeAsync(null, null);
+    }
+
 }
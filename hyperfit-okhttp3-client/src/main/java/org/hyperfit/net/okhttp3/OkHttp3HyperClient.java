@@ -7,8 +7,10 @@ import org.hyperfit.net.Request;
 import org.hyperfit.net.Response;
 import org.hyperfit.utils.StringUtils;
 
+import java.io.IOException;
 import java.net.CookieHandler;
 import java.util.Map.Entry;
+import java.util.concurrent.Future;
 
 import okhttp3.internal.http.HttpMethod;
 
@@ -42,6 +44,47 @@ public class OkHttp3HyperClient extends BaseHyperClient {
      * @return {@inheritDoc}
      */
     public Response execute(Request request) {
+        checkRequest(request);
+
+        return doResponse(doRequest(prepareRequest(request)), request);
+    }
+
+    /**
+     * Enqueues the request on the OkHttp client's dispatcher, the response is read on the dispatcher's thread.
+     * Cancelling the returned future cancels the call.
+     * @param request {@link org.hyperfit.net.Request}
+     * @param callback {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    public Future<Response> executeAsync(final Request request, ResponseCallback callback) {
+        checkRequest(request);
+
+        final okhttp3.Call call = client.newCall(prepareRequest(request));
+        final ResponseFuture future = new ResponseFuture(callback) {
+            @Override
+            protected void onCancel() {
+                call.cancel();
+            }
+        };
+
+        call.enqueue(new Callback() {
+            public void onFailure(okhttp3.Call call, IOException e) {
+                future.fail(new HyperfitException("The request [" + request + "] could not be executed.", e));
+            }
+
+            public void onResponse(okhttp3.Call call, okhttp3.Response response) {
+                try {
+                    future.complete(doResponse(response, request));
+                } catch (RuntimeException e) {
+                    future.fail(e);
+                }
+            }
+        });
+
+        return future;
+    }
+
+    private static void checkRequest(Request request) {
         if (request == null) {
             throw new IllegalArgumentException("request cannot be null.");
         }
@@ -53,8 +96,6 @@ public class OkHttp3HyperClient extends BaseHyperClient {
         if (StringUtils.isEmpty(request.getUrl())) {
             throw new IllegalArgumentException("request's url cannot be empty.");
         }
-
-        return doResponse(doRequest(prepareRequest(request)), request);
     }
 
     public HyperClient setCookieHandler(CookieHandler handler) {
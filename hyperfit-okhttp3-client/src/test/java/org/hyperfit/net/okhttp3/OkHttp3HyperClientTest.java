@@ -6,8 +6,11 @@ import org.hyperfit.exception.HyperfitException;
 
 import com.google.common.base.Charsets;
 
+import java.io.IOException;
 import java.net.CookieHandler;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import static org.hyperfit.net.HttpUtils.ACCEPT;
 import static org.junit.Assert.*;
@@ -18,12 +21,15 @@ import okio.BufferedSource;
 import org.hyperfit.net.HyperClient;
 import org.hyperfit.net.Method;
 import org.hyperfit.net.RFC6570RequestBuilder;
+import org.hyperfit.net.ResponseCallback;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
 
 
@@ -371,4 +377,82 @@ public class OkHttp3HyperClientTest {
         Arrays.sort(real);
         Arrays.equals(expected,real);
     }
+
+    private org.hyperfit.net.Request asyncRequest() {
+        return new RFC6570RequestBuilder()
+            .setUrlTemplate(URL)
+            .setMethod(Method.GET)
+            .build();
+    }
+
+    @Test
+    public void testExecuteAsync() throws Exception {
+        Call mockCall = mock(Call.class);
+        when(mockOkHttpClient.newCall(any(Request.class))).thenReturn(mockCall);
+        ResponseCallback mockCallback = mock(ResponseCallback.class);
+
+        org.hyperfit.net.Request request = asyncRequest();
+        Future<org.hyperfit.net.Response> future = okHttp3HyperClient.executeAsync(request, mockCallback);
+
+        ArgumentCaptor<Callback> okCallback = ArgumentCaptor.forClass(Callback.class);
+        verify(mockCall).enqueue(okCallback.capture());
+        verify(mockCall, never()).execute();
+        assertFalse(future.isDone());
+
+        String fakeContent = UUID.randomUUID().toString();
+        okCallback.getValue().onResponse(
+            mockCall,
+            okResponseBuilder
+                .request(okRequestBuilder.url(URL).build())
+                .code(200)
+                .message("ok")
+                .protocol(Protocol.HTTP_1_1)
+                .body(ResponseBody.create(null, fakeContent))
+                .build()
+        );
+
+        assertEquals(fakeContent, future.get().getBody());
+        assertSame(request, future.get().getRequest());
+        verify(mockCallback).onResponse(future.get());
+    }
+
+    @Test
+    public void testExecuteAsyncFailure() throws Exception {
+        Call mockCall = mock(Call.class);
+        when(mockOkHttpClient.newCall(any(Request.class))).thenReturn(mockCall);
+
+        Future<org.hyperfit.net.Response> future = okHttp3HyperClient.executeAsync(asyncRequest(), null);
+
+        ArgumentCaptor<Callback> okCallback = ArgumentCaptor.forClass(Callback.class);
+        verify(mockCall).enqueue(okCallback.capture());
+
+        IOException fakeException = new IOException("unreachable");
+        okCallback.getValue().onFailure(mockCall, fakeException);
+
+        try {
+            future.get();
+            fail("expected the request to fail");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(HyperfitException.class));
+            assertSame(fakeException, e.getCause().getCause());
+        }
+    }
+
+    @Test
+    public void testExecuteAsyncCancel() {
+        Call mockCall = mock(Call.class);
+        when(mockOkHttpClient.newCall(any(Request.class))).thenReturn(mockCall);
+
+        Future<org.hyperfit.net.Response> future = okHttp3HyperClient.executeAsync(asyncRequest(), null);
+
+        assertTrue(future.cancel(true));
+        verify(mockCall).cancel();
+        assertTrue(future.isCancelled());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExecuteAsyncNullRequest() {
+        okHttp3HyperClient.executeAsync(null, null);
+    }
+
 }
@@ -0,0 +1,462 @@
+package org.hyperfit.net.unixsocket;
+
+import org.hyperfit.exception.HyperfitException;
+import org.hyperfit.net.BaseHyperClient;
+import org.hyperfit.net.HttpUtils;
+import org.hyperfit.net.HyperClient;
+import org.hyperfit.net.Method;
+import org.hyperfit.net.Request;
+import org.hyperfit.net.Response;
+import org.hyperfit.utils.StringUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.CookieHandler;
+import java.net.StandardProtocolFamily;
+import java.net.URI;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.hyperfit.net.HttpUtils.ACCEPT;
+import static org.hyperfit.net.HttpUtils.CONTENT_TYPE;
+
+/**
+ * Implementation of hypermedia provider, sending HTTP/1.1 requests over unix domain sockets, IE to a sidecar proxy
+ * listening on a socket file, instead of over TCP.  The url's scheme and authority only pick the socket, the
+ * authority is sent as the Host header and the proxy is expected to speak plain HTTP on the socket for https urls too.
+ *
+ * Each request is sent on its own connection.
+ */
+public class UnixSocketHyperClient extends BaseHyperClient {
+
+    private static final String[] COOKIE_HEADERS = {"Cookie", "Cookie2"};
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+    //always set by the client from the url, content and connection handling, Accept and Content-Type when it has them
+    private static final Set<String> MANAGED_HEADERS = new HashSet<String>(Arrays.asList(
+        "host", "content-length", "connection"
+    ));
+
+    private final Path defaultSocket;
+    private final Map<String, Path> routes = new ConcurrentHashMap<String, Path>();
+
+    private volatile CookieHandler cookieHandler;
+
+
+    /**
+     * Create a Hyper Client that only sends requests for authorities given to {@link #route(String, Path)}
+     */
+    public UnixSocketHyperClient() {
+        this.defaultSocket = null;
+    }
+
+    /**
+     * Create a Hyper Client that sends requests for authorities without a route to a socket
+     *
+     * @param defaultSocket the path of the socket file
+     */
+    public UnixSocketHyperClient(Path defaultSocket) {
+        if (defaultSocket == null) {
+            throw new IllegalArgumentException("defaultSocket cannot be null.");
+        }
+
+        this.defaultSocket = defaultSocket;
+    }
+
+
+    /**
+     * Sends requests for an authority to a socket
+     * @param authority the host, and port if the urls have one, IE api.example.com or localhost:8080
+     * @param socket the path of the socket file
+     * @return this client
+     */
+    public UnixSocketHyperClient route(String authority, Path socket) {
+        if (StringUtils.isEmpty(authority)) {
+            throw new IllegalArgumentException("authority cannot be empty.");
+        }
+        if (socket == null) {
+            throw new IllegalArgumentException("socket cannot be null.");
+        }
+
+        routes.put(authority.toLowerCase(), socket);
+        return this;
+    }
+
+    /**
+     * @param request {@link org.hyperfit.net.Request}
+     * @return {@inheritDoc}
+     */
+    public Response execute(Request request) {
+        checkRequest(request);
+
+        URI uri = URI.create(request.getUrl());
+        Path socket = socketFor(uri);
+
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(socket));
+
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+            writeRequest(out, request, uri);
+            out.flush();
+
+            return readResponse(new BufferedInputStream(Channels.newInputStream(channel)), request, uri);
+        } catch (IOException ex) {
+            throw new HyperfitException("The request [" + request + "] could not be executed over " + socket, ex);
+        }
+    }
+
+    /**
+     * Cookies are added to requests and stored from responses by this client
+     * @param handler the cookie handler, null for none
+     * @return this client
+     */
+    public HyperClient setCookieHandler(CookieHandler handler) {
+        this.cookieHandler = handler;
+        return this;
+    }
+
+    public String[] getSchemes() {
+        return new String[]{"http", "https"};
+    }
+
+
+    private static void checkRequest(Request request) {
+        if (request == null) {
+            throw new IllegalArgumentException("request cannot be null.");
+        }
+
+        if (request.getMethod() == null) {
+            throw new IllegalArgumentException("request's method cannot be null.");
+        }
+
+        if (StringUtils.isEmpty(request.getUrl())) {
+            throw new IllegalArgumentException("request's url cannot be empty.");
+        }
+    }
+
+    private Path socketFor(URI uri) {
+        String authority = uri.getRawAuthority();
+        Path socket = authority == null ? null : routes.get(authority.toLowerCase());
+        if (socket == null) {
+            socket = defaultSocket;
+        }
+
+        if (socket == null) {
+            throw new HyperfitException("No unix domain socket is routed for [" + uri + "]");
+        }
+
+        return socket;
+    }
+
+    /**
+     * Writes the request line, headers and content of the request
+     */
+    @SuppressWarnings("unchecked")
+    void writeRequest(OutputStream out, Request request, URI uri) throws IOException {
+        String target = StringUtils.isEmpty(uri.getRawPath()) ? "/" : uri.getRawPath();
+        if (uri.getRawQuery() != null) {
+            target += "?" + uri.getRawQuery();
+        }
+
+        Map<String, List<String>> headers = new LinkedHashMap<String, List<String>>();
+        setHeader(headers, "Host", uri.getRawAuthority());
+
+        Iterable<Entry<String, String>> requestHeaders = request.getHeaders();
+        if (requestHeaders != null) {
+            for (Entry<String, String> h : requestHeaders) {
+                if (!MANAGED_HEADERS.contains(h.getKey().toLowerCase())) {
+                    addHeader(headers, h.getKey(), h.getValue());
+                }
+            }
+        }
+
+        String accept = HttpUtils.buildAcceptHeaderValue(request.getAcceptedContentTypes(), this.getAcceptedContentTypes());
+        if (!accept.isEmpty()) {
+            setHeader(headers, ACCEPT, accept);
+        }
+
+        byte[] content = null;
+        if (request.getContentType() != null && request.getContent() != null) {
+            content = request.getContent().getBytes(charsetOf(request.getContentType()));
+            setHeader(headers, CONTENT_TYPE, request.getContentType());
+            setHeader(headers, "Content-Length", String.valueOf(content.length));
+        } else if (request.getMethod() == Method.POST || request.getMethod() == Method.PUT) {
+            setHeader(headers, "Content-Length", "0");
+        }
+
+        addCookies(headers, uri);
+
+        setHeader(headers, "Connection", "close");
+
+        StringBuilder head = new StringBuilder();
+        head.append(request.getMethod().name()).append(' ').append(target).append(" HTTP/1.1\r\n");
+        for (Entry<String, List<String>> h : headers.entrySet()) {
+            for (String value : h.getValue()) {
+                head.append(h.getKey()).append(": ").append(value).append("\r\n");
+            }
+        }
+        head.append("\r\n");
+
+        out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+        if (content != null) {
+            out.write(content);
+        }
+    }
+
+    /**
+     * Sets a header, replacing the values of any header with the same name in a different case
+     */
+    private static void setHeader(Map<String, List<String>> headers, String name, String value) {
+        for (Iterator<String> names = headers.keySet().iterator(); names.hasNext(); ) {
+            if (names.next().equalsIgnoreCase(name)) {
+                names.remove();
+            }
+        }
+        addHeader(headers, name, value);
+    }
+
+    private static void addHeader(Map<String, List<String>> headers, String name, String value) {
+        List<String> values = headers.get(name);
+        if (values == null) {
+            values = new ArrayList<String>(1);
+            headers.put(name, values);
+        }
+        values.add(value);
+    }
+
+    private void addCookies(Map<String, List<String>> headers, URI uri) {
+        CookieHandler handler = cookieHandler;
+        if (handler == null) {
+            return;
+        }
+
+        Map<String, List<String>> cookies;
+        try {
+            cookies = handler.get(uri, headers);
+        } catch (IOException ex) {
+            throw new HyperfitException("Could not get the cookies for [" + uri + "]", ex);
+        }
+
+        for (String cookieHeader : COOKIE_HEADERS) {
+            List<String> values = cookies.get(cookieHeader);
+            if (values != null) {
+                for (String value : values) {
+                    addHeader(headers, cookieHeader, value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Build HyperMedia Response from the status line, headers and body read from the socket
+     *
+     * @return {@link org.hyperfit.net.Response}
+     */
+    Response readResponse(InputStream in, Request request, URI uri) throws IOException {
+        int code;
+        List<Entry<String, String>> headers;
+        //skip interim responses, IE 100 Continue
+        do {
+            String statusLine = readLine(in);
+            if (statusLine == null) {
+                throw new EOFException("The connection was closed before a response was received");
+            }
+            code = parseStatusCode(statusLine);
+            headers = readHeaders(in);
+        } while (code >= 100 && code < 200);
+
+        String contentType = null;
+        String contentLength = null;
+        boolean chunked = false;
+        Map<String, List<String>> headerMap = new LinkedHashMap<String, List<String>>();
+        for (Entry<String, String> h : headers) {
+            if (h.getKey().equalsIgnoreCase(CONTENT_TYPE) && contentType == null) {
+                contentType = h.getValue();
+            } else if (h.getKey().equalsIgnoreCase("Content-Length")) {
+                contentLength = h.getValue();
+            } else if (h.getKey().equalsIgnoreCase("Transfer-Encoding")) {
+                chunked = h.getValue().toLowerCase().contains("chunked");
+            }
+            addHeader(headerMap, h.getKey(), h.getValue());
+        }
+
+        byte[] body;
+        if (request.getMethod() == Method.HEAD || code == 204 || code == 304) {
+            body = new byte[0];
+        } else if (chunked) {
+            body = readChunked(in);
+        } else if (contentLength != null) {
+            body = readFully(in, parseContentLength(contentLength));
+        } else {
+            body = readToEnd(in);
+        }
+
+        CookieHandler handler = cookieHandler;
+        if (handler != null) {
+            handler.put(uri, headerMap);
+        }
+
+        Response.ResponseBuilder b = Response.builder()
+            .addCode(code)
+            .addRequest(request);
+
+        for (Entry<String, String> h : headers) {
+            b.addHeader(h.getKey(), h.getValue());
+        }
+
+        //Set the content type explicitly, even though it comes from the headers.  Hyperfit needs to know this
+        //abstracted from the headers
+        b.addContentType(contentType);
+
+        b.addBody(new String(body, charsetOf(contentType)));
+
+        return b.build();
+    }
+
+    private static int parseStatusCode(String statusLine) throws IOException {
+        //HTTP/1.1 200 OK
+        String[] parts = statusLine.split(" ", 3);
+        if (parts.length < 2 || !parts[0].startsWith("HTTP/")) {
+            throw new IOException("Not an HTTP status line [" + statusLine + "]");
+        }
+
+        try {
+            return Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            throw new IOException("Not an HTTP status line [" + statusLine + "]", e);
+        }
+    }
+
+    private static int parseContentLength(String contentLength) throws IOException {
+        try {
+            return Integer.parseInt(contentLength.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid Content-Length [" + contentLength + "]", e);
+        }
+    }
+
+    private static List<Entry<String, String>> readHeaders(InputStream in) throws IOException {
+        List<Entry<String, String>> headers = new ArrayList<Entry<String, String>>();
+        for (String line = readLine(in); !StringUtils.isEmpty(line); line = readLine(in)) {
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                throw new IOException("Invalid header [" + line + "]");
+            }
+            headers.add(new AbstractMap.SimpleImmutableEntry<String, String>(
+                line.substring(0, colon).trim(),
+                line.substring(colon + 1).trim()
+            ));
+        }
+
+        return headers;
+    }
+
+    private static byte[] readChunked(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        while (true) {
+            String sizeLine = readLine(in);
+            if (sizeLine == null) {
+                throw new EOFException("The connection was closed in a chunked body");
+            }
+
+            int extension = sizeLine.indexOf(';');
+            int size;
+            try {
+                size = Integer.parseInt((extension < 0 ? sizeLine : sizeLine.substring(0, extension)).trim(), 16);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid chunk size [" + sizeLine + "]", e);
+            }
+
+            if (size == 0) {
+                //trailers aren't kept
+                readHeaders(in);
+                return body.toByteArray();
+            }
+
+            body.write(readFully(in, size));
+            readLine(in);
+        }
+    }
+
+    private static byte[] readFully(InputStream in, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            int read = in.read(bytes, offset, length - offset);
+            if (read < 0) {
+                throw new EOFException("The connection was closed " + (length - offset) + " bytes before the end of the body");
+            }
+            offset += read;
+        }
+
+        return bytes;
+    }
+
+    private static byte[] readToEnd(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+            out.write(buffer, 0, read);
+        }
+
+        return out.toByteArray();
+    }
+
+    //a line without its CRLF, null at the end of the stream
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int c = in.read(); c != '\n'; c = in.read()) {
+            if (c == -1) {
+                return line.length() == 0 ? null : line.toString();
+            }
+            if (line.length() == MAX_LINE_LENGTH) {
+                throw new IOException("Line longer than " + MAX_LINE_LENGTH + " characters");
+            }
+            line.append((char) c);
+        }
+
+        int end = line.length();
+        if (end > 0 && line.charAt(end - 1) == '\r') {
+            line.setLength(end - 1);
+        }
+
+        return line.toString();
+    }
+
+    private static Charset charsetOf(String contentType) {
+        if (contentType != null) {
+            for (String param : contentType.split(";")) {
+                String trimmed = param.trim();
+                if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+                    try {
+                        return Charset.forName(trimmed.substring(8).replace("\"", "").trim());
+                    } catch (IllegalArgumentException ignored) {
+                        //unknown charsets fall back to the default
+                    }
+                }
+            }
+        }
+
+        return StandardCharsets.UTF_8;
+    }
+
+}
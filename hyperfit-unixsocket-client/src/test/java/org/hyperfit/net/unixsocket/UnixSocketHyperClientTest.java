@@ -0,0 +1,317 @@
+package org.hyperfit.net.unixsocket;
+
+import org.hyperfit.exception.HyperfitException;
+import org.hyperfit.net.BoringRequestBuilder;
+import org.hyperfit.net.Method;
+import org.hyperfit.net.RFC6570RequestBuilder;
+import org.hyperfit.net.Request;
+import org.hyperfit.net.Response;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.CookieManager;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static org.junit.Assert.*;
+
+public class UnixSocketHyperClientTest {
+
+    private static final String ACCEPT_VALUE = "application/hal+json";
+
+    private static final String HAL_RESPONSE = "HTTP/1.1 200 OK\r\n" +
+        "Content-Type: application/hal+json\r\n" +
+        "X-Multi: one\r\n" +
+        "X-Multi: two\r\n" +
+        "Set-Cookie: session=abc; Path=/\r\n" +
+        "Content-Length: 19\r\n" +
+        "\r\n" +
+        "{\"name\":\"hyperfit\"}";
+
+    /**
+     * Answers each connection with the next queued response, or HAL_RESPONSE, and keeps what was sent
+     */
+    private static class StubServer implements Runnable {
+        private final ServerSocketChannel server;
+        private final Thread thread;
+        private final BlockingQueue<String> responses = new LinkedBlockingQueue<>();
+        private final List<String> requests = new CopyOnWriteArrayList<>();
+
+        StubServer(Path socket) throws IOException {
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            server.bind(UnixDomainSocketAddress.of(socket));
+            thread = new Thread(this, "uds-stub");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        public void run() {
+            while (server.isOpen()) {
+                try (SocketChannel channel = server.accept()) {
+                    InputStream in = Channels.newInputStream(channel);
+                    requests.add(readRequest(in));
+
+                    String response = responses.poll();
+                    OutputStream out = Channels.newOutputStream(channel);
+                    out.write((response == null ? HAL_RESPONSE : response).getBytes(StandardCharsets.ISO_8859_1));
+                    out.flush();
+                } catch (IOException e) {
+                    //closed
+                }
+            }
+        }
+
+        private static String readRequest(InputStream in) throws IOException {
+            ByteArrayOutputStream request = new ByteArrayOutputStream();
+            int contentLength = 0;
+            StringBuilder line = new StringBuilder();
+            for (int c = in.read(); c != -1; c = in.read()) {
+                request.write(c);
+                if (c != '\n') {
+                    line.append((char) c);
+                    continue;
+                }
+
+                String header = line.toString().trim();
+                line.setLength(0);
+                if (header.toLowerCase().startsWith("content-length:")) {
+                    contentLength = Integer.parseInt(header.substring(15).trim());
+                }
+                if (header.isEmpty()) {
+                    request.write(in.readNBytes(contentLength));
+                    break;
+                }
+            }
+
+            return request.toString(StandardCharsets.UTF_8);
+        }
+
+        void close() throws IOException {
+            server.close();
+        }
+    }
+
+    private Path dir;
+    private Path socket;
+    private StubServer server;
+
+    private UnixSocketHyperClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("hf");
+        socket = dir.resolve("sidecar.sock");
+        server = new StubServer(socket);
+
+        client = new UnixSocketHyperClient(socket);
+        client.setAcceptedContentTypes(Collections.singleton(ACCEPT_VALUE));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+        try (var files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    @Test
+    public void testExecute() {
+        Request request = BoringRequestBuilder.get("http://api.example.com/things?page=2")
+            .addHeader("X-Custom", "custom")
+            .build();
+
+        Response response = client.execute(request);
+
+        assertEquals(200, response.getCode());
+        assertEquals("{\"name\":\"hyperfit\"}", response.getBody());
+        assertEquals(ACCEPT_VALUE, response.getContentType());
+        assertSame(request, response.getRequest());
+
+        int multi = 0;
+        for (var header : response.getHeaders()) {
+            if (header.getKey().equals("X-Multi")) {
+                multi++;
+            }
+        }
+        assertEquals(2, multi);
+
+        String sent = server.requests.get(0);
+        assertTrue(sent, sent.startsWith("GET /things?page=2 HTTP/1.1\r\n"));
+        assertTrue(sent, sent.contains("\r\nHost: api.example.com\r\n"));
+        assertTrue(sent, sent.contains("\r\nAccept: " + ACCEPT_VALUE + "\r\n"));
+        assertTrue(sent, sent.contains("\r\nX-Custom: custom\r\n"));
+        assertTrue(sent, sent.endsWith("\r\nConnection: close\r\n\r\n"));
+    }
+
+    @Test
+    public void testExecuteSendsContent() {
+        Request request = new RFC6570RequestBuilder()
+            .setUrlTemplate("http://api.example.com/")
+            .setMethod(Method.POST)
+            .setContent("{test:\"t\u00e9st\"}")
+            .setContentType("application/json")
+            .build();
+
+        client.execute(request);
+
+        String sent = server.requests.get(0);
+        assertTrue(sent, sent.startsWith("POST / HTTP/1.1\r\n"));
+        assertTrue(sent, sent.contains("\r\nContent-Type: application/json\r\n"));
+        assertTrue(sent, sent.contains("\r\nContent-Length: 14\r\n"));
+        assertTrue(sent, sent.endsWith("\r\n\r\n{test:\"t\u00e9st\"}"));
+    }
+
+    @Test
+    public void testClientHeadersReplaceRequestHeaders() {
+        Request request = new RFC6570RequestBuilder()
+            .setUrlTemplate("http://api.example.com/")
+            .setMethod(Method.PUT)
+            .setContent("{}")
+            .setContentType("application/json")
+            .addHeader("host", "other.example.com")
+            .addHeader("Connection", "keep-alive")
+            .addHeader("content-length", "100")
+            .addHeader("Content-Type", "text/plain")
+            .addHeader("X-Custom", "custom")
+            .build();
+
+        client.execute(request);
+
+        String sent = server.requests.get(0);
+        assertTrue(sent, sent.startsWith("PUT / HTTP/1.1\r\nHost: api.example.com\r\n"));
+        assertFalse(sent, sent.toLowerCase().contains("other.example.com"));
+        assertFalse(sent, sent.contains("keep-alive"));
+        assertFalse(sent, sent.contains("100"));
+        assertFalse(sent, sent.contains("text/plain"));
+        assertTrue(sent, sent.contains("\r\nContent-Type: application/json\r\n"));
+        assertTrue(sent, sent.contains("\r\nContent-Length: 2\r\n"));
+        assertTrue(sent, sent.contains("\r\nX-Custom: custom\r\n"));
+        assertTrue(sent, sent.endsWith("\r\nConnection: close\r\n\r\n{}"));
+    }
+
+    @Test
+    public void testChunkedResponse() {
+        server.responses.add(
+            "HTTP/1.1 100 Continue\r\n\r\n" +
+            "HTTP/1.1 201 Created\r\n" +
+            "Content-Type: text/plain\r\n" +
+            "Transfer-Encoding: chunked\r\n" +
+            "\r\n" +
+            "5;ext=1\r\nhello\r\n" +
+            "7\r\n, world\r\n" +
+            "0\r\n" +
+            "X-Trailer: ignored\r\n" +
+            "\r\n"
+        );
+
+        Response response = client.execute(BoringRequestBuilder.get("http://api.example.com/").build());
+
+        assertEquals(201, response.getCode());
+        assertEquals("hello, world", response.getBody());
+        assertEquals("text/plain", response.getContentType());
+    }
+
+    @Test
+    public void testResponseUntilClosed() {
+        server.responses.add(
+            "HTTP/1.0 404 Not Found\r\n" +
+            "Content-Type: text/plain; charset=ISO-8859-1\r\n" +
+            "\r\n" +
+            "caf\u00e9"
+        );
+
+        Response response = client.execute(BoringRequestBuilder.get("http://api.example.com/").build());
+
+        assertEquals(404, response.getCode());
+        assertEquals("caf\u00e9", response.getBody());
+    }
+
+    @Test
+    public void testRoutes() throws IOException {
+        Path otherSocket = dir.resolve("other.sock");
+        StubServer other = new StubServer(otherSocket);
+        try {
+            UnixSocketHyperClient routed = new UnixSocketHyperClient()
+                .route("api.example.com", socket)
+                .route("other.example.com:8080", otherSocket);
+            routed.setAcceptedContentTypes(Collections.singleton(ACCEPT_VALUE));
+
+            routed.execute(BoringRequestBuilder.get("https://API.example.com/a").build());
+            routed.execute(BoringRequestBuilder.get("http://other.example.com:8080/b").build());
+
+            assertEquals(1, server.requests.size());
+            assertTrue(server.requests.get(0).startsWith("GET /a "));
+            assertEquals(1, other.requests.size());
+            assertTrue(other.requests.get(0).contains("\r\nHost: other.example.com:8080\r\n"));
+
+            try {
+                routed.execute(BoringRequestBuilder.get("http://unknown.example.com/").build());
+                fail("unknown.example.com isn't routed");
+            } catch (HyperfitException e) {
+                assertTrue(e.getMessage().contains("No unix domain socket"));
+            }
+        } finally {
+            other.close();
+        }
+    }
+
+    @Test
+    public void testCookies() {
+        client.setCookieHandler(new CookieManager());
+
+        client.execute(BoringRequestBuilder.get("http://api.example.com/").build());
+        client.execute(BoringRequestBuilder.get("http://api.example.com/").build());
+
+        assertFalse(server.requests.get(0).contains("Cookie:"));
+        assertTrue(server.requests.get(1).contains("\r\nCookie: session=abc\r\n"));
+    }
+
+    @Test(expected = HyperfitException.class)
+    public void testNothingListening() {
+        new UnixSocketHyperClient(dir.resolve("missing.sock"))
+            .execute(BoringRequestBuilder.get("http://api.example.com/").build());
+    }
+
+    @Test(expected = HyperfitException.class)
+    public void testTruncatedResponse() {
+        server.responses.add("HTTP/1.1 200 OK\r\nContent-Length: 100\r\n\r\nshort");
+
+        client.execute(BoringRequestBuilder.get("http://api.example.com/").build());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExecuteNullRequest() {
+        client.execute(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullSocket() {
+        new UnixSocketHyperClient(null);
+    }
+
+    @Test
+    public void testGetSchemes() {
+        assertArrayEquals(new String[]{"http", "https"}, client.getSchemes());
+    }
+
+}
@@ -0,0 +1,195 @@
+package org.hyperfit;
+
+import org.hyperfit.content.ContentRegistry;
+import org.hyperfit.content.ContentTypeHandler;
+import org.hyperfit.errorhandler.ErrorHandler;
+import org.hyperfit.net.Response;
+import org.hyperfit.resource.HyperResource;
+import org.hyperfit.resource.controls.form.Form;
+import org.hyperfit.resource.controls.link.HyperLink;
+
+import java.util.LinkedHashSet;
+
+/**
+ * A hyper resource whose response is parsed the first time one of its methods is called, used when the
+ * processor defers parsing.  A response that can't be parsed is handed to the error handler's contentParseError
+ * at that point, its result is used as the resource.
+ */
+final class DeferredHyperResource implements HyperResource {
+
+    private final Response response;
+    private final ContentTypeHandler contentTypeHandler;
+    private final HyperfitProcessor processor;
+    private final ContentRegistry contentRegistry;
+    private final ErrorHandler errorHandler;
+    private final Class<?> expectedInterface;
+
+    private volatile HyperResource resource;
+
+    DeferredHyperResource(
+        Response response,
+        ContentTypeHandler contentTypeHandler,
+        HyperfitProcessor processor,
+        ContentRegistry contentRegistry,
+        ErrorHandler errorHandler,
+        Class<?> expectedInterface
+    ) {
+        this.response = response;
+        this.contentTypeHandler = contentTypeHandler;
+        this.processor = processor;
+        this.contentRegistry = contentRegistry;
+        this.errorHandler = errorHandler;
+        this.expectedInterface = expectedInterface;
+    }
+
+    /**
+     * @return true once the response has been parsed
+     */
+    boolean isParsed() {
+        return resource != null;
+    }
+
+    /**
+     * @return the parsed resource, parsing the response if that hasn't happened yet
+     */
+    HyperResource getResource() {
+        HyperResource parsed = resource;
+        if (parsed == null) {
+            synchronized (this) {
+                parsed = resource;
+                if (parsed == null) {
+                    parsed = parse();
+                    resource = parsed;
+                }
+            }
+        }
+
+        return parsed;
+    }
+
+    private HyperResource parse() {
+        try {
+            return contentTypeHandler.parseResponse(response);
+        } catch (Exception e) {
+            return errorHandler.contentParseError(
+                processor,
+                response,
+                contentRegistry,
+                expectedInterface,
+                e
+            );
+        }
+    }
+
+    public HyperLink[] getLinks() {
+        return getResource().getLinks();
+    }
+
+    public HyperLink[] getLinks(String relationship) {
+        return getResource().getLinks(relationship);
+    }
+
+    public HyperLink[] getLinks(String relationship, String name) {
+        return getResource().getLinks(relationship, name);
+    }
+
+    public HyperLink getLink(String relationship) {
+        return getResource().getLink(relationship);
+    }
+
+    public HyperLink getLink(String relationship, String name) {
+        return getResource().getLink(relationship, name);
+    }
+
+    public HyperLink tryGetLink(String relationship) {
+        return getResource().tryGetLink(relationship);
+    }
+
+    public HyperLink tryGetLink(String relationship, String name) {
+        return getResource().tryGetLink(relationship, name);
+    }
+
+    public <T> T getPathAs(Class<T> classToReturn, String... dataFieldPath) {
+        return getResource().getPathAs(classToReturn, dataFieldPath);
+    }
+
+    public <T> T getPathAs(Class<T> classToReturn, boolean nullWhenMissing, String... dataFieldPath) {
+        return getResource().getPathAs(classToReturn, nullWhenMissing, dataFieldPath);
+    }
+
+    public <T> T tryGetPathAs(Class<T> classToReturn, String... dataFieldPath) {
+        return getResource().tryGetPathAs(classToReturn, dataFieldPath);
+    }
+
+    public boolean hasPath(String... path) {
+        return getResource().hasPath(path);
+    }
+
+    public String[] getDataFieldNames() {
+        return getResource().getDataFieldNames();
+    }
+
+    public boolean canResolveLinkLocal(String relationship) {
+        return getResource().canResolveLinkLocal(relationship);
+    }
+
+    public HyperResource resolveLinkLocal(String relationship) {
+        return getResource().resolveLinkLocal(relationship);
+    }
+
+    public HyperResource[] resolveLinksLocal(String relationship) {
+        return getResource().resolveLinksLocal(relationship);
+    }
+
+    public boolean hasLink(String relationship) {
+        return getResource().hasLink(relationship);
+    }
+
+    public boolean hasLink(String relationship, String name) {
+        return getResource().hasLink(relationship, name);
+    }
+
+    public boolean isMultiLink(String relationship) {
+        return getResource().isMultiLink(relationship);
+    }
+
+    public LinkedHashSet<String> getProfiles() {
+        return getResource().getProfiles();
+    }
+
+    public Form getForm(String formName) {
+        return getResource().getForm(formName);
+    }
+
+    public boolean hasForm(String formName) {
+        return getResource().hasForm(formName);
+    }
+
+    public Form[] getForms() {
+        return getResource().getForms();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+
+        if (obj instanceof DeferredHyperResource) {
+            obj = ((DeferredHyperResource) obj).getResource();
+        }
+
+        return getResource().equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return getResource().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        HyperResource parsed = resource;
+        return parsed == null ? "DeferredHyperResource(not parsed yet)" : parsed.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package org.hyperfit;
+
+import org.hyperfit.resource.HyperResource;
+import org.hyperfit.utils.TypeInfo;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An unmodifiable list of embedded resources that only proxifies an item the first time it's accessed.  Each item is
+ * proxified once, after that the same proxy is returned.
+ */
+final class EmbeddedResourceList<T extends HyperResource> extends AbstractList<T> implements RandomAccess {
+
+    private final HyperfitProcessor requestProcessor;
+    private final Class<T> elementClass;
+    private final HyperResource[] hyperResources;
+    private final TypeInfo typeInfo;
+    private final AtomicReferenceArray<T> proxies;
+
+    EmbeddedResourceList(
+        HyperfitProcessor requestProcessor,
+        Class<T> elementClass,
+        HyperResource[] hyperResources,
+        TypeInfo typeInfo
+    ) {
+        this.requestProcessor = requestProcessor;
+        this.elementClass = elementClass;
+        this.hyperResources = hyperResources;
+        this.typeInfo = typeInfo;
+        this.proxies = new AtomicReferenceArray<T>(hyperResources.length);
+    }
+
+    /**
+     * @return true when the return type of a method can be fulfilled with an embedded resource list
+     */
+    static boolean isListType(Class<?> returnClass) {
+        return returnClass == List.class || returnClass == Collection.class || returnClass == Iterable.class;
+    }
+
+    @Override
+    public T get(int index) {
+        T proxy = proxies.get(index);
+        if (proxy == null) {
+            T newProxy = requestProcessor.processResource(elementClass, hyperResources[index], typeInfo);
+
+            //if someone else got there first use theirs so everyone sees the same proxy
+            proxy = proxies.compareAndSet(index, null, newProxy) ? newProxy : proxies.get(index);
+        }
+
+        return proxy;
+    }
+
+    @Override
+    public int size() {
+        return hyperResources.length;
+    }
+
+}
@@ -0,0 +1,131 @@
+package org.hyperfit;
+
+import org.hyperfit.exception.HyperfitException;
+import org.hyperfit.net.Request;
+import org.hyperfit.proxy.GeneratedResourceProxy;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Implements the resource proxies returned by HyperfitProcessor#processRequestAsync.  The first method called waits
+ * for the request to complete, the resource proxy it produced is then kept and every call is made on it, through its
+ * invocation handler when it has one so the method isn't invoked reflectively.
+ *
+ * An exception thrown processing the request, IE by the error handler, is thrown by every method call.
+ */
+final class FutureResourceHandler implements InvocationHandler {
+
+    private final Future<?> future;
+    private final Request request;
+
+    private volatile Object resource;
+    private volatile InvocationHandler resourceHandler;
+
+    FutureResourceHandler(Future<?> future, Request request) {
+        this.future = future;
+        this.request = request;
+    }
+
+    /**
+     * @return true once the request has completed, successfully or not
+     */
+    boolean isDone() {
+        return future.isDone();
+    }
+
+    /**
+     * @return the resource proxy produced by the request, waiting for it if needed
+     */
+    Object getResource() {
+        Object resolved = resource;
+        if (resolved != null) {
+            return resolved;
+        }
+
+        try {
+            resolved = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HyperfitException("Interrupted waiting for the response to " + request, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new HyperfitException("Error processing the response to " + request, (Exception) cause);
+        }
+
+        resourceHandler = handlerOf(resolved);
+        resource = resolved;
+        return resolved;
+    }
+
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        int argsLength = args == null ? 0 : args.length;
+
+        //don't block whoever is just logging or debugging
+        if (argsLength == 0 && name.equals("toString") && !isDone()) {
+            return "FutureResource(" + request + ", pending)";
+        }
+
+        Object resource = getResource();
+
+        if (argsLength == 1 && name.equals("equals") && method.getParameterTypes()[0] == Object.class) {
+            return resource.equals(unwrap(args[0]));
+        }
+
+        InvocationHandler handler = resourceHandler;
+        if (handler != null) {
+            return handler.invoke(resource, method, args);
+        }
+
+        //methods of interfaces that aren't public can only be called on the resource this way
+        if (!method.isAccessible() && !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+            method.setAccessible(true);
+        }
+
+        try {
+            return method.invoke(resource, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @return the handler of a resource proxy, or null when it's not a proxy we can get the handler of
+     */
+    private static InvocationHandler handlerOf(Object resource) {
+        if (resource instanceof GeneratedResourceProxy) {
+            return ((GeneratedResourceProxy) resource).getHyperResourceInvokeHandler();
+        }
+        if (resource != null && Proxy.isProxyClass(resource.getClass())) {
+            return Proxy.getInvocationHandler(resource);
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the resource a future resource proxy resolved to, waiting for it if needed, anything else as is
+     */
+    static Object unwrap(Object other) {
+        if (other != null && Proxy.isProxyClass(other.getClass())) {
+            InvocationHandler otherHandler = Proxy.getInvocationHandler(other);
+            if (otherHandler instanceof FutureResourceHandler) {
+                return ((FutureResourceHandler) otherHandler).getResource();
+            }
+        }
+
+        return other;
+    }
+}
@@ -1,39 +1,25 @@
 package org.hyperfit;
 
-import org.hyperfit.annotation.Content;
-import org.hyperfit.annotation.Data;
-import org.hyperfit.annotation.FirstLink;
-import org.hyperfit.annotation.Header;
-import org.hyperfit.annotation.Link;
-import org.hyperfit.annotation.NamedForm;
-import org.hyperfit.annotation.NamedLink;
-import org.hyperfit.annotation.Param;
-import org.hyperfit.content.ContentRegistry;
-import org.hyperfit.content.ContentType;
-import org.hyperfit.content.ContentTypeHandler;
 import org.hyperfit.exception.HyperfitException;
 import org.hyperfit.handlers.Java8DefaultMethodHandler;
 import org.hyperfit.methodinfo.MethodInfo;
 import org.hyperfit.methodinfo.MethodInfoCache;
 import org.hyperfit.net.RequestBuilder;
+import org.hyperfit.proxy.GeneratedResourceProxy;
 import org.hyperfit.resource.HyperResource;
-import org.hyperfit.resource.HyperResourceException;
-import org.hyperfit.resource.controls.form.Form;
 import org.hyperfit.resource.controls.link.HyperLink;
 import org.hyperfit.resource.controls.link.HyperLinkWrapper;
 import org.hyperfit.utils.ReflectUtils;
-import org.hyperfit.utils.StringUtils;
 import org.hyperfit.utils.TypeInfo;
 import org.javatuples.Pair;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
 import java.util.Arrays;
-
-import static org.hyperfit.methodinfo.MethodInfo.MethodType;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * <p>This class performs all the mappings associated to annotated interfaces for resource interfaces</p>
@@ -42,8 +28,6 @@ import static org.hyperfit.methodinfo.MethodInfo.MethodType;
  */
 public class HyperResourceInvokeHandler implements InvocationHandler {
 
-    private static final String MESSAGE_EXCEPTION_SOLVING_MULTI_LINK = "Cannot resolve a multi link resource";
-
     private final HyperResource hyperResource;
     private final HyperfitProcessor requestProcessor;
 
@@ -52,6 +36,11 @@ public class HyperResourceInvokeHandler implements InvocationHandler {
 
     private final Java8DefaultMethodHandler java8DefaultMethodHandler;
 
+    private final boolean memoizing;
+
+    //results of memoized methods, only created once something is memoized
+    private volatile ConcurrentMap<Object, Object> memos;
+
     public HyperResourceInvokeHandler(
         HyperResource hyperResource,
         HyperfitProcessor requestProcessor,
@@ -62,11 +51,13 @@ public class HyperResourceInvokeHandler implements InvocationHandler {
         this.hyperResource = hyperResource;
         this.requestProcessor = requestProcessor;
 
-        this.typeInfo = (typeInfo != null) ? typeInfo : new TypeInfo();
+        this.typeInfo = (typeInfo != null) ? typeInfo : TypeInfo.empty();
 
         this.methodInfoCache = methodInfoCache;
 
         this.java8DefaultMethodHandler = java8DefaultMethodHandler;
+
+        this.memoizing = requestProcessor != null && requestProcessor.isMemoizing();
     }
 
     protected HyperLink extendHyperLink(HyperLink hyperLink) {
@@ -125,13 +116,37 @@ public class HyperResourceInvokeHandler implements InvocationHandler {
         } catch (HyperfitException hce) {
             throw hce; //don't wrap up hyperfit exceptions
         } catch (Exception e) {
-            throw new HyperfitException(
-                "Unexpected error occurred when handling proxy method invocation [" + method + "] in [" + proxy + "] with arguments: " + Arrays.toString(args),
-                e
-            );
+            throw wrapInvokeException(proxy, method, args, e);
         }
     }
 
+    /**
+     * Fulfills invocation of resource proxy methods with an already resolved invoker, IE from {@link #resolveInvoker}.
+     * Used by generated proxy classes.
+     *
+     * @param proxy  proxy instance
+     * @param method method to invoke
+     * @param invoker invoker resolved for the method
+     * @param args   method params
+     * @return object according to the proxy method invoked
+     */
+    public Object invoke(Object proxy, Method method, MethodInvoker invoker, Object[] args) {
+        try {
+            return invoker.invoke(this, proxy, method, args);
+        } catch (HyperfitException hce) {
+            throw hce; //don't wrap up hyperfit exceptions
+        } catch (Exception e) {
+            throw wrapInvokeException(proxy, method, args, e);
+        }
+    }
+
+    private static HyperfitException wrapInvokeException(Object proxy, Method method, Object[] args, Exception e) {
+        return new HyperfitException(
+            "Unexpected error occurred when handling proxy method invocation [" + method + "] in [" + proxy + "] with arguments: " + Arrays.toString(args),
+            e
+        );
+    }
+
 
     protected <T> T processEmbeddedResources(
         Class<T> returnClass,
@@ -141,8 +156,7 @@ public class HyperResourceInvokeHandler implements InvocationHandler {
         //TODO: in the future this would actually be a strategy...not these if blocks
 
         if (returnClass.isArray()) {
-            //If config info isn't there, let's fall back assuming it's a HyperResource
-            //TODO if we had the type as Page<? extends XYZ> could we then fallback to XYZ?
+            //If config info isn't there, let's fall back to the type variable's bound or assume it's a HyperResource
             Pair<? extends Class<?>,Type> arrayTypeInfo = typeInfo.getArrayType(returnClass, genericReturnType, HyperResource.class);
 
             Class<?> arrayComponentClass = arrayTypeInfo.getValue0();
@@ -166,6 +180,26 @@ public class HyperResourceInvokeHandler implements InvocationHandler {
 
         }
 
+        if (EmbeddedResourceList.isListType(returnClass)) {
+            Pair<? extends Class<?>,Type> elementTypeInfo = typeInfo.getCollectionElementType(returnClass, genericReturnType, HyperResource.class);
+
+            Class<?> elementClass = elementTypeInfo.getValue0();
+
+            if(!HyperResource.class.isAssignableFrom(elementClass)){
+                throw new RuntimeException("Can't deal with collection element type of " + elementClass);
+            }
+
+            //items are only proxified when they're accessed, large pages are often only partially used
+            return returnClass.cast(
+                new EmbeddedResourceList<HyperResource>(
+                    requestProcessor,
+                    (Class<HyperResource>) elementClass,
+                    hyperResources,
+                    typeInfo.make(elementTypeInfo.getValue1())
+                )
+            );
+        }
+
         throw new RuntimeException("Can't deal with return type");
     }
 
@@ -179,287 +213,73 @@ public class HyperResourceInvokeHandler implements InvocationHandler {
      * @return object according to the proxy method invoked
      */
     protected Object processInvoke(Object proxy, Method method, Object[] args) throws Exception {
+        return resolveInvoker(method).invoke(this, proxy, method, args);
+    }
 
-        MethodInfo methodInfo = this.methodInfoCache.get(method);
-
-        if(methodInfo.isDefaultMethod()) {
-            // In the case of a default method on an interface we need to do this a bit differently.
-
-            return java8DefaultMethodHandler.invoke(
-                new Java8DefaultMethodHandler.DefaultMethodContext(
-                    (HyperResource) proxy,
-                    method
-                ),
-                args
-            );
-        }
-
-
-        MethodType methodType = methodInfo.getMethodType();
-
-        //Equals is handled very specially so we check for that first
-        if (MethodType.EQUALS == methodType) {
-            return determineEquals(args);
-        }
-
-        //This handler needs to capture follow methods so it can resolve invokes to follow
-        if (MethodType.GET_LINK == methodType) {
-            return this.extendHyperLink((HyperLink) method.invoke(this.hyperResource, args));
-        }
-
-        if (MethodType.GET_LINKS == methodType) {
-           return this.extendHyperLinks((HyperLink[]) method.invoke(this.hyperResource, args));
-        }
-
-
-        //If it's a method on hyperResource just pass it on through
-        if (MethodType.FROM_HYPER_RESOURCE_CLASS == methodType ||
-                MethodType.HASH_CODE == methodType ||
-                MethodType.TO_STRING == methodType) {
-
-            return method.invoke(this.hyperResource, args);
-        }
-
-        // Data method invocation
-        Data data = methodInfo.getDataAnnotation();
-        if (data != null) {
-            return hyperResource.getPathAs(methodInfo.getReturnType(), methodInfo.isNullWhenMissing(), data.value());
-        }
-
-        // Link method invocation
-        Link link = methodInfo.getLinkAnnotation();
-        if (link != null) {
-            String linkRelationship = link.value();
-
-            //NOTE: this seems a bit hacky, but will a link ever return a boolean? probably not
-            if (boolean.class.isAssignableFrom(methodInfo.getReturnType())) {
-                return hyperResource.hasLink(linkRelationship);
-            }
-
-            //single hyper link
-            if (HyperLink.class.isAssignableFrom(methodInfo.getReturnType())) {
-                if(methodInfo.isNullWhenMissing() && !hyperResource.hasLink(linkRelationship)){
-                    return null;
-                }
-                //TODO: why do we cast this?
-                return ReflectUtils.cast(HyperResource.class, proxy).getLink(linkRelationship);
-            }
-
-            //hyper links
-            if (HyperLink[].class.isAssignableFrom(methodInfo.getReturnType())) {
-                if(methodInfo.isNullWhenMissing() && !hyperResource.hasLink(linkRelationship)){
-                    return null;
-                }
-                //TODO: why do we cast this?
-                return ReflectUtils.cast(HyperResource.class, proxy).getLinks(linkRelationship);
-            }
-
-            //If we can get it locally...do it!
-            if (hyperResource.canResolveLinkLocal(linkRelationship) ) {
-                //TODO: when we get to strategies this condition can be much more interesting
-                //for now we do this if the return type is an array or the link is a multi link
-                if(hyperResource.isMultiLink(linkRelationship) || methodInfo.getReturnType().isArray()) {
-
-                    return this.processEmbeddedResources(
-                        methodInfo.getReturnType(),
-                        methodInfo.getGenericReturnType(),
-                        hyperResource.resolveLinksLocal(linkRelationship)
-                    );
-
-                } else if (HyperResource.class.isAssignableFrom(methodInfo.getReturnType())){
-                    return this.requestProcessor.processResource(
-                        (Class<? extends HyperResource>)methodInfo.getReturnType(),
-                        hyperResource.resolveLinkLocal(linkRelationship),
-                        typeInfo.make(methodInfo.getGenericReturnType())
-                    );
-                }
-
-            }
-
-            //@Link annotated methods can refer to multiple links...we don't currently support multiple requests
-            if (hyperResource.isMultiLink(linkRelationship)) {
-               throw new UnsupportedOperationException(MESSAGE_EXCEPTION_SOLVING_MULTI_LINK);
-            }
-
-            if(methodInfo.isNullWhenMissing() && !hyperResource.hasLink(linkRelationship)){
-                return null;
-            }
-
-            //At this point we know it's a single link that's not embedded and is expected to be present
-            HyperLink hyperLink = hyperResource.getLink(linkRelationship);
-            RequestBuilder requestBuilder = hyperLink.toRequestBuilder();
-            // Set method type (default=GET)
-            requestBuilder.setMethod(methodInfo.getRequestMethod());
-            assignAnnotatedValues(requestBuilder, methodInfo.getParameterAnnotations(), args);
-            //If follow supported parameters..we could just pass those and call hyperlink.follow(params)..if we could figure out the TypeRef thing...
-            return requestProcessor.processRequest(methodInfo.getReturnType(), requestBuilder, typeInfo.make(methodInfo.getGenericReturnType()));
-        }
-
-
-        // Named Link method invocation
-        //TODO: this is VERY similar to above, it just calls different methods
-        //maybe when we move to strategies this will get cleaned up
-        NamedLink namedLink = methodInfo.getNamedLinkAnnotation();
-        if (namedLink != null) {
-            String linkRelationship = namedLink.rel();
-            String linkName = namedLink.name();
-
-            //java doesn't let us have nulls..but we can have null names on links so we do this
-            if(linkName.equals(NamedLink.NULL)){
-                linkName = null;
-            }
-
-            //NOTE: this seems a bit hacky, but will a link ever return a boolean? probably not
-            if (boolean.class.isAssignableFrom(methodInfo.getReturnType())) {
-                return hyperResource.hasLink(linkRelationship, linkName);
-            }
-
-            //single hyper link
-            if (HyperLink.class.isAssignableFrom(methodInfo.getReturnType())) {
-                if(methodInfo.isNullWhenMissing() && !hyperResource.hasLink(linkRelationship)){
-                    return null;
-                }
-                //TODO: why do we cast this?
-                return ReflectUtils.cast(HyperResource.class, proxy).getLink(linkRelationship, linkName);
-            }
-
-            //hyper links
-            if (HyperLink[].class.isAssignableFrom(methodInfo.getReturnType())) {
-                if(methodInfo.isNullWhenMissing() && !hyperResource.hasLink(linkRelationship)){
-                    return null;
-                }
-                //TODO: why do we cast this?
-                return ReflectUtils.cast(HyperResource.class, proxy).getLinks(linkRelationship, linkName);
-            }
-
-            //TODO: we have no concept of resolving a named link locally.  We would need a canResolveLocal(rel, name) and resolveLocal(rel, name)
-            //HAL has no way to identify a named embedded link so for now we don't even bother checking for that..
-
-
-            if(methodInfo.isNullWhenMissing() && !hyperResource.hasLink(linkRelationship, linkName)){
-                return null;
-            }
-
-            //At this point we know it's a single link that's not embedded  and is expected to be present
-            HyperLink hyperLink = hyperResource.getLink(linkRelationship, linkName);
-            RequestBuilder requestBuilder = hyperLink.toRequestBuilder();
-            // Set method type (default=GET)
-            requestBuilder.setMethod(methodInfo.getRequestMethod());
-            assignAnnotatedValues(requestBuilder, methodInfo.getParameterAnnotations(), args);
-            //If follow supported parameters..we could just pass those and call hyperlink.follow(params)..if we could figure out the TypeRef thing...
-            return requestProcessor.processRequest(methodInfo.getReturnType(), requestBuilder, typeInfo.make(methodInfo.getGenericReturnType()));
-
-        }
-
-
-        // First Link method invocation
-        //TODO: first link annotated methods don't currently perform all the functions of other link annotated methods
-        //TODO: this is built to be a custom strategy on top of basic Resource functions
-        FirstLink firstLink = methodInfo.getFirstLinkAnnotation();
-        if (firstLink != null) {
-            if (HyperLink.class.isAssignableFrom(methodInfo.getReturnType())) {
-
-                String relationship = firstLink.rel();
-                HyperLink[] relLinks = hyperResource.getLinks(relationship);
-
-                if(relLinks.length == 0){
-                    throw new HyperResourceException("Could not find a link with relationship " + relationship);
-                }
-
-                for(String name : firstLink.names()){
-                    //java doesn't let us have nulls..but we can have null names on links so we do this
-                    if(name.equals(FirstLink.NULL)){
-                        name = null;
-                    }
-
-                    if(StringUtils.safeEquals(name, FirstLink.MATCH_ANY_NAME)){
-                        //If it's the wildcard, just return the first one
-                        return ReflectUtils.cast(HyperResource.class, proxy).getLink(relationship, relLinks[0].getName());
-                    }
-
-                    for(HyperLink relLink : relLinks){
-                        if(StringUtils.safeEquals(name, relLink.getName())){
-                            return ReflectUtils.cast(HyperResource.class, proxy).getLink(relationship, relLink.getName());
-                        }
-                    }
-                }
-
-                //If it was never found indicate that.
-                throw new HyperResourceException("Could not find a link with relationship [" + relationship + "] and name [" +  Arrays.toString(firstLink.names()) + "]");
-
-            }
-
-        }
-
-        NamedForm namedFormAnnotation = methodInfo.getNamedFormAnnotation();
-        if (namedFormAnnotation != null) {
-            String formName = namedFormAnnotation.value();
-
-            if (boolean.class.isAssignableFrom(methodInfo.getReturnType())){
-                return hyperResource.hasForm(formName);
-            }
+    /**
+     * @return the invoker of the method, from the processor's method info cache, for memoizing or not as this handler does
+     */
+    public MethodInvoker resolveInvoker(Method method) {
+        MethodInfo methodInfo = getMethodInfo(method);
+        return isMemoizing() ? methodInfo.getMemoizingInvoker() : methodInfo.getInvoker();
+    }
 
-            if(Form.class.isAssignableFrom(methodInfo.getReturnType())){
-                return hyperResource.getForm(formName);
-            }
+    /**
+     * @return the information of the method, from the processor's method info cache
+     */
+    public MethodInfo getMethodInfo(Method method) {
+        return this.methodInfoCache.get(method);
+    }
 
-            //At this point we know it's a single link that's not embedded
-            RequestBuilder requestBuilder = hyperResource.getForm(formName).toRequestBuilder();
-            assignAnnotatedValues(requestBuilder, methodInfo.getParameterAnnotations(), args);
-            return requestProcessor.processRequest(methodInfo.getReturnType(), requestBuilder, typeInfo.make(methodInfo.getGenericReturnType()));
 
-        }
+    /**
+     * @return the method info cache of the processor this handler fulfills method invocations for
+     */
+    public MethodInfoCache getMethodInfoCache() {
+        return methodInfoCache;
+    }
 
-        throw new HyperfitException("Cannot handle proxy method invocation [" + method + "] in [" + proxy + "]");
+    /**
+     * @return the hyper resource this handler fulfills method invocations with
+     */
+    public HyperResource getHyperResource() {
+        return hyperResource;
     }
 
+    HyperfitProcessor getRequestProcessor() {
+        return requestProcessor;
+    }
 
+    TypeInfo getTypeInfo() {
+        return typeInfo;
+    }
 
-    /**
-     * Assigns annotated values from request method into the requestBuilder
-     *
-     * @param requestBuilder  builder for the request
-     * @param annotationsPerParams Param annotations
-     * @param methodCallParams     parameters values
-     */
-    protected void assignAnnotatedValues(org.hyperfit.net.RequestBuilder requestBuilder, Annotation[][] annotationsPerParams, Object[] methodCallParams) {
-        if (methodCallParams != null) {
-            for (int i = 0; i < methodCallParams.length; i++) {
-                if (methodCallParams[i] != null) {
-                    assignAnnotatedValues(requestBuilder, annotationsPerParams[i], methodCallParams[i]);
-                }
-            }
-        }
+    Java8DefaultMethodHandler getJava8DefaultMethodHandler() {
+        return java8DefaultMethodHandler;
     }
 
     /**
-     * Assigns annotated values into requestBuilder according to annotation types
-     *
-     * @param requestBuilder  builder for the request
-     * @param annotationsPerParams Param annotations
-     * @param value                param value
+     * @return true when methods without a {@link org.hyperfit.annotation.Memoize} annotation are memoized
      */
-    protected void assignAnnotatedValues(org.hyperfit.net.RequestBuilder requestBuilder, Annotation[] annotationsPerParams, Object value) {
-        for (Annotation annotation : annotationsPerParams) {
-            if (Param.class.isInstance(annotation)) {
-                requestBuilder.setParam(ReflectUtils.cast(Param.class, annotation).value(), value);
-            }
+    public boolean isMemoizing() {
+        return memoizing;
+    }
 
-            if (Header.class.isInstance(annotation)) {
-                requestBuilder.addHeader(ReflectUtils.cast(Header.class, annotation).value(), value.toString());
+    ConcurrentMap<Object, Object> getMemos() {
+        ConcurrentMap<Object, Object> result = memos;
+        if (result == null) {
+            synchronized (this) {
+                if (memos == null) {
+                    memos = new ConcurrentHashMap<Object, Object>(4);
+                }
+                result = memos;
             }
+        }
 
-            if(Content.class.isInstance(annotation)){
-                //this seems dangerous...should we force a default value?
-                ContentType contentType = ContentType.parse(Content.class.cast(annotation).value());
+        return result;
+    }
 
-                //TODO: make this protected hack non-sense go away...something is wrong with our class layout if we need to do this
-                ContentTypeHandler contentEncoder = this.requestProcessor.contentRegistry.getHandler(contentType, ContentRegistry.Purpose.PREPARE_REQUEST);
-                contentEncoder.prepareRequest(requestBuilder, value);
-            }
 
-        }
-    }
 
     /**
      * Calculates equals in case of equals method invocation through the proxy
@@ -469,13 +289,19 @@ public class HyperResourceInvokeHandler implements InvocationHandler {
      */
     protected boolean determineEquals(Object[] args) {
         HyperResourceInvokeHandler otherProxy;
-
-        try {
-            otherProxy = (HyperResourceInvokeHandler) Proxy.getInvocationHandler(args[0]);
-        } catch (IllegalArgumentException e) {
-            return false;
-        } catch (ClassCastException e) {
-            return false;
+        //a resource returned by processRequestAsync is compared by the resource it resolves to
+        Object other = FutureResourceHandler.unwrap(args[0]);
+
+        if (other instanceof GeneratedResourceProxy) {
+            otherProxy = ((GeneratedResourceProxy) other).getHyperResourceInvokeHandler();
+        } else {
+            try {
+                otherProxy = (HyperResourceInvokeHandler) Proxy.getInvocationHandler(other);
+            } catch (IllegalArgumentException e) {
+                return false;
+            } catch (ClassCastException e) {
+                return false;
+            }
         }
 
         return hyperResource.equals(otherProxy.hyperResource);
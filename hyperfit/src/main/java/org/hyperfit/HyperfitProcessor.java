@@ -2,6 +2,7 @@ package org.hyperfit;
 
 
 import lombok.NonNull;
+import org.hyperfit.annotation.Profiles;
 import org.hyperfit.content.ContentRegistry;
 import org.hyperfit.content.ContentType;
 import org.hyperfit.content.ContentTypeHandler;
@@ -10,18 +11,34 @@ import org.hyperfit.errorhandler.ErrorHandler;
 import org.hyperfit.exception.HyperfitException;
 import org.hyperfit.handlers.Java8DefaultMethodHandler;
 import org.hyperfit.methodinfo.ConcurrentHashMapResourceMethodInfoCache;
+import org.hyperfit.methodinfo.MethodInfo;
+import org.hyperfit.methodinfo.MethodInfoCache;
 import org.hyperfit.methodinfo.ResourceMethodInfoCache;
 import org.hyperfit.net.*;
+import org.hyperfit.proxy.JdkResourceProxyFactory;
+import org.hyperfit.proxy.RegistryResourceProxyFactory;
+import org.hyperfit.proxy.ResourceProxyFactory;
 import org.hyperfit.resource.HyperResource;
 import org.hyperfit.resource.InterfaceSelectionStrategy;
+import org.hyperfit.resource.ProfileBasedInterfaceSelectionStrategy;
 import org.hyperfit.resource.SimpleInterfaceSelectionStrategy;
 import org.hyperfit.utils.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hyperfit.utils.MoreObjects.firstNonNull;
 
@@ -43,8 +60,15 @@ public class HyperfitProcessor {
     private final InterfaceSelectionStrategy interfaceSelectionStrategy;
     private final HyperClientSelectionStrategy clientSelectionStrategy;
     private final Java8DefaultMethodHandler java8DefaultMethodHandler;
+    private final ResourceProxyFactory resourceProxyFactory;
     private final ResponseInterceptors responseInterceptors;
     private final List<Pipeline.Step<Response, HyperResource>> responseToResourcePipelineSteps;
+    private final boolean memoize;
+    private final boolean deferParsing;
+    private final ResourceSnapshots resourceSnapshots;
+    private final Executor executor;
+    private final ParsedResourceCache parsedResourceCache;
+    private final RequestCoalescer requestCoalescer;
 
     private HyperfitProcessor(Builder builder) {
 
@@ -55,6 +79,13 @@ public class HyperfitProcessor {
         responseInterceptors = firstNonNull(builder.responseInterceptors, new ResponseInterceptors());
         interfaceSelectionStrategy =  Preconditions.checkNotNull(builder.interfaceSelectionStrategy);
         java8DefaultMethodHandler = Preconditions.checkNotNull(builder.java8DefaultMethodHandler);
+        resourceProxyFactory = Preconditions.checkNotNull(builder.resourceProxyFactory);
+        memoize = builder.memoize;
+        deferParsing = builder.deferParsing;
+        resourceSnapshots = new ResourceSnapshots(java8DefaultMethodHandler);
+        executor = builder.executor;
+        parsedResourceCache = builder.parsedResourceCache;
+        requestCoalescer = builder.coalesceRequests ? new RequestCoalescer() : null;
 
         /*
          * Don't tie ourselves to the actual List in the Builder. If a Step is added/removed from the Pipeline in
@@ -79,6 +110,63 @@ public class HyperfitProcessor {
             contentRegistry.getResponseParsingContentTypes()
         );
 
+        //last, as it builds resource proxies from everything above
+        prepareResourceInterfaces(builder.resourceInterfaces);
+    }
+
+
+    /**
+     * Creates a processor sharing everything with the parent except its interceptors, see {@link #derive()}
+     */
+    private HyperfitProcessor(
+        HyperfitProcessor parent,
+        RequestInterceptors requestInterceptors,
+        ResponseInterceptors responseInterceptors
+    ) {
+        this.requestInterceptors = requestInterceptors;
+        this.responseInterceptors = responseInterceptors;
+
+        contentRegistry = parent.contentRegistry;
+        errorHandler = parent.errorHandler;
+        resourceMethodInfoCache = parent.resourceMethodInfoCache;
+        interfaceSelectionStrategy = parent.interfaceSelectionStrategy;
+        java8DefaultMethodHandler = parent.java8DefaultMethodHandler;
+        resourceProxyFactory = parent.resourceProxyFactory;
+        memoize = parent.memoize;
+        deferParsing = parent.deferParsing;
+        resourceSnapshots = parent.resourceSnapshots;
+        executor = parent.executor;
+        parsedResourceCache = parent.parsedResourceCache;
+        //the response interceptors run for a request differ, so requests aren't coalesced with the parent's
+        requestCoalescer = parent.requestCoalescer != null ? new RequestCoalescer() : null;
+        responseToResourcePipelineSteps = parent.responseToResourcePipelineSteps;
+        clientSelectionStrategy = parent.clientSelectionStrategy;
+    }
+
+
+    /**
+     * <p>Starts deriving a processor from this one.  The derived processor shares this processor's clients, content
+     * registry, pipeline, caches and settings, only its request and response interceptors differ, so deriving a
+     * processor per user or per request, IE to add an authorization header, is cheap.</p>
+     *
+     * <p>Resources returned by the derived processor, and the resources their links lead to, are requested with the
+     * derived processor's interceptors.</p>
+     *
+     * @return a {@link Deriver} starting with this processor's interceptors
+     */
+    public Deriver derive() {
+        return new Deriver(this);
+    }
+
+
+    /**
+     * Derives a processor that also runs the given request interceptor, see {@link #derive()}
+     *
+     * @param requestInterceptor the interceptor to add
+     * @return the derived processor
+     */
+    public HyperfitProcessor withRequestInterceptor(RequestInterceptor requestInterceptor) {
+        return derive().addRequestInterceptor(requestInterceptor).build();
     }
 
 
@@ -119,7 +207,7 @@ public class HyperfitProcessor {
         if(typeToReturn == null){
             throw new IllegalArgumentException("typeToReturn can not be null");
         }
-        return processRequest(typeToReturn.getClazz(), requestBuilder, new TypeInfo().make(typeToReturn.getType()));
+        return processRequest(typeToReturn.getClazz(), requestBuilder, TypeInfo.empty().make(typeToReturn.getType()));
     }
 
     /**
@@ -145,7 +233,7 @@ public class HyperfitProcessor {
      * @return resource with same type specified in the resource class.
      */
     @SuppressWarnings("unchecked")
-    public <T> T processRequest(Class<T> classToReturn, RequestBuilder requestBuilder, TypeInfo typeInfo) {
+    public <T> T processRequest(final Class<T> classToReturn, RequestBuilder requestBuilder, final TypeInfo typeInfo) {
 
         if(classToReturn == null){
             throw new IllegalArgumentException("classToReturn can not be null");
@@ -159,7 +247,20 @@ public class HyperfitProcessor {
         requestInterceptors.intercept(requestBuilder);
 
         Request request = requestBuilder.build();
+        //a 304 is only turned into the cached resource when a resource is wanted
+        if (parsedResourceCache != null && HyperResource.class.isAssignableFrom(classToReturn)) {
+            request = parsedResourceCache.conditionalRequest(requestBuilder, request);
+        }
 
+        if (requestCoalescer != null) {
+            final Request coalesced = request;
+            final HyperClient client = clientSelectionStrategy.chooseClient(request);
+            return requestCoalescer.execute(request, classToReturn, typeInfo, new Callable<T>() {
+                public T call() {
+                    return processResponse(classToReturn, client.execute(coalesced), typeInfo);
+                }
+            });
+        }
 
         return processResponse(
             classToReturn,
@@ -168,6 +269,91 @@ public class HyperfitProcessor {
         );
     }
 
+    /**
+     * <p>Obtains a specific resource without waiting for it, see {@link #processRequestAsync(Class, RequestBuilder, TypeInfo)}.</p>
+     *
+     * @param classToReturn  the resource interface that should be returned
+     * @param entryPointURL a url to an entry point of the RESTful service
+     * @return a resource that waits for the response the first time one of its methods is called
+     */
+    public <T extends HyperResource> T processRequestAsync(Class<T> classToReturn, String entryPointURL){
+        if(StringUtils.isEmpty(entryPointURL)){
+            throw new IllegalArgumentException("entryPointURL can not be null or empty");
+        }
+        return processRequestAsync(classToReturn, BoringRequestBuilder.get(entryPointURL));
+    }
+
+
+    /**
+     * <p>Obtains a specific resource without waiting for it, see {@link #processRequestAsync(Class, RequestBuilder, TypeInfo)}.</p>
+     *
+     * @param classToReturn  the resource interface that should be returned
+     * @param requestBuilder request object
+     * @return a resource that waits for the response the first time one of its methods is called
+     */
+    public <T extends HyperResource> T processRequestAsync(Class<T> classToReturn, RequestBuilder requestBuilder){
+        return processRequestAsync(classToReturn, requestBuilder, null);
+    }
+
+
+    /**
+     * <p>Obtains a specific resource without waiting for it.  The request interceptors run and the client is chosen
+     * on the calling thread, the request is then executed and its response processed on the builder's executor.</p>
+     *
+     * <p>The returned resource implements only classToReturn, not the interfaces of the resource's profiles.  The first
+     * method called on it waits for the response, which is then kept so later calls don't wait, and every call is handed
+     * to the handler of the resource the response was processed into.  Anything thrown processing the response, IE by the error handler, is thrown from that first call
+     * and every one after it.</p>
+     *
+     * @param classToReturn  the resource interface that should be returned
+     * @param requestBuilder request object
+     * @return a resource that waits for the response the first time one of its methods is called
+     */
+    public <T extends HyperResource> T processRequestAsync(
+        final Class<T> classToReturn,
+        RequestBuilder requestBuilder,
+        final TypeInfo typeInfo
+    ) {
+
+        if(classToReturn == null){
+            throw new IllegalArgumentException("classToReturn can not be null");
+        }
+
+        if(requestBuilder == null){
+            throw new IllegalArgumentException("requestBuilder can not be null");
+        }
+
+
+        requestInterceptors.intercept(requestBuilder);
+
+        final Request request = parsedResourceCache != null
+            ? parsedResourceCache.conditionalRequest(requestBuilder, requestBuilder.build())
+            : requestBuilder.build();
+        final HyperClient client = clientSelectionStrategy.chooseClient(request);
+
+        final Callable<T> call = new Callable<T>() {
+            public T call() {
+                return processResponse(classToReturn, client.execute(request), typeInfo);
+            }
+        };
+
+        FutureTask<T> task = new FutureTask<T>(requestCoalescer == null ? call : new Callable<T>() {
+            public T call() {
+                return requestCoalescer.execute(request, classToReturn, typeInfo, call);
+            }
+        });
+
+        getExecutor().execute(task);
+
+        return classToReturn.cast(
+            Proxy.newProxyInstance(
+                classToReturn.getClassLoader(),
+                new Class<?>[]{classToReturn},
+                new FutureResourceHandler(task, request)
+            )
+        );
+    }
+
     public <T> T processResponse(
         Class<T> classToReturn,
         Response response,
@@ -209,7 +395,7 @@ public class HyperfitProcessor {
     }
 
     /**
-     * Creates a dynamic proxy that wraps a hyper resource.
+     * Creates a proxy that wraps a hyper resource using the registered ResourceProxyFactory.
      *
      * @param classToReturn the interface the proxy should implement
      * @param hyperResource resource to proxify
@@ -224,7 +410,7 @@ public class HyperfitProcessor {
         //TODO: if they just want a hyper resource, give it to them
 
 
-        InvocationHandler handler = new HyperResourceInvokeHandler(
+        HyperResourceInvokeHandler handler = new HyperResourceInvokeHandler(
             hyperResource,
             this,
             this.resourceMethodInfoCache.get(classToReturn),
@@ -233,7 +419,7 @@ public class HyperfitProcessor {
         );
 
 
-        Object proxy = Proxy.newProxyInstance(
+        Object proxy = resourceProxyFactory.newProxyInstance(
             classToReturn.getClassLoader(),
             interfaceSelectionStrategy.determineInterfaces(classToReturn, hyperResource),
             handler
@@ -244,8 +430,167 @@ public class HyperfitProcessor {
     }
 
 
+    /**
+     * Takes a snapshot of a resource, an immutable implementation of the resource interface holding the results of all
+     * its @Data methods without parameters, which are called once here.  Calling them on the snapshot returns the held
+     * values, and as the snapshot doesn't refer to the resource the parsed response can be garbage collected.
+     * Other methods of the interface, except default methods, throw an UnsupportedOperationException.  Arrays are
+     * copied on every call and collection interfaces are unmodifiable copies, other mutable values are held as read.
+     *
+     * @param resourceInterface the interface the snapshot implements
+     * @param resource the resource to take a snapshot of, usually a resource proxy
+     * @return the snapshot, the implementation generated by hyperfit-apt when there is one
+     */
+    public <T extends HyperResource> T snapshot(Class<T> resourceInterface, T resource) {
+        if (resourceInterface == null) {
+            throw new IllegalArgumentException("resourceInterface can not be null");
+        }
+
+        if (resource == null) {
+            throw new IllegalArgumentException("resource can not be null");
+        }
+
+        return resourceSnapshots.snapshot(resourceInterface, resource);
+    }
+
+
+    boolean isMemoizing() {
+        return memoize;
+    }
+
+    boolean isDeferringParsing() {
+        return deferParsing;
+    }
+
+    ParsedResourceCache getParsedResourceCache() {
+        return parsedResourceCache;
+    }
+
+    RequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
+    }
+
+    /**
+     * @return the builder's executor, or the shared default one when it wasn't given one
+     */
+    Executor getExecutor() {
+        return executor != null ? executor : DefaultExecutorHolder.EXECUTOR;
+    }
+
+
+    /**
+     * Builds the method info, type info and proxy classes of the given resource interfaces and of every resource
+     * interface reachable from their methods' return types, so none of it is built on the request path.
+     *
+     * @throws HyperfitException listing every method that can't be implemented
+     */
+    private void prepareResourceInterfaces(Collection<Class<?>> resourceInterfaces) {
+        if (resourceInterfaces.isEmpty()) {
+            return;
+        }
+
+        Set<Class<?>> prepared = new LinkedHashSet<Class<?>>();
+        LinkedList<Class<?>> toPrepare = new LinkedList<Class<?>>(resourceInterfaces);
+        List<String> problems = new ArrayList<String>();
+
+        while (!toPrepare.isEmpty()) {
+            Class<?> resourceInterface = toPrepare.removeFirst();
+            if (!prepared.add(resourceInterface)) {
+                continue;
+            }
+
+            MethodInfoCache methodInfoCache = resourceMethodInfoCache.get(resourceInterface);
+            for (Method method : resourceInterface.getMethods()) {
+                MethodInfo methodInfo;
+                try {
+                    methodInfo = methodInfoCache.get(method);
+                } catch (RuntimeException e) {
+                    problems.add(method + ": " + e.getMessage());
+                    continue;
+                }
+
+                if (!MethodInvokers.isSupported(methodInfo.getInvoker())) {
+                    problems.add(method + ": not a HyperResource method and has no hyperfit annotation that can implement it");
+                    continue;
+                }
+
+                TypeInfo.empty().make(methodInfo.getGenericReturnType());
+                collectResourceInterfaces(methodInfo.getGenericReturnType(), toPrepare);
+            }
+        }
+
+        if (!problems.isEmpty()) {
+            StringBuilder message = new StringBuilder("Resource interfaces have methods that can not be implemented:");
+            for (String problem : problems) {
+                message.append("\n  ").append(problem);
+            }
+            throw new HyperfitException(message.toString());
+        }
+
+        //every profile the prepared interfaces are selected for, plus none at all.  A resource with several of them
+        //gets a combination of interfaces that isn't prepared, its proxy class is built on first use
+        List<Set<String>> profileSets = new ArrayList<Set<String>>();
+        profileSets.add(Collections.<String>emptySet());
+        for (Class<?> resourceInterface : prepared) {
+            Profiles profiles = resourceInterface.getAnnotation(Profiles.class);
+            if (profiles != null) {
+                for (String profile : profiles.value()) {
+                    profileSets.add(Collections.singleton(profile));
+                }
+            }
+        }
+
+        for (Class<?> resourceInterface : prepared) {
+            if (interfaceSelectionStrategy instanceof ProfileBasedInterfaceSelectionStrategy) {
+                ProfileBasedInterfaceSelectionStrategy strategy = (ProfileBasedInterfaceSelectionStrategy) interfaceSelectionStrategy;
+                for (Set<String> profileSet : profileSets) {
+                    prepareProxy(resourceInterface, strategy.determineInterfaces(resourceInterface, profileSet));
+                }
+            } else if (interfaceSelectionStrategy instanceof SimpleInterfaceSelectionStrategy) {
+                prepareProxy(resourceInterface, new Class<?>[]{resourceInterface});
+            } else {
+                LOG.debug("Interface selection strategy needs a resource, {} proxies will be prepared on first use", resourceInterface);
+            }
+        }
+    }
+
+    /**
+     * Adds the resource interfaces a type refers to, IE Page and Dog for Page&lt;Dog&gt; or Dog for Dog[]
+     */
+    private static void collectResourceInterfaces(Type type, Collection<Class<?>> resourceInterfaces) {
+        if (type instanceof Class) {
+            Class<?> clazz = (Class<?>) type;
+            if (clazz.isArray()) {
+                collectResourceInterfaces(clazz.getComponentType(), resourceInterfaces);
+            } else if (clazz.isInterface() && clazz != HyperResource.class && HyperResource.class.isAssignableFrom(clazz)) {
+                resourceInterfaces.add(clazz);
+            }
+        } else if (type instanceof ParameterizedType) {
+            collectResourceInterfaces(((ParameterizedType) type).getRawType(), resourceInterfaces);
+            for (Type argument : ((ParameterizedType) type).getActualTypeArguments()) {
+                collectResourceInterfaces(argument, resourceInterfaces);
+            }
+        } else if (type instanceof GenericArrayType) {
+            collectResourceInterfaces(((GenericArrayType) type).getGenericComponentType(), resourceInterfaces);
+        } else if (type instanceof WildcardType) {
+            collectResourceInterfaces(((WildcardType) type).getUpperBounds()[0], resourceInterfaces);
+        }
+    }
 
+    /**
+     * Has the proxy factory build what it would build for a resource implementing the interfaces
+     */
+    private void prepareProxy(Class<?> resourceInterface, Class<?>[] interfaces) {
+        //methods of profile interfaces are looked up in the expected interface's cache
+        MethodInfoCache methodInfoCache = resourceMethodInfoCache.get(resourceInterface);
+        for (Class<?> anInterface : interfaces) {
+            for (Method method : anInterface.getMethods()) {
+                methodInfoCache.get(method);
+            }
+        }
 
+        resourceProxyFactory.prepare(resourceInterface.getClassLoader(), interfaces, methodInfoCache, memoize);
+    }
 
 
     public static Builder builder() {
@@ -309,7 +654,14 @@ public class HyperfitProcessor {
         private RequestInterceptors requestInterceptors = new RequestInterceptors();
         private ResponseInterceptors responseInterceptors = new ResponseInterceptors();
         private InterfaceSelectionStrategy interfaceSelectionStrategy = new SimpleInterfaceSelectionStrategy();
+        private ResourceProxyFactory resourceProxyFactory = new RegistryResourceProxyFactory(new JdkResourceProxyFactory());
         private Map<String, HyperClient> schemeClientMap = new HashMap<String, HyperClient>();
+        private boolean memoize = false;
+        private boolean deferParsing = false;
+        private Executor executor = null;
+        private ParsedResourceCache parsedResourceCache = null;
+        private boolean coalesceRequests = false;
+        private final Set<Class<?>> resourceInterfaces = new LinkedHashSet<Class<?>>();
         private final PipelineBuilder<Response, HyperResource> responseToResourcePipelineBuilder = new PipelineBuilder<Response, HyperResource>(
             this
         );
@@ -390,6 +742,13 @@ public class HyperfitProcessor {
             return this;
         }
 
+        /**
+         * Sets the cache of resource method metadata, by default {@link ConcurrentHashMapResourceMethodInfoCache} is used
+         * which keeps every resource interface for the life of the processor.  Use
+         * {@link org.hyperfit.methodinfo.WeakResourceMethodInfoCache} where resource interfaces must be able to unload.
+         * @param resourceMethodInfoCache {@link ResourceMethodInfoCache}
+         * @return {@link org.hyperfit.HyperfitProcessor.Builder}
+         */
         public Builder resourceMethodInfoCache(ResourceMethodInfoCache resourceMethodInfoCache) {
             this.resourceMethodInfoCache = resourceMethodInfoCache;
             return this;
@@ -425,6 +784,116 @@ public class HyperfitProcessor {
             return this;
         }
 
+        /**
+         * Sets the factory used to implement resource interfaces, by default {@link RegistryResourceProxyFactory} is used
+         * with a {@link JdkResourceProxyFactory} fallback
+         * @param resourceProxyFactory {@link org.hyperfit.proxy.ResourceProxyFactory}
+         * @return {@link org.hyperfit.HyperfitProcessor.Builder}
+         */
+        public Builder resourceProxyFactory(ResourceProxyFactory resourceProxyFactory) {
+            if( resourceProxyFactory == null){
+                throw new IllegalArgumentException("resourceProxyFactory can not be null");
+            }
+
+            this.resourceProxyFactory = resourceProxyFactory;
+            return this;
+        }
+
+        /**
+         * Sets whether the results of resource methods without side effects are kept for the life of the resource
+         * proxy, individual methods can override this with {@link org.hyperfit.annotation.Memoize}.  Off by default.
+         * @param memoize true to memoize by default
+         * @return {@link org.hyperfit.HyperfitProcessor.Builder}
+         */
+        public Builder memoize(boolean memoize) {
+            this.memoize = memoize;
+            return this;
+        }
+
+        /**
+         * Registers resource interfaces whose method info, type info and proxy classes are built by {@link #build()},
+         * along with those of every resource interface their methods return, instead of by the first request using them.
+         * build() then throws a {@link HyperfitException} listing every method of them that can't be implemented.
+         * Proxy classes are prepared for the interfaces selected for a resource with none or one of the profiles of
+         * those interfaces, combinations of several profiles and custom interface selection strategies are left to the
+         * first request.
+         * @param resourceInterfaces interfaces extending {@link HyperResource}
+         * @return {@link org.hyperfit.HyperfitProcessor.Builder}
+         */
+        public Builder addResourceInterfaces(Class<?>... resourceInterfaces) {
+            for (Class<?> resourceInterface : resourceInterfaces) {
+                if (resourceInterface == null) {
+                    throw new IllegalArgumentException("resourceInterface can not be null");
+                }
+
+                if (!resourceInterface.isInterface() || !HyperResource.class.isAssignableFrom(resourceInterface)) {
+                    throw new IllegalArgumentException(resourceInterface + " is not an interface extending HyperResource");
+                }
+            }
+
+            this.resourceInterfaces.addAll(Arrays.asList(resourceInterfaces));
+            return this;
+        }
+
+        /**
+         * Sets whether parsing a response body is left to the first method call on the returned resource.  The
+         * status of a response is still checked before the resource is returned, but the error handler is only handed
+         * a parsed resource for not OK responses when it uses it, and parse errors surface from that first method
+         * call.  Interface selection strategies that look at the resource, IE by its profiles, parse it right away.
+         * Off by default.
+         * @param deferParsing true to parse responses on first use
+         * @return {@link org.hyperfit.HyperfitProcessor.Builder}
+         */
+        public Builder deferParsing(boolean deferParsing) {
+            this.deferParsing = deferParsing;
+            return this;
+        }
+
+        /**
+         * Sets the executor processRequestAsync executes requests on, and that resource methods returning a future
+         * type, see {@link org.hyperfit.handlers.FutureHandler}, run on.  Defaults to a shared pool of daemon threads
+         * created as needed.
+         * @param executor the executor to execute requests on
+         * @return {@link org.hyperfit.HyperfitProcessor.Builder}
+         */
+        public Builder executor(Executor executor) {
+            if (executor == null) {
+                throw new IllegalArgumentException("executor can not be null");
+            }
+
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Sets the cache of parsed resources, that turns responses to GET requests that didn't change into the
+         * resource parsed before, see {@link ParsedResourceCache}.  Derived processors share it.  None by default.
+         * @param parsedResourceCache the cache to keep parsed resources in
+         * @return {@link org.hyperfit.HyperfitProcessor.Builder}
+         */
+        public Builder parsedResourceCache(ParsedResourceCache parsedResourceCache) {
+            if (parsedResourceCache == null) {
+                throw new IllegalArgumentException("parsedResourceCache can not be null");
+            }
+
+            this.parsedResourceCache = parsedResourceCache;
+            return this;
+        }
+
+        /**
+         * Sets whether identical GET requests in flight at the same time share one request and the resource it's
+         * processed into, so a burst of requests for the same resource, IE after a deploy or a cache expiry, reaches the
+         * server once.  Requests are identical when their url, accepted content types and headers are and they're
+         * processed into the same type, waiting requests get the same result or have the same exception thrown.
+         * Derived processors coalesce their own requests.  Off by default.
+         * @param coalesceRequests true to coalesce identical requests
+         * @return {@link org.hyperfit.HyperfitProcessor.Builder}
+         */
+        public Builder coalesceRequests(boolean coalesceRequests) {
+            this.coalesceRequests = coalesceRequests;
+            return this;
+        }
+
         public Builder addResponseInterceptor(ResponseInterceptor responseInterceptor) {
             this.responseInterceptors.add(responseInterceptor);
             return this;
@@ -457,6 +926,88 @@ public class HyperfitProcessor {
     }
 
 
+    /**
+     * Builds a processor derived from another, see {@link HyperfitProcessor#derive()}
+     */
+    public static class Deriver {
+
+        private final HyperfitProcessor parent;
+        private final RequestInterceptors requestInterceptors;
+        private final ResponseInterceptors responseInterceptors;
+
+        private Deriver(HyperfitProcessor parent) {
+            this.parent = parent;
+            this.requestInterceptors = new RequestInterceptors(parent.requestInterceptors);
+            this.responseInterceptors = new ResponseInterceptors(parent.responseInterceptors);
+        }
+
+        public Deriver addRequestInterceptor(RequestInterceptor requestInterceptor) {
+            if (requestInterceptor == null) {
+                throw new IllegalArgumentException("requestInterceptor can not be null");
+            }
+
+            this.requestInterceptors.add(requestInterceptor);
+            return this;
+        }
+
+        public Deriver removeRequestInterceptors(Class<? extends RequestInterceptor> typeToRemove) {
+            this.requestInterceptors.remove(typeToRemove);
+            return this;
+        }
+
+        public Deriver clearInterceptors() {
+            this.requestInterceptors.clear();
+            return this;
+        }
+
+        public Deriver addResponseInterceptor(ResponseInterceptor responseInterceptor) {
+            if (responseInterceptor == null) {
+                throw new IllegalArgumentException("responseInterceptor can not be null");
+            }
+
+            this.responseInterceptors.add(responseInterceptor);
+            return this;
+        }
+
+        public Deriver removeResponseInterceptor(Class<? extends ResponseInterceptor> typeToRemove) {
+            this.responseInterceptors.remove(typeToRemove);
+            return this;
+        }
+
+        public Deriver clearResponseInterceptors() {
+            this.responseInterceptors.clear();
+            return this;
+        }
+
+        /**
+         * @return the derived processor, later changes to this Deriver don't affect it
+         */
+        public HyperfitProcessor build() {
+            return new HyperfitProcessor(
+                parent,
+                new RequestInterceptors(requestInterceptors),
+                new ResponseInterceptors(responseInterceptors)
+            );
+        }
+    }
+
+
+    /**
+     * Executor used when the builder isn't given one, only created if it's used
+     */
+    private static final class DefaultExecutorHolder {
+        private static final Executor EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "hyperfit-async-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+
     //TODO: make public when builder can take a strategy
     interface HyperClientSelectionStrategy {
 
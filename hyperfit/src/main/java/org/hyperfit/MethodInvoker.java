@@ -0,0 +1,26 @@
+package org.hyperfit;
+
+import java.lang.reflect.Method;
+
+/**
+ * Fulfills the invocation of a single resource interface method.
+ *
+ * An invoker is resolved once per method from its {@link org.hyperfit.methodinfo.MethodInfo} and holds everything
+ * that can be determined ahead of time (annotation values, return type handling, parameter binding) so that
+ * invoking a proxy method doesn't need to inspect the method again.  Invokers are shared between all proxies of a
+ * resource interface so they must be stateless and thread safe.
+ *
+ * @see MethodInvokers
+ */
+public interface MethodInvoker {
+
+    /**
+     * @param handler the handler of the proxy the method was invoked on
+     * @param proxy proxy instance
+     * @param method method invoked
+     * @param args method params
+     * @return object according to the proxy method invoked
+     */
+    Object invoke(HyperResourceInvokeHandler handler, Object proxy, Method method, Object[] args) throws Exception;
+
+}
@@ -0,0 +1,782 @@
+package org.hyperfit;
+
+import org.hyperfit.annotation.Content;
+import org.hyperfit.annotation.Data;
+import org.hyperfit.annotation.FirstLink;
+import org.hyperfit.annotation.Header;
+import org.hyperfit.annotation.Link;
+import org.hyperfit.annotation.Memoize;
+import org.hyperfit.annotation.NamedForm;
+import org.hyperfit.annotation.NamedLink;
+import org.hyperfit.annotation.Param;
+import org.hyperfit.content.ContentRegistry;
+import org.hyperfit.content.ContentType;
+import org.hyperfit.content.ContentTypeHandler;
+import org.hyperfit.exception.HyperfitException;
+import org.hyperfit.handlers.FutureHandler;
+import org.hyperfit.handlers.Java8DefaultMethodHandler;
+import org.hyperfit.handlers.OptionalHandler;
+import org.hyperfit.methodinfo.MethodInfo;
+import org.hyperfit.net.RequestBuilder;
+import org.hyperfit.resource.HyperResource;
+import org.hyperfit.resource.HyperResourceException;
+import org.hyperfit.resource.controls.form.Form;
+import org.hyperfit.resource.controls.link.HyperLink;
+import org.hyperfit.utils.ReflectUtils;
+import org.hyperfit.utils.StringUtils;
+import org.javatuples.Pair;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.hyperfit.methodinfo.MethodInfo.MethodType;
+
+/**
+ * <p>Resolves resource interface methods into {@link MethodInvoker} instances.</p>
+ * <p>All the decisions that only depend on the method itself (which annotation is present, what the return type is,
+ * how each parameter is bound to a request) are made here once, leaving only the decisions that depend on the
+ * wrapped hyper resource to invocation time.</p>
+ */
+public final class MethodInvokers {
+
+    private static final String MESSAGE_EXCEPTION_SOLVING_MULTI_LINK = "Cannot resolve a multi link resource";
+
+    private MethodInvokers() {
+
+    }
+
+    /**
+     * Builds the invoker for the given method
+     *
+     * @param method the resource interface method
+     * @param methodInfo the already gathered metadata of the method
+     * @param memoizing true when the invoker is for handlers memoizing by default, without @Memoize results are then
+     *                  memoized when the handler is, otherwise they never are
+     * @return an invoker able to fulfill invocations of the method
+     */
+    public static MethodInvoker forMethod(Method method, MethodInfo methodInfo, boolean memoizing) {
+
+        if (methodInfo.isDefaultMethod()) {
+            return DEFAULT_METHOD;
+        }
+
+        //Methods returning an optional are handled as methods returning the optional's value, which is then wrapped
+        MethodInvoker valueInvoker = forValue(methodInfo, memoizing);
+        MethodInvoker invoker = valueInvoker;
+        OptionalHandler optionalHandler = methodInfo.getOptionalHandler();
+        if (optionalHandler != null && invoker != UNSUPPORTED) {
+            invoker = new OptionalInvoker(invoker, optionalHandler);
+        }
+
+        //Only methods that make requests can return a future, the whole method then runs on the processor's executor
+        FutureHandler futureHandler = methodInfo.getFutureHandler();
+        if (futureHandler != null) {
+            return valueInvoker instanceof RequestingInvoker ? new FutureInvoker(invoker, futureHandler) : UNSUPPORTED;
+        }
+
+        return invoker;
+    }
+
+
+    /**
+     * @return false when the invoker can't fulfill any invocation because the method isn't one hyperfit knows how to implement
+     */
+    static boolean isSupported(MethodInvoker invoker) {
+        return invoker != UNSUPPORTED;
+    }
+
+
+    private static MethodInvoker forValue(MethodInfo methodInfo, boolean memoizing) {
+
+        MethodType methodType = methodInfo.getMethodType();
+
+        //Equals is handled very specially so we check for that first
+        if (MethodType.EQUALS == methodType) {
+            return EQUALS;
+        }
+
+        //The handler needs to capture follow methods so it can resolve invokes to follow
+        if (MethodType.GET_LINK == methodType || MethodType.TRY_GET_LINK == methodType) {
+            return memoizable(methodInfo, memoizing, GET_LINK);
+        }
+
+        if (MethodType.GET_LINKS == methodType) {
+            return memoizable(methodInfo, memoizing, GET_LINKS);
+        }
+
+        //If it's a method on hyperResource just pass it on through
+        if (MethodType.FROM_HYPER_RESOURCE_CLASS == methodType ||
+            MethodType.HASH_CODE == methodType ||
+            MethodType.TO_STRING == methodType) {
+            return PASS_THROUGH;
+        }
+
+        Class<?> returnType = methodInfo.getReturnType();
+
+        Data data = methodInfo.getDataAnnotation();
+        if (data != null) {
+            return memoizable(methodInfo, memoizing, new DataInvoker(returnType, methodInfo.isNullWhenMissing(), data.value()));
+        }
+
+        Link link = methodInfo.getLinkAnnotation();
+        if (link != null) {
+            return forLink(methodInfo, memoizing, link.value(), null, false);
+        }
+
+        NamedLink namedLink = methodInfo.getNamedLinkAnnotation();
+        if (namedLink != null) {
+            //java doesn't let us have nulls..but we can have null names on links so we do this
+            String linkName = namedLink.name().equals(NamedLink.NULL) ? null : namedLink.name();
+            return forLink(methodInfo, memoizing, namedLink.rel(), linkName, true);
+        }
+
+        //TODO: first link annotated methods don't currently perform all the functions of other link annotated methods
+        FirstLink firstLink = methodInfo.getFirstLinkAnnotation();
+        if (firstLink != null && HyperLink.class.isAssignableFrom(returnType)) {
+            return new FirstLinkInvoker(firstLink);
+        }
+
+        NamedForm namedForm = methodInfo.getNamedFormAnnotation();
+        if (namedForm != null) {
+            String formName = namedForm.value();
+
+            if (boolean.class.isAssignableFrom(returnType)) {
+                return new HasFormInvoker(formName);
+            }
+
+            if (Form.class.isAssignableFrom(returnType)) {
+                return new GetFormInvoker(formName);
+            }
+
+            return new SubmitFormInvoker(formName, methodInfo);
+        }
+
+        return UNSUPPORTED;
+    }
+
+
+    private static MethodInvoker forLink(MethodInfo methodInfo, boolean memoizing, String linkRelationship, String linkName, boolean named) {
+        Class<?> returnType = methodInfo.getReturnType();
+
+        //NOTE: this seems a bit hacky, but will a link ever return a boolean? probably not
+        if (boolean.class.isAssignableFrom(returnType)) {
+            return new HasLinkInvoker(linkRelationship, linkName, named);
+        }
+
+        //single hyper link
+        if (HyperLink.class.isAssignableFrom(returnType)) {
+            return memoizable(methodInfo, memoizing, new GetHyperLinkInvoker(linkRelationship, linkName, named, methodInfo.isNullWhenMissing()));
+        }
+
+        //hyper links
+        if (HyperLink[].class.isAssignableFrom(returnType)) {
+            return memoizable(methodInfo, memoizing, new GetHyperLinksInvoker(linkRelationship, linkName, named, methodInfo.isNullWhenMissing()));
+        }
+
+        if (named) {
+            return new FollowNamedLinkInvoker(linkRelationship, linkName, methodInfo);
+        }
+
+        return new FollowLinkInvoker(linkRelationship, methodInfo);
+    }
+
+
+    /**
+     * Wraps an invoker without side effects so its results are memoized when the method or the processor asks for it,
+     * invokers that can never memoize are left unwrapped
+     */
+    private static MethodInvoker memoizable(MethodInfo methodInfo, boolean memoizing, MethodInvoker invoker) {
+        Memoize memoize = methodInfo.getMemoizeAnnotation();
+        if (memoize != null) {
+            return memoize.value() ? new MemoizingInvoker(invoker, true) : invoker;
+        }
+
+        return memoizing ? new MemoizingInvoker(invoker, false) : invoker;
+    }
+
+
+    /**
+     * @return true when the method's results are memoized, the method's {@link Memoize} annotation overriding the processor default
+     */
+    static boolean isMemoizing(HyperResourceInvokeHandler handler, Memoize memoize) {
+        return memoize != null ? memoize.value() : handler.isMemoizing();
+    }
+
+    //stands in for memoized nulls as the memos can't hold them
+    private static final Object NULL_RESULT = new Object();
+
+    /**
+     * @return the memoized result for the key, null when there isn't one or {@link #NULL_RESULT} for a memoized null
+     */
+    static Object getMemoized(HyperResourceInvokeHandler handler, Object key) {
+        return handler.getMemos().get(key);
+    }
+
+    /**
+     * Memoizes the result for the key unless another thread beat us to it
+     * @return the memoized result
+     */
+    static Object memoize(HyperResourceInvokeHandler handler, Object key, Object result) {
+        Object memoized = handler.getMemos().putIfAbsent(key, result == null ? NULL_RESULT : result);
+        return unmask(memoized == null ? result : memoized);
+    }
+
+    /**
+     * @return the memoized result, arrays are copied as every caller can change the one they get
+     */
+    static Object unmask(Object memoized) {
+        if (memoized == null || memoized == NULL_RESULT) {
+            return null;
+        }
+
+        if (memoized.getClass().isArray()) {
+            int length = Array.getLength(memoized);
+            Object copy = Array.newInstance(memoized.getClass().getComponentType(), length);
+            System.arraycopy(memoized, 0, copy, 0, length);
+            return copy;
+        }
+
+        return memoized;
+    }
+
+
+    /**
+     * Builds the binders for every parameter of a method from the parameter annotations
+     *
+     * @param annotationsPerParams annotations of each parameter
+     * @return binders of each parameter, a parameter without hyperfit annotations gets an empty array
+     */
+    static ParameterBinder[][] parameterBinders(Annotation[][] annotationsPerParams) {
+        ParameterBinder[][] binders = new ParameterBinder[annotationsPerParams.length][];
+
+        for (int i = 0; i < annotationsPerParams.length; i++) {
+            List<ParameterBinder> paramBinders = new ArrayList<ParameterBinder>(annotationsPerParams[i].length);
+
+            for (Annotation annotation : annotationsPerParams[i]) {
+                if (annotation instanceof Param) {
+                    paramBinders.add(new ParamBinder(((Param) annotation).value()));
+                }
+
+                if (annotation instanceof Header) {
+                    paramBinders.add(new HeaderBinder(((Header) annotation).value()));
+                }
+
+                if (annotation instanceof Content) {
+                    //this seems dangerous...should we force a default value?
+                    paramBinders.add(new ContentBinder(ContentType.parse(((Content) annotation).value())));
+                }
+            }
+
+            binders[i] = paramBinders.toArray(new ParameterBinder[paramBinders.size()]);
+        }
+
+        return binders;
+    }
+
+
+    /**
+     * Assigns the method call parameters into the request builder using the prebuilt binders
+     */
+    static void bindParameters(HyperResourceInvokeHandler handler, RequestBuilder requestBuilder, ParameterBinder[][] binders, Object[] args) {
+        if (args == null) {
+            return;
+        }
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] != null) {
+                for (ParameterBinder binder : binders[i]) {
+                    binder.bind(handler, requestBuilder, args[i]);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Assigns a single method call parameter into a request
+     */
+    interface ParameterBinder {
+        void bind(HyperResourceInvokeHandler handler, RequestBuilder requestBuilder, Object value);
+    }
+
+    private static final class ParamBinder implements ParameterBinder {
+        private final String name;
+
+        ParamBinder(String name) {
+            this.name = name;
+        }
+
+        public void bind(HyperResourceInvokeHandler handler, RequestBuilder requestBuilder, Object value) {
+            requestBuilder.setParam(name, value);
+        }
+    }
+
+    private static final class HeaderBinder implements ParameterBinder {
+        private final String name;
+
+        HeaderBinder(String name) {
+            this.name = name;
+        }
+
+        public void bind(HyperResourceInvokeHandler handler, RequestBuilder requestBuilder, Object value) {
+            requestBuilder.addHeader(name, value.toString());
+        }
+    }
+
+    private static final class ContentBinder implements ParameterBinder {
+        private final ContentType contentType;
+
+        ContentBinder(ContentType contentType) {
+            this.contentType = contentType;
+        }
+
+        public void bind(HyperResourceInvokeHandler handler, RequestBuilder requestBuilder, Object value) {
+            //TODO: make this protected hack non-sense go away...something is wrong with our class layout if we need to do this
+            ContentTypeHandler contentEncoder = handler.getRequestProcessor().contentRegistry.getHandler(contentType, ContentRegistry.Purpose.PREPARE_REQUEST);
+            contentEncoder.prepareRequest(requestBuilder, value);
+        }
+    }
+
+
+    private static final MethodInvoker DEFAULT_METHOD = new MethodInvoker() {
+        public Object invoke(HyperResourceInvokeHandler handler, Object proxy, Method method, Object[] args) {
+            // In the case of a default method on an interface we need to do this a bit differently.
+            return handler.getJava8DefaultMethodHandler().invoke(
+                new Java8DefaultMethodHandler.DefaultMethodContext(
+                    (HyperResource) proxy,
+                    method
+                ),
+                args
+            );
+        }
+    };
+
+    private static final MethodInvoker EQUALS = new MethodInvoker() {
+        public Object invoke(HyperResourceInvokeHandler handler, Object proxy, Method method, Object[] args) {
+            return handler.determineEquals(args);
+        }
+    };
+
+    private static final MethodInvoker GET_LINK = new MethodInvoker() {
+        public Object invoke(HyperResourceInvokeHandler handler, Object proxy, Method method, Object[] args) throws Exception {
+            HyperLink link = (HyperLink) method.invoke(handler.getHyperResource(), args);
+            //tryGetLink reports missing links with null
+            return link == null ? null : handler.extendHyperLink(link);
+        }
+    };
+
+    private static final MethodInvoker GET_LINKS = new MethodInvoker() {
+        public Object invoke(HyperResourceInvokeHandler handler, Object proxy, Method method, Object[] args) throws Exception {
+            return handler.extendHyperLinks((HyperLink[]) method.invoke(handler.getHyperResource(), args));
+        }
+    };
+
+    private static final MethodInvoker PASS_THROUGH = new MethodInvoker() {
+        public Object invoke(HyperResourceInvokeHandler handler, Object proxy, Method method, Object[] args) throws Exception {
+            return method.invoke(handler.getHyperResource(), args);
+        }
+    };
+
+    private static final MethodInvoker UNSUPPORTED = new MethodInvoker() {
+        public Object invoke(HyperResourceInvokeHandler handler, Object proxy, Method method, Object[] args) {
+            throw new HyperfitException("Cannot handle proxy method invocation [" + method + "] in [" + proxy + "]");
+        }
+    };
+
+
+    private static final class MemoizingInvoker implements MethodInvoker {
+        private final MethodInvoker invoker;
+        private final boolean alwaysMemoize;
+
+        MemoizingInvoker(MethodInvoker invoker, boolean alwaysMemoize) {
+            this.invoker = invoker;
+            this.alwaysMemoize = alwaysMemoize;
+        }
+
+        public Object invoke(HyperResourceInvokeHandler handler, Object proxy, Method method, Object[] args) throws Exception {
+            if (!alwaysMemoize && !handler.isMemoizing()) {
+                return invoker.invoke(handler, proxy, method, args);
+            }
+
+            //the invoker is unique to the method so it's the key when there aren't arguments
+            Object key = (args == null || args.length == 0) ? this : Pair.with(this, Arrays.asList(args));
+
+            Object memoized = getMemoized(handler, key);
+            if (memoized != null) {
+                return unmask(memoized);
+            }
+
+            return memoize(handler, key, invoker.invoke(handler, proxy, method, args));
+        }
+    }
+
+
+    private static final class OptionalInvoker implements MethodInvoker {
+        private final MethodInvoker invoker;
+        private final OptionalHandler optionalHandler;
+
+        OptionalInvoker(MethodInvoker invoker, OptionalHandler optionalHandler) {
+            this.invoker = invoker;
+            this.optionalHandler = optionalHandler;
+        }
+
+        public Object invoke(HyperResourceInvokeHandler handler, Object proxy, Method method, Object[] args) throws Exception {
+            Object value = invoker.invoke(handler, proxy, method, args);
+            return value == null ? optionalHandler.empty() : optionalHandler.of(value);
+        }
+    }
+
+
+    private static final class FutureInvoker implements MethodInvoker {
+        private final MethodInvoker invoker;
+        private final FutureHandler futureHandler;
+
+        FutureInvoker(MethodInvoker invoker, FutureHandler futureHandler) {
+            this.invoker = invoker;
+            this.futureHandler = futureHandler;
+        }
+
+        public Object invoke(
+            final HyperResourceInvokeHandler handler,
+            final Object proxy,
+            final Method method,
+            final Object[] args
+        ) {
+            return futureHandler.submit(
+                new Callable<Object>() {
+                    public Object call() throws Exception {
+                        return invoker.invoke(handler, proxy, method, args);
+                    }
+                },
+                handler.getRequestProcessor().getExecutor()
+            );
+        }
+    }
+
+
+    private static final class DataInvoker implements MethodInvoker {
+        private final Class<?> returnType;
+        private final boolean nullWhenMissing;
+        private final String[] path;
+
+        DataInvoker(Class<?> returnType, boolean nullWhenMissing, String[] path) {
+            this.returnType = returnType;
+            this.nullWhenMissing = nullWhenMissing;
+            this.path = path;
+        }
+
+        public Object invoke(HyperResourceInvokeHandler handler, Object proxy, Method method, Object[] args) {
+            if (nullWhenMissing) {
+                return handler.getHyperResource().tryGetPathAs(returnType, path);
+            }
+
+            return handler.getHyperResource().getPathAs(returnType, false, path);
+        }
+    }
+
+
+    private static final class HasLinkInvoker implements MethodInvoker {
+        private final String linkRelationship;
+        private final String linkName;
+        private final boolean named;
+
+        HasLinkInvoker(String linkRelationship, String linkName, boolean named) {
+            this.linkRelationship = linkRelationship;
+            this.linkName = linkName;
+            this.named = named;
+        }
+
+        public Object invoke(HyperResourceInvokeHandler handler, Object proxy, Method method, Object[] args) {
+            if (named) {
+                return handler.getHyperResource().hasLink(linkRelationship, linkName);
+            }
+
+            return handler.getHyperResource().hasLink(linkRelationship);
+        }
+    }
+
+
+    private static final class GetHyperLinkInvoker implements MethodInvoker {
+        private final String linkRelationship;
+        private final String linkName;
+        private final boolean named;
+        private final boolean nullWhenMissing;
+
+        GetHyperLinkInvoker(String linkRelationship, String linkName, boolean named, boolean nullWhenMissing) {
+            this.linkRelationship = linkRelationship;
+            this.linkName = linkName;
+            this.named = named;
+            this.nullWhenMissing = nullWhenMissing;
+        }
+
+        public Object invoke(HyperResourceInvokeHandler handler, Object proxy, Method method, Object[] args) {
+            //Going through the proxy so the link returned is able to be followed
+            HyperResource resource = ReflectUtils.cast(HyperResource.class, proxy);
+
+            if (nullWhenMissing) {
+                return named ? resource.tryGetLink(linkRelationship, linkName) : resource.tryGetLink(linkRelationship);
+            }
+
+            return named ? resource.getLink(linkRelationship, linkName) : resource.getLink(linkRelationship);
+        }
+    }
+
+
+    private static final class GetHyperLinksInvoker implements MethodInvoker {
+        private final String linkRelationship;
+        private final String linkName;
+        private final boolean named;
+        private final boolean nullWhenMissing;
+
+        GetHyperLinksInvoker(String linkRelationship, String linkName, boolean named, boolean nullWhenMissing) {
+            this.linkRelationship = linkRelationship;
+            this.linkName = linkName;
+            this.named = named;
+            this.nullWhenMissing = nullWhenMissing;
+        }
+
+        public Object invoke(HyperResourceInvokeHandler handler, Object proxy, Method method, Object[] args) {
+            if (nullWhenMissing && !handler.getHyperResource().hasLink(linkRelationship)) {
+                return null;
+            }
+
+            //Going through the proxy so the links returned are able to be followed
+            HyperResource resource = ReflectUtils.cast(HyperResource.class, proxy);
+            return named ? resource.getLinks(linkRelationship, linkName) : resource.getLinks(linkRelationship);
+        }
+    }
+
+
+    /**
+     * Base for invokers that turn a hyper control into a request and process its response as the return type
+     */
+    private abstract static class RequestingInvoker implements MethodInvoker {
+        protected final Class<?> returnType;
+        protected final Type genericReturnType;
+        protected final boolean nullWhenMissing;
+        private final ParameterBinder[][] binders;
+
+        RequestingInvoker(MethodInfo methodInfo) {
+            this.returnType = methodInfo.getReturnType();
+            this.genericReturnType = methodInfo.getGenericReturnType();
+            this.nullWhenMissing = methodInfo.isNullWhenMissing();
+            this.binders = parameterBinders(methodInfo.getParameterAnnotations());
+        }
+
+        protected Object request(HyperResourceInvokeHandler handler, RequestBuilder requestBuilder, Object[] args) {
+            bindParameters(handler, requestBuilder, binders, args);
+            //If follow supported parameters..we could just pass those and call hyperlink.follow(params)..if we could figure out the TypeRef thing...
+            return handler.getRequestProcessor().processRequest(
+                returnType,
+                requestBuilder,
+                handler.getTypeInfo().make(genericReturnType)
+            );
+        }
+    }
+
+
+    private static final class FollowLinkInvoker extends RequestingInvoker {
+        private static final Object NOT_LOCAL = new Object();
+
+        private final String linkRelationship;
+        private final org.hyperfit.net.Method requestMethod;
+        private final boolean arrayReturnType;
+        private final boolean listReturnType;
+        private final boolean resourceReturnType;
+        private final Memoize memoize;
+
+        FollowLinkInvoker(String linkRelationship, MethodInfo methodInfo) {
+            super(methodInfo);
+            this.linkRelationship = linkRelationship;
+            this.requestMethod = methodInfo.getRequestMethod();
+            this.arrayReturnType = returnType.isArray();
+            this.listReturnType = EmbeddedResourceList.isListType(returnType);
+            this.resourceReturnType = HyperResource.class.isAssignableFrom(returnType);
+            this.memoize = methodInfo.getMemoizeAnnotation();
+        }
+
+        public Object invoke(HyperResourceInvokeHandler handler, Object proxy, Method method, Object[] args) {
+            HyperResource hyperResource = handler.getHyperResource();
+
+            //If we can get it locally...do it!
+            if (hyperResource.canResolveLinkLocal(linkRelationship)) {
+                //Only the embedded resolution is memoized, following the link is a request every time
+                boolean memoizing = isMemoizing(handler, memoize);
+                if (memoizing) {
+                    Object memoized = getMemoized(handler, this);
+                    if (memoized != null) {
+                        return unmask(memoized);
+                    }
+                }
+
+                Object local = resolveLocal(handler, hyperResource);
+                if (local != NOT_LOCAL) {
+                    return memoizing ? memoize(handler, this, local) : local;
+                }
+            }
+
+            //@Link annotated methods can refer to multiple links...we don't currently support multiple requests
+            if (hyperResource.isMultiLink(linkRelationship)) {
+                throw new UnsupportedOperationException(MESSAGE_EXCEPTION_SOLVING_MULTI_LINK);
+            }
+
+            //At this point we know it's a single link that's not embedded and is expected to be present
+            HyperLink link = nullWhenMissing ? hyperResource.tryGetLink(linkRelationship) : hyperResource.getLink(linkRelationship);
+            if (link == null) {
+                return null;
+            }
+
+            RequestBuilder requestBuilder = link.toRequestBuilder();
+            // Set method type (default=GET)
+            requestBuilder.setMethod(requestMethod);
+            return request(handler, requestBuilder, args);
+        }
+
+        /**
+         * @return the resource or resources the link resolves to from the embedded resources, NOT_LOCAL when the return type can't be resolved locally
+         */
+        @SuppressWarnings("unchecked")
+        private Object resolveLocal(HyperResourceInvokeHandler handler, HyperResource hyperResource) {
+            //TODO: when we get to strategies this condition can be much more interesting
+            //for now we do this if the return type is an array or list or the link is a multi link
+            if (arrayReturnType || listReturnType || hyperResource.isMultiLink(linkRelationship)) {
+                return handler.processEmbeddedResources(
+                    returnType,
+                    genericReturnType,
+                    hyperResource.resolveLinksLocal(linkRelationship)
+                );
+            } else if (resourceReturnType) {
+                return handler.getRequestProcessor().processResource(
+                    (Class<? extends HyperResource>) returnType,
+                    hyperResource.resolveLinkLocal(linkRelationship),
+                    handler.getTypeInfo().make(genericReturnType)
+                );
+            }
+
+            return NOT_LOCAL;
+        }
+    }
+
+
+    private static final class FollowNamedLinkInvoker extends RequestingInvoker {
+        private final String linkRelationship;
+        private final String linkName;
+        private final org.hyperfit.net.Method requestMethod;
+
+        FollowNamedLinkInvoker(String linkRelationship, String linkName, MethodInfo methodInfo) {
+            super(methodInfo);
+            this.linkRelationship = linkRelationship;
+            this.linkName = linkName;
+            this.requestMethod = methodInfo.getRequestMethod();
+        }
+
+        public Object invoke(HyperResourceInvokeHandler handler, Object proxy, Method method, Object[] args) {
+            HyperResource hyperResource = handler.getHyperResource();
+
+            //TODO: we have no concept of resolving a named link locally.  We would need a canResolveLocal(rel, name) and resolveLocal(rel, name)
+            //HAL has no way to identify a named embedded link so for now we don't even bother checking for that..
+
+            //At this point we know it's a single link that's not embedded  and is expected to be present
+            HyperLink link = nullWhenMissing ? hyperResource.tryGetLink(linkRelationship, linkName) : hyperResource.getLink(linkRelationship, linkName);
+            if (link == null) {
+                return null;
+            }
+
+            RequestBuilder requestBuilder = link.toRequestBuilder();
+            // Set method type (default=GET)
+            requestBuilder.setMethod(requestMethod);
+            return request(handler, requestBuilder, args);
+        }
+    }
+
+
+    private static final class FirstLinkInvoker implements MethodInvoker {
+        private final String relationship;
+        private final String[] names;
+        private final String[] declaredNames;
+
+        FirstLinkInvoker(FirstLink firstLink) {
+            this.relationship = firstLink.rel();
+            this.declaredNames = firstLink.names();
+            this.names = new String[declaredNames.length];
+
+            for (int i = 0; i < declaredNames.length; i++) {
+                //java doesn't let us have nulls..but we can have null names on links so we do this
+                names[i] = declaredNames[i].equals(FirstLink.NULL) ? null : declaredNames[i];
+            }
+        }
+
+        public Object invoke(HyperResourceInvokeHandler handler, Object proxy, Method method, Object[] args) {
+            HyperLink[] relLinks = handler.getHyperResource().getLinks(relationship);
+
+            if (relLinks.length == 0) {
+                throw new HyperResourceException("Could not find a link with relationship " + relationship);
+            }
+
+            HyperResource resource = ReflectUtils.cast(HyperResource.class, proxy);
+
+            for (String name : names) {
+                if (StringUtils.safeEquals(name, FirstLink.MATCH_ANY_NAME)) {
+                    //If it's the wildcard, just return the first one
+                    return resource.getLink(relationship, relLinks[0].getName());
+                }
+
+                for (HyperLink relLink : relLinks) {
+                    if (StringUtils.safeEquals(name, relLink.getName())) {
+                        return resource.getLink(relationship, relLink.getName());
+                    }
+                }
+            }
+
+            //If it was never found indicate that.
+            throw new HyperResourceException("Could not find a link with relationship [" + relationship + "] and name [" + Arrays.toString(declaredNames) + "]");
+        }
+    }
+
+
+    private static final class HasFormInvoker implements MethodInvoker {
+        private final String formName;
+
+        HasFormInvoker(String formName) {
+            this.formName = formName;
+        }
+
+        public Object invoke(HyperResourceInvokeHandler handler, Object proxy, Method method, Object[] args) {
+            return handler.getHyperResource().hasForm(formName);
+        }
+    }
+
+
+    private static final class GetFormInvoker implements MethodInvoker {
+        private final String formName;
+
+        GetFormInvoker(String formName) {
+            this.formName = formName;
+        }
+
+        public Object invoke(HyperResourceInvokeHandler handler, Object proxy, Method method, Object[] args) {
+            return handler.getHyperResource().getForm(formName);
+        }
+    }
+
+
+    private static final class SubmitFormInvoker extends RequestingInvoker {
+        private final String formName;
+
+        SubmitFormInvoker(String formName, MethodInfo methodInfo) {
+            super(methodInfo);
+            this.formName = formName;
+        }
+
+        public Object invoke(HyperResourceInvokeHandler handler, Object proxy, Method method, Object[] args) {
+            return request(handler, handler.getHyperResource().getForm(formName).toRequestBuilder(), args);
+        }
+    }
+
+}
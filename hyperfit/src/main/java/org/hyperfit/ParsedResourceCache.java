@@ -0,0 +1,214 @@
+package org.hyperfit;
+
+import org.hyperfit.net.Method;
+import org.hyperfit.net.Request;
+import org.hyperfit.net.RequestBuilder;
+import org.hyperfit.net.Response;
+import org.hyperfit.resource.HyperResource;
+import org.hyperfit.utils.StringUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Keeps the resources responses to GET requests were parsed into, with the ETag and Last-Modified validators of
+ * the responses, so a response that didn't change isn't parsed again.  Register it with
+ * {@link HyperfitProcessor.Builder#parsedResourceCache(ParsedResourceCache)}.</p>
+ *
+ * <p>A request for a url with a cached resource is sent with If-None-Match and If-Modified-Since headers, unless it
+ * already has one of them, and a 304 Not Modified response to it is processed into the cached resource.  A 200
+ * response with the same strong ETag and content type as the cached one is processed into the cached resource as
+ * well, IE one served by a {@link org.hyperfit.net.cache.CachingHyperClient}.</p>
+ *
+ * <p>Parsed resources are shared by every request that gets them, so only use it with content type handlers whose
+ * resources aren't changed once parsed.  A url has a single entry and the least recently used urls are dropped
+ * beyond the maximum size.</p>
+ */
+public class ParsedResourceCache {
+
+    private final int maximumSize;
+    private final Map<String, Entry> entries;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * @param maximumSize the number of urls to keep the parsed resource of
+     */
+    public ParsedResourceCache(final int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * @return the number of responses processed into a cached resource without parsing
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of responses to GET requests processed without a cached resource
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the number of urls with a cached resource
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+
+    /**
+     * Adds the validators of the resource cached for a GET request's url to its builder
+     * @return the request built again when validators were added, else the request given
+     */
+    Request conditionalRequest(RequestBuilder requestBuilder, Request request) {
+        if (request.getMethod() != Method.GET
+            || header(request, "If-None-Match") != null
+            || header(request, "If-Modified-Since") != null) {
+            return request;
+        }
+
+        Entry entry = get(request.getUrl());
+        if (entry == null) {
+            return request;
+        }
+
+        if (entry.etag != null) {
+            requestBuilder.addHeader("If-None-Match", entry.etag);
+        }
+        if (entry.lastModified != null) {
+            requestBuilder.addHeader("If-Modified-Since", entry.lastModified);
+        }
+
+        return requestBuilder.build();
+    }
+
+    /**
+     * @return the resource cached for the response's url when the response says it didn't change, else null
+     */
+    HyperResource get(Response response) {
+        Request request = response.getRequest();
+        if (request == null || request.getMethod() != Method.GET) {
+            return null;
+        }
+
+        Entry entry = get(request.getUrl());
+        if (entry != null && unchanged(entry, response)) {
+            hitCount.incrementAndGet();
+            return entry.resource;
+        }
+
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Caches the resource parsed from an OK response to a GET request, if the response has validators
+     */
+    void put(Response response, HyperResource resource) {
+        Request request = response.getRequest();
+        if (request == null || request.getMethod() != Method.GET) {
+            return;
+        }
+
+        String etag = response.getHeader("ETag");
+        String lastModified = response.getHeader("Last-Modified");
+        String cacheControl = response.getHeader("Cache-Control");
+
+        synchronized (this) {
+            if (response.getCode() != 200
+                || (etag == null && lastModified == null)
+                || (cacheControl != null && cacheControl.toLowerCase().contains("no-store"))) {
+                entries.remove(request.getUrl());
+                return;
+            }
+
+            entries.put(request.getUrl(), new Entry(etag, lastModified, response.getContentType(), resource));
+        }
+    }
+
+    private synchronized Entry get(String url) {
+        return entries.get(url);
+    }
+
+    private static boolean unchanged(Entry entry, Response response) {
+        if (response.getCode() == 304) {
+            //the 304 names the representation it's about
+            String etag = response.getHeader("ETag");
+            if (etag != null) {
+                return entry.etag != null && weakEtag(etag).equals(weakEtag(entry.etag));
+            }
+
+            //else it's about the validators that were sent
+            Request request = response.getRequest();
+            String ifNoneMatch = header(request, "If-None-Match");
+            if (ifNoneMatch != null) {
+                return entry.etag != null && ifNoneMatch.trim().equals(entry.etag);
+            }
+
+            String ifModifiedSince = header(request, "If-Modified-Since");
+            return entry.lastModified != null && entry.lastModified.equals(ifModifiedSince);
+        }
+
+        //a strong ETag matches a representation byte for byte, so it parses the same
+        String etag = response.getHeader("ETag");
+        return response.getCode() == 200
+            && etag != null
+            && !etag.startsWith("W/")
+            && etag.equals(entry.etag)
+            && StringUtils.safeEquals(response.getContentType(), entry.contentType);
+    }
+
+    private static String weakEtag(String etag) {
+        String trimmed = etag.trim();
+        return trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed;
+    }
+
+    private static String header(Request request, String name) {
+        for (Map.Entry<String, String> header : request.getHeaders()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+
+        return null;
+    }
+
+
+    private static final class Entry {
+        private final String etag;
+        private final String lastModified;
+        private final String contentType;
+        private final HyperResource resource;
+
+        Entry(String etag, String lastModified, String contentType, HyperResource resource) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.contentType = contentType;
+            this.resource = resource;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package org.hyperfit;
+
+import org.hyperfit.exception.HyperfitException;
+import org.hyperfit.net.Method;
+import org.hyperfit.net.Request;
+import org.hyperfit.utils.TypeInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets identical GET requests that are in flight at the same time share one request and its processed result, see
+ * {@link HyperfitProcessor.Builder#coalesceRequests(boolean)}.
+ *
+ * Requests are identical when their url, accepted content types and headers are, as which headers the response varies
+ * on isn't known before it arrives, and they are processed into the same type.  The first request is executed on its
+ * caller's thread, the others wait for it and get the same result, or have the same exception thrown.
+ */
+final class RequestCoalescer {
+
+    private final ConcurrentMap<Key, InFlight> inFlight = new ConcurrentHashMap<Key, InFlight>();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    /**
+     * @return the result of the call, or of the identical call in flight
+     */
+    @SuppressWarnings("unchecked")
+    <T> T execute(Request request, Class<?> classToReturn, TypeInfo typeInfo, Callable<T> call) {
+        if (request.getMethod() != Method.GET) {
+            return run(call);
+        }
+
+        Key key = new Key(request, classToReturn, typeInfo);
+        InFlight task = new InFlight(call);
+        InFlight existing = inFlight.putIfAbsent(key, task);
+
+        //a call made while processing the same request would wait for itself
+        if (existing != null && existing.owner == Thread.currentThread()) {
+            return run(call);
+        }
+
+        if (existing != null) {
+            coalescedCount.incrementAndGet();
+            return (T) get(existing, request);
+        }
+
+        try {
+            task.run();
+        } finally {
+            inFlight.remove(key, task);
+        }
+
+        return (T) get(task, request);
+    }
+
+    /**
+     * @return the number of requests that waited for an identical one instead of being executed
+     */
+    long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    private static <T> T run(Callable<T> call) {
+        try {
+            return call.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new HyperfitException("Error processing request", e);
+        }
+    }
+
+    private static Object get(InFlight task, Request request) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HyperfitException("Interrupted waiting for the response to " + request, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new HyperfitException("Error processing request " + request, (Exception) cause);
+        }
+    }
+
+
+    private static final class InFlight extends FutureTask<Object> {
+        private final Thread owner = Thread.currentThread();
+
+        @SuppressWarnings("unchecked")
+        InFlight(Callable<?> call) {
+            super((Callable<Object>) call);
+        }
+    }
+
+    private static final class Key {
+        private final String url;
+        private final String acceptedContentTypes;
+        private final String headers;
+        private final Class<?> classToReturn;
+        private final TypeInfo typeInfo;
+        private final int hashCode;
+
+        Key(Request request, Class<?> classToReturn, TypeInfo typeInfo) {
+            //header names are case insensitive, the order headers were added in doesn't matter
+            List<String> sortedHeaders = new ArrayList<String>();
+            for (Map.Entry<String, String> header : request.getHeaders()) {
+                sortedHeaders.add(header.getKey().toLowerCase() + ": " + header.getValue());
+            }
+            Collections.sort(sortedHeaders);
+
+            this.url = request.getUrl();
+            this.acceptedContentTypes = new TreeSet<String>(request.getAcceptedContentTypes()).toString();
+            this.headers = sortedHeaders.toString();
+            this.classToReturn = classToReturn;
+            this.typeInfo = typeInfo;
+
+            int result = url.hashCode();
+            result = 31 * result + acceptedContentTypes.hashCode();
+            result = 31 * result + headers.hashCode();
+            result = 31 * result + classToReturn.hashCode();
+            result = 31 * result + (typeInfo == null ? 0 : typeInfo.hashCode());
+            this.hashCode = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) o;
+            return url.equals(other.url)
+                && acceptedContentTypes.equals(other.acceptedContentTypes)
+                && headers.equals(other.headers)
+                && classToReturn.equals(other.classToReturn)
+                && (typeInfo == null ? other.typeInfo == null : typeInfo.equals(other.typeInfo));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package org.hyperfit;
+
+import org.hyperfit.annotation.Data;
+import org.hyperfit.exception.HyperfitException;
+import org.hyperfit.handlers.Java8DefaultMethodHandler;
+import org.hyperfit.proxy.GeneratedSnapshotFactory;
+import org.hyperfit.proxy.GeneratedSnapshotRegistry;
+import org.hyperfit.resource.HyperResource;
+import org.hyperfit.utils.WeakClassCache;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Takes snapshots of resources, immutable implementations of a resource interface holding the results of its
+ * @Data methods.  A snapshot no longer refers to the resource it was taken from.  Arrays are copied when the snapshot
+ * is taken and every time they're returned, values declared as a List, Set, SortedSet, Map, SortedMap, Collection or
+ * Iterable are copied into unmodifiable ones.  Other values, IE mutable beans, are held as the resource returned them.
+ *
+ * The implementation generated by hyperfit-apt is used when there is one, otherwise a dynamic proxy over the values.
+ */
+final class ResourceSnapshots {
+
+    private static final Comparator<Method> BY_NAME = new Comparator<Method>() {
+        public int compare(Method a, Method b) {
+            return a.getName().compareTo(b.getName());
+        }
+    };
+
+    private final Java8DefaultMethodHandler java8DefaultMethodHandler;
+    private final List<GeneratedSnapshotRegistry> registries = new ArrayList<GeneratedSnapshotRegistry>();
+    private final WeakClassCache<Layout> layouts = new WeakClassCache<Layout>() {
+        @Override
+        protected Layout compute(Class<?> clazz) {
+            return new Layout(clazz);
+        }
+    };
+
+    ResourceSnapshots(
+        Java8DefaultMethodHandler java8DefaultMethodHandler,
+        Iterable<? extends GeneratedSnapshotRegistry> registries
+    ) {
+        this.java8DefaultMethodHandler = java8DefaultMethodHandler;
+        for (GeneratedSnapshotRegistry registry : registries) {
+            this.registries.add(registry);
+        }
+    }
+
+    ResourceSnapshots(Java8DefaultMethodHandler java8DefaultMethodHandler) {
+        this(java8DefaultMethodHandler, ServiceLoader.load(GeneratedSnapshotRegistry.class));
+    }
+
+
+    <T extends HyperResource> T snapshot(Class<T> resourceInterface, T resource) {
+        Layout layout = layouts.get(resourceInterface);
+
+        Object[] values = new Object[layout.methods.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = freeze(layout.methods[i].getReturnType(), read(layout.methods[i], resource));
+        }
+
+        if (layout.factory != null) {
+            return resourceInterface.cast(layout.factory.newInstance(values));
+        }
+
+        return resourceInterface.cast(
+            Proxy.newProxyInstance(
+                resourceInterface.getClassLoader(),
+                new Class<?>[]{resourceInterface},
+                new SnapshotHandler(layout, values)
+            )
+        );
+    }
+
+
+
+    private static Object read(Method method, HyperResource resource) {
+        try {
+            return method.invoke(resource);
+        } catch (IllegalAccessException e) {
+            throw new HyperfitException("Could not snapshot " + method, e);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new HyperfitException("Could not snapshot " + method, (Exception) cause);
+        }
+    }
+
+
+    /**
+     * @return the value as a snapshot holds it, a copy of arrays and collections so changing what the resource
+     * returned doesn't change the snapshot
+     */
+    private static Object freeze(Class<?> type, Object value) {
+        if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            if (type == List.class) {
+                return Collections.unmodifiableList(new ArrayList<Object>(collection));
+            }
+            if (type == SortedSet.class) {
+                return Collections.unmodifiableSortedSet(new TreeSet<Object>((SortedSet<?>) collection));
+            }
+            if (type == Set.class) {
+                return Collections.unmodifiableSet(new LinkedHashSet<Object>(collection));
+            }
+            if (type == Collection.class || type == Iterable.class) {
+                return Collections.unmodifiableCollection(new ArrayList<Object>(collection));
+            }
+        }
+
+        if (value instanceof Map) {
+            if (type == SortedMap.class) {
+                return Collections.unmodifiableSortedMap(new TreeMap<Object, Object>((SortedMap<?, ?>) value));
+            }
+            if (type == Map.class) {
+                return Collections.unmodifiableMap(new LinkedHashMap<Object, Object>((Map<?, ?>) value));
+            }
+        }
+
+        return copyArray(value);
+    }
+
+    /**
+     * @return a copy of the value when it's an array, else the value
+     */
+    private static Object copyArray(Object value) {
+        if (value != null && value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+            System.arraycopy(value, 0, copy, 0, length);
+            return copy;
+        }
+
+        return value;
+    }
+
+
+    /**
+     * The @Data methods of a resource interface, ordered by name, and how snapshots of it are implemented
+     */
+    private final class Layout {
+        private final Class<?> resourceInterface;
+        private final Method[] methods;
+        private final Map<Method, Integer> indexes = new HashMap<Method, Integer>();
+        private final GeneratedSnapshotFactory factory;
+
+        Layout(Class<?> resourceInterface) {
+            this.resourceInterface = resourceInterface;
+
+            List<Method> dataMethods = new ArrayList<Method>();
+            for (Method method : resourceInterface.getMethods()) {
+                //default methods are left to run as is on the snapshot
+                if (method.isAnnotationPresent(Data.class) && Modifier.isAbstract(method.getModifiers()) && method.getParameterTypes().length == 0) {
+                    //snapshots of interfaces that aren't public read through methods we can't otherwise call
+                    if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                        method.setAccessible(true);
+                    }
+                    dataMethods.add(method);
+                }
+            }
+
+            this.methods = dataMethods.toArray(new Method[dataMethods.size()]);
+            Arrays.sort(this.methods, BY_NAME);
+            for (int i = 0; i < methods.length; i++) {
+                indexes.put(methods[i], i);
+            }
+
+            GeneratedSnapshotFactory found = null;
+            for (GeneratedSnapshotRegistry registry : registries) {
+                found = registry.getSnapshotFactory(resourceInterface);
+                if (found != null) {
+                    break;
+                }
+            }
+            this.factory = found;
+        }
+    }
+
+
+    /**
+     * Implements snapshots of interfaces without a generated snapshot implementation
+     */
+    private final class SnapshotHandler implements InvocationHandler {
+        private final Layout layout;
+        private final Object[] values;
+
+        SnapshotHandler(Layout layout, Object[] values) {
+            this.layout = layout;
+            this.values = values;
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            Integer index = layout.indexes.get(method);
+            if (index != null) {
+                return copyArray(values[index]);
+            }
+
+            String name = method.getName();
+            int argsLength = args == null ? 0 : args.length;
+            if (argsLength == 1 && name.equals("equals") && method.getParameterTypes()[0] == Object.class) {
+                return isEqual(args[0]);
+            }
+            if (argsLength == 0 && name.equals("hashCode")) {
+                return Arrays.deepHashCode(values);
+            }
+            if (argsLength == 0 && name.equals("toString")) {
+                return layout.resourceInterface.getSimpleName() + "Snapshot" + Arrays.deepToString(values);
+            }
+
+            if (!Modifier.isAbstract(method.getModifiers())) {
+                return java8DefaultMethodHandler.invoke(
+                    new Java8DefaultMethodHandler.DefaultMethodContext((HyperResource) proxy, method),
+                    args
+                );
+            }
+
+            throw new UnsupportedOperationException("Method " + name + " is not available on a resource snapshot, only @Data methods are");
+        }
+
+        private boolean isEqual(Object other) {
+            if (other == null || !Proxy.isProxyClass(other.getClass())) {
+                return false;
+            }
+
+            InvocationHandler otherHandler = Proxy.getInvocationHandler(other);
+            return otherHandler instanceof SnapshotHandler
+                && ((SnapshotHandler) otherHandler).layout.resourceInterface == layout.resourceInterface
+                && Arrays.deepEquals(values, ((SnapshotHandler) otherHandler).values);
+        }
+    }
+}
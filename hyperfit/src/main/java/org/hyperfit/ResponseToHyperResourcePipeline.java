@@ -77,6 +77,15 @@ class ResponseToHyperResourcePipeline implements Pipeline<Response, HyperResourc
         //and try to parse if it can understand the type
         //possibly as an Optional<HyperResource>?
 
+        //STAGE 0 - The response may not have changed since it was parsed, IE a 304 to the validators of a cached resource
+        ParsedResourceCache parsedResourceCache = processor.getParsedResourceCache();
+        if(parsedResourceCache != null){
+            HyperResource cached = parsedResourceCache.get(response);
+            if(cached != null){
+                return cached;
+            }
+        }
+
         //STAGE 1 - There's response, let's see if we understand the content type!
         ContentType responseContentType = null;
 
@@ -104,6 +113,36 @@ class ResponseToHyperResourcePipeline implements Pipeline<Response, HyperResourc
         //STAGE 2 - There's a content type we understand, let's try to parse the response!
 
         ContentTypeHandler contentTypeHandler = this.contentRegistry.getHandler(responseContentType, ContentRegistry.Purpose.PARSE_RESPONSE);
+
+        //When deferring, the response is parsed by the first method call on the resource,
+        //an error handler that doesn't look at the resource of a not OK response never has it parsed
+        if(processor.isDeferringParsing()){
+            HyperResource deferred = new DeferredHyperResource(
+                response,
+                contentTypeHandler,
+                processor,
+                contentRegistry,
+                errorHandler,
+                expectedInterface
+            );
+
+            if(!response.isOK()){
+                return this.errorHandler.notOKResponse(
+                    processor,
+                    response,
+                    contentRegistry,
+                    expectedInterface,
+                    deferred
+                );
+            }
+
+            if(parsedResourceCache != null){
+                parsedResourceCache.put(response, deferred);
+            }
+
+            return deferred;
+        }
+
         HyperResource resource;
         try{
             resource = contentTypeHandler.parseResponse(response);
@@ -131,6 +170,10 @@ class ResponseToHyperResourcePipeline implements Pipeline<Response, HyperResourc
             );
         }
 
+        if(parsedResourceCache != null){
+            parsedResourceCache.put(response, resource);
+        }
+
         return resource;
     }
 
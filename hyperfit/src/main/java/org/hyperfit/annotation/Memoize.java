@@ -0,0 +1,26 @@
+package org.hyperfit.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Controls whether the result of a method is kept for the life of the resource proxy, overriding the default set with
+ * {@link org.hyperfit.HyperfitProcessor.Builder#memoize(boolean)}.
+ *
+ * Only methods without side effects are memoized: @Data methods, getLink/getLinks and @Link methods returning
+ * hyper links, and @Link methods resolved from embedded resources.  Links that have to be followed with a request
+ * are never memoized.  A memoized method returns the same instance every time, including arrays.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Memoize {
+
+    /**
+     *
+     * @return true to memoize the method's result, false to never memoize it
+     */
+    boolean value() default true;
+
+}
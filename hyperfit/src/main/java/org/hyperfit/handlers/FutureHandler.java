@@ -0,0 +1,30 @@
+package org.hyperfit.handlers;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * Adapts resource method results to a future type, allowing @Link and @NamedForm methods that make a request to return
+ * a future like java8's CompletableFuture&lt;T&gt; instead of a T.  The whole method, building the request, executing it
+ * and processing the response, then runs on the executor set with
+ * {@link org.hyperfit.HyperfitProcessor.Builder#executor(Executor)}.
+ *
+ * Implementations are found with {@link java.util.ServiceLoader}, the hyperfit-java8 module provides one for
+ * java.util.concurrent.CompletableFuture and CompletionStage.
+ */
+public interface FutureHandler {
+
+    /**
+     * @return the future types this handler creates, a method returning one of them returns what the handler creates
+     */
+    Class<?>[] getFutureTypes();
+
+    /**
+     * Executes work on an executor
+     * @param work the method's work, its result completes the future, an exception it throws fails it
+     * @param executor the executor to execute the work on
+     * @return a future of the work's result
+     */
+    Object submit(Callable<?> work, Executor executor);
+
+}
@@ -0,0 +1,35 @@
+package org.hyperfit.handlers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * The {@link FutureHandler} implementations found with {@link ServiceLoader}, looked up once.
+ */
+public final class FutureHandlers {
+
+    private static final Map<Class<?>, FutureHandler> HANDLERS = new HashMap<Class<?>, FutureHandler>();
+
+    static {
+        //loaded with our own class loader as they're only loaded once for everyone
+        for (FutureHandler handler : ServiceLoader.load(FutureHandler.class, FutureHandler.class.getClassLoader())) {
+            for (Class<?> futureType : handler.getFutureTypes()) {
+                HANDLERS.put(futureType, handler);
+            }
+        }
+    }
+
+    private FutureHandlers() {
+
+    }
+
+    /**
+     * @param type a method return type
+     * @return the handler of the given future type, null if the type isn't a future type
+     */
+    public static FutureHandler forType(Class<?> type) {
+        return HANDLERS.get(type);
+    }
+
+}
@@ -0,0 +1,29 @@
+package org.hyperfit.handlers;
+
+/**
+ * Adapts resource method results to an optional type, allowing resource methods to return an optional type like
+ * java8's Optional&lt;T&gt; instead of a T that is null when missing.  Methods returning an optional type are treated as
+ * if they were annotated with {@link org.hyperfit.annotation.NullWhenMissing}.
+ *
+ * Implementations are found with {@link java.util.ServiceLoader}, the hyperfit-java8 module provides one for
+ * java.util.Optional.
+ */
+public interface OptionalHandler {
+
+    /**
+     * @return the optional type this handler creates
+     */
+    Class<?> getOptionalType();
+
+    /**
+     * @return an optional without a value
+     */
+    Object empty();
+
+    /**
+     * @param value a value, never null
+     * @return an optional holding the value
+     */
+    Object of(Object value);
+
+}
@@ -0,0 +1,33 @@
+package org.hyperfit.handlers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * The {@link OptionalHandler} implementations found with {@link ServiceLoader}, looked up once.
+ */
+public final class OptionalHandlers {
+
+    private static final Map<Class<?>, OptionalHandler> HANDLERS = new HashMap<Class<?>, OptionalHandler>();
+
+    static {
+        //loaded with our own class loader as they're only loaded once for everyone
+        for (OptionalHandler handler : ServiceLoader.load(OptionalHandler.class, OptionalHandler.class.getClassLoader())) {
+            HANDLERS.put(handler.getOptionalType(), handler);
+        }
+    }
+
+    private OptionalHandlers() {
+
+    }
+
+    /**
+     * @param type a method return type
+     * @return the handler of the given optional type, null if the type isn't an optional type
+     */
+    public static OptionalHandler forType(Class<?> type) {
+        return HANDLERS.get(type);
+    }
+
+}
@@ -1,12 +1,21 @@
 package org.hyperfit.methodinfo;
 
+import org.hyperfit.MethodInvoker;
+import org.hyperfit.MethodInvokers;
 import org.hyperfit.annotation.*;
+import org.hyperfit.handlers.FutureHandler;
+import org.hyperfit.handlers.FutureHandlers;
+import org.hyperfit.handlers.OptionalHandler;
+import org.hyperfit.handlers.OptionalHandlers;
 import org.hyperfit.resource.HyperResource;
+import org.hyperfit.utils.ReflectUtils;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.HashSet;
 import java.util.Set;
@@ -15,8 +24,8 @@ import java.util.Set;
  * Class to cache information about resource methods.  This is built to avoid the overhead of using reflection each time
  * Additionally this is passed to the strategies to determine what strategy to execute for the given method.
  */
-@ToString
-@EqualsAndHashCode
+@ToString(exclude = {"method", "invoker", "memoizingInvoker"})
+@EqualsAndHashCode(exclude = {"method", "invoker", "memoizingInvoker"})
 public class MethodInfo {
 
     private static final Set<String> HYPER_RESOURCE_METHODS;
@@ -38,6 +47,7 @@ public class MethodInfo {
         HASH_CODE("hashCode"),
         TO_STRING("toString"),
         GET_LINK("getLink"),
+        TRY_GET_LINK("tryGetLink"),
         GET_LINKS("getLinks"),
         FROM_HYPER_RESOURCE_CLASS(HYPER_RESOURCE_METHODS);
 
@@ -55,6 +65,8 @@ public class MethodInfo {
     private MethodType methodType;
     private final Class<?> returnType;
     private final Type genericReturnType;
+    private final OptionalHandler optionalHandler;
+    private final FutureHandler futureHandler;
 
     private final Link linkAnnotation;
     private final NamedLink namedLinkAnnotation;
@@ -62,11 +74,16 @@ public class MethodInfo {
     private final Data dataAnnotation;
     private final NamedForm namedFormAnnotation;
     private final NullWhenMissing nullWhenMissingAnnotation;
+    private final Memoize memoizeAnnotation;
     private final Annotation[][] parameterAnnotations;
     private final org.hyperfit.net.Method requestMethod;
 
     private final boolean defaultMethod;
 
+    private final Method method;
+    private final MethodInvoker invoker;
+    private volatile MethodInvoker memoizingInvoker;
+
     /**
      * Builds it from a method
      *
@@ -74,6 +91,7 @@ public class MethodInfo {
      */
     public MethodInfo(Method method) {
 
+        this.method = method;
         this.parameterAnnotations = method.getParameterAnnotations();
         //the only way to get the number of arguments from Method :S
         int argsLength = parameterAnnotations.length;
@@ -96,6 +114,8 @@ public class MethodInfo {
         if (this.methodType == null) {
             if (MethodType.GET_LINK.is(methodName)) {
                 this.methodType = MethodType.GET_LINK;
+            } else if (MethodType.TRY_GET_LINK.is(methodName)) {
+                this.methodType = MethodType.TRY_GET_LINK;
             } else if (MethodType.GET_LINKS.is(methodName)) {
                 this.methodType = MethodType.GET_LINKS;
             } else if (MethodType.FROM_HYPER_RESOURCE_CLASS.is(methodName)) {
@@ -103,8 +123,22 @@ public class MethodInfo {
             }
         }
 
-        this.returnType = method.getReturnType();
-        this.genericReturnType = method.getGenericReturnType();
+        Type valueType = method.getGenericReturnType();
+
+        //for CompletableFuture<T> the method is treated as returning a T that's computed on the processor's executor
+        this.futureHandler = FutureHandlers.forType(method.getReturnType());
+        if (this.futureHandler != null) {
+            valueType = typeArgument(valueType);
+        }
+
+        //for Optional<T> the method is treated as returning a T that's null when missing
+        this.optionalHandler = OptionalHandlers.forType(ReflectUtils.erasure(valueType));
+        if (this.optionalHandler != null) {
+            valueType = typeArgument(valueType);
+        }
+
+        this.genericReturnType = valueType;
+        this.returnType = ReflectUtils.erasure(valueType);
 
         this.dataAnnotation = method.getAnnotation(Data.class);
         this.namedFormAnnotation = method.getAnnotation(NamedForm.class);
@@ -112,10 +146,16 @@ public class MethodInfo {
         this.firstLinkAnnotation = method.getAnnotation(FirstLink.class);
         this.namedLinkAnnotation = method.getAnnotation(NamedLink.class);
         this.nullWhenMissingAnnotation = method.getAnnotation(NullWhenMissing.class);
+        this.memoizeAnnotation = method.getAnnotation(Memoize.class);
         org.hyperfit.annotation.Method methodAnnotation = method.getAnnotation(org.hyperfit.annotation.Method.class);
         this.requestMethod = methodAnnotation == null ? org.hyperfit.net.Method.GET : methodAnnotation.value();
 
-        this.defaultMethod = method.toString().matches(".*\\bdefault\\b.+");
+        //what Method.isDefault checks, without needing java 8 or the string form of the method
+        this.defaultMethod = method.getDeclaringClass().isInterface()
+            && (method.getModifiers() & (Modifier.ABSTRACT | Modifier.STATIC)) == 0;
+
+        //resolved last as it's built from everything above
+        this.invoker = MethodInvokers.forMethod(method, this, false);
 
     }
 
@@ -125,14 +165,34 @@ public class MethodInfo {
 
     public org.hyperfit.net.Method getRequestMethod() { return this.requestMethod; }
 
+    /**
+     * @return the generic return type, or the type of the value of the future and/or optional type the method returns
+     */
     public Type getGenericReturnType() {
         return genericReturnType;
     }
 
+    /**
+     * @return the return type, or the class of the value of the future and/or optional type the method returns
+     */
     public Class<?> getReturnType() {
         return returnType;
     }
 
+    /**
+     * @return the handler of the optional type the method returns, null when it doesn't return an optional type
+     */
+    public OptionalHandler getOptionalHandler() {
+        return optionalHandler;
+    }
+
+    /**
+     * @return the handler of the future type the method returns, null when it doesn't return a future type
+     */
+    public FutureHandler getFutureHandler() {
+        return futureHandler;
+    }
+
     public Data getDataAnnotation() {
         return dataAnnotation;
     }
@@ -162,7 +222,11 @@ public class MethodInfo {
     }
 
     public boolean isNullWhenMissing() {
-        return nullWhenMissingAnnotation != null;
+        return nullWhenMissingAnnotation != null || optionalHandler != null;
+    }
+
+    public Memoize getMemoizeAnnotation() {
+        return memoizeAnnotation;
     }
 
     /**
@@ -171,4 +235,41 @@ public class MethodInfo {
     public boolean isDefaultMethod(){
         return defaultMethod;
     }
+
+    /**
+     * @return the invoker that fulfills invocations of the method on a resource proxy
+     */
+    public MethodInvoker getInvoker() {
+        return invoker;
+    }
+
+    /**
+     * @return the invoker for handlers memoizing by default, built the first time one asks for it
+     */
+    public MethodInvoker getMemoizingInvoker() {
+        MethodInvoker memoizing = memoizingInvoker;
+        if (memoizing == null) {
+            synchronized (this) {
+                memoizing = memoizingInvoker;
+                if (memoizing == null) {
+                    //@Memoize annotated methods memoize or not regardless of the handler
+                    memoizing = memoizeAnnotation != null ? invoker : MethodInvokers.forMethod(method, this, true);
+                    memoizingInvoker = memoizing;
+                }
+            }
+        }
+
+        return memoizing;
+    }
+
+    /**
+     * @return the first type argument of a parameterized type, Object for a raw type
+     */
+    private static Type typeArgument(Type type) {
+        if (type instanceof ParameterizedType) {
+            return ((ParameterizedType) type).getActualTypeArguments()[0];
+        }
+
+        return Object.class;
+    }
 }
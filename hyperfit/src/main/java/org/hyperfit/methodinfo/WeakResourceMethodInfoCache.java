@@ -0,0 +1,236 @@
+package org.hyperfit.methodinfo;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ResourceMethodInfoCache that doesn't keep resource interfaces, or the class loaders that loaded them, from being
+ * unloaded.  Use it through HyperfitProcessor.Builder#resourceMethodInfoCache in servers that redeploy or load plugins.
+ * The processor's own caches of proxy classes, selected interfaces, snapshot layouts and type information are
+ * {@link org.hyperfit.utils.WeakClassCache}s that hold classes the same way, but custom proxy factories, interface
+ * selection strategies or handlers given to the builder may not.
+ *
+ * Classes are held weakly.  The method metadata of a class refers back to the class so it's held softly, the metadata
+ * of a class that's no longer used is collected with the class once the garbage collector clears soft references.
+ * Metadata collected while the class is still in use is built again the next time it's needed.
+ *
+ * The number of classes can be bounded, beyond it the least recently used class is evicted.  The metadata of a class,
+ * and of each of its methods, is only built once while it's cached, no matter how many threads ask for it.
+ */
+public class WeakResourceMethodInfoCache implements ResourceMethodInfoCache {
+
+    private final int maximumSize;
+
+    private final ConcurrentMap<Object, Entry> entries = new ConcurrentHashMap<Object, Entry>();
+    private final ReferenceQueue<Class<?>> collectedClasses = new ReferenceQueue<Class<?>>();
+    private final AtomicLong clock = new AtomicLong();
+
+    /**
+     * Creates a cache without a bound on the number of classes
+     */
+    public WeakResourceMethodInfoCache() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param maximumSize the number of classes kept, beyond it the least recently used class is evicted
+     */
+    public WeakResourceMethodInfoCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be at least 1");
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    public MethodInfoCache get(Class<?> clazz) {
+        if (clazz == null) {
+            throw new IllegalArgumentException("class must not be null");
+        }
+
+        Entry entry = entries.get(new LookupKey(clazz));
+        MethodInfoCache methodInfoCache = entry == null ? null : entry.get();
+        if (methodInfoCache != null) {
+            return methodInfoCache;
+        }
+
+        synchronized (this) {
+            entry = entries.get(new LookupKey(clazz));
+            methodInfoCache = entry == null ? null : entry.get();
+            if (methodInfoCache == null) {
+                methodInfoCache = new SingleConstructionMethodInfoCache();
+                store(clazz, methodInfoCache);
+            }
+        }
+
+        return methodInfoCache;
+    }
+
+    /**
+     * @return the previous value associated to clazz
+     */
+    public MethodInfoCache put(Class<?> clazz, MethodInfoCache methodInfoCache) {
+        if (clazz == null) {
+            throw new IllegalArgumentException("class must not be null");
+        }
+
+        synchronized (this) {
+            Entry previous = store(clazz, methodInfoCache);
+            return previous == null ? null : previous.get();
+        }
+    }
+
+    /**
+     * @return the number of classes currently cached, including those collected but not yet expunged
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    //only called while holding the lock
+    private Entry store(Class<?> clazz, MethodInfoCache methodInfoCache) {
+        expungeCollectedClasses();
+
+        Entry previous = entries.put(new ClassKey(clazz, collectedClasses), new Entry(methodInfoCache));
+
+        while (entries.size() > maximumSize) {
+            evictLeastRecentlyUsed();
+        }
+
+        return previous;
+    }
+
+    private void expungeCollectedClasses() {
+        Reference<? extends Class<?>> collected;
+        while ((collected = collectedClasses.poll()) != null) {
+            entries.remove(collected);
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        Object eldestKey = null;
+        long eldestAccess = Long.MAX_VALUE;
+        for (Map.Entry<Object, Entry> entry : entries.entrySet()) {
+            if (entry.getValue().lastAccess < eldestAccess) {
+                eldestAccess = entry.getValue().lastAccess;
+                eldestKey = entry.getKey();
+            }
+        }
+
+        entries.remove(eldestKey);
+    }
+
+
+    private final class Entry {
+        private final SoftReference<MethodInfoCache> methodInfoCache;
+        private volatile long lastAccess;
+
+        Entry(MethodInfoCache methodInfoCache) {
+            this.methodInfoCache = new SoftReference<MethodInfoCache>(methodInfoCache);
+            this.lastAccess = clock.incrementAndGet();
+        }
+
+        MethodInfoCache get() {
+            //recency only matters for eviction, don't contend on the clock when there's no bound
+            if (maximumSize != Integer.MAX_VALUE) {
+                lastAccess = clock.incrementAndGet();
+            }
+            return methodInfoCache.get();
+        }
+    }
+
+
+    /**
+     * Key held by the map, equal to any key of the same class while the class is alive
+     */
+    private static final class ClassKey extends WeakReference<Class<?>> {
+        private final int hashCode;
+
+        ClassKey(Class<?> clazz, ReferenceQueue<Class<?>> queue) {
+            super(clazz, queue);
+            this.hashCode = System.identityHashCode(clazz);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+
+            Class<?> clazz = get();
+            if (clazz == null) {
+                return false;
+            }
+
+            if (obj instanceof ClassKey) {
+                return clazz == ((ClassKey) obj).get();
+            }
+
+            return obj instanceof LookupKey && clazz == ((LookupKey) obj).clazz;
+        }
+    }
+
+    /**
+     * Key used to look classes up without creating a weak reference
+     */
+    private static final class LookupKey {
+        private final Class<?> clazz;
+
+        LookupKey(Class<?> clazz) {
+            this.clazz = clazz;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(clazz);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ClassKey ? obj.equals(this) : obj instanceof LookupKey && clazz == ((LookupKey) obj).clazz;
+        }
+    }
+
+
+    /**
+     * Method metadata of a single class, each method's metadata is only built once
+     */
+    private static final class SingleConstructionMethodInfoCache implements MethodInfoCache {
+
+        private final ConcurrentMap<Method, MethodInfo> methodInfoCache = new ConcurrentHashMap<Method, MethodInfo>();
+
+        public MethodInfo get(Method method) {
+            if (method == null) {
+                throw new IllegalArgumentException("method must not be null");
+            }
+
+            MethodInfo methodInfo = methodInfoCache.get(method);
+            if (methodInfo == null) {
+                synchronized (this) {
+                    methodInfo = methodInfoCache.get(method);
+                    if (methodInfo == null) {
+                        methodInfo = new MethodInfo(method);
+                        methodInfoCache.put(method, methodInfo);
+                    }
+                }
+            }
+
+            return methodInfo;
+        }
+
+        public MethodInfo put(Method method, MethodInfo methodInfo) {
+            return methodInfoCache.put(method, methodInfo);
+        }
+    }
+}
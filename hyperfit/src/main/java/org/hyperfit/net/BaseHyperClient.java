@@ -2,6 +2,7 @@ package org.hyperfit.net;
 
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.Future;
 
 
 /**
@@ -27,6 +28,25 @@ public abstract class BaseHyperClient implements HyperClient {
     protected Set<String> getAcceptedContentTypes() {
         return this.acceptedContentTypes;
     }
+
+    /**
+     * Executes the request with {@link #execute(Request)} before returning, override it when the underlying client
+     * can execute requests without blocking
+     * @param request {@link Request}
+     * @param callback notified before this returns, may be null
+     * @return a completed future of the {@link Response}
+     */
+    public Future<Response> executeAsync(Request request, ResponseCallback callback) {
+        ResponseFuture future = new ResponseFuture(callback);
+
+        try {
+            future.complete(execute(request));
+        } catch (RuntimeException e) {
+            future.fail(e);
+        }
+
+        return future;
+    }
     
 
 }
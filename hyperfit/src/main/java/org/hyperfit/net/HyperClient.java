@@ -2,6 +2,7 @@ package org.hyperfit.net;
 
 import java.net.CookieHandler;
 import java.util.Set;
+import java.util.concurrent.Future;
 
 /**
  *  The contract required by an implementation to make requests and receive responses
@@ -15,6 +16,15 @@ public interface HyperClient {
      */
     Response execute(Request request);
 
+    /**
+     * Executes a request without waiting for its response.  Clients that can't, like those extending
+     * {@link BaseHyperClient} without overriding it, execute the request before returning.
+     * @param request {@link Request}
+     * @param callback notified with the response or the failure once the request completes, may be null
+     * @return the future of the {@link Response}, cancelling it cancels the request
+     */
+    Future<Response> executeAsync(Request request, ResponseCallback callback);
+
     /**
      * Sets the content types that are listed as acceptable for any request
      * @param contentTypes A {@link Set} of {@link String} represents contentTypes
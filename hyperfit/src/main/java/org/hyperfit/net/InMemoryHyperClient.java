@@ -0,0 +1,385 @@
+package org.hyperfit.net;
+
+import org.hyperfit.exception.HyperfitException;
+import org.hyperfit.utils.StringUtils;
+
+import java.net.CookieHandler;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hyperfit.net.HttpUtils.CONTENT_TYPE;
+
+/**
+ * A hyper client that serves responses from fixtures registered by method and url, without a network stack.  Use it
+ * to measure hyperfit's own overhead or to run integration tests that navigate many resources quickly.
+ *
+ * By default it's registered for the mem scheme, IE mem://api/root, pass other schemes like http to the constructor
+ * or register it with {@link org.hyperfit.HyperfitProcessor.Builder#hyperClient(HyperClient, String...)}.  Urls
+ * without a fixture get a 404 response with no body.
+ *
+ * Fixtures may be registered while requests are being executed.
+ */
+public class InMemoryHyperClient extends BaseHyperClient {
+
+    private final String[] schemes;
+    private final Map<String, Fixture> fixtures = new ConcurrentHashMap<String, Fixture>();
+
+    private volatile Latency latency;
+
+
+    public InMemoryHyperClient() {
+        this("mem");
+    }
+
+    /**
+     * @param schemes the schemes returned by {@link #getSchemes()}
+     */
+    public InMemoryHyperClient(String... schemes) {
+        if (schemes == null || schemes.length == 0) {
+            throw new IllegalArgumentException("schemes can not be null or empty");
+        }
+
+        this.schemes = schemes.clone();
+    }
+
+
+    /**
+     * Serves a GET of the url
+     * @param url the url of the request, including any query string
+     * @param code the status code of the response
+     * @param contentType the content type of the response, may be null
+     * @param body the body of the response, may be null
+     * @return this client
+     */
+    public InMemoryHyperClient respond(String url, int code, String contentType, String body) {
+        return respond(Method.GET, url, Fixture.builder().code(code).contentType(contentType).body(body).build());
+    }
+
+    /**
+     * Serves a GET of the url, replacing any fixture already registered for it
+     * @param url the url of the request, including any query string
+     * @param fixture the response to serve
+     * @return this client
+     */
+    public InMemoryHyperClient respond(String url, Fixture fixture) {
+        return respond(Method.GET, url, fixture);
+    }
+
+    /**
+     * Serves requests with the method to the url, replacing any fixture already registered for them
+     * @param method the method of the request
+     * @param url the url of the request, including any query string
+     * @param fixture the response to serve
+     * @return this client
+     */
+    public InMemoryHyperClient respond(Method method, String url, Fixture fixture) {
+        if (method == null) {
+            throw new IllegalArgumentException("method can not be null");
+        }
+        if (StringUtils.isEmpty(url)) {
+            throw new IllegalArgumentException("url can not be null or empty");
+        }
+        if (fixture == null) {
+            throw new IllegalArgumentException("fixture can not be null");
+        }
+
+        fixtures.put(key(method, url), fixture);
+        return this;
+    }
+
+    /**
+     * Removes every fixture
+     * @return this client
+     */
+    public InMemoryHyperClient clear() {
+        fixtures.clear();
+        return this;
+    }
+
+    /**
+     * Sets the latency of fixtures that don't have their own
+     * @param latency the latency to simulate, null for none
+     * @return this client
+     */
+    public InMemoryHyperClient setLatency(Latency latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * Waits for the fixture's latency then returns its response
+     * @param request {@link org.hyperfit.net.Request}
+     * @return {@inheritDoc}
+     */
+    public Response execute(Request request) {
+        checkRequest(request);
+
+        Fixture fixture = fixtures.get(key(request.getMethod(), request.getUrl()));
+
+        long delay = delayNanos(fixture);
+        if (delay > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new HyperfitException("Interrupted executing the request [" + request + "]", e);
+            }
+        }
+
+        return toResponse(fixture, request);
+    }
+
+    /**
+     * Completes the future once the fixture's latency has passed, without blocking the caller.  Cancelling the
+     * future before then means it's never completed.
+     * @param request {@link org.hyperfit.net.Request}
+     * @param callback {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    public Future<Response> executeAsync(final Request request, ResponseCallback callback) {
+        checkRequest(request);
+
+        final Fixture fixture = fixtures.get(key(request.getMethod(), request.getUrl()));
+
+        long delay = delayNanos(fixture);
+        if (delay <= 0) {
+            ResponseFuture future = new ResponseFuture(callback);
+            future.complete(toResponse(fixture, request));
+            return future;
+        }
+
+        //completing a cancelled future does nothing
+        final ResponseFuture future = new ResponseFuture(callback);
+        SchedulerHolder.SCHEDULER.schedule(new Runnable() {
+            public void run() {
+                future.complete(toResponse(fixture, request));
+            }
+        }, delay, TimeUnit.NANOSECONDS);
+
+        return future;
+    }
+
+    /**
+     * Cookies aren't supported, the handler is ignored
+     * @param handler {@inheritDoc}
+     * @return this client
+     */
+    public HyperClient setCookieHandler(CookieHandler handler) {
+        return this;
+    }
+
+    public String[] getSchemes() {
+        return schemes.clone();
+    }
+
+
+    private static void checkRequest(Request request) {
+        if (request == null) {
+            throw new IllegalArgumentException("request cannot be null.");
+        }
+
+        if (request.getMethod() == null) {
+            throw new IllegalArgumentException("request's method cannot be null.");
+        }
+    }
+
+    private static String key(Method method, String url) {
+        return method.name() + " " + url;
+    }
+
+    private long delayNanos(Fixture fixture) {
+        Latency fixtureLatency = fixture != null && fixture.latency != null ? fixture.latency : latency;
+        return fixtureLatency == null ? 0 : fixtureLatency.nextNanos();
+    }
+
+    private static Response toResponse(Fixture fixture, Request request) {
+        if (fixture == null) {
+            return Response.builder()
+                .addCode(404)
+                .addRequest(request)
+                .build();
+        }
+
+        Response.ResponseBuilder b = Response.builder()
+            .addCode(fixture.code)
+            .addRequest(request)
+            .addContentType(fixture.contentType)
+            .addBody(fixture.body);
+
+        for (Map.Entry<String, String> h : fixture.headers) {
+            b.addHeader(h.getKey(), h.getValue());
+        }
+
+        return b.build();
+    }
+
+
+    /**
+     * Simulated latency of a response
+     */
+    public interface Latency {
+
+        /**
+         * @return how long the next response should take in nanoseconds, 0 or less for none
+         */
+        long nextNanos();
+    }
+
+    /**
+     * @param duration how long every response takes
+     * @param unit the unit of duration
+     * @return a {@link Latency} that is always the same
+     */
+    public static Latency fixedLatency(long duration, TimeUnit unit) {
+        final long nanos = unit.toNanos(duration);
+        return new Latency() {
+            public long nextNanos() {
+                return nanos;
+            }
+        };
+    }
+
+    /**
+     * @param min the shortest a response takes
+     * @param max the longest a response takes
+     * @param unit the unit of min and max
+     * @return a {@link Latency} uniformly distributed between min and max
+     */
+    public static Latency uniformLatency(long min, long max, TimeUnit unit) {
+        if (min < 0 || max < min) {
+            throw new IllegalArgumentException("min must be positive and no greater than max");
+        }
+
+        final long minNanos = unit.toNanos(min);
+        final long range = unit.toNanos(max) - minNanos;
+        final Random random = new Random();
+        return new Latency() {
+            public long nextNanos() {
+                return minNanos + (long) (random.nextDouble() * range);
+            }
+        };
+    }
+
+    /**
+     * @param mean the average time a response takes
+     * @param standardDeviation the standard deviation of the time responses take
+     * @param unit the unit of mean and standardDeviation
+     * @return a {@link Latency} normally distributed around the mean, never below 0
+     */
+    public static Latency gaussianLatency(long mean, long standardDeviation, TimeUnit unit) {
+        final long meanNanos = unit.toNanos(mean);
+        final long deviationNanos = unit.toNanos(standardDeviation);
+        final Random random = new Random();
+        return new Latency() {
+            public long nextNanos() {
+                return Math.max(0, meanNanos + (long) (random.nextGaussian() * deviationNanos));
+            }
+        };
+    }
+
+
+    /**
+     * The response served for a request, immutable once built
+     */
+    public static class Fixture {
+
+        private final int code;
+        private final String contentType;
+        private final String body;
+        private final List<Map.Entry<String, String>> headers;
+        private final Latency latency;
+
+        private Fixture(Builder builder) {
+            this.code = builder.code;
+            this.contentType = builder.contentType;
+            this.body = builder.body;
+            this.latency = builder.latency;
+
+            List<Map.Entry<String, String>> allHeaders = new ArrayList<Map.Entry<String, String>>(builder.headers);
+            boolean hasContentTypeHeader = false;
+            for (Map.Entry<String, String> h : allHeaders) {
+                hasContentTypeHeader |= h.getKey().equalsIgnoreCase(CONTENT_TYPE);
+            }
+            //real clients get the content type from the header, keep the responses alike
+            if (!hasContentTypeHeader && contentType != null) {
+                allHeaders.add(0, new AbstractMap.SimpleImmutableEntry<String, String>(CONTENT_TYPE, contentType));
+            }
+            this.headers = Collections.unmodifiableList(allHeaders);
+        }
+
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        public static class Builder {
+
+            private int code = 200;
+            private String contentType;
+            private String body;
+            private List<Map.Entry<String, String>> headers = new ArrayList<Map.Entry<String, String>>();
+            private Latency latency;
+
+            public Builder code(int code) {
+                this.code = code;
+                return this;
+            }
+
+            public Builder contentType(String contentType) {
+                this.contentType = contentType;
+                return this;
+            }
+
+            public Builder body(String body) {
+                this.body = body;
+                return this;
+            }
+
+            public Builder header(String name, String value) {
+                if (StringUtils.isEmpty(name)) {
+                    throw new IllegalArgumentException("name cannot be empty");
+                }
+
+                headers.add(new AbstractMap.SimpleImmutableEntry<String, String>(name, value));
+                return this;
+            }
+
+            /**
+             * @param latency the latency of this fixture instead of the client's, null to use the client's
+             * @return this builder
+             */
+            public Builder latency(Latency latency) {
+                this.latency = latency;
+                return this;
+            }
+
+            public Fixture build() {
+                return new Fixture(this);
+            }
+        }
+    }
+
+
+    //only started when a response has latency, ReplayHyperClient shares it
+    static final class SchedulerHolder {
+        static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "hyperfit-mem-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+}
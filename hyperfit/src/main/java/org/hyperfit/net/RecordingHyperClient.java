@@ -0,0 +1,78 @@
+package org.hyperfit.net;
+
+import java.net.CookieHandler;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+/**
+ * Wraps a hyper client and adds every response it receives to a {@link Tape}, with the request and how long it took.
+ * Write the tape once the session is over and serve it with a {@link ReplayHyperClient}.
+ *
+ * Requests that fail without a response aren't recorded.
+ */
+public class RecordingHyperClient implements HyperClient {
+
+    private final HyperClient hyperClient;
+    private final Tape tape;
+
+    /**
+     * @param hyperClient the client that executes the requests
+     * @param tape the tape responses are added to
+     */
+    public RecordingHyperClient(HyperClient hyperClient, Tape tape) {
+        if (hyperClient == null) {
+            throw new IllegalArgumentException("hyperClient can not be null");
+        }
+        if (tape == null) {
+            throw new IllegalArgumentException("tape can not be null");
+        }
+
+        this.hyperClient = hyperClient;
+        this.tape = tape;
+    }
+
+    public Tape getTape() {
+        return tape;
+    }
+
+    public Response execute(Request request) {
+        long start = System.nanoTime();
+        Response response = hyperClient.execute(request);
+        tape.add(response, System.nanoTime() - start);
+
+        return response;
+    }
+
+    public Future<Response> executeAsync(Request request, final ResponseCallback callback) {
+        final long start = System.nanoTime();
+
+        return hyperClient.executeAsync(request, new ResponseCallback() {
+            public void onResponse(Response response) {
+                tape.add(response, System.nanoTime() - start);
+                if (callback != null) {
+                    callback.onResponse(response);
+                }
+            }
+
+            public void onFailure(Exception e) {
+                if (callback != null) {
+                    callback.onFailure(e);
+                }
+            }
+        });
+    }
+
+    public HyperClient setAcceptedContentTypes(Set<String> contentTypes) {
+        hyperClient.setAcceptedContentTypes(contentTypes);
+        return this;
+    }
+
+    public HyperClient setCookieHandler(CookieHandler handler) {
+        hyperClient.setCookieHandler(handler);
+        return this;
+    }
+
+    public String[] getSchemes() {
+        return hyperClient.getSchemes();
+    }
+}
@@ -0,0 +1,196 @@
+package org.hyperfit.net;
+
+import org.hyperfit.exception.HyperfitException;
+
+import java.net.CookieHandler;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the responses recorded on a {@link Tape} instead of making requests.  A request gets the recorded responses
+ * to its method and url in the order they were recorded, once they've all been served the last one is served again.
+ * A request that wasn't recorded throws a {@link HyperfitException}.
+ *
+ * By default responses are served immediately, use {@link #setLatencyFactor(double)} to replay the time the
+ * recorded requests took.
+ */
+public class ReplayHyperClient extends BaseHyperClient {
+
+    private final String[] schemes;
+    private final Map<String, Track> tracks = new HashMap<String, Track>();
+
+    private volatile double latencyFactor = 0;
+
+
+    /**
+     * Serves http and https urls
+     * @param tape the recordings to serve
+     */
+    public ReplayHyperClient(Tape tape) {
+        this(tape, "http", "https");
+    }
+
+    /**
+     * @param tape the recordings to serve
+     * @param schemes the schemes returned by {@link #getSchemes()}
+     */
+    public ReplayHyperClient(Tape tape, String... schemes) {
+        if (tape == null) {
+            throw new IllegalArgumentException("tape can not be null");
+        }
+        if (schemes == null || schemes.length == 0) {
+            throw new IllegalArgumentException("schemes can not be null or empty");
+        }
+
+        this.schemes = schemes.clone();
+
+        for (Tape.Recording recording : tape.getRecordings()) {
+            String key = key(recording.getRequest());
+            Track track = tracks.get(key);
+            if (track == null) {
+                track = new Track();
+                tracks.put(key, track);
+            }
+            track.recordings.add(recording);
+        }
+    }
+
+    /**
+     * @param latencyFactor multiplies the recorded duration of a request to get how long serving it takes, IE 1 for
+     *                      the original latency, 0.01 to replay 100 times faster or 0 for no latency
+     * @return this client
+     */
+    public ReplayHyperClient setLatencyFactor(double latencyFactor) {
+        if (latencyFactor < 0 || Double.isNaN(latencyFactor) || Double.isInfinite(latencyFactor)) {
+            throw new IllegalArgumentException("latencyFactor must be 0 or more");
+        }
+
+        this.latencyFactor = latencyFactor;
+        return this;
+    }
+
+    public Response execute(Request request) {
+        Tape.Recording recording = next(request);
+
+        long delay = delayNanos(recording);
+        if (delay > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new HyperfitException("Interrupted replaying the request [" + request + "]", e);
+            }
+        }
+
+        return toResponse(recording, request);
+    }
+
+    /**
+     * Completes the future once the replayed latency has passed, without blocking the caller
+     * @param request {@link org.hyperfit.net.Request}
+     * @param callback {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    public Future<Response> executeAsync(final Request request, ResponseCallback callback) {
+        final ResponseFuture future = new ResponseFuture(callback);
+
+        final Tape.Recording recording;
+        try {
+            recording = next(request);
+        } catch (RuntimeException e) {
+            future.fail(e);
+            return future;
+        }
+
+        long delay = delayNanos(recording);
+        if (delay <= 0) {
+            future.complete(toResponse(recording, request));
+            return future;
+        }
+
+        //completing a cancelled future does nothing
+        InMemoryHyperClient.SchedulerHolder.SCHEDULER.schedule(new Runnable() {
+            public void run() {
+                future.complete(toResponse(recording, request));
+            }
+        }, delay, TimeUnit.NANOSECONDS);
+
+        return future;
+    }
+
+    /**
+     * Cookies aren't supported, the handler is ignored
+     * @param handler {@inheritDoc}
+     * @return this client
+     */
+    public HyperClient setCookieHandler(CookieHandler handler) {
+        return this;
+    }
+
+    public String[] getSchemes() {
+        return schemes.clone();
+    }
+
+
+    private static String key(Request request) {
+        return request.getMethod() + " " + request.getUrl();
+    }
+
+    private Tape.Recording next(Request request) {
+        if (request == null) {
+            throw new IllegalArgumentException("request cannot be null.");
+        }
+
+        Track track = tracks.get(key(request));
+        if (track == null) {
+            throw new HyperfitException("The request [" + request + "] was not recorded");
+        }
+
+        return track.next();
+    }
+
+    private long delayNanos(Tape.Recording recording) {
+        return (long) (recording.getDurationNanos() * latencyFactor);
+    }
+
+    private static Response toResponse(Tape.Recording recording, Request request) {
+        Response recorded = recording.getResponse();
+
+        Response.ResponseBuilder b = Response.builder()
+            .addCode(recorded.getCode())
+            .addRequest(request)
+            .addContentType(recorded.getContentType())
+            .addBody(recorded.getBody());
+
+        for (Map.Entry<String, String> h : recorded.getHeaders()) {
+            b.addHeader(h.getKey(), h.getValue());
+        }
+
+        return b.build();
+    }
+
+
+    private static final class Track {
+        private final List<Tape.Recording> recordings = new ArrayList<Tape.Recording>();
+        private final AtomicInteger next = new AtomicInteger();
+
+        //stops at the last recording, which is served from then on
+        Tape.Recording next() {
+            int last = recordings.size() - 1;
+            while (true) {
+                int index = next.get();
+                if (index >= last) {
+                    return recordings.get(last);
+                }
+                if (next.compareAndSet(index, index + 1)) {
+                    return recordings.get(index);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.hyperfit.net;
+
+/**
+ * Notified when a request executed with {@link HyperClient#executeAsync(Request, ResponseCallback)} completes
+ */
+public interface ResponseCallback {
+
+    /**
+     * @param response the response to the request
+     */
+    void onResponse(Response response);
+
+    /**
+     * @param e why the request failed, a {@link java.util.concurrent.CancellationException} when it was cancelled
+     */
+    void onFailure(Exception e);
+
+}
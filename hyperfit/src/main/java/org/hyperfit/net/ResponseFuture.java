@@ -0,0 +1,103 @@
+package org.hyperfit.net;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * The future of a response returned by {@link HyperClient#executeAsync(Request, ResponseCallback)}.  The client
+ * completes it with {@link #complete(Response)} or {@link #fail(Exception)}, which notifies the callback, and overrides
+ * {@link #onCancel()} to stop the request when the future is cancelled.
+ */
+public class ResponseFuture extends FutureTask<Response> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ResponseFuture.class);
+
+    //completed with complete or fail, never run
+    private static final Callable<Response> NOT_RUN = new Callable<Response>() {
+        public Response call() {
+            throw new IllegalStateException("a ResponseFuture is completed by its client");
+        }
+    };
+
+    private final ResponseCallback callback;
+
+    /**
+     * @param callback notified when the future completes, may be null
+     */
+    public ResponseFuture(ResponseCallback callback) {
+        super(NOT_RUN);
+        this.callback = callback;
+    }
+
+    /**
+     * Completes the future with a response, does nothing when it's already complete or cancelled
+     * @param response the response to the request
+     */
+    public void complete(Response response) {
+        set(response);
+    }
+
+    /**
+     * Fails the future, does nothing when it's already complete or cancelled
+     * @param e why the request failed
+     */
+    public void fail(Exception e) {
+        setException(e);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled) {
+            onCancel();
+        }
+
+        return cancelled;
+    }
+
+    /**
+     * Called once when the future is cancelled before completing, stops the request
+     */
+    protected void onCancel() {
+
+    }
+
+    @Override
+    protected void done() {
+        if (callback == null) {
+            return;
+        }
+
+        Response response = null;
+        Exception failure = null;
+        if (isCancelled()) {
+            failure = new CancellationException("The request was cancelled");
+        } else {
+            try {
+                response = get();
+            } catch (ExecutionException e) {
+                failure = (Exception) e.getCause();
+            } catch (InterruptedException e) {
+                //get doesn't wait once done
+                Thread.currentThread().interrupt();
+                failure = e;
+            }
+        }
+
+        //the callback runs on whatever thread completed the future, don't let it break that thread
+        try {
+            if (failure != null) {
+                callback.onFailure(failure);
+            } else {
+                callback.onResponse(response);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Response callback " + callback + " threw", e);
+        }
+    }
+}
@@ -11,6 +11,15 @@ public class ResponseInterceptors {
 
     }
 
+    /**
+     * Creates a new instance containing all of the interceptors of the passed in instance, in the same order.
+     * This is roughly a shallow clone
+     * @param responseInterceptors
+     */
+    public ResponseInterceptors(ResponseInterceptors responseInterceptors) {
+        this.interceptors.addAll(responseInterceptors.interceptors);
+    }
+
     public void intercept(Response response) {
 
         for (ResponseInterceptor interceptor : interceptors) {
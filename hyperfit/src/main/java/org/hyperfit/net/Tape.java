@@ -0,0 +1,258 @@
+package org.hyperfit.net;
+
+import org.hyperfit.utils.StringUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The request and response pairs recorded by a {@link RecordingHyperClient}, in the order the responses were
+ * received, and served by a {@link ReplayHyperClient}.  Tapes are written to disk in a gzipped binary format.
+ *
+ * Recordings can be added from several threads, writing the tape writes the recordings it has at that point.
+ */
+public class Tape {
+
+    private static final int MAGIC = 0x48465450;
+    private static final int VERSION = 1;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final List<Recording> recordings = new ArrayList<Recording>();
+
+
+    /**
+     * @param response the response, its request is the request that was made
+     * @param durationNanos how long the request took
+     * @return this tape
+     */
+    public Tape add(Response response, long durationNanos) {
+        if (response == null) {
+            throw new IllegalArgumentException("response can not be null");
+        }
+
+        synchronized (recordings) {
+            recordings.add(new Recording(response, durationNanos));
+        }
+        return this;
+    }
+
+    /**
+     * @return a copy of the recordings in the order they were added
+     */
+    public List<Recording> getRecordings() {
+        synchronized (recordings) {
+            return Collections.unmodifiableList(new ArrayList<Recording>(recordings));
+        }
+    }
+
+    public int size() {
+        synchronized (recordings) {
+            return recordings.size();
+        }
+    }
+
+    /**
+     * Writes the tape to a file, replacing it
+     * @param file the file to write
+     * @throws IOException when the file can't be written
+     */
+    public void write(File file) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            write(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Writes the tape to a stream, which is left open
+     * @param out the stream to write
+     * @throws IOException when the stream can't be written
+     */
+    public void write(OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(new BufferedOutputStream(out));
+        DataOutputStream data = new DataOutputStream(gzip);
+
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        for (Recording recording : getRecordings()) {
+            data.writeBoolean(true);
+            writeRecording(data, recording);
+        }
+        data.writeBoolean(false);
+
+        data.flush();
+        gzip.finish();
+        gzip.flush();
+    }
+
+    /**
+     * @param file a file written by {@link #write(File)}
+     * @return the tape read from the file
+     * @throws IOException when the file can't be read or isn't a tape
+     */
+    public static Tape read(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            return read(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @param in a stream written by {@link #write(OutputStream)}, which is left open
+     * @return the tape read from the stream
+     * @throws IOException when the stream can't be read or isn't a tape
+     */
+    public static Tape read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new GZIPInputStream(new BufferedInputStream(in)));
+
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a hyperfit tape");
+        }
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported tape version " + version);
+        }
+
+        Tape tape = new Tape();
+        while (data.readBoolean()) {
+            tape.recordings.add(readRecording(data));
+        }
+
+        return tape;
+    }
+
+
+    private static void writeRecording(DataOutputStream data, Recording recording) throws IOException {
+        Request request = recording.response.getRequest();
+        writeString(data, request.getMethod().name());
+        writeString(data, request.getUrl());
+        writeString(data, request.getContentType());
+        writeString(data, request.getContent());
+        writeHeaders(data, request.getHeaders());
+        data.writeInt(request.getAcceptedContentTypes().size());
+        for (String acceptedContentType : request.getAcceptedContentTypes()) {
+            writeString(data, acceptedContentType);
+        }
+
+        Response response = recording.response;
+        data.writeInt(response.getCode());
+        writeString(data, response.getContentType());
+        writeString(data, response.getBody());
+        writeHeaders(data, response.getHeaders());
+
+        data.writeLong(recording.durationNanos);
+    }
+
+    private static Recording readRecording(DataInputStream data) throws IOException {
+        BoringRequestBuilder requestBuilder = new BoringRequestBuilder()
+            .setMethod(Method.valueOf(readString(data)))
+            .setUrl(readString(data));
+        String contentType = readString(data);
+        if (!StringUtils.isEmpty(contentType)) {
+            requestBuilder.setContentType(contentType);
+        }
+        String content = readString(data);
+        if (content != null) {
+            requestBuilder.setContent(content);
+        }
+        for (int i = data.readInt(); i > 0; i--) {
+            requestBuilder.addHeader(readString(data), readString(data));
+        }
+        for (int i = data.readInt(); i > 0; i--) {
+            requestBuilder.addAcceptedContentType(readString(data));
+        }
+
+        Response.ResponseBuilder responseBuilder = Response.builder()
+            .addRequest(requestBuilder.build())
+            .addCode(data.readInt())
+            .addContentType(readString(data))
+            .addBody(readString(data));
+        for (int i = data.readInt(); i > 0; i--) {
+            responseBuilder.addHeader(readString(data), readString(data));
+        }
+
+        return new Recording(responseBuilder.build(), data.readLong());
+    }
+
+    private static void writeHeaders(DataOutputStream data, Iterable<Map.Entry<String, String>> headers) throws IOException {
+        int count = 0;
+        for (Map.Entry<String, String> ignored : headers) {
+            count++;
+        }
+
+        data.writeInt(count);
+        for (Map.Entry<String, String> h : headers) {
+            writeString(data, h.getKey());
+            writeString(data, h.getValue());
+        }
+    }
+
+    //writeUTF is limited to 64k, bodies aren't
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        if (value == null) {
+            data.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(UTF8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        int length = data.readInt();
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        data.readFully(bytes);
+        return new String(bytes, UTF8);
+    }
+
+
+    /**
+     * A response, the request it answered and how long it took
+     */
+    public static class Recording {
+
+        private final Response response;
+        private final long durationNanos;
+
+        Recording(Response response, long durationNanos) {
+            this.response = response;
+            this.durationNanos = durationNanos;
+        }
+
+        public Request getRequest() {
+            return response.getRequest();
+        }
+
+        public Response getResponse() {
+            return response;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.hyperfit.net.cache;
+
+import java.util.Map;
+
+/**
+ * The Cache-Control directives of a request or response that caching uses, see RFC 7234 section 5.2
+ */
+final class CacheControl {
+
+    static final CacheControl NONE = new CacheControl(false, false, -1, -1, false, false, false);
+
+    final boolean noStore;
+    final boolean noCache;
+    //seconds, -1 when absent
+    final long maxAge;
+    final long sMaxAge;
+    final boolean isPublic;
+    final boolean isPrivate;
+    final boolean mustRevalidate;
+
+    private CacheControl(
+        boolean noStore,
+        boolean noCache,
+        long maxAge,
+        long sMaxAge,
+        boolean isPublic,
+        boolean isPrivate,
+        boolean mustRevalidate
+    ) {
+        this.noStore = noStore;
+        this.noCache = noCache;
+        this.maxAge = maxAge;
+        this.sMaxAge = sMaxAge;
+        this.isPublic = isPublic;
+        this.isPrivate = isPrivate;
+        this.mustRevalidate = mustRevalidate;
+    }
+
+    /**
+     * @return true when a shared cache may store the response to a request with an Authorization header, RFC 7234
+     * section 3.2
+     */
+    boolean allowsAuthorized() {
+        return isPublic || sMaxAge >= 0 || mustRevalidate;
+    }
+
+    /**
+     * @param headers the headers of a request or response
+     * @return the directives of every Cache-Control header, a Pragma: no-cache header counts as no-cache when there
+     * is no Cache-Control header
+     */
+    static CacheControl parse(Iterable<Map.Entry<String, String>> headers) {
+        boolean found = false;
+        boolean pragmaNoCache = false;
+        boolean noStore = false;
+        boolean noCache = false;
+        long maxAge = -1;
+        long sMaxAge = -1;
+        boolean isPublic = false;
+        boolean isPrivate = false;
+        boolean mustRevalidate = false;
+
+        for (Map.Entry<String, String> header : headers) {
+            if (header.getKey().equalsIgnoreCase("Pragma")) {
+                pragmaNoCache |= header.getValue().toLowerCase().contains("no-cache");
+                continue;
+            }
+            if (!header.getKey().equalsIgnoreCase("Cache-Control")) {
+                continue;
+            }
+
+            found = true;
+            for (String directive : header.getValue().split(",")) {
+                String name = directive;
+                String argument = null;
+                int equals = directive.indexOf('=');
+                if (equals >= 0) {
+                    name = directive.substring(0, equals);
+                    argument = directive.substring(equals + 1).trim().replace("\"", "");
+                }
+                name = name.trim().toLowerCase();
+
+                if (name.equals("no-store")) {
+                    noStore = true;
+                } else if (name.equals("no-cache")) {
+                    noCache = true;
+                } else if (name.equals("public")) {
+                    isPublic = true;
+                } else if (name.equals("private")) {
+                    isPrivate = true;
+                } else if (name.equals("must-revalidate")) {
+                    mustRevalidate = true;
+                } else if (name.equals("s-maxage") && argument != null) {
+                    sMaxAge = parseSeconds(argument);
+                } else if (name.equals("max-age") && argument != null) {
+                    maxAge = parseSeconds(argument);
+                }
+            }
+        }
+
+        if (!found && !pragmaNoCache) {
+            return NONE;
+        }
+
+        return new CacheControl(
+            noStore, noCache || (!found && pragmaNoCache), maxAge, sMaxAge, isPublic, isPrivate, mustRevalidate
+        );
+    }
+
+    /**
+     * @return the delta-seconds value, 0 when it isn't a number and Long.MAX_VALUE when it's too large
+     */
+    static long parseSeconds(String value) {
+        try {
+            return Math.max(0, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            //RFC 7234 section 1.2.1, too large values are as good as infinite
+            return value.trim().matches("\\d+") ? Long.MAX_VALUE : 0;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.hyperfit.net.cache;
+
+import org.hyperfit.net.Response;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A response stored by a {@link CachingHyperClient}, with the request header values its Vary header names and when
+ * it was requested and received
+ */
+public class CacheEntry {
+
+    private final Response response;
+    private final Map<String, String> varyHeaders;
+    private final long requestTime;
+    private final long responseTime;
+    private final long weight;
+
+    /**
+     * @param response the stored response
+     * @param varyHeaders the lower case names of the request headers listed by the response's Vary header and their
+     *                    values, null for a header the request didn't have
+     * @param requestTime when the request was sent, in milliseconds since the epoch
+     * @param responseTime when the response was received, in milliseconds since the epoch
+     */
+    public CacheEntry(Response response, Map<String, String> varyHeaders, long requestTime, long responseTime) {
+        if (response == null) {
+            throw new IllegalArgumentException("response can not be null");
+        }
+        if (varyHeaders == null) {
+            throw new IllegalArgumentException("varyHeaders can not be null");
+        }
+
+        this.response = response;
+        this.varyHeaders = Collections.unmodifiableMap(varyHeaders);
+        this.requestTime = requestTime;
+        this.responseTime = responseTime;
+        this.weight = weigh(response, this.varyHeaders);
+    }
+
+    public Response getResponse() {
+        return response;
+    }
+
+    public Map<String, String> getVaryHeaders() {
+        return varyHeaders;
+    }
+
+    public long getRequestTime() {
+        return requestTime;
+    }
+
+    public long getResponseTime() {
+        return responseTime;
+    }
+
+    /**
+     * @return an estimate of the bytes of heap the entry holds
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    private static long weigh(Response response, Map<String, String> varyHeaders) {
+        long weight = 256 + length(response.getBody()) + length(response.getContentType())
+            + length(response.getRequest().getUrl());
+
+        for (Map.Entry<String, String> h : response.getHeaders()) {
+            weight += 48 + length(h.getKey()) + length(h.getValue());
+        }
+        for (Map.Entry<String, String> h : varyHeaders.entrySet()) {
+            weight += 48 + length(h.getKey()) + length(h.getValue());
+        }
+
+        return weight;
+    }
+
+    //chars are 2 bytes
+    private static long length(String value) {
+        return value == null ? 0 : 2L * value.length();
+    }
+}
@@ -0,0 +1,580 @@
+package org.hyperfit.net.cache;
+
+import org.hyperfit.net.BoringRequestBuilder;
+import org.hyperfit.net.HyperClient;
+import org.hyperfit.net.Method;
+import org.hyperfit.net.Request;
+import org.hyperfit.net.Response;
+import org.hyperfit.net.ResponseCallback;
+import org.hyperfit.net.ResponseFuture;
+import org.hyperfit.utils.StringUtils;
+
+import java.net.CookieHandler;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Wraps a hyper client and caches the responses to GET requests as a shared cache following RFC 7234, the client is
+ * used by every processor derived from the one it's registered with, IE to add each user's Authorization header.
+ *
+ * A response is stored when its Cache-Control s-maxage, max-age or Expires header gives it a freshness lifetime, or
+ * when it has an ETag or Last-Modified header to revalidate it with, unless the request or response says no-store,
+ * the response says private or it varies on every header.  The response to a request with an Authorization header is
+ * only stored, and an entry is only used for such a request, when the response says public, s-maxage or
+ * must-revalidate.  While fresh it's served without a request, once stale, or when either side says no-cache, it's
+ * revalidated with a conditional request and a 304 Not Modified response serves the stored body.  There is no
+ * heuristic freshness, a response without a max-age or Expires header is always revalidated.  A url has a single
+ * entry, a request that doesn't match the request headers named by its Vary header replaces it.
+ *
+ * A conditional request, IE from a {@link org.hyperfit.ParsedResourceCache}, is answered from a fresh entry with a
+ * 304 Not Modified response when the entry matches its If-None-Match or If-Modified-Since header.  Otherwise it's sent
+ * as it is and a 304 to it only refreshes the entry it matches.
+ *
+ * A POST, PUT, DELETE or other unsafe request that succeeds invalidates the entry of its url and of the urls in its
+ * response's Location and Content-Location headers on the same host.
+ *
+ * Register it in place of the client it wraps, IE with HyperfitProcessor.Builder#hyperClient.
+ */
+public class CachingHyperClient implements HyperClient {
+
+    //RFC 7231 section 6.1
+    private static final Set<Integer> CACHEABLE_BY_DEFAULT = new HashSet<Integer>(Arrays.asList(
+        200, 203, 204, 300, 301, 404, 405, 410, 414, 501
+    ));
+
+    private static final Set<Method> SAFE_METHODS = new HashSet<Method>(Arrays.asList(
+        Method.GET, Method.HEAD, Method.OPTIONS, Method.TRACE
+    ));
+
+    private final HyperClient hyperClient;
+    private final ResponseCache cache;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong revalidationCount = new AtomicLong();
+
+    /**
+     * @param hyperClient the client that executes the requests the cache can't answer
+     * @param cache where responses are stored, IE a {@link MemoryResponseCache}
+     */
+    public CachingHyperClient(HyperClient hyperClient, ResponseCache cache) {
+        if (hyperClient == null) {
+            throw new IllegalArgumentException("hyperClient can not be null");
+        }
+        if (cache == null) {
+            throw new IllegalArgumentException("cache can not be null");
+        }
+
+        this.hyperClient = hyperClient;
+        this.cache = cache;
+    }
+
+    public ResponseCache getCache() {
+        return cache;
+    }
+
+    /**
+     * @return the number of GET requests answered from the cache without a request
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of GET requests that needed a request, including those revalidating a stale entry
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the number of misses answered with a 304 Not Modified response, served from the cache
+     */
+    public long getRevalidationCount() {
+        return revalidationCount.get();
+    }
+
+    /**
+     * @return the number of entries the cache evicted
+     */
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    public Response execute(Request request) {
+        Exchange exchange = new Exchange(request);
+        if (exchange.hit != null) {
+            return exchange.hit;
+        }
+
+        return exchange.complete(hyperClient.execute(exchange.sent));
+    }
+
+    public Future<Response> executeAsync(Request request, ResponseCallback callback) {
+        final Exchange exchange = new Exchange(request);
+        if (exchange.hit != null) {
+            ResponseFuture future = new ResponseFuture(callback);
+            future.complete(exchange.hit);
+            return future;
+        }
+
+        final AtomicReference<Future<Response>> sent = new AtomicReference<Future<Response>>();
+        final ResponseFuture future = new ResponseFuture(callback) {
+            @Override
+            protected void onCancel() {
+                Future<Response> sentFuture = sent.get();
+                if (sentFuture != null) {
+                    sentFuture.cancel(true);
+                }
+            }
+        };
+
+        sent.set(hyperClient.executeAsync(exchange.sent, new ResponseCallback() {
+            public void onResponse(Response response) {
+                try {
+                    future.complete(exchange.complete(response));
+                } catch (RuntimeException e) {
+                    future.fail(e);
+                }
+            }
+
+            public void onFailure(Exception e) {
+                future.fail(e);
+            }
+        }));
+
+        //cancelled before the request's future was known
+        if (future.isCancelled()) {
+            sent.get().cancel(true);
+        }
+
+        return future;
+    }
+
+    public HyperClient setAcceptedContentTypes(Set<String> contentTypes) {
+        hyperClient.setAcceptedContentTypes(contentTypes);
+        return this;
+    }
+
+    public HyperClient setCookieHandler(CookieHandler handler) {
+        hyperClient.setCookieHandler(handler);
+        return this;
+    }
+
+    public String[] getSchemes() {
+        return hyperClient.getSchemes();
+    }
+
+
+    /**
+     * The cache lookup for a request and what's done with its response
+     */
+    private final class Exchange {
+        private final Request request;
+        private final boolean cacheable;
+        private final boolean authorized;
+        //the caller sent its own validators
+        private final boolean conditional;
+        //the stale entry a conditional request was sent for
+        private final CacheEntry revalidating;
+        //the response served from the cache, no request is sent
+        private final Response hit;
+        private final Request sent;
+        private final long requestTime;
+
+        Exchange(Request request) {
+            if (request == null) {
+                throw new IllegalArgumentException("request cannot be null.");
+            }
+
+            this.request = request;
+
+            CacheControl requestCacheControl = CacheControl.parse(request.getHeaders());
+            cacheable = request.getMethod() == Method.GET && !requestCacheControl.noStore;
+            conditional = header(request, "If-None-Match") != null || header(request, "If-Modified-Since") != null;
+            authorized = header(request, "Authorization") != null;
+
+            CacheEntry entry = cacheable ? cache.get(request.getUrl()) : null;
+            if (entry != null && !varyMatches(entry, request)) {
+                entry = null;
+            }
+            if (entry != null && authorized && !CacheControl.parse(entry.getResponse().getHeaders()).allowsAuthorized()) {
+                entry = null;
+            }
+
+            long now = now();
+            if (entry != null && isFresh(entry, requestCacheControl, now)) {
+                hitCount.incrementAndGet();
+                Response cached = withRequest(entry.getResponse(), request, currentAge(entry, now));
+                hit = conditional && validatorsMatch(request, cached) ? notModified(cached) : cached;
+                revalidating = null;
+                sent = null;
+            } else if (conditional) {
+                if (cacheable) {
+                    missCount.incrementAndGet();
+                }
+                hit = null;
+                //the caller's validators are sent, their 304 can only refresh the entry they match
+                revalidating = entry != null && validatorsMatch(request, entry.getResponse()) ? entry : null;
+                sent = request;
+            } else {
+                if (cacheable) {
+                    missCount.incrementAndGet();
+                }
+                hit = null;
+                revalidating = entry != null && hasValidators(entry.getResponse()) ? entry : null;
+                sent = revalidating != null ? conditionalRequest(request, revalidating.getResponse()) : request;
+            }
+
+            requestTime = now;
+        }
+
+        Response complete(Response response) {
+            long responseTime = now();
+
+            if (!SAFE_METHODS.contains(request.getMethod())) {
+                invalidate(request, response);
+                return response;
+            }
+
+            if (!cacheable) {
+                return response;
+            }
+
+            String url = request.getUrl();
+            if (revalidating != null && response.getCode() == 304) {
+                revalidationCount.incrementAndGet();
+
+                Response updated = notModified(revalidating.getResponse(), response, request);
+                if (isStorable(updated, authorized)) {
+                    cache.put(url, new CacheEntry(updated, revalidating.getVaryHeaders(), requestTime, responseTime));
+                } else {
+                    cache.remove(url);
+                }
+                return conditional ? response : updated;
+            }
+
+            if (response.getCode() == 304) {
+                //answers the caller's validators, not those of the entry
+                return response;
+            }
+
+            Response result = revalidating != null ? withRequest(response, request, -1) : response;
+            if (isStorable(result, authorized)) {
+                cache.put(url, new CacheEntry(result, varyHeaders(result, request), requestTime, responseTime));
+            } else {
+                cache.remove(url);
+            }
+
+            return result;
+        }
+    }
+
+
+    long now() {
+        return System.currentTimeMillis();
+    }
+
+    private void invalidate(Request request, Response response) {
+        //RFC 7234 section 4.4, only when the request succeeded
+        if (response.getCode() < 200 || response.getCode() >= 400) {
+            return;
+        }
+
+        cache.remove(request.getUrl());
+
+        URI requestUri;
+        try {
+            requestUri = URI.create(request.getUrl());
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+
+        for (String locationHeader : new String[]{"Location", "Content-Location"}) {
+            String location = response.getHeader(locationHeader);
+            if (location == null) {
+                continue;
+            }
+
+            try {
+                URI locationUri = requestUri.resolve(location);
+                if (StringUtils.safeEquals(requestUri.getRawAuthority(), locationUri.getRawAuthority())) {
+                    cache.remove(locationUri.toString());
+                }
+            } catch (IllegalArgumentException e) {
+                //not a uri, nothing to invalidate
+            }
+        }
+    }
+
+    //RFC 7234 section 3 for a shared cache
+    private static boolean isStorable(Response response, boolean authorized) {
+        int code = response.getCode();
+        if (code < 200 || code == 206 || code == 304) {
+            return false;
+        }
+
+        CacheControl cacheControl = CacheControl.parse(response.getHeaders());
+        if (cacheControl.noStore || cacheControl.isPrivate) {
+            return false;
+        }
+
+        if (authorized && !cacheControl.allowsAuthorized()) {
+            return false;
+        }
+
+        String vary = response.getHeader("Vary");
+        if (vary != null && vary.contains("*")) {
+            return false;
+        }
+
+        boolean explicitlyFresh = cacheControl.sMaxAge >= 0 || cacheControl.maxAge >= 0 || response.getHeader("Expires") != null;
+        if (!CACHEABLE_BY_DEFAULT.contains(code) && !explicitlyFresh && !cacheControl.isPublic) {
+            return false;
+        }
+
+        //an entry that's never fresh and can't be revalidated is never used
+        return explicitlyFresh || hasValidators(response);
+    }
+
+    private static boolean hasValidators(Response response) {
+        return response.getHeader("ETag") != null || response.getHeader("Last-Modified") != null;
+    }
+
+    private static boolean isFresh(CacheEntry entry, CacheControl requestCacheControl, long now) {
+        if (requestCacheControl.noCache || CacheControl.parse(entry.getResponse().getHeaders()).noCache) {
+            return false;
+        }
+
+        long age = currentAge(entry, now);
+        if (requestCacheControl.maxAge >= 0 && age > millis(requestCacheControl.maxAge)) {
+            return false;
+        }
+
+        return freshnessLifetime(entry) > age;
+    }
+
+    //RFC 7234 section 4.2.1, without heuristic freshness
+    private static long freshnessLifetime(CacheEntry entry) {
+        Response response = entry.getResponse();
+
+        CacheControl cacheControl = CacheControl.parse(response.getHeaders());
+        if (cacheControl.sMaxAge >= 0) {
+            return millis(cacheControl.sMaxAge);
+        }
+        if (cacheControl.maxAge >= 0) {
+            return millis(cacheControl.maxAge);
+        }
+
+        String expires = response.getHeader("Expires");
+        if (expires != null) {
+            //an invalid date is in the past
+            long expiresTime = HttpDates.parse(expires);
+            return expiresTime < 0 ? 0 : Math.max(0, expiresTime - dateValue(entry));
+        }
+
+        return 0;
+    }
+
+    //RFC 7234 section 4.2.3
+    private static long currentAge(CacheEntry entry, long now) {
+        Response response = entry.getResponse();
+
+        String age = response.getHeader("Age");
+        long ageValue = age == null ? 0 : millis(CacheControl.parseSeconds(age));
+
+        long apparentAge = Math.max(0, entry.getResponseTime() - dateValue(entry));
+        long correctedAgeValue = add(ageValue, entry.getResponseTime() - entry.getRequestTime());
+        long correctedInitialAge = Math.max(apparentAge, correctedAgeValue);
+
+        return add(correctedInitialAge, Math.max(0, now - entry.getResponseTime()));
+    }
+
+    private static long dateValue(CacheEntry entry) {
+        long date = HttpDates.parse(entry.getResponse().getHeader("Date"));
+        return date < 0 ? entry.getResponseTime() : date;
+    }
+
+    private static long millis(long seconds) {
+        return seconds > Long.MAX_VALUE / 1000 ? Long.MAX_VALUE : seconds * 1000;
+    }
+
+    private static long add(long a, long b) {
+        long sum = a + b;
+        return sum < a && b > 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static Map<String, String> varyHeaders(Response response, Request request) {
+        Map<String, String> varyHeaders = new HashMap<String, String>();
+
+        String vary = response.getHeader("Vary");
+        if (vary != null) {
+            for (String name : vary.split(",")) {
+                String trimmed = name.trim().toLowerCase();
+                if (trimmed.length() > 0) {
+                    varyHeaders.put(trimmed, varyValue(request, trimmed));
+                }
+            }
+        }
+
+        return varyHeaders;
+    }
+
+    private static boolean varyMatches(CacheEntry entry, Request request) {
+        for (Map.Entry<String, String> varyHeader : entry.getVaryHeaders().entrySet()) {
+            if (!StringUtils.safeEquals(varyHeader.getValue(), varyValue(request, varyHeader.getKey()))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static String varyValue(Request request, String name) {
+        //clients build the Accept header from the request's accepted content types
+        if (name.equals("accept") && !request.getAcceptedContentTypes().isEmpty()) {
+            return new TreeSet<String>(request.getAcceptedContentTypes()).toString();
+        }
+
+        return header(request, name);
+    }
+
+    private static String header(Request request, String name) {
+        for (Map.Entry<String, String> header : request.getHeaders()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+
+        return null;
+    }
+
+    private static Request conditionalRequest(Request request, Response cached) {
+        BoringRequestBuilder builder = new BoringRequestBuilder()
+            .setUrl(request.getUrl())
+            .setMethod(request.getMethod());
+
+        for (Map.Entry<String, String> header : request.getHeaders()) {
+            builder.addHeader(header.getKey(), header.getValue());
+        }
+        for (String contentType : request.getAcceptedContentTypes()) {
+            builder.addAcceptedContentType(contentType);
+        }
+
+        builder.addHeader("If-None-Match", cached.getHeader("ETag"));
+        builder.addHeader("If-Modified-Since", cached.getHeader("Last-Modified"));
+
+        return builder.build();
+    }
+
+    //RFC 7232 sections 3.2 and 3.3, If-None-Match takes precedence
+    private static boolean validatorsMatch(Request request, Response cached) {
+        String ifNoneMatch = header(request, "If-None-Match");
+        if (ifNoneMatch != null) {
+            String etag = cached.getHeader("ETag");
+            if (ifNoneMatch.trim().equals("*")) {
+                return true;
+            }
+            if (etag == null) {
+                return false;
+            }
+
+            //weak comparison
+            for (String candidate : ifNoneMatch.split(",")) {
+                if (opaqueTag(candidate).equals(opaqueTag(etag))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long ifModifiedSince = HttpDates.parse(header(request, "If-Modified-Since"));
+        long lastModified = HttpDates.parse(cached.getHeader("Last-Modified"));
+        return ifModifiedSince >= 0 && lastModified >= 0 && lastModified <= ifModifiedSince;
+    }
+
+    private static String opaqueTag(String etag) {
+        String trimmed = etag.trim();
+        return trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed;
+    }
+
+    /**
+     * @return a 304 Not Modified response to a conditional request the cached response matches, RFC 7234 section 4.3.2
+     */
+    private static Response notModified(Response cached) {
+        Response.ResponseBuilder b = Response.builder()
+            .addCode(304)
+            .addRequest(cached.getRequest());
+
+        for (Map.Entry<String, String> header : cached.getHeaders()) {
+            if (!header.getKey().equalsIgnoreCase("Content-Length") && !header.getKey().equalsIgnoreCase("Content-Type")) {
+                b.addHeader(header.getKey(), header.getValue());
+            }
+        }
+
+        return b.build();
+    }
+
+    /**
+     * @return the cached response with the headers of the 304 response replacing those it had, RFC 7234 section 4.3.4
+     */
+    private static Response notModified(Response cached, Response notModified, Request request) {
+        Set<String> updatedNames = new HashSet<String>();
+        //the response was just validated, the age it had when it was stored no longer applies
+        updatedNames.add("age");
+        for (Map.Entry<String, String> header : notModified.getHeaders()) {
+            if (!header.getKey().equalsIgnoreCase("Content-Length")) {
+                updatedNames.add(header.getKey().toLowerCase());
+            }
+        }
+
+        Response.ResponseBuilder b = Response.builder()
+            .addCode(cached.getCode())
+            .addRequest(request)
+            .addContentType(cached.getContentType())
+            .addBody(cached.getBody());
+
+        for (Map.Entry<String, String> header : cached.getHeaders()) {
+            if (!updatedNames.contains(header.getKey().toLowerCase())) {
+                b.addHeader(header.getKey(), header.getValue());
+            }
+        }
+        for (Map.Entry<String, String> header : notModified.getHeaders()) {
+            if (updatedNames.contains(header.getKey().toLowerCase())) {
+                b.addHeader(header.getKey(), header.getValue());
+            }
+        }
+
+        return b.build();
+    }
+
+    /**
+     * @param ageMillis the age of the response to put in its Age header, -1 to keep the headers as they are
+     */
+    private static Response withRequest(Response response, Request request, long ageMillis) {
+        Response.ResponseBuilder b = Response.builder()
+            .addCode(response.getCode())
+            .addRequest(request)
+            .addContentType(response.getContentType())
+            .addBody(response.getBody());
+
+        for (Map.Entry<String, String> header : response.getHeaders()) {
+            if (ageMillis < 0 || !header.getKey().equalsIgnoreCase("Age")) {
+                b.addHeader(header.getKey(), header.getValue());
+            }
+        }
+        if (ageMillis >= 0) {
+            b.addHeader("Age", String.valueOf(ageMillis / 1000));
+        }
+
+        return b.build();
+    }
+}
@@ -0,0 +1,477 @@
+package org.hyperfit.net.cache;
+
+import org.hyperfit.net.BoringRequestBuilder;
+import org.hyperfit.net.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * ResponseCache that keeps entries in memory mapped segment files in a directory, so a process that's restarted
+ * starts with the entries the previous one cached.
+ *
+ * Entries are appended to the newest segment, a segment that's full is followed by a new one and beyond the maximum
+ * size the oldest segment is deleted with the entries still in it.  Only an index of where each url's entry is lives
+ * on the heap, an entry is read from the mapped file, which the operating system keeps in its page cache, when it's
+ * looked up.
+ *
+ * Each record has a checksum.  The index is rebuilt from the segments when the cache is opened, a record torn by a
+ * crash fails its checksum and the segment is only read up to it.  Writes reach the page cache immediately and
+ * survive the process dying, use {@link #flush()} or {@link #close()} to force them to the disk.
+ *
+ * Looking up an entry only holds the cache's lock to find where it is, it's read and decoded outside of it.
+ *
+ * A directory must only be used by one cache at a time.
+ */
+public class DiskResponseCache implements ResponseCache, Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DiskResponseCache.class);
+
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final int MAGIC = 0x48465243;
+    //magic, payload length and checksum
+    private static final int RECORD_HEADER = 12;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final File directory;
+    private final long maximumSize;
+    private final int segmentSize;
+
+    //oldest first, the last one is written to
+    private final LinkedList<Segment> segments = new LinkedList<Segment>();
+    private final Map<String, Location> index = new HashMap<String, Location>();
+    private long evictionCount;
+
+    /**
+     * Opens the cache with segments of a quarter of the maximum size, between 64k and 64m each but never more than the
+     * maximum size
+     * @param directory where the segments are kept, created if it doesn't exist
+     * @param maximumSize the bytes the segments may take on disk
+     * @throws IOException when the directory or its segments can't be used
+     */
+    public DiskResponseCache(File directory, long maximumSize) throws IOException {
+        this(directory, maximumSize, defaultSegmentSize(maximumSize));
+    }
+
+    /**
+     * @param directory where the segments are kept, created if it doesn't exist
+     * @param maximumSize the bytes the segments may take on disk
+     * @param segmentSize the bytes in a segment, an entry larger than a segment isn't stored
+     * @throws IOException when the directory or its segments can't be used
+     */
+    public DiskResponseCache(File directory, long maximumSize, int segmentSize) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("directory can not be null");
+        }
+        if (segmentSize <= RECORD_HEADER) {
+            throw new IllegalArgumentException("segmentSize must be more than " + RECORD_HEADER);
+        }
+        if (maximumSize < segmentSize) {
+            throw new IllegalArgumentException("maximumSize must be at least segmentSize");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create the directory " + directory);
+        }
+
+        this.directory = directory;
+        this.maximumSize = maximumSize;
+        this.segmentSize = segmentSize;
+
+        open();
+    }
+
+    public CacheEntry get(String url) {
+        Location location;
+        synchronized (this) {
+            location = index.get(url);
+        }
+        if (location == null) {
+            return null;
+        }
+
+        //records never change once written, and an evicted segment's mapping stays readable, so reading and decoding
+        //the entry doesn't need the lock
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(location.segment.read(location)));
+            in.readByte();
+            return readEntry(readString(in), in);
+        } catch (IOException e) {
+            LOG.warn("Could not read the cached response of " + url + " from " + location.segment.file, e);
+            synchronized (this) {
+                //unless it's been replaced since
+                if (index.get(url) == location) {
+                    index.remove(url);
+                }
+            }
+            return null;
+        }
+    }
+
+    public synchronized void put(String url, CacheEntry entry) {
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(payload);
+            out.writeByte(PUT);
+            writeString(out, url);
+            writeEntry(out, entry);
+            out.flush();
+
+            Location location = append(payload.toByteArray());
+            if (location == null) {
+                //too large for a segment
+                remove(url);
+            } else {
+                index.put(url, location);
+            }
+        } catch (IOException e) {
+            LOG.warn("Could not cache the response of " + url + " in " + directory, e);
+            index.remove(url);
+        }
+    }
+
+    public synchronized void remove(String url) {
+        if (index.remove(url) == null) {
+            return;
+        }
+
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(payload);
+            out.writeByte(REMOVE);
+            writeString(out, url);
+            out.flush();
+
+            append(payload.toByteArray());
+        } catch (IOException e) {
+            LOG.warn("Could not remove the cached response of " + url + " from " + directory, e);
+        }
+    }
+
+    public synchronized void clear() {
+        index.clear();
+        try {
+            for (Segment segment : segments) {
+                segment.delete();
+            }
+            segments.clear();
+            segments.add(Segment.create(directory, 0, segmentSize));
+        } catch (IOException e) {
+            LOG.warn("Could not clear the cache in " + directory, e);
+        }
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return the number of entries stored
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Forces the segments' content to the disk
+     */
+    public synchronized void flush() {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+    }
+
+    /**
+     * Flushes and closes the segments, the cache can't be used afterwards
+     * @throws IOException when a segment can't be closed
+     */
+    public synchronized void close() throws IOException {
+        flush();
+        for (Segment segment : segments) {
+            segment.channel.close();
+        }
+        segments.clear();
+        index.clear();
+    }
+
+
+    private static int defaultSegmentSize(long maximumSize) {
+        return (int) Math.min(maximumSize, Math.max(64 * 1024, Math.min(64 * 1024 * 1024, maximumSize / 4)));
+    }
+
+    private void open() throws IOException {
+        File[] files = directory.listFiles(new FilenameFilter() {
+            public boolean accept(File dir, String name) {
+                return name.endsWith(SEGMENT_SUFFIX);
+            }
+        });
+
+        List<Long> ids = new ArrayList<Long>();
+        for (File file : files) {
+            try {
+                ids.add(Long.parseLong(file.getName().substring(0, file.getName().length() - SEGMENT_SUFFIX.length())));
+            } catch (NumberFormatException e) {
+                LOG.warn("Ignoring " + file + " which isn't a segment of the cache");
+            }
+        }
+        Long[] sorted = ids.toArray(new Long[ids.size()]);
+        Arrays.sort(sorted);
+
+        for (Long id : sorted) {
+            Segment segment = Segment.open(directory, id, segmentSize);
+            segments.add(segment);
+            recover(segment);
+        }
+
+        if (segments.isEmpty()) {
+            segments.add(Segment.create(directory, 0, segmentSize));
+        }
+
+        evictOldSegments();
+    }
+
+    /**
+     * Adds the records of a segment to the index, up to the first one that's missing or torn
+     */
+    private void recover(Segment segment) throws IOException {
+        ByteBuffer buffer = segment.buffer.duplicate();
+        int offset = 0;
+        while (offset + RECORD_HEADER <= buffer.capacity()) {
+            buffer.position(offset);
+            if (buffer.getInt() != MAGIC) {
+                break;
+            }
+
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.capacity() - offset - RECORD_HEADER) {
+                break;
+            }
+
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            if (checksum(payload) != checksum) {
+                LOG.warn("Dropping the torn records of " + segment.file + " from offset " + offset);
+                break;
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            byte type = in.readByte();
+            String url = readString(in);
+            if (type == PUT) {
+                index.put(url, new Location(segment, offset, length));
+            } else {
+                index.remove(url);
+            }
+
+            offset += RECORD_HEADER + length;
+        }
+
+        segment.writeOffset = offset;
+        //anything after a torn record is garbage, don't let it be mistaken for records later
+        if (offset + 4 <= buffer.capacity()) {
+            segment.buffer.putInt(offset, 0);
+        }
+    }
+
+    /**
+     * @return where the record was written, null when it's larger than a segment
+     */
+    private Location append(byte[] payload) throws IOException {
+        int recordSize = RECORD_HEADER + payload.length;
+        if (recordSize > segmentSize) {
+            return null;
+        }
+
+        Segment segment = segments.getLast();
+        if (segment.writeOffset + recordSize > segmentSize) {
+            segment = Segment.create(directory, segment.id + 1, segmentSize);
+            segments.add(segment);
+            evictOldSegments();
+        }
+
+        int offset = segment.writeOffset;
+        ByteBuffer buffer = segment.buffer.duplicate();
+
+        //the payload goes first so a crash leaves no valid header in front of a partial payload
+        buffer.position(offset + RECORD_HEADER);
+        buffer.put(payload);
+        if (offset + recordSize + 4 <= segmentSize) {
+            buffer.putInt(0);
+        }
+        buffer.position(offset);
+        buffer.putInt(MAGIC);
+        buffer.putInt(payload.length);
+        buffer.putInt(checksum(payload));
+
+        segment.writeOffset = offset + recordSize;
+        return new Location(segment, offset, payload.length);
+    }
+
+    private void evictOldSegments() {
+        while ((long) segments.size() * segmentSize > maximumSize && segments.size() > 1) {
+            Segment oldest = segments.removeFirst();
+
+            for (Iterator<Location> locations = index.values().iterator(); locations.hasNext(); ) {
+                if (locations.next().segment == oldest) {
+                    locations.remove();
+                    evictionCount++;
+                }
+            }
+
+            try {
+                oldest.delete();
+            } catch (IOException e) {
+                LOG.warn("Could not delete the evicted segment " + oldest.file, e);
+            }
+        }
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+
+    private static void writeEntry(DataOutputStream out, CacheEntry entry) throws IOException {
+        Response response = entry.getResponse();
+        out.writeLong(entry.getRequestTime());
+        out.writeLong(entry.getResponseTime());
+        out.writeInt(response.getCode());
+        writeString(out, response.getContentType());
+        writeString(out, response.getBody());
+
+        out.writeInt(response.getHeaders().size());
+        for (Map.Entry<String, String> header : response.getHeaders()) {
+            writeString(out, header.getKey());
+            writeString(out, header.getValue());
+        }
+
+        out.writeInt(entry.getVaryHeaders().size());
+        for (Map.Entry<String, String> header : entry.getVaryHeaders().entrySet()) {
+            writeString(out, header.getKey());
+            writeString(out, header.getValue());
+        }
+    }
+
+    private static CacheEntry readEntry(String url, DataInputStream in) throws IOException {
+        long requestTime = in.readLong();
+        long responseTime = in.readLong();
+
+        Response.ResponseBuilder response = Response.builder()
+            .addRequest(BoringRequestBuilder.get(url).build())
+            .addCode(in.readInt())
+            .addContentType(readString(in))
+            .addBody(readString(in));
+
+        for (int headers = in.readInt(); headers > 0; headers--) {
+            response.addHeader(readString(in), readString(in));
+        }
+
+        Map<String, String> varyHeaders = new HashMap<String, String>();
+        for (int headers = in.readInt(); headers > 0; headers--) {
+            varyHeaders.put(readString(in), readString(in));
+        }
+
+        return new CacheEntry(response.build(), varyHeaders, requestTime, responseTime);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(UTF8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF8);
+    }
+
+
+    private static final class Location {
+        private final Segment segment;
+        private final int offset;
+        private final int length;
+
+        Location(Segment segment, int offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final File file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writeOffset;
+
+        private Segment(long id, File file, int size) throws IOException {
+            this.id = id;
+            this.file = file;
+            this.channel = new RandomAccessFile(file, "rw").getChannel();
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+
+        static Segment open(File directory, long id, int size) throws IOException {
+            return new Segment(id, new File(directory, id + SEGMENT_SUFFIX), size);
+        }
+
+        static Segment create(File directory, long id, int size) throws IOException {
+            File file = new File(directory, id + SEGMENT_SUFFIX);
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Could not replace " + file);
+            }
+            return new Segment(id, file, size);
+        }
+
+        byte[] read(Location location) {
+            ByteBuffer view = buffer.duplicate();
+            view.position(location.offset + RECORD_HEADER);
+            byte[] payload = new byte[location.length];
+            view.get(payload);
+            return payload;
+        }
+
+        void delete() throws IOException {
+            channel.close();
+            if (!file.delete()) {
+                throw new IOException("Could not delete " + file);
+            }
+        }
+    }
+}
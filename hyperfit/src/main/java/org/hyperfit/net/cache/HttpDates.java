@@ -0,0 +1,60 @@
+package org.hyperfit.net.cache;
+
+import java.text.DateFormat;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Parses the HTTP-date formats of RFC 7231 section 7.1.1.1
+ */
+final class HttpDates {
+
+    private static final String[] FORMATS = {
+        "EEE, dd MMM yyyy HH:mm:ss zzz",
+        //obsolete RFC 850 and asctime formats
+        "EEEE, dd-MMM-yy HH:mm:ss zzz",
+        "EEE MMM d HH:mm:ss yyyy"
+    };
+
+    //SimpleDateFormat isn't thread safe
+    private static final ThreadLocal<DateFormat[]> DATE_FORMATS = new ThreadLocal<DateFormat[]>() {
+        @Override
+        protected DateFormat[] initialValue() {
+            DateFormat[] formats = new DateFormat[FORMATS.length];
+            for (int i = 0; i < FORMATS.length; i++) {
+                formats[i] = new SimpleDateFormat(FORMATS[i], Locale.US);
+                formats[i].setTimeZone(TimeZone.getTimeZone("GMT"));
+                formats[i].setLenient(false);
+            }
+            return formats;
+        }
+    };
+
+    private HttpDates() {
+
+    }
+
+    /**
+     * @param value an HTTP-date, may be null
+     * @return the date in milliseconds since the epoch, or -1 when the value is missing or not a date
+     */
+    static long parse(String value) {
+        if (value == null) {
+            return -1;
+        }
+
+        String trimmed = value.trim();
+        for (DateFormat format : DATE_FORMATS.get()) {
+            ParsePosition position = new ParsePosition(0);
+            Date date = format.parse(trimmed, position);
+            if (date != null && position.getIndex() == trimmed.length()) {
+                return date.getTime();
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,82 @@
+package org.hyperfit.net.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ResponseCache that keeps entries on the heap, bounded by the estimated bytes they hold.  Beyond the bound the least
+ * recently used entries are evicted, an entry heavier than the bound isn't stored.
+ */
+public class MemoryResponseCache implements ResponseCache {
+
+    private final long maximumWeight;
+
+    //access ordered, eldest first
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true);
+    private long weight;
+    private long evictionCount;
+
+    /**
+     * @param maximumWeight the estimated bytes entries may hold, see {@link CacheEntry#getWeight()}
+     */
+    public MemoryResponseCache(long maximumWeight) {
+        if (maximumWeight < 1) {
+            throw new IllegalArgumentException("maximumWeight must be at least 1");
+        }
+        this.maximumWeight = maximumWeight;
+    }
+
+    public synchronized CacheEntry get(String url) {
+        return entries.get(url);
+    }
+
+    public synchronized void put(String url, CacheEntry entry) {
+        remove(url);
+
+        long entryWeight = entry.getWeight();
+        if (entryWeight > maximumWeight) {
+            return;
+        }
+
+        entries.put(url, entry);
+        weight += entryWeight;
+
+        Iterator<Map.Entry<String, CacheEntry>> eldest = entries.entrySet().iterator();
+        while (weight > maximumWeight) {
+            weight -= eldest.next().getValue().getWeight();
+            eldest.remove();
+            evictionCount++;
+        }
+    }
+
+    public synchronized void remove(String url) {
+        CacheEntry removed = entries.remove(url);
+        if (removed != null) {
+            weight -= removed.getWeight();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return the number of entries stored
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the estimated bytes the stored entries hold
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+}
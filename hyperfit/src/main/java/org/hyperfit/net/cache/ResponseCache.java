@@ -0,0 +1,33 @@
+package org.hyperfit.net.cache;
+
+/**
+ * Stores the entries of a {@link CachingHyperClient} by url.  Implementations must be safe to use from several
+ * threads and may evict entries to stay within their bounds.
+ */
+public interface ResponseCache {
+
+    /**
+     * @return the entry stored for the url, null when there's none
+     */
+    CacheEntry get(String url);
+
+    /**
+     * Stores an entry for the url, replacing any entry already stored for it
+     */
+    void put(String url, CacheEntry entry);
+
+    /**
+     * Removes the entry stored for the url, if any
+     */
+    void remove(String url);
+
+    /**
+     * Removes every entry
+     */
+    void clear();
+
+    /**
+     * @return the number of entries evicted to stay within the cache's bounds
+     */
+    long getEvictionCount();
+}
@@ -0,0 +1,18 @@
+package org.hyperfit.proxy;
+
+import org.hyperfit.HyperResourceInvokeHandler;
+
+/**
+ * Creates instances of a resource interface implementation that was generated ahead of time.
+ *
+ * @see GeneratedResourceRegistry
+ */
+public interface GeneratedResourceFactory {
+
+    /**
+     * @param handler the handler of the resource, the generated implementation wraps its hyper resource
+     * @return a new instance of the generated implementation
+     */
+    Object newInstance(HyperResourceInvokeHandler handler);
+
+}
@@ -0,0 +1,16 @@
+package org.hyperfit.proxy;
+
+import org.hyperfit.HyperResourceInvokeHandler;
+
+/**
+ * Implemented by resource interface implementations that are not {@link java.lang.reflect.Proxy} dynamic proxies
+ * so the handler behind them can still be found, IE when comparing two resources with equals.
+ */
+public interface GeneratedResourceProxy {
+
+    /**
+     * @return the handler fulfilling the method invocations of this object
+     */
+    HyperResourceInvokeHandler getHyperResourceInvokeHandler();
+
+}
@@ -0,0 +1,16 @@
+package org.hyperfit.proxy;
+
+/**
+ * Looks up the ahead of time generated implementations of resource interfaces, IE the registries the hyperfit-apt
+ * annotation processor writes.  Registries are found with {@link java.util.ServiceLoader} by
+ * {@link RegistryResourceProxyFactory} so they must have a public no argument constructor.
+ */
+public interface GeneratedResourceRegistry {
+
+    /**
+     * @param resourceInterface the resource interface to implement
+     * @return the factory of the generated implementation of the interface, or null if this registry has none
+     */
+    GeneratedResourceFactory getFactory(Class<?> resourceInterface);
+
+}
@@ -0,0 +1,24 @@
+package org.hyperfit.proxy;
+
+import org.hyperfit.exception.HyperfitException;
+
+import java.lang.reflect.Method;
+
+/**
+ * Helpers used by generated resource interface implementations to resolve the methods they can't implement
+ * directly.  Generated code only calls these the first time such a method is invoked.
+ */
+public final class GeneratedResources {
+
+    private GeneratedResources() {
+    }
+
+    public static Method findMethod(Class<?> resourceInterface, String name, Class<?>... parameterTypes) {
+        try {
+            return resourceInterface.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            throw new HyperfitException("Generated implementation of " + resourceInterface + " is out of date, method " + name + " not found", e);
+        }
+    }
+
+}
@@ -0,0 +1,38 @@
+package org.hyperfit.proxy;
+
+import java.util.Arrays;
+
+/**
+ * Base class of generated snapshot implementations.  A snapshot holds the results of a resource interface's
+ * @Data methods in fields, two snapshots of the same interface are equal when all their values are.
+ */
+public abstract class GeneratedSnapshot {
+
+    /**
+     * @return the values of the snapshot, ordered by method name
+     */
+    protected abstract Object[] snapshotValues();
+
+    /**
+     * @return the exception thrown by the methods a snapshot can't fulfill
+     */
+    protected static UnsupportedOperationException unsupported(String methodName) {
+        return new UnsupportedOperationException("Method " + methodName + " is not available on a resource snapshot, only @Data methods are");
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other != null && other.getClass() == getClass() && Arrays.deepEquals(snapshotValues(), ((GeneratedSnapshot) other).snapshotValues());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.deepHashCode(snapshotValues());
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + Arrays.deepToString(snapshotValues());
+    }
+
+}
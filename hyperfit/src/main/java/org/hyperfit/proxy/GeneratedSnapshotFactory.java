@@ -0,0 +1,16 @@
+package org.hyperfit.proxy;
+
+/**
+ * Creates instances of a resource interface snapshot implementation that was generated ahead of time.
+ *
+ * @see GeneratedSnapshotRegistry
+ */
+public interface GeneratedSnapshotFactory {
+
+    /**
+     * @param values the results of the resource interface's @Data methods, ordered by method name
+     * @return a new instance of the generated snapshot implementation
+     */
+    Object newInstance(Object[] values);
+
+}
@@ -0,0 +1,16 @@
+package org.hyperfit.proxy;
+
+/**
+ * Looks up the ahead of time generated snapshot implementations of resource interfaces, IE the ones the hyperfit-apt
+ * annotation processor writes.  Registries are found with {@link java.util.ServiceLoader} so they must have a public
+ * no argument constructor.
+ */
+public interface GeneratedSnapshotRegistry {
+
+    /**
+     * @param resourceInterface the resource interface to snapshot
+     * @return the factory of the generated snapshot implementation of the interface, or null if this registry has none
+     */
+    GeneratedSnapshotFactory getSnapshotFactory(Class<?> resourceInterface);
+
+}
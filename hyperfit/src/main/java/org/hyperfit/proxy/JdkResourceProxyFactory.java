@@ -0,0 +1,128 @@
+package org.hyperfit.proxy;
+
+import org.hyperfit.HyperResourceInvokeHandler;
+import org.hyperfit.exception.HyperfitException;
+import org.hyperfit.methodinfo.MethodInfoCache;
+import org.hyperfit.utils.WeakClassCache;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+
+/**
+ * Implements resource interfaces using {@link java.lang.reflect.Proxy} dynamic proxies.
+ *
+ * The proxy class constructor is looked up once per class loader and interface list, after that creating a proxy
+ * is a cache hit and a single constructor call.  Constructors are cached per first interface in a
+ * {@link WeakClassCache}, so they don't keep the interfaces' class loaders from being unloaded.
+ */
+public class JdkResourceProxyFactory implements ResourceProxyFactory {
+
+    private static final Class<?>[] CONSTRUCTOR_PARAMETER_TYPES = new Class<?>[]{InvocationHandler.class};
+
+    private final WeakClassCache<ProxyConstructors> constructorCache = new WeakClassCache<ProxyConstructors>() {
+        @Override
+        protected ProxyConstructors compute(Class<?> clazz) {
+            return new ProxyConstructors();
+        }
+    };
+
+    public Object newProxyInstance(
+        ClassLoader classLoader,
+        Class<?>[] interfaces,
+        HyperResourceInvokeHandler handler
+    ) {
+        ProxyConstructors constructors = constructorCache.get(interfaces[0]);
+
+        Constructor<?> constructor = constructors.get(classLoader, interfaces);
+        if (constructor == null) {
+            Object proxy = Proxy.newProxyInstance(classLoader, interfaces, handler);
+            constructors.add(classLoader, interfaces, constructorOf(proxy.getClass()));
+            return proxy;
+        }
+
+        try {
+            return constructor.newInstance(handler);
+        } catch (InstantiationException e) {
+            throw new HyperfitException("Could not create proxy for " + Arrays.toString(interfaces), e);
+        } catch (IllegalAccessException e) {
+            throw new HyperfitException("Could not create proxy for " + Arrays.toString(interfaces), e);
+        } catch (InvocationTargetException e) {
+            throw new HyperfitException("Could not create proxy for " + Arrays.toString(interfaces), e);
+        }
+    }
+
+    public void prepare(
+        ClassLoader classLoader,
+        Class<?>[] interfaces,
+        MethodInfoCache methodInfoCache,
+        boolean memoizing
+    ) {
+        ProxyConstructors constructors = constructorCache.get(interfaces[0]);
+        if (constructors.get(classLoader, interfaces) == null) {
+            constructors.add(classLoader, interfaces, constructorOf(Proxy.getProxyClass(classLoader, interfaces)));
+        }
+    }
+
+    private static Constructor<?> constructorOf(Class<?> proxyClass) {
+        Constructor<?> constructor;
+        try {
+            constructor = proxyClass.getConstructor(CONSTRUCTOR_PARAMETER_TYPES);
+        } catch (NoSuchMethodException e) {
+            throw new HyperfitException("Proxy class " + proxyClass + " has no InvocationHandler constructor", e);
+        }
+
+        //proxies of non public interfaces are defined in the interface's package, same as Proxy.newProxyInstance we need access to them
+        if (!Modifier.isPublic(proxyClass.getModifiers())) {
+            constructor.setAccessible(true);
+        }
+
+        return constructor;
+    }
+
+
+    /**
+     * The proxy constructors of the interface lists starting with the same interface, usually only one
+     */
+    private static final class ProxyConstructors {
+        private volatile ProxyConstructor[] constructors = new ProxyConstructor[0];
+
+        Constructor<?> get(ClassLoader classLoader, Class<?>[] interfaces) {
+            for (ProxyConstructor constructor : constructors) {
+                if (constructor.classLoader == classLoader && Arrays.equals(constructor.interfaces, interfaces)) {
+                    return constructor.constructor;
+                }
+            }
+
+            return null;
+        }
+
+        synchronized void add(ClassLoader classLoader, Class<?>[] interfaces, Constructor<?> constructor) {
+            if (get(classLoader, interfaces) != null) {
+                return;
+            }
+
+            ProxyConstructor[] added = new ProxyConstructor[constructors.length + 1];
+            System.arraycopy(constructors, 0, added, 0, constructors.length);
+            //copy the interfaces so later changes to the caller's array can't change the entry
+            added[constructors.length] = new ProxyConstructor(classLoader, interfaces.clone(), constructor);
+            constructors = added;
+        }
+    }
+
+    private static final class ProxyConstructor {
+        private final ClassLoader classLoader;
+        private final Class<?>[] interfaces;
+        private final Constructor<?> constructor;
+
+        ProxyConstructor(ClassLoader classLoader, Class<?>[] interfaces, Constructor<?> constructor) {
+            this.classLoader = classLoader;
+            this.interfaces = interfaces;
+            this.constructor = constructor;
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package org.hyperfit.proxy;
+
+import org.hyperfit.HyperResourceInvokeHandler;
+import org.hyperfit.methodinfo.MethodInfoCache;
+import org.hyperfit.utils.WeakClassCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Uses the implementations generated ahead of time for a resource interface when a {@link GeneratedResourceRegistry}
+ * has one, otherwise hands the interfaces to a fallback factory.  Generated implementations only cover a single
+ * interface, so resources implementing several interfaces, IE multiple profiles, always use the fallback.
+ *
+ * This is the default factory of the HyperfitProcessor builder, with a {@link JdkResourceProxyFactory} fallback.
+ */
+public class RegistryResourceProxyFactory implements ResourceProxyFactory {
+
+    private static final GeneratedResourceFactory NO_FACTORY = new GeneratedResourceFactory() {
+        public Object newInstance(HyperResourceInvokeHandler handler) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    private final ResourceProxyFactory fallbackFactory;
+    private final List<GeneratedResourceRegistry> registries;
+    private final WeakClassCache<GeneratedResourceFactory> factoryCache = new WeakClassCache<GeneratedResourceFactory>() {
+        @Override
+        protected GeneratedResourceFactory compute(Class<?> clazz) {
+            return lookUpFactory(clazz);
+        }
+    };
+
+    /**
+     * Uses the registries found by {@link ServiceLoader}
+     * @param fallbackFactory factory used for interfaces without a generated implementation
+     */
+    public RegistryResourceProxyFactory(ResourceProxyFactory fallbackFactory) {
+        this(fallbackFactory, ServiceLoader.load(GeneratedResourceRegistry.class));
+    }
+
+    public RegistryResourceProxyFactory(ResourceProxyFactory fallbackFactory, Iterable<? extends GeneratedResourceRegistry> registries) {
+        if (fallbackFactory == null) {
+            throw new IllegalArgumentException("fallbackFactory can not be null");
+        }
+        this.fallbackFactory = fallbackFactory;
+
+        this.registries = new ArrayList<GeneratedResourceRegistry>();
+        for (GeneratedResourceRegistry registry : registries) {
+            this.registries.add(registry);
+        }
+    }
+
+    public Object newProxyInstance(
+        ClassLoader classLoader,
+        Class<?>[] interfaces,
+        HyperResourceInvokeHandler handler
+    ) {
+        if (interfaces.length == 1 && !registries.isEmpty()) {
+            GeneratedResourceFactory factory = findFactory(interfaces[0]);
+            if (factory != NO_FACTORY) {
+                return factory.newInstance(handler);
+            }
+        }
+
+        return fallbackFactory.newProxyInstance(classLoader, interfaces, handler);
+    }
+
+    public void prepare(
+        ClassLoader classLoader,
+        Class<?>[] interfaces,
+        MethodInfoCache methodInfoCache,
+        boolean memoizing
+    ) {
+        //generated implementations are already built
+        if (interfaces.length == 1 && !registries.isEmpty() && findFactory(interfaces[0]) != NO_FACTORY) {
+            return;
+        }
+
+        fallbackFactory.prepare(classLoader, interfaces, methodInfoCache, memoizing);
+    }
+
+    protected GeneratedResourceFactory findFactory(Class<?> resourceInterface) {
+        return factoryCache.get(resourceInterface);
+    }
+
+    private GeneratedResourceFactory lookUpFactory(Class<?> resourceInterface) {
+        for (GeneratedResourceRegistry registry : registries) {
+            GeneratedResourceFactory found = registry.getFactory(resourceInterface);
+            if (found != null) {
+                return found;
+            }
+        }
+
+        return NO_FACTORY;
+    }
+
+}
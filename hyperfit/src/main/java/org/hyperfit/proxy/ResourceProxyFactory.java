@@ -0,0 +1,43 @@
+package org.hyperfit.proxy;
+
+import org.hyperfit.HyperResourceInvokeHandler;
+import org.hyperfit.methodinfo.MethodInfoCache;
+
+/**
+ * Creates the objects that implement resource interfaces on top of a {@link HyperResourceInvokeHandler}.
+ * Register an implementation with the HyperfitProcessor builder to change how resource interfaces are implemented,
+ * by default {@link RegistryResourceProxyFactory} is used with a {@link JdkResourceProxyFactory} fallback.
+ */
+public interface ResourceProxyFactory {
+
+    /**
+     * Creates an object implementing all the given interfaces whose methods are fulfilled by the given handler
+     *
+     * @param classLoader the class loader of the interface expected by the caller
+     * @param interfaces the interfaces the result must implement
+     * @param handler the handler fulfilling method invocations of the result
+     * @return an object implementing all the given interfaces
+     */
+    Object newProxyInstance(
+        ClassLoader classLoader,
+        Class<?>[] interfaces,
+        HyperResourceInvokeHandler handler
+    );
+
+    /**
+     * Builds what newProxyInstance would build the first time it's given the interfaces, IE the proxy class, so
+     * it isn't built on the request path.  No resource is needed, factories with nothing to build do nothing.
+     *
+     * @param classLoader the class loader of the interface expected by the caller
+     * @param interfaces the interfaces later results must implement
+     * @param methodInfoCache the method info cache of the handlers later results will be given
+     * @param memoizing whether the handlers later results will be given memoize
+     */
+    void prepare(
+        ClassLoader classLoader,
+        Class<?>[] interfaces,
+        MethodInfoCache methodInfoCache,
+        boolean memoizing
+    );
+
+}
@@ -12,6 +12,9 @@ import java.util.List;
  * but a simple cache layer for getLinks(String relationship) probably be rather sufficient
  */
 public abstract class BaseHyperResource implements HyperResource {
+
+    private volatile LinkedHashSet<String> profiles;
+
     /**
      * Get the the link identified by the given relationship
      * If more than one link is present for this relationship a HyperResourceException will be thrown.
@@ -20,38 +23,56 @@ public abstract class BaseHyperResource implements HyperResource {
      * @return
      */
     public HyperLink getLink(String relationship) {
+        HyperLink link = this.tryGetLink(relationship);
+        if (link == null) {
+            throw new HyperResourceException("Could not find a link with relationship " + relationship);
+        }
+
+        return link;
+    }
+
+
+    public HyperLink getLink(String relationship, String name) {
+        HyperLink link = this.tryGetLink(relationship, name);
+        if (link == null) {
+            throw new HyperResourceException("Could not find a link with relationship [" + relationship + "] and name [" +  name + "]");
+        }
+
+        return link;
+    }
+
+    /**
+     * Get the the link identified by the given relationship, or null if there isn't one
+     * If more than one link is present for this relationship a HyperResourceException will be thrown.
+     *
+     * @param relationship
+     * @return
+     */
+    public HyperLink tryGetLink(String relationship) {
         if (StringUtils.isEmpty(relationship)) {
             throw new IllegalArgumentException("Link relationship is required");
         }
 
         HyperLink[] links = this.getLinks(relationship);
-        if (links.length == 0) {
-            throw new HyperResourceException("Could not find a link with relationship " + relationship);
-        }
-
         if (links.length > 1) {
             throw new HyperResourceException("Found more than one link with relationship " + relationship);
         }
 
-        return links[0];
+        return links.length == 0 ? null : links[0];
     }
 
 
-    public HyperLink getLink(String relationship, String name) {
+    public HyperLink tryGetLink(String relationship, String name) {
         if (StringUtils.isEmpty(relationship)) {
             throw new IllegalArgumentException("Link relationship is required");
         }
 
         HyperLink[] links = this.getLinks(relationship, name);
-        if (links.length == 0) {
-            throw new HyperResourceException("Could not find a link with relationship [" + relationship + "] and name [" +  name + "]");
-        }
-
         if (links.length > 1) {
             throw new HyperResourceException("Found more than one link with relationship [" + relationship + "] and name [" + name + "]");
         }
 
-        return links[0];
+        return links.length == 0 ? null : links[0];
     }
 
 
@@ -82,11 +103,30 @@ public abstract class BaseHyperResource implements HyperResource {
         return this.getPathAs(classToReturn, false, path);
     }
 
+    public <T> T tryGetPathAs(Class<T> classToReturn, String... path) {
+        return this.getPathAs(classToReturn, true, path);
+    }
+
+    /**
+     * The profile links are only read the first time, each call returns a copy of the profiles read then
+     */
     public LinkedHashSet<String> getProfiles(){
-        HyperLink[] profileLinks = this.getLinks("profile");
-        LinkedHashSet<String> profiles = new LinkedHashSet<String>(profileLinks.length);
-        for(HyperLink l : profileLinks){
-            profiles.add(l.getHref());
+        return new LinkedHashSet<String>(cachedProfiles());
+    }
+
+    /**
+     * @return the profiles read from the profile links, shared so it must not be modified
+     */
+    LinkedHashSet<String> cachedProfiles(){
+        LinkedHashSet<String> profiles = this.profiles;
+        if(profiles == null){
+            HyperLink[] profileLinks = this.getLinks("profile");
+            profiles = new LinkedHashSet<String>(profileLinks.length);
+            for(HyperLink l : profileLinks){
+                profiles.add(l.getHref());
+            }
+
+            this.profiles = profiles;
         }
 
         return profiles;
@@ -46,6 +46,21 @@ public interface HyperResource {
 
     HyperLink getLink(String relationship, String name);
 
+    /**
+     * Like {@link #getLink(String)} but reports a missing link by returning null instead of throwing an exception
+     * @param relationship the link relationship name
+     * @return the only link with the given relationship, null if there is none
+     */
+    HyperLink tryGetLink(String relationship);
+
+    /**
+     * Like {@link #getLink(String, String)} but reports a missing link by returning null instead of throwing an exception
+     * @param relationship the link relationship name
+     * @param name the link name
+     * @return the only link with the given relationship and name, null if there is none
+     */
+    HyperLink tryGetLink(String relationship, String name);
+
 
     /**
      * Traverses the resource with the given path and returns the destination as the given class
@@ -68,6 +83,16 @@ public interface HyperResource {
      */
     <T> T getPathAs(Class<T> classToReturn, boolean nullWhenMissing, String... dataFieldPath);
 
+    /**
+     * Traverses the resource with the given path and returns the destination as the given class, a path leading to
+     * no destination is reported by returning null and never by throwing an exception
+     * @param classToReturn the class to attempt to convert the destination into
+     * @param dataFieldPath the path with in the resource to locate the destination.  This is resource type specific, but usually is . notation
+     * @param <T> The type to return
+     * @return the class if the path was valid, found and convertible.  null if the path was not found
+     */
+    <T> T tryGetPathAs(Class<T> classToReturn, String... dataFieldPath);
+
     boolean hasPath(String... path);
 
     /**
@@ -99,6 +124,7 @@ public interface HyperResource {
     /**
      * Returns the set of IANA profile link relationships (https://tools.ietf.org/html/rfc6906) within this resource.
      * The order returned reflects the order as they are defined in the resource.
+     * Implementations may return the same set on every call so it must not be modified.
      * @return LinkedHasSet of all profiles the resource implements.  Order from response is maintained.
      */
     LinkedHashSet<String> getProfiles();
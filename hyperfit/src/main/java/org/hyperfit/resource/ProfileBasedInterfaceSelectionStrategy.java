@@ -1,13 +1,30 @@
 package org.hyperfit.resource;
 
 import org.hyperfit.annotation.Profiles;
+import org.hyperfit.utils.WeakClassCache;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Selects the interfaces registered for the profiles of a resource in addition to the expected interface.
+ * The result for each expected interface and set of registered profiles is computed once and then shared, so callers
+ * must not modify the returned array.  Profiles nothing is registered for don't change the result so they aren't part
+ * of the cache key, and expected interfaces are held weakly, see {@link WeakClassCache}.
+ */
 public class ProfileBasedInterfaceSelectionStrategy implements InterfaceSelectionStrategy {
 
     private final Map<String,List<Class<? extends HyperResource>>> registry;
 
+    //expected interface -> registered profiles -> interfaces
+    private final WeakClassCache<ConcurrentMap<Set<String>, Class<?>[]>> selectionCache = new WeakClassCache<ConcurrentMap<Set<String>, Class<?>[]>>() {
+        @Override
+        protected ConcurrentMap<Set<String>, Class<?>[]> compute(Class<?> clazz) {
+            return new ConcurrentHashMap<Set<String>, Class<?>[]>();
+        }
+    };
+
     public ProfileBasedInterfaceSelectionStrategy(Collection<Class<? extends HyperResource>> classes) {
 
         HashMap<String,List<Class<? extends HyperResource>>> map = new HashMap<String, List<Class<? extends HyperResource>>>();
@@ -30,16 +47,69 @@ public class ProfileBasedInterfaceSelectionStrategy implements InterfaceSelectio
     }
 
     public Class<?>[] determineInterfaces(Class<?> expectedInterface, HyperResource resourceToWrap) {
-        HashSet<Class<?>> matchingResources = new HashSet<Class<?>>();
+        return determineInterfaces(expectedInterface, profilesOf(resourceToWrap));
+    }
+
+    /**
+     * Selects the interfaces for a resource with the given profiles, without needing the resource
+     * @param expectedInterface the interface the caller expects
+     * @param resourceProfiles the profiles of the resource
+     * @return the expected interface and the interfaces registered for the profiles, shared so not to be modified
+     */
+    public Class<?>[] determineInterfaces(Class<?> expectedInterface, Set<String> resourceProfiles) {
+        ConcurrentMap<Set<String>, Class<?>[]> profileCache = selectionCache.get(expectedInterface);
+
+        Set<String> profiles = registeredProfiles(resourceProfiles);
+        Class<?>[] result = profileCache.get(profiles);
+        if(result == null){
+            result = selectInterfaces(expectedInterface, profiles);
+            //key on a copy, the resource's set isn't ours to hold on to
+            profileCache.putIfAbsent(new HashSet<String>(profiles), result);
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the resource's profiles, a BaseHyperResource's without the copy its getProfiles makes
+     */
+    private static Set<String> profilesOf(HyperResource resource) {
+        if(resource instanceof BaseHyperResource){
+            return ((BaseHyperResource) resource).cachedProfiles();
+        }
+
+        return resource.getProfiles();
+    }
+
+    /**
+     * @return the profiles when they're all registered, so the usual lookup doesn't copy them, else the registered ones
+     */
+    private Set<String> registeredProfiles(Set<String> profiles) {
+        for(String profile : profiles){
+            if(!registry.containsKey(profile)){
+                Set<String> registered = new HashSet<String>();
+                for(String p : profiles){
+                    if(registry.containsKey(p)){
+                        registered.add(p);
+                    }
+                }
+                return registered;
+            }
+        }
+
+        return profiles;
+    }
+
+    private Class<?>[] selectInterfaces(Class<?> expectedInterface, Set<String> profiles) {
+        LinkedHashSet<Class<?>> matchingResources = new LinkedHashSet<Class<?>>();
         matchingResources.add(expectedInterface);
 
-        for(String profile : resourceToWrap.getProfiles()){
+        for(String profile : profiles){
             if(registry.containsKey(profile)){
                 matchingResources.addAll(registry.get(profile));
             }
         }
 
         return matchingResources.toArray(new Class<?>[matchingResources.size()]);
-
     }
 }
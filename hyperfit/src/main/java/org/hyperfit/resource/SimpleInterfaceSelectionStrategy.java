@@ -1,8 +1,20 @@
 package org.hyperfit.resource;
 
+import org.hyperfit.utils.WeakClassCache;
+
+/**
+ * Selects only the expected interface.  The returned array is shared between calls so callers must not modify it.
+ */
 public class SimpleInterfaceSelectionStrategy implements InterfaceSelectionStrategy {
 
+    private final WeakClassCache<Class<?>[]> selectionCache = new WeakClassCache<Class<?>[]>() {
+        @Override
+        protected Class<?>[] compute(Class<?> clazz) {
+            return new Class<?>[]{clazz};
+        }
+    };
+
     public Class<?>[] determineInterfaces(Class<?> expectedInterface, HyperResource resourceToWrap) {
-        return new Class<?>[]{expectedInterface};
+        return selectionCache.get(expectedInterface);
     }
 }
@@ -4,6 +4,11 @@ package org.hyperfit.utils;
 import org.hyperfit.exception.HyperfitException;
 
 import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
 
 /**
  * <p>Utility class for reflection operations.</p>
@@ -39,4 +44,33 @@ public class ReflectUtils {
         return cast(Object[].class, Array.newInstance(type, size));
     }
 
+    /**
+     * Determines the class a type is erased to
+     * @param type a type
+     * @return the class of the type, the raw class of a parameterized type, or the erased bound of a type variable or wildcard
+     */
+    public static Class<?> erasure(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+
+        if (type instanceof ParameterizedType) {
+            return erasure(((ParameterizedType) type).getRawType());
+        }
+
+        if (type instanceof GenericArrayType) {
+            return Array.newInstance(erasure(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        }
+
+        if (type instanceof TypeVariable) {
+            return erasure(((TypeVariable<?>) type).getBounds()[0]);
+        }
+
+        if (type instanceof WildcardType) {
+            return erasure(((WildcardType) type).getUpperBounds()[0]);
+        }
+
+        return Object.class;
+    }
+
 }
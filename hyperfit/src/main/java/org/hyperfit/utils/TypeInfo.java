@@ -1,91 +1,240 @@
 package org.hyperfit.utils;
 
-import org.hyperfit.exception.ParameterizedTypeException;
 import org.javatuples.Pair;
+import org.javatuples.Triplet;
 
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
 import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * This class caches return type information
+ *
+ * Instances are immutable and interned by their type parameter bindings, so a given set of bindings is resolved
+ * once and every resource navigated with them shares the same instance.  The results of {@link #make(Type)},
+ * {@link #getArrayType(Class, Type, Type)} and {@link #getCollectionElementType(Class, Type, Type)} are cached per
+ * instance, following a Page&lt;Dog&gt; to its next page or items does not allocate new type information.
+ *
+ * Neither cache keeps resource interfaces from being unloaded: instances are interned weakly, and the caches are
+ * {@link WeakClassCache}s keyed by the raw class of the type made and by the return class.
  */
 public class TypeInfo {
-    private final Map<String, Type> typeParamsLookup = new HashMap<String, Type>();
 
-    private void add(String s, Type t) {
-        this.typeParamsLookup.put(s, t);
+    //bindings -> the one instance with those bindings, both held weakly, the key is the instance's own bindings
+    private static final Map<Map<String, Type>, WeakReference<TypeInfo>> INTERNED = new WeakHashMap<Map<String, Type>, WeakReference<TypeInfo>>();
+
+    private static final TypeInfo EMPTY = intern(Collections.<String, Type>emptyMap());
+
+    private final Map<String, Type> typeParamsLookup;
+
+    private final WeakClassCache<ConcurrentMap<Type, TypeInfo>> madeCache = new MapCache<Type, TypeInfo>();
+
+    private final WeakClassCache<ConcurrentMap<Triplet<Class<?>, Type, Type>, Pair<? extends Class<?>, Type>>> elementTypeCache = new MapCache<Triplet<Class<?>, Type, Type>, Pair<? extends Class<?>, Type>>();
+
+    /**
+     * Creates type info without any type parameter bindings, {@link #empty()} returns a shared instance
+     */
+    public TypeInfo() {
+        this(Collections.<String, Type>emptyMap());
+    }
+
+    private TypeInfo(Map<String, Type> typeParamsLookup) {
+        this.typeParamsLookup = typeParamsLookup;
+    }
+
+    /**
+     * @return the shared type info without any type parameter bindings
+     */
+    public static TypeInfo empty() {
+        return EMPTY;
+    }
+
+    private static TypeInfo intern(Map<String, Type> typeParamsLookup) {
+        synchronized (INTERNED) {
+            WeakReference<TypeInfo> interned = INTERNED.get(typeParamsLookup);
+            TypeInfo typeInfo = interned == null ? null : interned.get();
+            if (typeInfo == null) {
+                typeInfo = new TypeInfo(Collections.unmodifiableMap(typeParamsLookup));
+                INTERNED.put(typeInfo.typeParamsLookup, new WeakReference<TypeInfo>(typeInfo));
+            }
+
+            return typeInfo;
+        }
     }
 
-    private Type lookForTypeParam(TypeVariable arg) {
-        Type type = this.typeParamsLookup.get(arg.getName());
+    /**
+     * Resolves a type variable to its binding.  When there is no binding, as happens when a generic resource
+     * is used raw or its type information was erased, the variable's bound is used instead.
+     */
+    private Type resolve(TypeVariable<?> typeVariable) {
+        Type type = this.typeParamsLookup.get(typeVariable.getName());
+        if (type != null) {
+            return type;
+        }
+
+        Type bound = typeVariable.getBounds()[0];
+        if (bound instanceof TypeVariable) {
+            return resolve((TypeVariable<?>) bound);
+        }
+
+        return bound;
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
 
-        if(type == null) {
-            throw new ParameterizedTypeException("No type param called [" + arg.getName() + "] was found in typeParamsLookup map");
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
         }
 
-        return type;
+        if (type instanceof GenericArrayType) {
+            return Array.newInstance(rawClass(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        }
+
+        return null;
     }
 
     public Pair<? extends Class<?>, Type> getArrayType(Class returnClass, Type genericReturnType, Type genericFallback) {
+        Triplet<Class<?>, Type, Type> key = Triplet.<Class<?>, Type, Type>with(returnClass, genericReturnType, genericFallback);
+
+        ConcurrentMap<Triplet<Class<?>, Type, Type>, Pair<? extends Class<?>, Type>> elementTypes = elementTypeCache.get(returnClass);
+        Pair<? extends Class<?>, Type> arrayType = elementTypes.get(key);
+        if (arrayType == null) {
+            arrayType = resolveArrayType(returnClass, genericReturnType, genericFallback);
+            elementTypes.putIfAbsent(key, arrayType);
+        }
+
+        return arrayType;
+    }
+
+    /**
+     * Determines the element type of a collection return type such as List&lt;T&gt;
+     *
+     * @param returnClass the collection class
+     * @param genericReturnType the generic return type
+     * @param genericFallback the type used when the element type can't be determined
+     * @return the element class and the element's generic type
+     */
+    public Pair<? extends Class<?>, Type> getCollectionElementType(Class returnClass, Type genericReturnType, Type genericFallback) {
+        Triplet<Class<?>, Type, Type> key = Triplet.<Class<?>, Type, Type>with(returnClass, genericReturnType, genericFallback);
+
+        ConcurrentMap<Triplet<Class<?>, Type, Type>, Pair<? extends Class<?>, Type>> elementTypes = elementTypeCache.get(returnClass);
+        Pair<? extends Class<?>, Type> elementType = elementTypes.get(key);
+        if (elementType == null) {
+            Type genericElementType = genericFallback;
+            if (genericReturnType instanceof ParameterizedType) {
+                genericElementType = resolveElementType(((ParameterizedType) genericReturnType).getActualTypeArguments()[0], genericFallback);
+            }
+
+            elementType = Pair.with(rawClass(genericElementType), genericElementType);
+            elementTypes.putIfAbsent(key, elementType);
+        }
+
+        return elementType;
+    }
+
+    private Pair<? extends Class<?>, Type> resolveArrayType(Class returnClass, Type genericReturnType, Type genericFallback) {
 
         Class<?> arrayComponentType = returnClass.getComponentType();
         Type genericComponentType = arrayComponentType;
 
         //If it's generic..override the type
         if (genericReturnType instanceof GenericArrayType) {
-            GenericArrayType arrayType = (GenericArrayType) genericReturnType;
-            genericComponentType = arrayType.getGenericComponentType();
+            genericComponentType = resolveElementType(((GenericArrayType) genericReturnType).getGenericComponentType(), genericFallback);
+            arrayComponentType = rawClass(genericComponentType);
+        }
 
-            //If the type is a variable, look it up
-            if (genericComponentType instanceof TypeVariable) {
-                genericComponentType = this.typeParamsLookup.get(((TypeVariable) genericComponentType).getName());
-            }
+        return Pair.with(arrayComponentType, genericComponentType);
+    }
 
-            if(genericComponentType == null){
-                //If we don't have the type info..then it's probably someone not using generics IE Page vs Page<T>, let's fallback
-                genericComponentType = genericFallback;
-            }
+    private Type resolveElementType(Type genericElementType, Type genericFallback) {
+        //For List<? extends Dog> the best we can do is Dog
+        if (genericElementType instanceof WildcardType) {
+            genericElementType = ((WildcardType) genericElementType).getUpperBounds()[0];
+        }
 
-            arrayComponentType = (Class) genericComponentType;
+        //If the type is a variable, look it up
+        if (genericElementType instanceof TypeVariable) {
+            genericElementType = resolve((TypeVariable<?>) genericElementType);
         }
 
-        return Pair.with(arrayComponentType, genericComponentType);
+        //If we don't have anything more specific than the erased type, it's probably someone not using generics
+        //IE Page vs Page<T> where T is unbounded, let's fallback
+        if (genericElementType == null || genericElementType == Object.class) {
+            return genericFallback;
+        }
+
+        return genericElementType;
     }
 
 
     public TypeInfo make(Type resourceType) {
-        TypeInfo typeInfo = new TypeInfo();
+        if (!(resourceType instanceof ParameterizedType)) {
+            return EMPTY;
+        }
 
-        if (resourceType != null) {
-            if (resourceType instanceof ParameterizedType) {
-                ParameterizedType paramType = (ParameterizedType) resourceType;
+        ConcurrentMap<Type, TypeInfo> made = madeCache.get(rawClass(resourceType));
+        TypeInfo typeInfo = made.get(resourceType);
+        if (typeInfo == null) {
+            typeInfo = intern(bindings((ParameterizedType) resourceType));
+            made.putIfAbsent(resourceType, typeInfo);
+        }
 
-                Type[] actualTypeArgs = paramType.getActualTypeArguments();
-                TypeVariable[] params = ((Class) paramType.getRawType()).getTypeParameters();
+        return typeInfo;
+    }
+
+    private Map<String, Type> bindings(ParameterizedType paramType) {
+        Map<String, Type> bindings = new HashMap<String, Type>();
 
-                for (int i = 0; i < actualTypeArgs.length; i++) {
+        Type[] actualTypeArgs = paramType.getActualTypeArguments();
+        TypeVariable[] params = ((Class) paramType.getRawType()).getTypeParameters();
 
-                    //If the actual type arg is a TypeVariable itself we need to look it up
-                    //This happens when generics return generics, like Page<T>::next
-                    Type arg = actualTypeArgs[i];
-                    if (arg instanceof TypeVariable) {
-                        TypeVariable tv = (TypeVariable) arg;
-                        Type actualType = this.lookForTypeParam(tv);
-                        typeInfo.add(tv.getName(), actualType);
+        for (int i = 0; i < actualTypeArgs.length; i++) {
+            Type arg = actualTypeArgs[i];
 
-                    } else {
-                        typeInfo.add(params[i].getName(), arg);
-                    }
+            //For Page<? extends Dog> the best we can do is Dog
+            if (arg instanceof WildcardType) {
+                arg = ((WildcardType) arg).getUpperBounds()[0];
+            }
 
-                }
+            //If the actual type arg is a TypeVariable itself we need to look it up
+            //This happens when generics return generics, like Page<T>::next
+            //It's bound to the returned type's own parameter, which isn't always called the same
+            if (arg instanceof TypeVariable) {
+                arg = this.resolve((TypeVariable<?>) arg);
             }
 
+            bindings.put(params[i].getName(), arg);
         }
 
-        return typeInfo;
+        return bindings;
+    }
+
+    @Override
+    public String toString() {
+        return "TypeInfo" + typeParamsLookup;
+    }
+
+
+    /**
+     * A map per class
+     */
+    private static final class MapCache<K, V> extends WeakClassCache<ConcurrentMap<K, V>> {
+        @Override
+        protected ConcurrentMap<K, V> compute(Class<?> clazz) {
+            return new ConcurrentHashMap<K, V>();
+        }
     }
 }
@@ -0,0 +1,121 @@
+package org.hyperfit.utils;
+
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+
+/**
+ * Concurrent cache of a value computed per class, that doesn't keep the classes, or the class loaders that loaded
+ * them, from being unloaded.
+ *
+ * Classes are held weakly and compared by identity.  Cached values usually refer back to their class, IE a proxy
+ * class implementing it or an array holding it, so they're held softly: the value of a class that's no longer used is
+ * collected with the class once the garbage collector clears soft references.  A value collected while its class is
+ * still in use is computed again the next time it's needed.
+ *
+ * Looking up a cached value neither locks nor allocates.  Values are computed once while they're cached, adding one
+ * copies the table, which is fine for the number of resource interfaces an application has.
+ */
+public abstract class WeakClassCache<V> {
+
+    private volatile Entry<V>[] table = newTable(16);
+    private int size;
+
+    /**
+     * @return the value to cache for clazz, not null
+     */
+    protected abstract V compute(Class<?> clazz);
+
+    public V get(Class<?> clazz) {
+        if (clazz == null) {
+            throw new IllegalArgumentException("class can not be null");
+        }
+
+        V value = find(table, clazz);
+        return value != null ? value : add(clazz);
+    }
+
+    /**
+     * @return the number of classes cached, including those collected since the last value was added
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized V add(Class<?> clazz) {
+        V value = find(table, clazz);
+        if (value != null) {
+            return value;
+        }
+
+        value = compute(clazz);
+        if (value == null) {
+            throw new IllegalStateException("No value computed for " + clazz);
+        }
+
+        //compute may have added other classes, so take the table again, and drop the classes since collected
+        Entry<V>[] current = table;
+        int count = 1;
+        for (Entry<V> bucket : current) {
+            for (Entry<V> e = bucket; e != null; e = e.next) {
+                Class<?> cached = e.get();
+                if (cached != null && cached != clazz) {
+                    count++;
+                }
+            }
+        }
+
+        int length = current.length;
+        while (count > length * 3 / 4) {
+            length *= 2;
+        }
+
+        Entry<V>[] rebuilt = newTable(length);
+        for (Entry<V> bucket : current) {
+            for (Entry<V> e = bucket; e != null; e = e.next) {
+                Class<?> cached = e.get();
+                if (cached != null && cached != clazz) {
+                    int index = e.hash & (length - 1);
+                    rebuilt[index] = new Entry<V>(cached, e.hash, e.value, rebuilt[index]);
+                }
+            }
+        }
+
+        int hash = System.identityHashCode(clazz);
+        int index = hash & (length - 1);
+        rebuilt[index] = new Entry<V>(clazz, hash, new SoftReference<V>(value), rebuilt[index]);
+
+        size = count;
+        table = rebuilt;
+        return value;
+    }
+
+    private static <V> V find(Entry<V>[] table, Class<?> clazz) {
+        int hash = System.identityHashCode(clazz);
+        for (Entry<V> e = table[hash & (table.length - 1)]; e != null; e = e.next) {
+            if (e.get() == clazz) {
+                return e.value.get();
+            }
+        }
+
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Entry<V>[] newTable(int length) {
+        return new Entry[length];
+    }
+
+
+    private static final class Entry<V> extends WeakReference<Class<?>> {
+        private final int hash;
+        private final SoftReference<V> value;
+        private final Entry<V> next;
+
+        Entry(Class<?> clazz, int hash, SoftReference<V> value, Entry<V> next) {
+            super(clazz);
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+    }
+}
@@ -20,7 +20,10 @@ import org.mockito.MockitoAnnotations;
 
 import java.lang.reflect.Proxy;
 import java.text.SimpleDateFormat;
+import java.util.Collection;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -135,9 +138,24 @@ public class HyperResourceInvokeHandlerTest{
         @Link("bb:data")
         HyperLink dataLink();
 
+        @Link("bb:data")
+        DataResource dataResource(
+            @Header("X-Some-Header") String header,
+            @Param("page") Integer page
+        );
+
         @Link("bb:datas")
         DataResource[] dataResourcesArray();
 
+        @Link("bb:datas")
+        List<DataResource> dataResourcesList();
+
+        @Link("bb:datas")
+        Collection<DataResource> dataResourcesCollection();
+
+        @Link("bb:datas")
+        Iterable<? extends DataResource> dataResourcesIterable();
+
         @Link("bb:linkstring")
         String linkString();
 
@@ -151,6 +169,27 @@ public class HyperResourceInvokeHandlerTest{
         HyperLink[] hyperLinks();
     }
 
+    public interface MemoizedResource extends HyperResource {
+        @Memoize
+        @Data({"dataString"})
+        String memoizedDataAsString();
+
+        @Data({"dataString"})
+        String dataAsString();
+
+        @Memoize(false)
+        @Data({"dataString"})
+        String neverMemoizedDataAsString();
+
+        @Memoize
+        @Link("bb:datas")
+        DataResource[] dataResourcesArray();
+
+        @Memoize
+        @Link("bb:data")
+        DataResource dataResource();
+    }
+
     public interface FirstLinkResource extends HyperResource {
 
         @FirstLink(rel="x:first-link", names={})
@@ -513,6 +552,34 @@ public class HyperResourceInvokeHandlerTest{
         assertSame(mockDataResource, result);
     }
 
+    @Test
+    public void testInvokeLinkWithAnnotatedParams() {
+
+        String rel = "bb:data";
+
+        HyperLink expectedLink = makeLink(rel);
+        when(mockHyperResource.getLink(rel)).thenReturn(expectedLink);
+
+        DataResource mockDataResource = mock(DataResource.class);
+
+        String headerValue = uniqueString();
+        RequestBuilder expectedHyperRequest = new BoringRequestBuilder()
+            .setUrl(expectedLink.getHref())
+            .setMethod(Method.GET)
+            .addHeader("X-Some-Header", headerValue);
+
+        when(mockHyperfitProcessor.processRequest(eq(DataResource.class), eq(expectedHyperRequest), any(TypeInfo.class)))
+            .thenReturn(mockDataResource);
+
+        LinkResource p = this.getHyperResourceProxy(LinkResource.class);
+
+        //null values are not bound
+        assertSame(mockDataResource, p.dataResource(headerValue, null));
+
+        //invoking again must bind the same way as the binders are resolved once per method
+        assertSame(mockDataResource, p.dataResource(headerValue, null));
+    }
+
     @Test
     public void testInvokeLinkReturningString() {
 
@@ -693,6 +760,58 @@ public class HyperResourceInvokeHandlerTest{
 
     }
 
+    @Test
+    public void testInvokeLinkReturningListOfResourcesResolvedLocally() {
+        String relationship = "bb:datas";
+
+        when(mockHyperResource.canResolveLinkLocal(relationship))
+            .thenReturn(true);
+
+        HyperResource embedded1 = mock(HyperResource.class);
+        HyperResource embedded2 = mock(HyperResource.class);
+        when(mockHyperResource.resolveLinksLocal(relationship))
+            .thenReturn(new HyperResource[]{embedded1, embedded2});
+
+        DataResource expected1 = mock(DataResource.class);
+        DataResource expected2 = mock(DataResource.class);
+        when(mockHyperfitProcessor.processResource(eq(DataResource.class), eq(embedded1), any(TypeInfo.class)))
+            .thenReturn(expected1);
+        when(mockHyperfitProcessor.processResource(eq(DataResource.class), eq(embedded2), any(TypeInfo.class)))
+            .thenReturn(expected2);
+
+        LinkResource p = this.getHyperResourceProxy(LinkResource.class);
+
+        List<DataResource> actual = p.dataResourcesList();
+
+        //nothing is proxified until it's needed
+        assertEquals(2, actual.size());
+        verify(mockHyperfitProcessor, never()).processResource(eq(DataResource.class), any(HyperResource.class), any(TypeInfo.class));
+
+        assertSame(expected2, actual.get(1));
+        assertSame(expected2, actual.get(1));
+        verify(mockHyperfitProcessor, times(1)).processResource(eq(DataResource.class), eq(embedded2), any(TypeInfo.class));
+        verify(mockHyperfitProcessor, never()).processResource(eq(DataResource.class), eq(embedded1), any(TypeInfo.class));
+
+        assertEquals(actual, p.dataResourcesCollection());
+
+        Iterator<? extends DataResource> iterator = p.dataResourcesIterable().iterator();
+        assertSame(expected1, iterator.next());
+        assertSame(expected2, iterator.next());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testListOfResourcesResolvedLocallyIsUnmodifiable() {
+        String relationship = "bb:datas";
+
+        when(mockHyperResource.canResolveLinkLocal(relationship))
+            .thenReturn(true);
+        when(mockHyperResource.resolveLinksLocal(relationship))
+            .thenReturn(new HyperResource[0]);
+
+        this.getHyperResourceProxy(LinkResource.class).dataResourcesList().add(mock(DataResource.class));
+    }
+
     /* TODO: re-enable this test when we add back strategies
 
     @Test
@@ -1166,4 +1285,115 @@ public class HyperResourceInvokeHandlerTest{
         assertNull(proxyTest.getNullWhenMissingNamedLinkArray());
     }
 
+
+
+    @Test
+    public void testInvokeMemoizedData() {
+        when(mockHyperResource.getPathAs(String.class, false, "dataString")).thenReturn("some string");
+
+        MemoizedResource proxyTest = getHyperResourceProxy(MemoizedResource.class);
+
+        assertEquals("some string", proxyTest.memoizedDataAsString());
+        assertEquals("some string", proxyTest.memoizedDataAsString());
+        verify(mockHyperResource, times(1)).getPathAs(String.class, false, "dataString");
+
+        //memoizing isn't on by default
+        proxyTest.dataAsString();
+        proxyTest.dataAsString();
+        verify(mockHyperResource, times(3)).getPathAs(String.class, false, "dataString");
+    }
+
+    @Test
+    public void testInvokeMemoizedNullData() {
+        MemoizedResource proxyTest = getHyperResourceProxy(MemoizedResource.class);
+
+        assertNull(proxyTest.memoizedDataAsString());
+        assertNull(proxyTest.memoizedDataAsString());
+        verify(mockHyperResource, times(1)).getPathAs(String.class, false, "dataString");
+    }
+
+    @Test
+    public void testInvokeMemoizingByDefault() {
+        when(mockHyperfitProcessor.isMemoizing()).thenReturn(true);
+        when(mockHyperResource.getPathAs(String.class, false, "dataString")).thenReturn("some string");
+        HyperLink fakeLink = makeLink("bb:one");
+        when(mockHyperResource.getLink("bb:one")).thenReturn(fakeLink);
+        when(mockHyperResource.getLink("bb:two")).thenReturn(makeLink("bb:two"));
+
+        MemoizedResource proxyTest = getHyperResourceProxy(MemoizedResource.class);
+
+        proxyTest.dataAsString();
+        proxyTest.dataAsString();
+        verify(mockHyperResource, times(1)).getPathAs(String.class, false, "dataString");
+
+        proxyTest.neverMemoizedDataAsString();
+        proxyTest.neverMemoizedDataAsString();
+        verify(mockHyperResource, times(3)).getPathAs(String.class, false, "dataString");
+
+        //arguments are part of the key
+        assertSame(proxyTest.getLink("bb:one"), proxyTest.getLink("bb:one"));
+        proxyTest.getLink("bb:two");
+        verify(mockHyperResource, times(1)).getLink("bb:one");
+        verify(mockHyperResource, times(1)).getLink("bb:two");
+
+        //every proxy has its own memos
+        getHyperResourceProxy(MemoizedResource.class).dataAsString();
+        verify(mockHyperResource, times(4)).getPathAs(String.class, false, "dataString");
+    }
+
+    @Test
+    public void testInvokeMemoizedLinkResolvedLocally() {
+        String relationship = "bb:datas";
+
+        when(mockHyperResource.canResolveLinkLocal(relationship)).thenReturn(true);
+        when(mockHyperResource.resolveLinksLocal(relationship)).thenReturn(new HyperResource[]{mockHyperResource});
+
+        MemoizedResource proxyTest = getHyperResourceProxy(MemoizedResource.class);
+
+        DataResource[] actual = proxyTest.dataResourcesArray();
+
+        assertEquals(1, actual.length);
+        //callers can change the array they get, so each gets a copy
+        DataResource[] again = proxyTest.dataResourcesArray();
+        assertNotSame(actual, again);
+        assertArrayEquals(actual, again);
+        verify(mockHyperResource, times(1)).resolveLinksLocal(relationship);
+    }
+
+    @Test
+    public void testInvokeMemoizedLinksAreCopied() {
+        when(mockHyperfitProcessor.isMemoizing()).thenReturn(true);
+        HyperLink[] links = {makeLink("bb:many"), makeLink("bb:many")};
+        when(mockHyperResource.getLinks("bb:many")).thenReturn(links);
+
+        MemoizedResource proxyTest = getHyperResourceProxy(MemoizedResource.class);
+
+        HyperLink[] first = proxyTest.getLinks("bb:many");
+        assertArrayEquals(links, first);
+        first[0] = null;
+
+        HyperLink[] second = proxyTest.getLinks("bb:many");
+        assertNotSame(first, second);
+        assertArrayEquals(links, second);
+        verify(mockHyperResource, times(1)).getLinks("bb:many");
+    }
+
+    @Test
+    public void testInvokeMemoizedLinkNotResolvedLocallyIsFollowedEveryTime() {
+        String relationship = "bb:data";
+
+        HyperLink fakeLink = makeLink(relationship);
+        when(mockHyperResource.getLink(relationship)).thenReturn(fakeLink);
+
+        DataResource expected = mock(DataResource.class);
+        when(mockHyperfitProcessor.processRequest(eq(DataResource.class), any(RequestBuilder.class), any(TypeInfo.class)))
+            .thenReturn(expected);
+
+        MemoizedResource proxyTest = getHyperResourceProxy(MemoizedResource.class);
+
+        assertSame(expected, proxyTest.dataResource());
+        assertSame(expected, proxyTest.dataResource());
+        verify(mockHyperfitProcessor, times(2)).processRequest(eq(DataResource.class), any(RequestBuilder.class), any(TypeInfo.class));
+    }
+
 }
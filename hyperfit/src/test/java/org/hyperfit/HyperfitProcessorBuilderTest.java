@@ -1,8 +1,19 @@
 package org.hyperfit;
 
 import facets.RootResource;
+import org.hyperfit.annotation.Content;
+import org.hyperfit.annotation.Data;
+import org.hyperfit.annotation.Link;
+import org.hyperfit.annotation.Profiles;
 import org.hyperfit.content.ContentType;
+import org.hyperfit.exception.HyperfitException;
 import org.hyperfit.exception.NoClientRegisteredForSchemeException;
+import org.hyperfit.methodinfo.ConcurrentHashMapResourceMethodInfoCache;
+import org.hyperfit.methodinfo.MethodInfo;
+import org.hyperfit.methodinfo.MethodInfoCache;
+import org.hyperfit.methodinfo.ResourceMethodInfoCache;
+import org.hyperfit.proxy.ResourceProxyFactory;
+import org.hyperfit.resource.ProfileBasedInterfaceSelectionStrategy;
 import org.hyperfit.net.*;
 import org.hyperfit.content.ContentTypeHandler;
 import org.hyperfit.resource.HyperResource;
@@ -11,6 +22,13 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 
 import static org.junit.Assert.*;
@@ -381,4 +399,116 @@ public class HyperfitProcessorBuilderTest {
         );
     }
 
+
+    public interface DogResource extends HyperResource {
+        @Data("name")
+        String getName();
+    }
+
+    @Profiles("/profiles/good-dog")
+    public interface GoodDogResource extends HyperResource {
+        @Data("tricks")
+        String[] getTricks();
+    }
+
+    public interface KennelResource extends HyperResource {
+        @Link("dogs")
+        DogResource[] getDogs();
+
+        @Link("dog-list")
+        List<GoodDogResource> getDogList();
+    }
+
+    public interface BrokenResource extends HyperResource {
+        String getName();
+
+        @Link("bad-content")
+        HyperResource submit(@Content("not a content type") Object body);
+
+        @Data("ok")
+        String getOk();
+    }
+
+    @Test
+    public void testAddResourceInterfacesPreparesReachableInterfaces() throws Exception {
+        when(mockHyperClient.getSchemes()).thenReturn(new String[]{"http"});
+
+        MethodInfoCache kennelMethods = mock(MethodInfoCache.class);
+        ResourceMethodInfoCache resourceMethodInfoCache = spy(new ConcurrentHashMapResourceMethodInfoCache());
+        resourceMethodInfoCache.put(KennelResource.class, kennelMethods);
+        when(kennelMethods.get(any(Method.class))).thenAnswer(new Answer<Object>() {
+            public Object answer(InvocationOnMock invocation) {
+                return new MethodInfo((Method) invocation.getArguments()[0]);
+            }
+        });
+
+        HyperfitProcessor.builder()
+            .hyperClient(mockHyperClient)
+            .resourceMethodInfoCache(resourceMethodInfoCache)
+            .addResourceInterfaces(KennelResource.class)
+            .build();
+
+        //method info is built up front for the registered interface and the ones its links return
+        verify(kennelMethods, atLeastOnce()).get(KennelResource.class.getMethod("getDogs"));
+        verify(kennelMethods, atLeastOnce()).get(KennelResource.class.getMethod("getDogList"));
+        verify(resourceMethodInfoCache, atLeastOnce()).get(DogResource.class);
+        verify(resourceMethodInfoCache, atLeastOnce()).get(GoodDogResource.class);
+    }
+
+    @Test
+    public void testAddResourceInterfacesBuildsProxiesPerProfile() {
+        when(mockHyperClient.getSchemes()).thenReturn(new String[]{"http"});
+
+        final List<List<Class<?>>> proxiedInterfaces = new ArrayList<List<Class<?>>>();
+        ResourceProxyFactory resourceProxyFactory = new ResourceProxyFactory() {
+            public Object newProxyInstance(ClassLoader classLoader, Class<?>[] interfaces, HyperResourceInvokeHandler handler) {
+                throw new UnsupportedOperationException("no resource is needed to prepare");
+            }
+
+            public void prepare(ClassLoader classLoader, Class<?>[] interfaces, MethodInfoCache methodInfoCache, boolean memoizing) {
+                proxiedInterfaces.add(Arrays.asList(interfaces));
+            }
+        };
+
+        HyperfitProcessor.builder()
+            .hyperClient(mockHyperClient)
+            .resourceProxyFactory(resourceProxyFactory)
+            .interfaceSelectionStrategy(new ProfileBasedInterfaceSelectionStrategy(Arrays.<Class<? extends HyperResource>>asList(GoodDogResource.class)))
+            .addResourceInterfaces(KennelResource.class)
+            .build();
+
+        assertTrue(proxiedInterfaces.contains(Arrays.<Class<?>>asList(KennelResource.class)));
+        assertTrue(proxiedInterfaces.contains(Arrays.<Class<?>>asList(DogResource.class)));
+        assertTrue(proxiedInterfaces.contains(Arrays.<Class<?>>asList(DogResource.class, GoodDogResource.class)));
+        assertTrue(proxiedInterfaces.contains(Arrays.<Class<?>>asList(GoodDogResource.class)));
+    }
+
+    @Test
+    public void testAddResourceInterfacesReportsEveryUnsupportedMethod() throws Exception {
+        when(mockHyperClient.getSchemes()).thenReturn(new String[]{"http"});
+
+        try {
+            HyperfitProcessor.builder()
+                .hyperClient(mockHyperClient)
+                .addResourceInterfaces(KennelResource.class, BrokenResource.class)
+                .build();
+            fail("expected the broken resource to be reported");
+        } catch (HyperfitException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(BrokenResource.class.getMethod("getName").toString()));
+            assertTrue(e.getMessage(), e.getMessage().contains(BrokenResource.class.getMethod("submit", Object.class).toString()));
+            assertFalse(e.getMessage(), e.getMessage().contains("getOk"));
+            assertFalse(e.getMessage(), e.getMessage().contains("Kennel"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddResourceInterfacesNotAResource() {
+        HyperfitProcessor.builder().addResourceInterfaces(Runnable.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddResourceInterfacesNull() {
+        HyperfitProcessor.builder().addResourceInterfaces(RootResource.class, null);
+    }
+
 }
@@ -1,7 +1,11 @@
 package org.hyperfit;
 
 
+import org.hyperfit.content.ContentType;
+import org.hyperfit.content.ContentTypeHandler;
+import org.hyperfit.exception.HyperfitException;
 import org.hyperfit.net.*;
+import org.hyperfit.proxy.ResourceProxyFactory;
 import org.hyperfit.resource.HyperResource;
 import org.hyperfit.resource.InterfaceSelectionStrategy;
 
@@ -12,6 +16,12 @@ import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 import static org.hamcrest.Matchers.*;
@@ -106,6 +116,41 @@ public class HyperfitProcessorTest {
     }
 
 
+    @Test
+    public void testProcessResourceUsesResourceProxyFactory() {
+        ResourceProxyFactory mockResourceProxyFactory = mock(ResourceProxyFactory.class);
+        ProfileResource1 fakeProxy = mock(ProfileResource1.class);
+
+        HyperfitProcessor processor = builder
+            .resourceProxyFactory(mockResourceProxyFactory)
+            .build();
+
+        Class[] interfaces = new Class[]{ProfileResource1.class};
+        when(mockSelectionStrategy.determineInterfaces(BaseProfileResource.class, mockHyperResource))
+            .thenReturn(interfaces);
+
+        when(mockResourceProxyFactory.newProxyInstance(
+            Matchers.eq(BaseProfileResource.class.getClassLoader()),
+            Matchers.same(interfaces),
+            Matchers.any(HyperResourceInvokeHandler.class)
+        )).thenReturn(fakeProxy);
+
+        BaseProfileResource result = processor.processResource(BaseProfileResource.class, mockHyperResource, null);
+
+        assertSame(fakeProxy, result);
+    }
+
+    @Test
+    public void testResourceProxyFactoryCanNotBeNull() {
+        try {
+            builder.resourceProxyFactory(null);
+            fail("expected exception not thrown");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("resourceProxyFactory can not be null"));
+        }
+    }
+
+
     @Test
     public void testProcessRequestThrowsForBadArgs(){
         HyperfitProcessor processor = builder.build();
@@ -271,4 +316,213 @@ public class HyperfitProcessorTest {
 
     }
 
+
+    private HyperfitProcessor asyncProcessor(Executor executor) {
+        ContentTypeHandler mockContentTypeHandler = mock(ContentTypeHandler.class);
+        when(mockContentTypeHandler.getDefaultContentType())
+            .thenReturn(ContentType.parse("application/hal+json"));
+        when(mockContentTypeHandler.canParseResponse())
+            .thenReturn(true);
+        when(mockContentTypeHandler.parseResponse(Matchers.any(Response.class)))
+            .thenReturn(mockHyperResource);
+
+        when(mockSelectionStrategy.determineInterfaces(BaseProfileResource.class, mockHyperResource))
+            .thenReturn(new Class[]{ProfileResource1.class});
+
+        builder.addContentTypeHandler(mockContentTypeHandler);
+        if (executor != null) {
+            builder.executor(executor);
+        }
+
+        return builder.build();
+    }
+
+    private void respondToAsync(BoringRequestBuilder request) {
+        when(mockHyperClient.execute(request.build()))
+            .thenReturn(
+                Response.builder()
+                    .addRequest(request.build())
+                    .addCode(200)
+                    .addContentType("application/hal+json")
+                    .build()
+            );
+    }
+
+    @Test
+    public void testProcessRequestAsyncExecutesOnExecutor(){
+        final List<Runnable> queued = new ArrayList<Runnable>();
+        RequestInterceptor mockInterceptor = mock(RequestInterceptor.class);
+        builder.addRequestInterceptor(mockInterceptor);
+
+        HyperfitProcessor processor = asyncProcessor(new Executor() {
+            public void execute(Runnable command) {
+                queued.add(command);
+            }
+        });
+
+        BoringRequestBuilder request = BoringRequestBuilder.get("http://local");
+        respondToAsync(request);
+
+        BaseProfileResource result = processor.processRequestAsync(BaseProfileResource.class, request);
+
+        verify(mockInterceptor, times(1)).intercept(request);
+        verify(mockHyperClient, never()).execute(Matchers.any(Request.class));
+        assertThat(result.toString(), containsString("pending"));
+        assertEquals(1, queued.size());
+
+        queued.get(0).run();
+
+        String fakeRel = uniqueString();
+        when(mockHyperResource.hasLink(fakeRel))
+            .thenReturn(true);
+
+        assertTrue(result.hasLink(fakeRel));
+        assertTrue(result.hasLink(fakeRel));
+        verify(mockHyperClient, times(1)).execute(request.build());
+        assertFalse(result instanceof ProfileResource1);
+    }
+
+    @Test
+    public void testProcessRequestAsyncDefaultExecutor(){
+        HyperfitProcessor processor = asyncProcessor(null);
+
+        BoringRequestBuilder request = BoringRequestBuilder.get("http://local");
+        respondToAsync(request);
+
+        String fakeRel = uniqueString();
+        when(mockHyperResource.hasLink(fakeRel))
+            .thenReturn(true);
+
+        BaseProfileResource result = processor.processRequestAsync(BaseProfileResource.class, request);
+
+        assertTrue(result.hasLink(fakeRel));
+        assertEquals(result, processor.processRequestAsync(BaseProfileResource.class, request));
+    }
+
+    @Test
+    public void testProcessRequestAsyncEqualsResource(){
+        HyperfitProcessor processor = asyncProcessor(null);
+
+        BoringRequestBuilder request = BoringRequestBuilder.get("http://local");
+        respondToAsync(request);
+
+        BaseProfileResource async = processor.processRequestAsync(BaseProfileResource.class, request);
+        BaseProfileResource resource = processor.processRequest(BaseProfileResource.class, request);
+
+        assertEquals(resource, async);
+        assertEquals(async, resource);
+    }
+
+    @Test
+    public void testProcessRequestAsyncThrowsOnEveryUse(){
+        HyperfitProcessor processor = asyncProcessor(new Executor() {
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+
+        BoringRequestBuilder request = BoringRequestBuilder.get("http://local");
+        HyperfitException fakeException = new HyperfitException(uniqueString());
+        when(mockHyperClient.execute(request.build()))
+            .thenThrow(fakeException);
+
+        BaseProfileResource result = processor.processRequestAsync(BaseProfileResource.class, request);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                result.getProfiles();
+                fail("expected the request's exception");
+            } catch (HyperfitException e) {
+                assertSame(fakeException, e);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExecutorCanNotBeNull(){
+        builder.executor(null);
+    }
+
+    @Test
+    public void testWithRequestInterceptor(){
+        RequestInterceptor parentInterceptor = mock(RequestInterceptor.class);
+        RequestInterceptor derivedInterceptor = mock(RequestInterceptor.class);
+        ResponseInterceptor responseInterceptor = mock(ResponseInterceptor.class);
+
+        HyperfitProcessor parent = builder
+            .addRequestInterceptor(parentInterceptor)
+            .addResponseInterceptor(responseInterceptor)
+            .build();
+
+        HyperfitProcessor derived = parent.withRequestInterceptor(derivedInterceptor);
+
+        BoringRequestBuilder request = BoringRequestBuilder.get("http://local");
+        String fakeResponseBody = uniqueString();
+        when(mockHyperClient.execute(request.build()))
+            .thenReturn(
+                Response.builder()
+                    .addRequest(request.build())
+                    .addBody(fakeResponseBody)
+                    .build()
+            );
+
+        assertEquals(fakeResponseBody, derived.processRequest(String.class, request));
+        verify(parentInterceptor, times(1)).intercept(request);
+        verify(derivedInterceptor, times(1)).intercept(request);
+        verify(responseInterceptor, times(1)).intercept(Matchers.any(Response.class));
+
+        assertEquals(fakeResponseBody, parent.processRequest(String.class, request));
+        verify(parentInterceptor, times(2)).intercept(request);
+        verify(derivedInterceptor, times(1)).intercept(request);
+
+        //the clients were only set up by the parent
+        verify(mockHyperClient, times(1)).setAcceptedContentTypes(Matchers.<Set<String>>any());
+    }
+
+    @Test
+    public void testDeriveReplacesInterceptors(){
+        RequestInterceptor parentInterceptor = mock(RequestInterceptor.class);
+        ResponseInterceptor responseInterceptor = mock(ResponseInterceptor.class);
+
+        HyperfitProcessor parent = builder
+            .addRequestInterceptor(parentInterceptor)
+            .build();
+
+        HyperfitProcessor.Deriver deriver = parent.derive()
+            .clearInterceptors()
+            .addResponseInterceptor(responseInterceptor);
+        HyperfitProcessor derived = deriver.build();
+
+        //later changes don't affect what was derived
+        deriver.addRequestInterceptor(parentInterceptor);
+
+        BoringRequestBuilder request = BoringRequestBuilder.get("http://local");
+        when(mockHyperClient.execute(request.build()))
+            .thenReturn(
+                Response.builder()
+                    .addRequest(request.build())
+                    .addBody(uniqueString())
+                    .build()
+            );
+
+        derived.processRequest(String.class, request);
+
+        verify(parentInterceptor, never()).intercept(Matchers.any(RequestBuilder.class));
+        verify(responseInterceptor, times(1)).intercept(Matchers.any(Response.class));
+    }
+
+    @Test
+    public void testDerivedResourcesUseDerivedProcessor(){
+        RequestInterceptor derivedInterceptor = mock(RequestInterceptor.class);
+
+        HyperfitProcessor derived = builder.build().withRequestInterceptor(derivedInterceptor);
+
+        when(mockSelectionStrategy.determineInterfaces(BaseProfileResource.class, mockHyperResource))
+            .thenReturn(new Class[]{BaseProfileResource.class});
+        BaseProfileResource resource = derived.processResource(BaseProfileResource.class, mockHyperResource, null);
+
+        HyperResourceInvokeHandler handler = (HyperResourceInvokeHandler) Proxy.getInvocationHandler(resource);
+        assertSame(derived, handler.getRequestProcessor());
+    }
+
 }
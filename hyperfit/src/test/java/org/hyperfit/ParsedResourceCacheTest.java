@@ -0,0 +1,234 @@
+package org.hyperfit;
+
+import org.hyperfit.content.ContentType;
+import org.hyperfit.content.ContentTypeHandler;
+import org.hyperfit.net.BaseHyperClient;
+import org.hyperfit.net.HyperClient;
+import org.hyperfit.net.Request;
+import org.hyperfit.net.Response;
+import org.hyperfit.net.cache.CachingHyperClient;
+import org.hyperfit.net.cache.MemoryResponseCache;
+import org.hyperfit.resource.HyperResource;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.lang.reflect.Proxy;
+import java.net.CookieHandler;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+import static test.TestUtils.uniqueString;
+
+public class ParsedResourceCacheTest {
+
+    public interface CatalogResource extends HyperResource {
+    }
+
+    /**
+     * Answers with the queued responses, then with the last one, and keeps the requests it was sent
+     */
+    private static class Origin extends BaseHyperClient {
+        final List<Request> requests = new ArrayList<Request>();
+        final LinkedList<Response.ResponseBuilder> responses = new LinkedList<Response.ResponseBuilder>();
+
+        Origin respond(int code, String... headers) {
+            Response.ResponseBuilder builder = Response.builder()
+                .addCode(code)
+                .addBody(code == 304 ? null : uniqueString());
+            if (code != 304) {
+                builder.addContentType("application/hal+json");
+            }
+            for (int i = 0; i < headers.length; i += 2) {
+                builder.addHeader(headers[i], headers[i + 1]);
+            }
+            responses.add(builder);
+            return this;
+        }
+
+        public Response execute(Request request) {
+            requests.add(request);
+            Response.ResponseBuilder builder = responses.size() > 1 ? responses.removeFirst() : responses.getFirst();
+            return builder.addRequest(request).build();
+        }
+
+        public HyperClient setCookieHandler(CookieHandler handler) {
+            return this;
+        }
+
+        public String[] getSchemes() {
+            return new String[]{"http"};
+        }
+    }
+
+    Origin origin;
+    ContentTypeHandler mockContentTypeHandler;
+    ParsedResourceCache cache;
+    HyperfitProcessor.Builder builder;
+    String url;
+
+    @Before
+    public void setUp() {
+        origin = new Origin();
+        cache = new ParsedResourceCache(10);
+        url = "http://host/" + uniqueString();
+
+        mockContentTypeHandler = mock(ContentTypeHandler.class);
+        when(mockContentTypeHandler.getDefaultContentType())
+            .thenReturn(ContentType.parse("application/hal+json"));
+        when(mockContentTypeHandler.canParseResponse())
+            .thenReturn(true);
+        when(mockContentTypeHandler.parseResponse(Matchers.any(Response.class)))
+            .thenAnswer(new Answer<HyperResource>() {
+                public HyperResource answer(InvocationOnMock invocation) {
+                    return mock(HyperResource.class);
+                }
+            });
+
+        builder = HyperfitProcessor.builder()
+            .hyperClient(origin)
+            .addContentTypeHandler(mockContentTypeHandler)
+            .parsedResourceCache(cache);
+    }
+
+    private HyperResource resource(HyperfitProcessor processor) {
+        CatalogResource proxy = processor.processRequest(CatalogResource.class, url);
+        return ((HyperResourceInvokeHandler) Proxy.getInvocationHandler(proxy)).getHyperResource();
+    }
+
+    @Test
+    public void testNotModifiedReusesParsedResource() {
+        origin.respond(200, "ETag", "\"v1\"").respond(304);
+        HyperfitProcessor processor = builder.build();
+
+        HyperResource first = resource(processor);
+        HyperResource second = resource(processor);
+
+        assertSame(first, second);
+        verify(mockContentTypeHandler, times(1)).parseResponse(Matchers.any(Response.class));
+        assertNull(origin.requests.get(0).getHeader("If-None-Match"));
+        assertEquals("\"v1\"", origin.requests.get(1).getHeader("If-None-Match"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testLastModified() {
+        String lastModified = "Sun, 06 Nov 1994 08:49:37 GMT";
+        origin.respond(200, "Last-Modified", lastModified).respond(304);
+        HyperfitProcessor processor = builder.build();
+
+        assertSame(resource(processor), resource(processor));
+        assertEquals(lastModified, origin.requests.get(1).getHeader("If-Modified-Since"));
+        assertNull(origin.requests.get(1).getHeader("If-None-Match"));
+    }
+
+    @Test
+    public void testChangedResponseParsed() {
+        origin.respond(200, "ETag", "\"v1\"").respond(200, "ETag", "\"v2\"").respond(304, "ETag", "\"v2\"");
+        HyperfitProcessor processor = builder.build();
+
+        HyperResource first = resource(processor);
+        HyperResource second = resource(processor);
+        HyperResource third = resource(processor);
+
+        assertNotSame(first, second);
+        assertSame(second, third);
+        assertEquals("\"v2\"", origin.requests.get(2).getHeader("If-None-Match"));
+        verify(mockContentTypeHandler, times(2)).parseResponse(Matchers.any(Response.class));
+    }
+
+    @Test
+    public void testSameStrongETagReusesParsedResource() {
+        origin.respond(200, "ETag", "\"v1\"", "Cache-Control", "max-age=60");
+        HyperfitProcessor processor = builder
+            .hyperClient(new CachingHyperClient(origin, new MemoryResponseCache(1024 * 1024)))
+            .build();
+
+        HyperResource first = resource(processor);
+        HyperResource second = resource(processor);
+
+        assertSame(first, second);
+        //the http cache answered the conditional request itself
+        assertEquals(1, origin.requests.size());
+        verify(mockContentTypeHandler, times(1)).parseResponse(Matchers.any(Response.class));
+    }
+
+    @Test
+    public void testWeakETagOn200Parsed() {
+        origin.respond(200, "ETag", "W/\"v1\"")
+            .respond(200, "ETag", "W/\"v1\"");
+        HyperfitProcessor processor = builder.build();
+
+        assertNotSame(resource(processor), resource(processor));
+    }
+
+    @Test
+    public void testWithoutValidatorsNotCached() {
+        origin.respond(200, "ETag", "\"v1\"").respond(200).respond(200);
+        HyperfitProcessor processor = builder.build();
+
+        resource(processor);
+        resource(processor);
+        resource(processor);
+
+        assertEquals(0, cache.size());
+        assertNull(origin.requests.get(2).getHeader("If-None-Match"));
+        verify(mockContentTypeHandler, times(3)).parseResponse(Matchers.any(Response.class));
+    }
+
+    @Test
+    public void testNoConditionalRequestForResponse() {
+        origin.respond(200, "ETag", "\"v1\"");
+        HyperfitProcessor processor = builder.build();
+
+        resource(processor);
+        Response response = processor.processRequest(Response.class, url);
+
+        assertEquals(200, response.getCode());
+        assertNull(origin.requests.get(1).getHeader("If-None-Match"));
+    }
+
+    @Test
+    public void testDeferredParsing() {
+        origin.respond(200, "ETag", "\"v1\"").respond(304);
+        HyperfitProcessor processor = builder.deferParsing(true).build();
+
+        HyperResource first = resource(processor);
+        HyperResource second = resource(processor);
+
+        assertSame(first, second);
+        first.getProfiles();
+        second.getProfiles();
+        verify(mockContentTypeHandler, times(1)).parseResponse(Matchers.any(Response.class));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedDropped() {
+        cache = new ParsedResourceCache(1);
+        origin.respond(200, "ETag", "\"v1\"");
+        HyperfitProcessor processor = builder.parsedResourceCache(cache).build();
+
+        resource(processor);
+        url = "http://host/" + uniqueString();
+        resource(processor);
+
+        assertEquals(1, cache.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaximumSize() {
+        new ParsedResourceCache(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullCache() {
+        builder.parsedResourceCache(null);
+    }
+
+}
@@ -0,0 +1,230 @@
+package org.hyperfit;
+
+import org.hyperfit.exception.HyperfitException;
+import org.hyperfit.net.BoringRequestBuilder;
+import org.hyperfit.net.HyperClient;
+import org.hyperfit.net.Request;
+import org.hyperfit.net.Response;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+import static test.TestUtils.uniqueString;
+
+public class RequestCoalescerTest {
+
+    RequestCoalescer coalescer;
+    ExecutorService threads;
+
+    @Before
+    public void setUp() {
+        coalescer = new RequestCoalescer();
+        threads = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        threads.shutdownNow();
+    }
+
+    /**
+     * Starts a call on another thread that blocks until the latch is released
+     */
+    private Future<String> blockingCall(
+        final Request request,
+        final CountDownLatch release,
+        final AtomicInteger calls,
+        final String result
+    ) {
+        return threads.submit(new Callable<String>() {
+            public String call() {
+                return coalescer.execute(request, String.class, null, new Callable<String>() {
+                    public String call() throws Exception {
+                        calls.incrementAndGet();
+                        release.await();
+                        return result;
+                    }
+                });
+            }
+        });
+    }
+
+    private void awaitCoalesced(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (coalescer.getCoalescedCount() < count) {
+            assertTrue("requests weren't coalesced", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static void awaitCalls(AtomicInteger calls, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (calls.get() < count) {
+            assertTrue("requests weren't executed", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void testIdenticalRequestsShareOneCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        String url = "http://host/" + uniqueString();
+
+        List<Future<String>> results = new ArrayList<Future<String>>();
+        results.add(blockingCall(BoringRequestBuilder.get(url).addHeader("A", "1").addHeader("B", "2").build(), release, calls, "shared"));
+        awaitCalls(calls, 1);
+        for (int i = 0; i < 4; i++) {
+            //header order and case don't matter
+            results.add(blockingCall(BoringRequestBuilder.get(url).addHeader("b", "2").addHeader("A", "1").build(), release, calls, "other"));
+        }
+
+        awaitCoalesced(4);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("shared", result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testDifferentRequestsNotCoalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        String url = "http://host/" + uniqueString();
+
+        Future<String> first = blockingCall(BoringRequestBuilder.get(url).build(), release, calls, "a");
+        Future<String> header = blockingCall(BoringRequestBuilder.get(url).addHeader("Authorization", "other").build(), release, calls, "b");
+        Future<String> accept = blockingCall(BoringRequestBuilder.get(url).addAcceptedContentType("text/html").build(), release, calls, "c");
+        Future<String> post = blockingCall(BoringRequestBuilder.post(url).build(), release, calls, "d");
+
+        awaitCalls(calls, 4);
+        release.countDown();
+
+        assertEquals("a", first.get(10, TimeUnit.SECONDS));
+        assertEquals("b", header.get(10, TimeUnit.SECONDS));
+        assertEquals("c", accept.get(10, TimeUnit.SECONDS));
+        assertEquals("d", post.get(10, TimeUnit.SECONDS));
+        assertEquals(0, coalescer.getCoalescedCount());
+    }
+
+    @Test
+    public void testExceptionSharedAndNextRequestExecuted() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final Request request = BoringRequestBuilder.get("http://host/" + uniqueString()).build();
+        final HyperfitException failure = new HyperfitException(uniqueString());
+
+        Callable<String> failing = new Callable<String>() {
+            public String call() {
+                return coalescer.execute(request, String.class, null, new Callable<String>() {
+                    public String call() throws Exception {
+                        release.await();
+                        throw failure;
+                    }
+                });
+            }
+        };
+        Future<String> first = threads.submit(failing);
+        Future<String> second = threads.submit(failing);
+
+        awaitCoalesced(1);
+        release.countDown();
+
+        for (Future<String> result : new Future[]{first, second}) {
+            try {
+                result.get(10, TimeUnit.SECONDS);
+                fail("expected the call's exception");
+            } catch (ExecutionException e) {
+                assertSame(failure, e.getCause());
+            }
+        }
+
+        //nothing is left in flight
+        assertEquals("after", coalescer.execute(request, String.class, null, new Callable<String>() {
+            public String call() {
+                return "after";
+            }
+        }));
+    }
+
+    @Test
+    public void testNestedIdenticalRequestNotCoalesced() {
+        final Request request = BoringRequestBuilder.get("http://host/" + uniqueString()).build();
+
+        String result = coalescer.execute(request, String.class, null, new Callable<String>() {
+            public String call() {
+                return coalescer.execute(request, String.class, null, new Callable<String>() {
+                    public String call() {
+                        return "nested";
+                    }
+                });
+            }
+        });
+
+        assertEquals("nested", result);
+    }
+
+    @Test
+    public void testProcessorSharesResult() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        HyperClient mockHyperClient = mock(HyperClient.class);
+        when(mockHyperClient.getSchemes()).thenReturn(new String[]{"http"});
+        when(mockHyperClient.execute(Matchers.any(Request.class))).thenAnswer(new Answer<Response>() {
+            public Response answer(InvocationOnMock invocation) throws Throwable {
+                release.await();
+                return Response.builder()
+                    .addRequest((Request) invocation.getArguments()[0])
+                    .addCode(200)
+                    .addBody(uniqueString())
+                    .build();
+            }
+        });
+
+        final HyperfitProcessor processor = HyperfitProcessor.builder()
+            .hyperClient(mockHyperClient)
+            .coalesceRequests(true)
+            .build();
+        final String url = "http://host/" + uniqueString();
+
+        List<Future<Response>> results = new ArrayList<Future<Response>>();
+        for (int i = 0; i < 3; i++) {
+            results.add(threads.submit(new Callable<Response>() {
+                public Response call() {
+                    return processor.processRequest(Response.class, url);
+                }
+            }));
+        }
+
+        coalescer = processor.getRequestCoalescer();
+        awaitCoalesced(2);
+        release.countDown();
+
+        Response shared = results.get(0).get(10, TimeUnit.SECONDS);
+        for (Future<Response> result : results) {
+            assertSame(shared, result.get(10, TimeUnit.SECONDS));
+        }
+        verify(mockHyperClient, times(1)).execute(Matchers.any(Request.class));
+
+        //derived processors have their own interceptors, so coalesce separately
+        assertNotSame(processor.getRequestCoalescer(), processor.derive().build().getRequestCoalescer());
+        assertNull(HyperfitProcessor.builder().hyperClient(mockHyperClient).build().getRequestCoalescer());
+    }
+
+}
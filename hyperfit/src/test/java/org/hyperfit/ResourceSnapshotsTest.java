@@ -0,0 +1,170 @@
+package org.hyperfit;
+
+import org.hyperfit.annotation.Data;
+import org.hyperfit.annotation.Link;
+import org.hyperfit.annotation.NullWhenMissing;
+import org.hyperfit.net.HyperClient;
+import org.hyperfit.resource.HyperResource;
+import org.hyperfit.resource.HyperResourceException;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ResourceSnapshotsTest {
+
+    public interface PersonResource extends HyperResource {
+        @Data("name")
+        String getName();
+
+        @Data({"stats", "age"})
+        int getAge();
+
+        @NullWhenMissing
+        @Data("nickname")
+        String getNickname();
+
+        @Data("aliases")
+        String[] getAliases();
+
+        @NullWhenMissing
+        @Data("tags")
+        List<String> getTags();
+
+        @Link("friend")
+        PersonResource getFriend();
+    }
+
+    @Mock
+    HyperResource mockHyperResource;
+
+    @Mock
+    HyperClient mockHyperClient;
+
+    HyperfitProcessor processor;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(mockHyperClient.getSchemes()).thenReturn(new String[]{"http"});
+
+        processor = HyperfitProcessor.builder()
+            .hyperClient(mockHyperClient)
+            .build();
+
+        when(mockHyperResource.getPathAs(String.class, false, "name")).thenReturn("bob");
+        when(mockHyperResource.getPathAs(int.class, false, "stats", "age")).thenReturn(42);
+        when(mockHyperResource.getPathAs(String[].class, false, "aliases")).thenReturn(new String[]{"bobby"});
+    }
+
+    @Test
+    public void testSnapshotHoldsDataValues() {
+        PersonResource person = processor.processResource(PersonResource.class, mockHyperResource, null);
+
+        PersonResource snapshot = processor.snapshot(PersonResource.class, person);
+
+        assertTrue(Proxy.isProxyClass(snapshot.getClass()));
+        assertEquals("bob", snapshot.getName());
+        assertEquals(42, snapshot.getAge());
+        assertNull(snapshot.getNickname());
+        assertArrayEquals(new String[]{"bobby"}, snapshot.getAliases());
+
+        //read once while taking the snapshot, never again
+        when(mockHyperResource.getPathAs(String.class, false, "name")).thenReturn("robert");
+        assertEquals("bob", snapshot.getName());
+        verify(mockHyperResource, times(1)).getPathAs(String.class, false, "name");
+        verify(mockHyperResource, times(1)).tryGetPathAs(String.class, "nickname");
+    }
+
+    @Test
+    public void testSnapshotCopiesArraysAndCollections() {
+        String[] aliases = new String[]{"bobby"};
+        List<String> tags = new ArrayList<String>(Arrays.asList("a", "b"));
+        when(mockHyperResource.getPathAs(String[].class, false, "aliases")).thenReturn(aliases);
+        when(mockHyperResource.tryGetPathAs(List.class, "tags")).thenReturn(tags);
+
+        PersonResource snapshot = processor.snapshot(
+            PersonResource.class,
+            processor.processResource(PersonResource.class, mockHyperResource, null)
+        );
+
+        aliases[0] = "robert";
+        tags.add("c");
+        snapshot.getAliases()[0] = "rob";
+
+        assertArrayEquals(new String[]{"bobby"}, snapshot.getAliases());
+        assertEquals(Arrays.asList("a", "b"), snapshot.getTags());
+
+        try {
+            snapshot.getTags().add("d");
+            fail("collections are unmodifiable");
+        } catch (UnsupportedOperationException e) {
+            assertEquals(Arrays.asList("a", "b"), snapshot.getTags());
+        }
+    }
+
+    @Test
+    public void testSnapshotEquality() {
+        PersonResource person = processor.processResource(PersonResource.class, mockHyperResource, null);
+
+        PersonResource snapshot = processor.snapshot(PersonResource.class, person);
+        PersonResource same = processor.snapshot(PersonResource.class, person);
+
+        assertEquals(snapshot, same);
+        assertEquals(snapshot.hashCode(), same.hashCode());
+        assertThat(snapshot.toString(), containsString("bobby"));
+
+        when(mockHyperResource.getPathAs(int.class, false, "stats", "age")).thenReturn(43);
+        assertNotEquals(snapshot, processor.snapshot(PersonResource.class, person));
+        assertNotEquals(snapshot, person);
+    }
+
+    @Test
+    public void testOtherMethodsUnsupported() {
+        PersonResource snapshot = processor.snapshot(
+            PersonResource.class,
+            processor.processResource(PersonResource.class, mockHyperResource, null)
+        );
+
+        try {
+            snapshot.getFriend();
+            fail("links need the resource");
+        } catch (UnsupportedOperationException e) {
+            assertThat(e.getMessage(), containsString("getFriend"));
+        }
+
+        try {
+            snapshot.hasLink("friend");
+            fail("the resource is gone");
+        } catch (UnsupportedOperationException e) {
+            assertThat(e.getMessage(), containsString("hasLink"));
+        }
+
+        verify(mockHyperResource, never()).hasLink(anyString());
+    }
+
+    @Test(expected = HyperResourceException.class)
+    public void testMissingDataFailsSnapshot() {
+        when(mockHyperResource.getPathAs(String.class, false, "name")).thenThrow(new HyperResourceException("no name"));
+
+        processor.snapshot(
+            PersonResource.class,
+            processor.processResource(PersonResource.class, mockHyperResource, null)
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullResource() {
+        processor.snapshot(PersonResource.class, null);
+    }
+
+}
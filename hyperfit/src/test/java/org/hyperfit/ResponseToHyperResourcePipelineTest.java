@@ -9,6 +9,7 @@ import org.hyperfit.resource.HyperResource;
 import org.hyperfit.utils.TypeInfo;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
@@ -616,4 +617,106 @@ public class ResponseToHyperResourcePipelineTest {
 
     }
 
+
+    private ResponseToHyperResourcePipeline deferringSubject(boolean ok) {
+        when(mockHyperfitProcessor.isDeferringParsing())
+            .thenReturn(true);
+
+        String fakeContentType = "not/real";
+        when(mockResponse.getContentType())
+            .thenReturn(fakeContentType);
+
+        when(mockContentRegistry.canHandle(ContentType.parse(fakeContentType), ContentRegistry.Purpose.PARSE_RESPONSE))
+            .thenReturn(true);
+
+        when(mockContentRegistry.getHandler(ContentType.parse(fakeContentType), ContentRegistry.Purpose.PARSE_RESPONSE))
+            .thenReturn(mockContentTypeHandler);
+
+        when(mockResponse.isOK())
+            .thenReturn(ok);
+
+        return new ResponseToHyperResourcePipeline(
+            Collections.<ResponseToHyperResourcePipeline.Step<Response,HyperResource>>emptyList(),
+            mockHyperfitProcessor,
+            mockContentRegistry,
+            mockErrorHandler,
+            Resource1.class,
+            mockTypeInfo
+        );
+    }
+
+    @Test
+    public void testRunDeferredParsesOnFirstUse() {
+        ResponseToHyperResourcePipeline subject = deferringSubject(true);
+
+        HyperResource fakeBaseResource = mock(HyperResource.class);
+        when(fakeBaseResource.hasLink("some-rel"))
+            .thenReturn(true);
+        when(mockContentTypeHandler.parseResponse(mockResponse))
+            .thenReturn(fakeBaseResource);
+
+        subject.run(mockResponse);
+
+        ArgumentCaptor<HyperResource> deferred = ArgumentCaptor.forClass(HyperResource.class);
+        verify(mockHyperfitProcessor).processResource(eq(Resource1.class), deferred.capture(), eq(mockTypeInfo));
+        verify(mockContentTypeHandler, never()).parseResponse(mockResponse);
+
+        assertTrue(deferred.getValue().hasLink("some-rel"));
+        assertTrue(deferred.getValue().hasLink("some-rel"));
+        verify(mockContentTypeHandler, times(1)).parseResponse(mockResponse);
+    }
+
+    @Test
+    public void testRunDeferredNotOKResponseNotParsed() {
+        ResponseToHyperResourcePipeline subject = deferringSubject(false);
+
+        HyperResource fakeErrorResource = mock(HyperResource.class);
+        when(mockErrorHandler.notOKResponse(
+            eq(mockHyperfitProcessor),
+            eq(mockResponse),
+            eq(mockContentRegistry),
+            eq(Resource1.class),
+            any(HyperResource.class)
+        )).thenReturn(fakeErrorResource);
+
+        subject.run(mockResponse);
+
+        verify(mockHyperfitProcessor).processResource(Resource1.class, fakeErrorResource, mockTypeInfo);
+        verify(mockContentTypeHandler, never()).parseResponse(mockResponse);
+    }
+
+    @Test
+    public void testRunDeferredParseErrorOnFirstUse() {
+        ResponseToHyperResourcePipeline subject = deferringSubject(true);
+
+        RuntimeException parseException = new RuntimeException("bad body");
+        when(mockContentTypeHandler.parseResponse(mockResponse))
+            .thenThrow(parseException);
+
+        HyperResource fakeFallbackResource = mock(HyperResource.class);
+        when(fakeFallbackResource.hasForm("a-form"))
+            .thenReturn(true);
+        when(mockErrorHandler.contentParseError(
+            mockHyperfitProcessor,
+            mockResponse,
+            mockContentRegistry,
+            Resource1.class,
+            parseException
+        )).thenReturn(fakeFallbackResource);
+
+        subject.run(mockResponse);
+
+        ArgumentCaptor<HyperResource> deferred = ArgumentCaptor.forClass(HyperResource.class);
+        verify(mockHyperfitProcessor).processResource(eq(Resource1.class), deferred.capture(), eq(mockTypeInfo));
+        verify(mockErrorHandler, never()).contentParseError(
+            any(HyperfitProcessor.class),
+            any(Response.class),
+            any(ContentRegistry.class),
+            any(Class.class),
+            any(Exception.class)
+        );
+
+        assertTrue(deferred.getValue().hasForm("a-form"));
+    }
+
 }
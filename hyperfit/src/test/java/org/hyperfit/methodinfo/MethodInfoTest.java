@@ -5,6 +5,7 @@ import org.hyperfit.annotation.Param;
 import org.hyperfit.resource.HyperResource;
 import org.hyperfit.annotation.Data;
 import org.hyperfit.annotation.Link;
+import org.hyperfit.annotation.Memoize;
 import org.junit.Test;
 
 import java.lang.reflect.Method;
@@ -26,6 +27,10 @@ public class MethodInfoTest {
         @Data({"page", "number"})
         long data();
 
+        @Memoize
+        @Data({"page", "number"})
+        long memoizedData();
+
         @Link("link")
         SomeResource<T> link(
             @Param("page") Long page,
@@ -103,5 +108,44 @@ public class MethodInfoTest {
 
     }
 
+    @Test
+    public void testInvokerResolvedOnce() {
+        Map<String, Method> methodMap = getMethodSet(SomeResource.class);
+
+        MethodInfoCache methodInfoCache = new ConcurrentHashMapResourceMethodInfoCache().get(SomeResource.class);
+
+        for (Method method : methodMap.values()) {
+            MethodInfo methodInfo = methodInfoCache.get(method);
+            assertNotNull(methodInfo.getInvoker());
+            assertSame(methodInfo.getInvoker(), methodInfoCache.get(method).getInvoker());
+        }
+
+        //invokers of methods that don't depend on the method's annotations are shared
+        assertSame(
+            methodInfoCache.get(methodMap.get("canResolveLinkLocal")).getInvoker(),
+            methodInfoCache.get(methodMap.get("hasLink")).getInvoker()
+        );
+
+        assertNotSame(
+            methodInfoCache.get(methodMap.get("data")).getInvoker(),
+            methodInfoCache.get(methodMap.get("link")).getInvoker()
+        );
+    }
+
+    @Test
+    public void testMemoizingInvoker() {
+        Map<String, Method> methodMap = getMethodSet(SomeResource.class);
+
+        MethodInfoCache methodInfoCache = new ConcurrentHashMapResourceMethodInfoCache().get(SomeResource.class);
+
+        //only handlers memoizing by default pay for memoizing
+        MethodInfo data = methodInfoCache.get(methodMap.get("data"));
+        assertNotSame(data.getInvoker(), data.getMemoizingInvoker());
+        assertSame(data.getMemoizingInvoker(), data.getMemoizingInvoker());
+
+        MethodInfo memoized = methodInfoCache.get(methodMap.get("memoizedData"));
+        assertSame(memoized.getInvoker(), memoized.getMemoizingInvoker());
+    }
+
 
 }
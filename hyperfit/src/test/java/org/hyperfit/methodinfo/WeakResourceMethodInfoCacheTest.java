@@ -0,0 +1,167 @@
+package org.hyperfit.methodinfo;
+
+import org.hyperfit.HyperfitProcessor;
+import org.hyperfit.annotation.Data;
+import org.hyperfit.net.HyperClient;
+import org.hyperfit.resource.HyperResource;
+import org.junit.Test;
+import test.ChildFirstClassLoader;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static test.TestUtils.awaitCleared;
+
+public class WeakResourceMethodInfoCacheTest {
+
+    public interface SomeResource extends HyperResource {
+        @Data("name")
+        String getName();
+    }
+
+    public interface OtherResource extends HyperResource {
+    }
+
+    public interface ThirdResource extends HyperResource {
+    }
+
+    @Test
+    public void testGet() throws Exception {
+        WeakResourceMethodInfoCache cache = new WeakResourceMethodInfoCache();
+
+        MethodInfoCache someMethods = cache.get(SomeResource.class);
+        assertSame(someMethods, cache.get(SomeResource.class));
+        assertNotSame(someMethods, cache.get(OtherResource.class));
+
+        Method getName = SomeResource.class.getMethod("getName");
+        assertSame(someMethods.get(getName), someMethods.get(getName));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testPut() {
+        WeakResourceMethodInfoCache cache = new WeakResourceMethodInfoCache();
+        MethodInfoCache first = cache.get(SomeResource.class);
+        MethodInfoCache replacement = mock(MethodInfoCache.class);
+
+        assertSame(first, cache.put(SomeResource.class, replacement));
+        assertSame(replacement, cache.get(SomeResource.class));
+    }
+
+    @Test
+    public void testMethodInfoBuiltOnce() throws Exception {
+        final WeakResourceMethodInfoCache cache = new WeakResourceMethodInfoCache();
+        final Method getName = SomeResource.class.getMethod("getName");
+        final CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<MethodInfo>> futures = new ArrayList<Future<MethodInfo>>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(new Callable<MethodInfo>() {
+                    public MethodInfo call() throws Exception {
+                        start.await();
+                        return cache.get(SomeResource.class).get(getName);
+                    }
+                }));
+            }
+            start.countDown();
+
+            MethodInfo methodInfo = cache.get(SomeResource.class).get(getName);
+            for (Future<MethodInfo> future : futures) {
+                assertSame(methodInfo, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        WeakResourceMethodInfoCache cache = new WeakResourceMethodInfoCache(2);
+
+        MethodInfoCache someMethods = cache.get(SomeResource.class);
+        MethodInfoCache otherMethods = cache.get(OtherResource.class);
+        assertSame(someMethods, cache.get(SomeResource.class));
+
+        cache.get(ThirdResource.class);
+
+        assertEquals(2, cache.size());
+        assertSame(someMethods, cache.get(SomeResource.class));
+        assertNotSame("other resource was the least recently used", otherMethods, cache.get(OtherResource.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetNull() {
+        new WeakResourceMethodInfoCache().get(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoRoomForAnything() {
+        new WeakResourceMethodInfoCache(0);
+    }
+
+    @Test
+    public void testClassLoaderNotHeld() throws Exception {
+        WeakResourceMethodInfoCache cache = new WeakResourceMethodInfoCache();
+
+        WeakReference<ClassLoader> loader = cacheFromThrowawayLoader(cache);
+        awaitCleared(loader);
+
+        //expunged the next time something is added
+        cache.get(SomeResource.class);
+        assertEquals(1, cache.size());
+    }
+
+    private WeakReference<ClassLoader> cacheFromThrowawayLoader(WeakResourceMethodInfoCache cache) throws Exception {
+        ClassLoader throwaway = new ChildFirstClassLoader(OtherResource.class.getName());
+        Class<?> otherResource = throwaway.loadClass(OtherResource.class.getName());
+        assertNotSame(OtherResource.class, otherResource);
+
+        cache.put(otherResource, mock(MethodInfoCache.class));
+        return new WeakReference<ClassLoader>(throwaway);
+    }
+
+    @Test
+    public void testProcessorDoesNotHoldClassLoader() throws Exception {
+        HyperClient mockHyperClient = mock(HyperClient.class);
+        when(mockHyperClient.getSchemes()).thenReturn(new String[]{"http"});
+        HyperfitProcessor processor = HyperfitProcessor.builder()
+            .hyperClient(mockHyperClient)
+            .resourceMethodInfoCache(new WeakResourceMethodInfoCache())
+            .build();
+
+        WeakReference<ClassLoader> loader = processFromThrowawayLoader(processor);
+        awaitCleared(loader);
+
+        assertEquals("name", processor.processResource(SomeResource.class, resource(), null).getName());
+    }
+
+    private WeakReference<ClassLoader> processFromThrowawayLoader(HyperfitProcessor processor) throws Exception {
+        ClassLoader throwaway = new ChildFirstClassLoader(SomeResource.class.getName());
+        @SuppressWarnings("unchecked")
+        Class<HyperResource> someResource = (Class<HyperResource>) throwaway.loadClass(SomeResource.class.getName());
+
+        HyperResource proxy = processor.processResource(someResource, resource(), null);
+        assertEquals("name", someResource.getMethod("getName").invoke(proxy));
+        assertSame(proxy.getClass(), processor.processResource(someResource, resource(), null).getClass());
+
+        return new WeakReference<ClassLoader>(throwaway);
+    }
+
+    private static HyperResource resource() {
+        HyperResource resource = mock(HyperResource.class);
+        when(resource.getPathAs(String.class, false, "name")).thenReturn("name");
+        return resource;
+    }
+}
@@ -0,0 +1,179 @@
+package org.hyperfit.net;
+
+import org.hyperfit.HyperfitProcessor;
+import org.hyperfit.content.ContentType;
+import org.hyperfit.content.ContentTypeHandler;
+import org.hyperfit.resource.HyperResource;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+import static test.TestUtils.uniqueString;
+
+public class InMemoryHyperClientTest {
+
+    @Mock
+    ResponseCallback mockCallback;
+
+    InMemoryHyperClient client;
+
+    String url;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        client = new InMemoryHyperClient();
+        url = "mem://api/" + uniqueString();
+    }
+
+    @Test
+    public void testExecute() {
+        String body = uniqueString();
+        client.respond(
+            url,
+            InMemoryHyperClient.Fixture.builder()
+                .code(201)
+                .contentType("application/hal+json")
+                .header("X-Multi", "one")
+                .header("X-Multi", "two")
+                .body(body)
+                .build()
+        );
+
+        Request request = BoringRequestBuilder.get(url).build();
+        Response response = client.execute(request);
+
+        assertEquals(201, response.getCode());
+        assertEquals(body, response.getBody());
+        assertEquals("application/hal+json", response.getContentType());
+        assertEquals("application/hal+json", response.getHeader("Content-Type"));
+        assertEquals(3, response.getHeaders().size());
+        assertSame(request, response.getRequest());
+    }
+
+    @Test
+    public void testExecuteMatchesMethod() {
+        client.respond(Method.POST, url, InMemoryHyperClient.Fixture.builder().code(202).build());
+
+        assertEquals(
+            202,
+            client.execute(new RFC6570RequestBuilder().setUrlTemplate(url).setMethod(Method.POST).build()).getCode()
+        );
+        assertEquals(404, client.execute(BoringRequestBuilder.get(url).build()).getCode());
+    }
+
+    @Test
+    public void testExecuteNotFound() {
+        Response response = client.execute(BoringRequestBuilder.get(url).build());
+
+        assertEquals(404, response.getCode());
+        assertNull(response.getBody());
+        assertNull(response.getContentType());
+    }
+
+    @Test
+    public void testClear() {
+        client.respond(url, 200, "text/plain", "hi").clear();
+
+        assertEquals(404, client.execute(BoringRequestBuilder.get(url).build()).getCode());
+    }
+
+    @Test
+    public void testLatency() {
+        client.respond(url, 200, "text/plain", "hi")
+            .setLatency(InMemoryHyperClient.fixedLatency(20, TimeUnit.MILLISECONDS));
+
+        long start = System.nanoTime();
+        client.execute(BoringRequestBuilder.get(url).build());
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    public void testLatencyDistributions() {
+        InMemoryHyperClient.Latency uniform = InMemoryHyperClient.uniformLatency(5, 10, TimeUnit.MILLISECONDS);
+        InMemoryHyperClient.Latency gaussian = InMemoryHyperClient.gaussianLatency(1, 5, TimeUnit.MILLISECONDS);
+
+        for (int i = 0; i < 1000; i++) {
+            long next = uniform.nextNanos();
+            assertTrue(next >= TimeUnit.MILLISECONDS.toNanos(5));
+            assertTrue(next <= TimeUnit.MILLISECONDS.toNanos(10));
+
+            assertTrue(gaussian.nextNanos() >= 0);
+        }
+    }
+
+    @Test
+    public void testExecuteAsyncWithLatency() throws Exception {
+        client.respond(
+            url,
+            InMemoryHyperClient.Fixture.builder()
+                .latency(InMemoryHyperClient.fixedLatency(50, TimeUnit.MILLISECONDS))
+                .build()
+        );
+
+        Future<Response> future = client.executeAsync(BoringRequestBuilder.get(url).build(), mockCallback);
+
+        assertFalse(future.isDone());
+
+        Response response = future.get(10, TimeUnit.SECONDS);
+        assertEquals(200, response.getCode());
+        verify(mockCallback, timeout(10000)).onResponse(response);
+    }
+
+    @Test
+    public void testExecuteAsyncCancel() throws Exception {
+        client.setLatency(InMemoryHyperClient.fixedLatency(20, TimeUnit.MILLISECONDS));
+
+        Future<Response> future = client.executeAsync(BoringRequestBuilder.get(url).build(), null);
+
+        assertTrue(future.cancel(true));
+        Thread.sleep(50);
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    public void testProcessor() {
+        ContentTypeHandler mockContentTypeHandler = mock(ContentTypeHandler.class);
+        HyperResource mockResource = mock(HyperResource.class);
+        when(mockContentTypeHandler.getDefaultContentType()).thenReturn(ContentType.parse("application/hal+json"));
+        when(mockContentTypeHandler.canParseResponse()).thenReturn(true);
+        when(mockContentTypeHandler.parseResponse(any(Response.class))).thenReturn(mockResource);
+        when(mockResource.getPathAs(String.class, "name")).thenReturn("root");
+
+        client.respond(url, 200, "application/hal+json", "{\"name\":\"root\"}");
+
+        HyperfitProcessor processor = HyperfitProcessor.builder()
+            .hyperClient(client)
+            .addContentTypeHandler(mockContentTypeHandler)
+            .build();
+
+        HyperResource root = processor.processRequest(HyperResource.class, url);
+
+        assertEquals("root", root.getPathAs(String.class, "name"));
+        verify(mockContentTypeHandler, times(1)).parseResponse(any(Response.class));
+    }
+
+    @Test
+    public void testGetSchemes() {
+        assertArrayEquals(new String[]{"mem"}, client.getSchemes());
+        assertArrayEquals(new String[]{"http", "https"}, new InMemoryHyperClient("http", "https").getSchemes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoSchemes() {
+        new InMemoryHyperClient(new String[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRespondNullFixture() {
+        client.respond(url, null);
+    }
+
+}
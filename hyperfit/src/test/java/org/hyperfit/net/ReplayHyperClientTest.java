@@ -0,0 +1,187 @@
+package org.hyperfit.net;
+
+import org.hyperfit.exception.HyperfitException;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+import static test.TestUtils.uniqueString;
+
+public class ReplayHyperClientTest {
+
+    @Mock
+    HyperClient mockHyperClient;
+
+    @Mock
+    ResponseCallback mockCallback;
+
+    InMemoryHyperClient liveClient;
+
+    String url;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        liveClient = new InMemoryHyperClient("http");
+        url = "http://host/" + uniqueString();
+    }
+
+    private Tape record(Request... requests) throws IOException {
+        RecordingHyperClient recorder = new RecordingHyperClient(liveClient, new Tape());
+        for (Request request : requests) {
+            recorder.execute(request);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recorder.getTape().write(out);
+        return Tape.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Test
+    public void testRecordAndReplay() throws IOException {
+        liveClient.respond(
+            url,
+            InMemoryHyperClient.Fixture.builder()
+                .contentType("application/hal+json")
+                .header("ETag", "\"1\"")
+                .body("{\"name\":\"root\"}")
+                .build()
+        );
+
+        Tape tape = record(BoringRequestBuilder.get(url).build());
+        assertEquals(1, tape.size());
+
+        liveClient.clear();
+
+        Request request = BoringRequestBuilder.get(url).build();
+        Response replayed = new ReplayHyperClient(tape).execute(request);
+
+        assertEquals(200, replayed.getCode());
+        assertEquals("{\"name\":\"root\"}", replayed.getBody());
+        assertEquals("application/hal+json", replayed.getContentType());
+        assertEquals("\"1\"", replayed.getHeader("ETag"));
+        assertSame(request, replayed.getRequest());
+    }
+
+    @Test
+    public void testReplayInRecordedOrder() throws IOException {
+        liveClient.respond(url, 200, "text/plain", "first");
+        RecordingHyperClient recorder = new RecordingHyperClient(liveClient, new Tape());
+        recorder.execute(BoringRequestBuilder.get(url).build());
+        liveClient.respond(url, 200, "text/plain", "second");
+        recorder.execute(BoringRequestBuilder.get(url).build());
+
+        ReplayHyperClient replay = new ReplayHyperClient(recorder.getTape());
+
+        assertEquals("first", replay.execute(BoringRequestBuilder.get(url).build()).getBody());
+        assertEquals("second", replay.execute(BoringRequestBuilder.get(url).build()).getBody());
+        assertEquals("second", replay.execute(BoringRequestBuilder.get(url).build()).getBody());
+    }
+
+    @Test
+    public void testReplayMatchesMethod() throws IOException {
+        liveClient.respond(Method.DELETE, url, InMemoryHyperClient.Fixture.builder().code(204).build());
+
+        ReplayHyperClient replay = new ReplayHyperClient(record(BoringRequestBuilder.delete(url).build()));
+
+        assertEquals(204, replay.execute(BoringRequestBuilder.delete(url).build()).getCode());
+        try {
+            replay.execute(BoringRequestBuilder.get(url).build());
+            fail("the GET wasn't recorded");
+        } catch (HyperfitException e) {
+            assertTrue(e.getMessage().contains("was not recorded"));
+        }
+    }
+
+    @Test
+    public void testReplayLatency() throws Exception {
+        liveClient.respond(url, 200, "text/plain", "slow");
+        Response response = liveClient.execute(BoringRequestBuilder.get(url).build());
+
+        Tape tape = new Tape().add(response, TimeUnit.MILLISECONDS.toNanos(200));
+        ReplayHyperClient replay = new ReplayHyperClient(tape).setLatencyFactor(0.25);
+
+        long start = System.nanoTime();
+        replay.execute(BoringRequestBuilder.get(url).build());
+        long took = System.nanoTime() - start;
+        assertTrue(took >= TimeUnit.MILLISECONDS.toNanos(50));
+
+        Future<Response> future = replay.executeAsync(BoringRequestBuilder.get(url).build(), null);
+        assertFalse(future.isDone());
+        assertEquals("slow", future.get(10, TimeUnit.SECONDS).getBody());
+    }
+
+    @Test
+    public void testReplayAsyncNotRecorded() throws Exception {
+        Future<Response> future = new ReplayHyperClient(new Tape()).executeAsync(
+            BoringRequestBuilder.get(url).build(),
+            mockCallback
+        );
+
+        try {
+            future.get();
+            fail("nothing was recorded");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(HyperfitException.class));
+        }
+        verify(mockCallback, times(1)).onFailure(any(HyperfitException.class));
+    }
+
+    @Test
+    public void testRecordAsync() throws Exception {
+        liveClient.respond(url, 200, "text/plain", "async");
+        RecordingHyperClient recorder = new RecordingHyperClient(liveClient, new Tape());
+
+        Response response = recorder.executeAsync(BoringRequestBuilder.get(url).build(), mockCallback).get();
+
+        verify(mockCallback, times(1)).onResponse(response);
+        assertEquals(1, recorder.getTape().size());
+        assertSame(response, recorder.getTape().getRecordings().get(0).getResponse());
+    }
+
+    @Test
+    public void testRecordFailureNotRecorded() {
+        HyperfitException fakeException = new HyperfitException(uniqueString());
+        Request request = BoringRequestBuilder.get(url).build();
+        when(mockHyperClient.execute(request)).thenThrow(fakeException);
+
+        RecordingHyperClient recorder = new RecordingHyperClient(mockHyperClient, new Tape());
+        try {
+            recorder.execute(request);
+            fail("expected the client's exception");
+        } catch (HyperfitException e) {
+            assertSame(fakeException, e);
+        }
+
+        assertEquals(0, recorder.getTape().size());
+    }
+
+    @Test
+    public void testRecordingDelegates() {
+        when(mockHyperClient.getSchemes()).thenReturn(new String[]{"https"});
+        RecordingHyperClient recorder = new RecordingHyperClient(mockHyperClient, new Tape());
+
+        recorder.setAcceptedContentTypes(Collections.singleton("application/hal+json"));
+
+        verify(mockHyperClient, times(1)).setAcceptedContentTypes(Collections.singleton("application/hal+json"));
+        assertArrayEquals(new String[]{"https"}, recorder.getSchemes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeLatencyFactor() {
+        new ReplayHyperClient(new Tape()).setLatencyFactor(-1);
+    }
+
+}
@@ -0,0 +1,121 @@
+package org.hyperfit.net;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ResponseFutureTest {
+
+    @Mock
+    ResponseCallback mockCallback;
+
+    @Mock
+    Response mockResponse;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public void testComplete() throws Exception {
+        ResponseFuture future = new ResponseFuture(mockCallback);
+        assertFalse(future.isDone());
+
+        future.complete(mockResponse);
+        future.fail(new RuntimeException("too late"));
+
+        assertSame(mockResponse, future.get());
+        verify(mockCallback, times(1)).onResponse(mockResponse);
+        verify(mockCallback, never()).onFailure(any(Exception.class));
+    }
+
+    @Test
+    public void testFail() throws Exception {
+        ResponseFuture future = new ResponseFuture(mockCallback);
+        RuntimeException fakeException = new RuntimeException("no");
+
+        future.fail(fakeException);
+
+        try {
+            future.get();
+            fail("expected the failure");
+        } catch (ExecutionException e) {
+            assertSame(fakeException, e.getCause());
+        }
+        verify(mockCallback, times(1)).onFailure(fakeException);
+    }
+
+    @Test
+    public void testCancel() {
+        final AtomicInteger cancels = new AtomicInteger();
+        ResponseFuture future = new ResponseFuture(mockCallback) {
+            @Override
+            protected void onCancel() {
+                cancels.incrementAndGet();
+            }
+        };
+
+        assertTrue(future.cancel(false));
+        assertFalse(future.cancel(false));
+        future.complete(mockResponse);
+
+        assertEquals(1, cancels.get());
+        ArgumentCaptor<Exception> failure = ArgumentCaptor.forClass(Exception.class);
+        verify(mockCallback, times(1)).onFailure(failure.capture());
+        assertThat(failure.getValue(), instanceOf(CancellationException.class));
+        verify(mockCallback, never()).onResponse(any(Response.class));
+    }
+
+    @Test
+    public void testCallbackExceptionDoesNotEscape() throws Exception {
+        ResponseFuture future = new ResponseFuture(mockCallback);
+        doThrow(new RuntimeException("bad callback")).when(mockCallback).onResponse(mockResponse);
+
+        future.complete(mockResponse);
+
+        assertSame(mockResponse, future.get());
+    }
+
+    @Test
+    public void testBaseHyperClientExecutesBeforeReturning() throws Exception {
+        BaseHyperClient client = mock(BaseHyperClient.class, CALLS_REAL_METHODS);
+        Request request = BoringRequestBuilder.get("http://host").build();
+        doReturn(mockResponse).when(client).execute(request);
+
+        Future<Response> future = client.executeAsync(request, mockCallback);
+
+        assertTrue(future.isDone());
+        assertSame(mockResponse, future.get());
+        verify(mockCallback).onResponse(mockResponse);
+    }
+
+    @Test
+    public void testBaseHyperClientFailure() throws Exception {
+        BaseHyperClient client = mock(BaseHyperClient.class, CALLS_REAL_METHODS);
+        Request request = BoringRequestBuilder.get("http://host").build();
+        RuntimeException fakeException = new RuntimeException("unreachable");
+        doThrow(fakeException).when(client).execute(request);
+
+        Future<Response> future = client.executeAsync(request, null);
+
+        try {
+            future.get();
+            fail("expected the failure");
+        } catch (ExecutionException e) {
+            assertSame(fakeException, e.getCause());
+        }
+    }
+
+}
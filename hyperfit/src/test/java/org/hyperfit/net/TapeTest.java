@@ -0,0 +1,92 @@
+package org.hyperfit.net;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+import static test.TestUtils.uniqueString;
+
+public class TapeTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Request request = BoringRequestBuilder.post("http://host/" + uniqueString())
+            .setContentType("application/json")
+            .setContent("{\"q\":\"" + uniqueString() + "\"}")
+            .addHeader("X-Custom", uniqueString())
+            .addAcceptedContentType("application/hal+json")
+            .build();
+
+        StringBuilder largeBody = new StringBuilder();
+        while (largeBody.length() < 100000) {
+            largeBody.append(uniqueString()).append("\u00e9");
+        }
+
+        Response response = Response.builder()
+            .addRequest(request)
+            .addCode(201)
+            .addContentType("application/hal+json")
+            .addHeader("Content-Type", "application/hal+json")
+            .addHeader("X-Multi", "one")
+            .addHeader("X-Multi", "two")
+            .addBody(largeBody.toString())
+            .build();
+
+        Response noBody = Response.builder()
+            .addRequest(BoringRequestBuilder.get("http://host/" + uniqueString()).build())
+            .addCode(204)
+            .build();
+
+        Tape tape = new Tape()
+            .add(response, 12345)
+            .add(noBody, 6789);
+
+        File file = folder.newFile();
+        tape.write(file);
+
+        Tape read = Tape.read(file);
+
+        assertEquals(2, read.size());
+
+        Tape.Recording first = read.getRecordings().get(0);
+        assertEquals(request, first.getRequest());
+        assertEquals(201, first.getResponse().getCode());
+        assertEquals("application/hal+json", first.getResponse().getContentType());
+        assertEquals(largeBody.toString(), first.getResponse().getBody());
+        assertEquals(response.getHeaders().toString(), first.getResponse().getHeaders().toString());
+        assertEquals(12345, first.getDurationNanos());
+
+        Tape.Recording second = read.getRecordings().get(1);
+        assertEquals(noBody.getRequest(), second.getRequest());
+        assertEquals(204, second.getResponse().getCode());
+        assertNull(second.getResponse().getBody());
+        assertNull(second.getResponse().getContentType());
+        assertEquals(6789, second.getDurationNanos());
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadNotATape() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GZIPOutputStream gzip = new GZIPOutputStream(out);
+        gzip.write(uniqueString().getBytes("UTF-8"));
+        gzip.close();
+
+        Tape.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddNull() {
+        new Tape().add(null, 0);
+    }
+
+}
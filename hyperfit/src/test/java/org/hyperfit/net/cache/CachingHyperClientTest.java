@@ -0,0 +1,426 @@
+package org.hyperfit.net.cache;
+
+import org.hyperfit.HyperfitProcessor;
+import org.hyperfit.net.BaseHyperClient;
+import org.hyperfit.net.BoringRequestBuilder;
+import org.hyperfit.net.HyperClient;
+import org.hyperfit.net.Request;
+import org.hyperfit.net.RequestBuilder;
+import org.hyperfit.net.RequestInterceptor;
+import org.hyperfit.net.Response;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.CookieHandler;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+import static test.TestUtils.uniqueString;
+
+public class CachingHyperClientTest {
+
+    /**
+     * Answers with the queued responses, then with the last one, and keeps the requests it was sent
+     */
+    private static class Origin extends BaseHyperClient {
+        final List<Request> requests = new ArrayList<Request>();
+        final LinkedList<Response.ResponseBuilder> responses = new LinkedList<Response.ResponseBuilder>();
+
+        Origin respond(int code, String body, String... headers) {
+            Response.ResponseBuilder builder = Response.builder()
+                .addCode(code)
+                .addBody(body)
+                .addContentType("application/hal+json");
+            for (int i = 0; i < headers.length; i += 2) {
+                builder.addHeader(headers[i], headers[i + 1]);
+            }
+            responses.add(builder);
+            return this;
+        }
+
+        public Response execute(Request request) {
+            requests.add(request);
+            Response.ResponseBuilder builder = responses.size() > 1 ? responses.removeFirst() : responses.getFirst();
+            return builder.addRequest(request).build();
+        }
+
+        public HyperClient setCookieHandler(CookieHandler handler) {
+            return this;
+        }
+
+        public String[] getSchemes() {
+            return new String[]{"http"};
+        }
+    }
+
+    Origin origin;
+    CachingHyperClient client;
+    String url;
+
+    @Before
+    public void setUp() {
+        origin = new Origin();
+        client = new CachingHyperClient(origin, new MemoryResponseCache(1024 * 1024));
+        url = "http://host/" + uniqueString();
+    }
+
+    private static String httpDate(long time) {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format.format(new Date(time));
+    }
+
+    private Response get() {
+        return client.execute(BoringRequestBuilder.get(url).build());
+    }
+
+    @Test
+    public void testFreshResponseServedFromCache() {
+        origin.respond(200, "cached", "Cache-Control", "max-age=60");
+
+        Response first = get();
+        Request second = BoringRequestBuilder.get(url).addHeader("X-Second", "true").build();
+        Response cached = client.execute(second);
+
+        assertEquals(1, origin.requests.size());
+        assertEquals("cached", cached.getBody());
+        assertEquals(200, cached.getCode());
+        assertEquals("application/hal+json", cached.getContentType());
+        assertSame(second, cached.getRequest());
+        assertEquals("0", cached.getHeader("Age"));
+        assertNull(first.getHeader("Age"));
+
+        assertEquals(1, client.getHitCount());
+        assertEquals(1, client.getMissCount());
+    }
+
+    @Test
+    public void testExpires() {
+        long now = System.currentTimeMillis();
+        origin.respond(200, "cached", "Date", httpDate(now), "Expires", httpDate(now + 60000));
+
+        get();
+        get();
+
+        assertEquals(1, origin.requests.size());
+    }
+
+    @Test
+    public void testExpiresInThePast() {
+        long now = System.currentTimeMillis();
+        origin.respond(200, "cached", "Date", httpDate(now), "Expires", httpDate(now - 60000));
+
+        get();
+        get();
+
+        assertEquals(2, origin.requests.size());
+    }
+
+    @Test
+    public void testStaleResponseRevalidatedWithETag() {
+        origin.respond(200, "original", "Cache-Control", "max-age=60", "Age", "120", "ETag", "\"v1\"", "X-Old", "old")
+            .respond(304, null, "Cache-Control", "max-age=60", "X-Old", "new", "Content-Length", "0");
+
+        get();
+        Request revalidating = BoringRequestBuilder.get(url).build();
+        Response revalidated = client.execute(revalidating);
+
+        assertEquals(2, origin.requests.size());
+        assertEquals("\"v1\"", origin.requests.get(1).getHeader("If-None-Match"));
+        assertNull(origin.requests.get(1).getHeader("If-Modified-Since"));
+
+        assertEquals(200, revalidated.getCode());
+        assertEquals("original", revalidated.getBody());
+        assertEquals("new", revalidated.getHeader("X-Old"));
+        assertSame(revalidating, revalidated.getRequest());
+        assertEquals(1, client.getRevalidationCount());
+
+        //the 304 made it fresh again
+        assertEquals("original", get().getBody());
+        assertEquals(2, origin.requests.size());
+        assertEquals(1, client.getHitCount());
+        assertEquals(2, client.getMissCount());
+    }
+
+    @Test
+    public void testRevalidatedWithLastModified() {
+        String lastModified = httpDate(System.currentTimeMillis() - 60000);
+        origin.respond(200, "original", "Last-Modified", lastModified)
+            .respond(200, "changed", "Last-Modified", httpDate(System.currentTimeMillis()));
+
+        get();
+        Response changed = get();
+
+        assertEquals(lastModified, origin.requests.get(1).getHeader("If-Modified-Since"));
+        assertEquals("changed", changed.getBody());
+        assertNull(changed.getRequest().getHeader("If-Modified-Since"));
+        assertEquals(0, client.getRevalidationCount());
+    }
+
+    @Test
+    public void testNoCacheAlwaysRevalidated() {
+        origin.respond(200, "original", "Cache-Control", "max-age=60, no-cache", "ETag", "\"v1\"")
+            .respond(304, null);
+
+        get();
+        assertEquals("original", get().getBody());
+
+        assertEquals(2, origin.requests.size());
+        assertEquals("\"v1\"", origin.requests.get(1).getHeader("If-None-Match"));
+    }
+
+    @Test
+    public void testConditionalRequestAnsweredFromFreshEntry() {
+        origin.respond(200, "cached", "Cache-Control", "max-age=60", "ETag", "W/\"v1\"");
+
+        get();
+        Request conditional = BoringRequestBuilder.get(url).addHeader("If-None-Match", "\"v0\", \"v1\"").build();
+        Response notModified = client.execute(conditional);
+        Response changed = client.execute(BoringRequestBuilder.get(url).addHeader("If-None-Match", "\"v0\"").build());
+
+        assertEquals(1, origin.requests.size());
+        assertEquals(304, notModified.getCode());
+        assertNull(notModified.getBody());
+        assertEquals("W/\"v1\"", notModified.getHeader("ETag"));
+        assertSame(conditional, notModified.getRequest());
+        assertEquals(200, changed.getCode());
+        assertEquals("cached", changed.getBody());
+        assertEquals(2, client.getHitCount());
+    }
+
+    @Test
+    public void testConditionalRequestRefreshesMatchingEntry() {
+        String lastModified = httpDate(System.currentTimeMillis() - 60000);
+        origin.respond(200, "original", "Last-Modified", lastModified)
+            .respond(304, null, "Cache-Control", "max-age=60");
+
+        get();
+        Response notModified = client.execute(BoringRequestBuilder.get(url).addHeader("If-Modified-Since", lastModified).build());
+
+        assertEquals(304, notModified.getCode());
+        assertEquals(lastModified, origin.requests.get(1).getHeader("If-Modified-Since"));
+        assertEquals(1, client.getRevalidationCount());
+
+        //the 304 made the entry fresh
+        assertEquals("original", get().getBody());
+        assertEquals(2, origin.requests.size());
+    }
+
+    @Test
+    public void testRequestNoCache() {
+        origin.respond(200, "cached", "Cache-Control", "max-age=60", "Age", "30");
+
+        get();
+        client.execute(BoringRequestBuilder.get(url).addHeader("Cache-Control", "no-cache").build());
+        client.execute(BoringRequestBuilder.get(url).addHeader("Pragma", "no-cache").build());
+        client.execute(BoringRequestBuilder.get(url).addHeader("Cache-Control", "max-age=10").build());
+        assertEquals(4, origin.requests.size());
+
+        client.execute(BoringRequestBuilder.get(url).addHeader("Cache-Control", "max-age=40").build());
+        assertEquals(4, origin.requests.size());
+    }
+
+    @Test
+    public void testNoStore() {
+        origin.respond(200, "secret", "Cache-Control", "no-store", "ETag", "\"v1\"");
+
+        get();
+        get();
+
+        assertEquals(2, origin.requests.size());
+        assertNull(origin.requests.get(1).getHeader("If-None-Match"));
+    }
+
+    @Test
+    public void testPrivate() {
+        origin.respond(200, "mine", "Cache-Control", "private, max-age=60");
+
+        get();
+        get();
+
+        assertEquals(2, origin.requests.size());
+    }
+
+    @Test
+    public void testAuthorizedNotShared() {
+        origin.respond(200, "for a", "Cache-Control", "max-age=60").respond(200, "for b", "Cache-Control", "max-age=60");
+
+        HyperfitProcessor processor = HyperfitProcessor.builder().hyperClient(client).build();
+        HyperfitProcessor userA = processor.withRequestInterceptor(authorization("Bearer a"));
+        HyperfitProcessor userB = processor.withRequestInterceptor(authorization("Bearer b"));
+
+        assertEquals("for a", userA.processRequest(String.class, BoringRequestBuilder.get(url)));
+        assertEquals("for b", userB.processRequest(String.class, BoringRequestBuilder.get(url)));
+        assertEquals("for b", userB.processRequest(String.class, BoringRequestBuilder.get(url)));
+
+        assertEquals(3, origin.requests.size());
+        assertEquals("Bearer b", origin.requests.get(1).getHeader("Authorization"));
+        assertEquals(0, client.getHitCount());
+    }
+
+    @Test
+    public void testAuthorizedShared() {
+        for (String cacheControl : new String[]{"public, max-age=60", "s-maxage=60", "max-age=60, must-revalidate"}) {
+            url = "http://host/" + uniqueString();
+            origin.responses.clear();
+            origin.respond(200, "shared", "Cache-Control", cacheControl);
+
+            client.execute(BoringRequestBuilder.get(url).addHeader("Authorization", "Bearer a").build());
+            Response cached = client.execute(BoringRequestBuilder.get(url).addHeader("Authorization", "Bearer b").build());
+
+            assertEquals("shared", cached.getBody());
+        }
+
+        assertEquals(3, origin.requests.size());
+        assertEquals(3, client.getHitCount());
+    }
+
+    @Test
+    public void testAuthorizedNotServedUnsharedEntry() {
+        origin.respond(200, "anonymous", "Cache-Control", "max-age=60");
+
+        get();
+        client.execute(BoringRequestBuilder.get(url).addHeader("Authorization", "Bearer a").build());
+
+        assertEquals(2, origin.requests.size());
+    }
+
+    @Test
+    public void testSMaxAgeOverridesMaxAge() {
+        origin.respond(200, "cached", "Cache-Control", "max-age=0, s-maxage=60");
+
+        get();
+        get();
+
+        assertEquals(1, origin.requests.size());
+    }
+
+    private static RequestInterceptor authorization(final String value) {
+        return new RequestInterceptor() {
+            public void intercept(RequestBuilder requestBuilder) {
+                requestBuilder.addHeader("Authorization", value);
+            }
+        };
+    }
+
+    @Test
+    public void testNotStorable() {
+        origin.respond(200, "no validators or freshness")
+            .respond(500, "error", "ETag", "\"v1\"")
+            .respond(200, "ok");
+
+        get();
+        get();
+        get();
+
+        assertEquals(3, origin.requests.size());
+        assertNull(origin.requests.get(2).getHeader("If-None-Match"));
+    }
+
+    @Test
+    public void testVary() {
+        origin.respond(200, "varies", "Cache-Control", "max-age=60", "Vary", "Accept-Language");
+
+        client.execute(BoringRequestBuilder.get(url).addHeader("Accept-Language", "en").build());
+        client.execute(BoringRequestBuilder.get(url).addHeader("Accept-Language", "en").build());
+        client.execute(BoringRequestBuilder.get(url).addHeader("Accept-Language", "fr").build());
+
+        assertEquals(2, origin.requests.size());
+    }
+
+    @Test
+    public void testVaryAccept() {
+        origin.respond(200, "varies", "Cache-Control", "max-age=60", "Vary", "Accept");
+
+        client.execute(BoringRequestBuilder.get(url).addAcceptedContentType("application/hal+json").build());
+        client.execute(BoringRequestBuilder.get(url).addAcceptedContentType("application/hal+json").build());
+        client.execute(BoringRequestBuilder.get(url).addAcceptedContentType("text/html").build());
+
+        assertEquals(2, origin.requests.size());
+    }
+
+    @Test
+    public void testVaryStar() {
+        origin.respond(200, "varies", "Cache-Control", "max-age=60", "Vary", "*");
+
+        get();
+        get();
+
+        assertEquals(2, origin.requests.size());
+    }
+
+    @Test
+    public void testUnsafeMethodInvalidates() {
+        String other = "http://host/" + uniqueString();
+        origin.respond(200, "cached", "Cache-Control", "max-age=60");
+
+        get();
+        client.execute(BoringRequestBuilder.get(other).build());
+        get();
+        client.execute(BoringRequestBuilder.get(other).build());
+        assertEquals(2, origin.requests.size());
+
+        origin.responses.clear();
+        origin.respond(201, "created", "Location", other.substring("http://host".length()))
+            .respond(200, "cached", "Cache-Control", "max-age=60");
+        client.execute(BoringRequestBuilder.post(url).build());
+
+        get();
+        client.execute(BoringRequestBuilder.get(other).build());
+
+        assertEquals(5, origin.requests.size());
+    }
+
+    @Test
+    public void testFailedUnsafeMethodDoesNotInvalidate() {
+        origin.respond(200, "cached", "Cache-Control", "max-age=60")
+            .respond(500, "failed")
+            .respond(200, "not used");
+
+        get();
+        client.execute(BoringRequestBuilder.delete(url).build());
+        assertEquals("cached", get().getBody());
+
+        assertEquals(2, origin.requests.size());
+    }
+
+    @Test
+    public void testExecuteAsync() throws Exception {
+        origin.respond(200, "cached", "Cache-Control", "max-age=60");
+
+        Future<Response> miss = client.executeAsync(BoringRequestBuilder.get(url).build(), null);
+        assertEquals("cached", miss.get().getBody());
+
+        Future<Response> hit = client.executeAsync(BoringRequestBuilder.get(url).build(), null);
+        assertTrue(hit.isDone());
+        assertEquals("cached", hit.get().getBody());
+
+        assertEquals(1, origin.requests.size());
+        assertEquals(1, client.getHitCount());
+    }
+
+    @Test
+    public void testEvictionCount() {
+        MemoryResponseCache cache = new MemoryResponseCache(1);
+        client = new CachingHyperClient(origin, cache);
+        origin.respond(200, "too big", "Cache-Control", "max-age=60");
+
+        get();
+
+        assertEquals(0, cache.size());
+        assertEquals(0, client.getEvictionCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullCache() {
+        new CachingHyperClient(origin, null);
+    }
+
+}
@@ -0,0 +1,275 @@
+package org.hyperfit.net.cache;
+
+import org.hyperfit.net.BaseHyperClient;
+import org.hyperfit.net.BoringRequestBuilder;
+import org.hyperfit.net.HyperClient;
+import org.hyperfit.net.Request;
+import org.hyperfit.net.Response;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.CookieHandler;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+import static test.TestUtils.uniqueString;
+
+public class DiskResponseCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    File directory;
+    DiskResponseCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = folder.newFolder("cache");
+        cache = new DiskResponseCache(directory, 1024 * 1024);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        cache.close();
+    }
+
+    private static CacheEntry entry(String url, String body) {
+        Response response = Response.builder()
+            .addRequest(BoringRequestBuilder.get(url).build())
+            .addCode(200)
+            .addContentType("application/hal+json")
+            .addBody(body)
+            .addHeader("Cache-Control", "max-age=60")
+            .addHeader("ETag", "\"v1\"")
+            .build();
+
+        Map<String, String> vary = new HashMap<String, String>();
+        vary.put("accept-language", "en");
+        vary.put("x-missing", null);
+
+        return new CacheEntry(response, vary, 1000, 2000);
+    }
+
+    private void reopen() throws IOException {
+        cache.close();
+        cache = new DiskResponseCache(directory, 1024 * 1024);
+    }
+
+    @Test
+    public void testPutAndGet() {
+        cache.put("http://host/a", entry("http://host/a", "caf\u00e9"));
+
+        CacheEntry read = cache.get("http://host/a");
+        assertEquals("caf\u00e9", read.getResponse().getBody());
+        assertEquals(200, read.getResponse().getCode());
+        assertEquals("application/hal+json", read.getResponse().getContentType());
+        assertEquals("max-age=60", read.getResponse().getHeader("Cache-Control"));
+        assertEquals("\"v1\"", read.getResponse().getHeader("ETag"));
+        assertEquals("http://host/a", read.getResponse().getRequest().getUrl());
+        assertEquals("en", read.getVaryHeaders().get("accept-language"));
+        assertTrue(read.getVaryHeaders().containsKey("x-missing"));
+        assertNull(read.getVaryHeaders().get("x-missing"));
+        assertEquals(1000, read.getRequestTime());
+        assertEquals(2000, read.getResponseTime());
+
+        assertNull(cache.get("http://host/b"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testWarmStart() throws IOException {
+        cache.put("http://host/a", entry("http://host/a", "first"));
+        cache.put("http://host/b", entry("http://host/b", "b"));
+        cache.put("http://host/a", entry("http://host/a", "second"));
+
+        reopen();
+
+        assertEquals(2, cache.size());
+        assertEquals("second", cache.get("http://host/a").getResponse().getBody());
+        assertEquals("b", cache.get("http://host/b").getResponse().getBody());
+
+        //writing carries on after what was recovered
+        cache.put("http://host/c", entry("http://host/c", "c"));
+        reopen();
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testRemoveAndClear() throws IOException {
+        cache.put("http://host/a", entry("http://host/a", "a"));
+        cache.put("http://host/b", entry("http://host/b", "b"));
+        cache.remove("http://host/a");
+
+        assertNull(cache.get("http://host/a"));
+        reopen();
+        assertNull(cache.get("http://host/a"));
+        assertNotNull(cache.get("http://host/b"));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        reopen();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testTornRecordDropped() throws IOException {
+        cache.put("http://host/a", entry("http://host/a", "a"));
+        cache.put("http://host/b", entry("http://host/b", "b"));
+        cache.close();
+
+        //flip a byte of the last record's payload
+        File segment = directory.listFiles()[0];
+        RandomAccessFile file = new RandomAccessFile(segment, "rw");
+        try {
+            file.seek(findLast(file, "http://host/b"));
+            file.write('X');
+        } finally {
+            file.close();
+        }
+
+        cache = new DiskResponseCache(directory, 1024 * 1024);
+        assertEquals("a", cache.get("http://host/a").getResponse().getBody());
+        assertNull(cache.get("http://host/b"));
+
+        //the torn record is overwritten
+        cache.put("http://host/c", entry("http://host/c", "c"));
+        reopen();
+        assertEquals(2, cache.size());
+        assertEquals("c", cache.get("http://host/c").getResponse().getBody());
+    }
+
+    private static long findLast(RandomAccessFile file, String text) throws IOException {
+        byte[] content = new byte[(int) file.length()];
+        file.readFully(content);
+        byte[] search = text.getBytes("UTF-8");
+        outer:
+        for (int i = content.length - search.length; i >= 0; i--) {
+            for (int j = 0; j < search.length; j++) {
+                if (content[i + j] != search[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        throw new AssertionError(text + " not found");
+    }
+
+    @Test
+    public void testOldestSegmentEvicted() throws IOException {
+        cache.close();
+        cache = new DiskResponseCache(directory, 3 * 1024, 1024);
+
+        for (int i = 0; i < 20; i++) {
+            cache.put("http://host/" + i, entry("http://host/" + i, uniqueString()));
+        }
+
+        assertTrue(cache.getEvictionCount() > 0);
+        assertEquals(20, cache.size() + cache.getEvictionCount());
+        assertNull(cache.get("http://host/0"));
+        assertNotNull(cache.get("http://host/19"));
+        assertTrue(directory.listFiles().length <= 3);
+    }
+
+    @Test
+    public void testGetWhileSegmentsAreEvicted() throws Exception {
+        cache.close();
+        cache = new DiskResponseCache(directory, 3 * 1024, 1024);
+
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        Thread reader = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < 20000; i++) {
+                        String url = "http://host/" + (i % 50);
+                        CacheEntry read = cache.get(url);
+                        if (read != null) {
+                            assertEquals(url, read.getResponse().getRequest().getUrl());
+                            assertEquals(url, read.getResponse().getBody());
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            }
+        };
+        reader.start();
+
+        for (int i = 0; i < 2000; i++) {
+            String url = "http://host/" + (i % 50);
+            cache.put(url, entry(url, url));
+        }
+        reader.join();
+
+        assertNull(failure.get());
+        assertTrue(cache.getEvictionCount() > 0);
+    }
+
+    @Test
+    public void testTooLarge() throws IOException {
+        cache.close();
+        cache = new DiskResponseCache(directory, 1024, 1024);
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 1024; i++) {
+            body.append('x');
+        }
+
+        cache.put("http://host/a", entry("http://host/a", "small"));
+        cache.put("http://host/a", entry("http://host/a", body.toString()));
+
+        assertNull(cache.get("http://host/a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testCachingHyperClientAfterRestart() throws IOException {
+        final int[] requests = new int[1];
+        HyperClient origin = new BaseHyperClient() {
+            public Response execute(Request request) {
+                requests[0]++;
+                return Response.builder()
+                    .addRequest(request)
+                    .addCode(200)
+                    .addContentType("application/hal+json")
+                    .addBody("persisted")
+                    .addHeader("Cache-Control", "max-age=600")
+                    .build();
+            }
+
+            public HyperClient setCookieHandler(CookieHandler handler) {
+                return this;
+            }
+
+            public String[] getSchemes() {
+                return new String[]{"http"};
+            }
+        };
+
+        new CachingHyperClient(origin, cache).execute(BoringRequestBuilder.get("http://host/a").build());
+        reopen();
+        CachingHyperClient restarted = new CachingHyperClient(origin, cache);
+        Response response = restarted.execute(BoringRequestBuilder.get("http://host/a").build());
+
+        assertEquals("persisted", response.getBody());
+        assertEquals(1, requests[0]);
+        assertEquals(1, restarted.getHitCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSegmentLargerThanMaximum() throws IOException {
+        new DiskResponseCache(directory, 1024, 2048);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullDirectory() throws IOException {
+        new DiskResponseCache(null, 1024);
+    }
+}
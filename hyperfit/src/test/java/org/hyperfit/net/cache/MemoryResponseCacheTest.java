@@ -0,0 +1,100 @@
+package org.hyperfit.net.cache;
+
+import org.hyperfit.net.BoringRequestBuilder;
+import org.hyperfit.net.Response;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+import static test.TestUtils.uniqueString;
+
+public class MemoryResponseCacheTest {
+
+    private static CacheEntry entry(String url) {
+        Response response = Response.builder()
+            .addRequest(BoringRequestBuilder.get(url).build())
+            .addCode(200)
+            .addBody(uniqueString())
+            .build();
+
+        return new CacheEntry(response, Collections.<String, String>emptyMap(), 0, 0);
+    }
+
+    @Test
+    public void testPutAndGet() {
+        MemoryResponseCache cache = new MemoryResponseCache(1024 * 1024);
+        CacheEntry entry = entry("http://host/a");
+
+        cache.put("http://host/a", entry);
+
+        assertSame(entry, cache.get("http://host/a"));
+        assertNull(cache.get("http://host/b"));
+        assertEquals(entry.getWeight(), cache.getWeight());
+
+        cache.remove("http://host/a");
+        assertNull(cache.get("http://host/a"));
+        assertEquals(0, cache.getWeight());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        CacheEntry a = entry("http://host/a");
+        CacheEntry b = entry("http://host/b");
+        CacheEntry c = entry("http://host/c");
+        MemoryResponseCache cache = new MemoryResponseCache(a.getWeight() + b.getWeight() + c.getWeight() - 1);
+
+        cache.put("http://host/a", a);
+        cache.put("http://host/b", b);
+        cache.get("http://host/a");
+        cache.put("http://host/c", c);
+
+        assertSame(a, cache.get("http://host/a"));
+        assertNull(cache.get("http://host/b"));
+        assertSame(c, cache.get("http://host/c"));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(a.getWeight() + c.getWeight(), cache.getWeight());
+    }
+
+    @Test
+    public void testReplace() {
+        MemoryResponseCache cache = new MemoryResponseCache(1024 * 1024);
+        CacheEntry first = entry("http://host/a");
+        CacheEntry second = entry("http://host/a");
+
+        cache.put("http://host/a", first);
+        cache.put("http://host/a", second);
+
+        assertSame(second, cache.get("http://host/a"));
+        assertEquals(1, cache.size());
+        assertEquals(second.getWeight(), cache.getWeight());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testTooHeavy() {
+        CacheEntry entry = entry("http://host/a");
+        MemoryResponseCache cache = new MemoryResponseCache(entry.getWeight() - 1);
+
+        cache.put("http://host/a", entry);
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testClear() {
+        MemoryResponseCache cache = new MemoryResponseCache(1024 * 1024);
+        cache.put("http://host/a", entry("http://host/a"));
+
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeight());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaximumWeight() {
+        new MemoryResponseCache(0);
+    }
+
+}
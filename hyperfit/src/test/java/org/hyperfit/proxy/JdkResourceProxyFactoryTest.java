@@ -0,0 +1,109 @@
+package org.hyperfit.proxy;
+
+import org.hyperfit.HyperResourceInvokeHandler;
+import org.hyperfit.HyperfitProcessor;
+import org.hyperfit.methodinfo.ConcurrentHashMapMethodInfoCache;
+import org.hyperfit.resource.HyperResource;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import test.ChildFirstClassLoader;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Proxy;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+import static test.TestUtils.awaitCleared;
+
+public class JdkResourceProxyFactoryTest {
+
+    public interface SomeResource extends HyperResource {
+    }
+
+    interface OtherResource extends HyperResource {
+    }
+
+    @Mock
+    HyperResource mockHyperResource;
+
+    @Mock
+    HyperfitProcessor mockHyperfitProcessor;
+
+    JdkResourceProxyFactory factory;
+
+    HyperResourceInvokeHandler handler;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        factory = new JdkResourceProxyFactory();
+        handler = new HyperResourceInvokeHandler(mockHyperResource, mockHyperfitProcessor, new ConcurrentHashMapMethodInfoCache(), null, null);
+    }
+
+    @Test
+    public void testNewProxyInstance() {
+        when(mockHyperResource.hasLink("bb:next")).thenReturn(true);
+
+        Object result = factory.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{SomeResource.class}, handler);
+
+        assertTrue(Proxy.isProxyClass(result.getClass()));
+        assertSame(handler, Proxy.getInvocationHandler(result));
+        assertTrue(((SomeResource) result).hasLink("bb:next"));
+    }
+
+    @Test
+    public void testProxyClassSharedPerInterfaces() {
+        Class<?>[] interfaces = new Class<?>[]{SomeResource.class, OtherResource.class};
+
+        Object result = factory.newProxyInstance(getClass().getClassLoader(), interfaces, handler);
+        Object same = factory.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{SomeResource.class, OtherResource.class}, handler);
+        Object other = factory.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{SomeResource.class}, handler);
+
+        assertSame(result.getClass(), same.getClass());
+        assertNotSame(result.getClass(), other.getClass());
+        assertThat(same, instanceOf(OtherResource.class));
+        assertThat(other, not(instanceOf(OtherResource.class)));
+    }
+
+    @Test
+    public void testNonPublicInterface() {
+        Object result = factory.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{OtherResource.class}, handler);
+
+        assertThat(result, instanceOf(OtherResource.class));
+    }
+
+    @Test
+    public void testClassLoaderNotHeld() throws Exception {
+        WeakReference<ClassLoader> loader = proxyFromThrowawayLoader();
+        awaitCleared(loader);
+
+        assertTrue(Proxy.isProxyClass(factory.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{SomeResource.class}, handler).getClass()));
+    }
+
+    private WeakReference<ClassLoader> proxyFromThrowawayLoader() throws Exception {
+        ClassLoader throwaway = new ChildFirstClassLoader(SomeResource.class.getName());
+        Class<?> someResource = throwaway.loadClass(SomeResource.class.getName());
+
+        Object result = factory.newProxyInstance(throwaway, new Class<?>[]{someResource}, handler);
+        assertSame(result.getClass(), factory.newProxyInstance(throwaway, new Class<?>[]{someResource}, handler).getClass());
+        assertTrue(someResource.isInstance(result));
+
+        return new WeakReference<ClassLoader>(throwaway);
+    }
+
+    @Test
+    public void testPrepare() {
+        Class<?>[] interfaces = new Class<?>[]{SomeResource.class, OtherResource.class};
+
+        factory.prepare(getClass().getClassLoader(), interfaces, new ConcurrentHashMapMethodInfoCache(), false);
+        Object result = factory.newProxyInstance(getClass().getClassLoader(), interfaces, handler);
+
+        assertSame(Proxy.getProxyClass(getClass().getClassLoader(), interfaces), result.getClass());
+        assertSame(handler, Proxy.getInvocationHandler(result));
+    }
+
+}
@@ -0,0 +1,87 @@
+package org.hyperfit.proxy;
+
+import org.hyperfit.HyperResourceInvokeHandler;
+import org.hyperfit.resource.HyperResource;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class RegistryResourceProxyFactoryTest {
+
+    interface GeneratedResource extends HyperResource {
+    }
+
+    interface OtherResource extends HyperResource {
+    }
+
+    @Mock
+    ResourceProxyFactory mockFallbackFactory;
+
+    @Mock
+    GeneratedResourceRegistry mockRegistry;
+
+    @Mock
+    GeneratedResourceFactory mockGeneratedResourceFactory;
+
+    @Mock
+    HyperResourceInvokeHandler mockHandler;
+
+    RegistryResourceProxyFactory factory;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        factory = new RegistryResourceProxyFactory(mockFallbackFactory, Arrays.asList(mockRegistry));
+
+        when(mockRegistry.getFactory(GeneratedResource.class)).thenReturn(mockGeneratedResourceFactory);
+    }
+
+    @Test
+    public void testUsesGeneratedFactory() {
+        Object fakeResource = new Object();
+        when(mockGeneratedResourceFactory.newInstance(mockHandler)).thenReturn(fakeResource);
+
+        Class<?>[] interfaces = new Class<?>[]{GeneratedResource.class};
+
+        assertSame(fakeResource, factory.newProxyInstance(getClass().getClassLoader(), interfaces, mockHandler));
+        assertSame(fakeResource, factory.newProxyInstance(getClass().getClassLoader(), interfaces, mockHandler));
+
+        verify(mockRegistry, times(1)).getFactory(GeneratedResource.class);
+        verifyZeroInteractions(mockFallbackFactory);
+    }
+
+    @Test
+    public void testFallsBackWithoutGeneratedFactory() {
+        Object fakeResource = new Object();
+        Class<?>[] interfaces = new Class<?>[]{OtherResource.class};
+        when(mockFallbackFactory.newProxyInstance(getClass().getClassLoader(), interfaces, mockHandler)).thenReturn(fakeResource);
+
+        assertSame(fakeResource, factory.newProxyInstance(getClass().getClassLoader(), interfaces, mockHandler));
+        assertSame(fakeResource, factory.newProxyInstance(getClass().getClassLoader(), interfaces, mockHandler));
+
+        verify(mockRegistry, times(1)).getFactory(OtherResource.class);
+    }
+
+    @Test
+    public void testFallsBackForMultipleInterfaces() {
+        Object fakeResource = new Object();
+        Class<?>[] interfaces = new Class<?>[]{GeneratedResource.class, OtherResource.class};
+        when(mockFallbackFactory.newProxyInstance(getClass().getClassLoader(), interfaces, mockHandler)).thenReturn(fakeResource);
+
+        assertSame(fakeResource, factory.newProxyInstance(getClass().getClassLoader(), interfaces, mockHandler));
+
+        verifyZeroInteractions(mockGeneratedResourceFactory);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFallbackFactoryRequired() {
+        new RegistryResourceProxyFactory(null);
+    }
+
+}
@@ -4,6 +4,7 @@ package org.hyperfit.resource;
 import org.hyperfit.resource.controls.link.HyperLink;
 import org.junit.Test;
 
+import java.util.LinkedHashSet;
 
 
 import static test.TestUtils.*;
@@ -56,6 +57,57 @@ public class BaseHyperResourceTest {
     }
 
 
+// BEGIN tryGetLink tests
+
+    @Test
+    public void testTryGetLinkByRelZeroLinksForRel() {
+        String rel = uniqueString();
+        HyperResource resource = mock(BaseHyperResource.class, CALLS_REAL_METHODS);
+        doReturn(new HyperLink[0]).when(resource).getLinks(rel);
+
+        assertNull(resource.tryGetLink(rel));
+    }
+
+    @Test
+    public void testTryGetLinkByRelSingleLinkForRel() {
+        String rel = uniqueString();
+
+        HyperLink link = makeLink(rel);
+        HyperResource resource = mock(BaseHyperResource.class, CALLS_REAL_METHODS);
+        doReturn(new HyperLink[]{link}).when(resource).getLinks(rel);
+
+        assertEquals(link, resource.tryGetLink(rel));
+    }
+
+    @Test(expected = HyperResourceException.class)
+    public void testTryGetLinkByRelTwoLinksForRel() {
+        String rel = uniqueString();
+
+        HyperResource resource = mock(BaseHyperResource.class, CALLS_REAL_METHODS);
+        doReturn(new HyperLink[]{makeLink(rel), makeLink(rel)}).when(resource).getLinks(rel);
+
+        resource.tryGetLink(rel);
+    }
+
+    @Test
+    public void testTryGetLinkByRelAndNameZeroLinksForRel() {
+        String rel = uniqueString();
+        String name = uniqueString();
+        HyperResource resource = mock(BaseHyperResource.class, CALLS_REAL_METHODS);
+        doReturn(new HyperLink[0]).when(resource).getLinks(rel);
+
+        assertNull(resource.tryGetLink(rel, name));
+    }
+
+    @Test
+    public void testTryGetPathAs() {
+        HyperResource resource = mock(BaseHyperResource.class, CALLS_REAL_METHODS);
+        doReturn("value").when(resource).getPathAs(String.class, true, "some", "path");
+
+        assertEquals("value", resource.tryGetPathAs(String.class, "some", "path"));
+    }
+
+
     // BEGIN hasLink(String profile) tests
     @Test
     public void testHasLinkByRelZeroLinksForRel() {
@@ -334,4 +386,24 @@ public class BaseHyperResourceTest {
     }
 
 
+    @Test
+    public void testGetProfilesReadsProfileLinksOnceAndReturnsCopies() {
+        HyperLink link1 = makeLink("profile");
+        HyperLink link2 = makeLink("profile");
+        BaseHyperResource resource = mock(BaseHyperResource.class, CALLS_REAL_METHODS);
+        doReturn(new HyperLink[]{link1, link2}).when(resource).getLinks("profile");
+
+        LinkedHashSet<String> profiles = resource.getProfiles();
+
+        assertArrayEquals(new String[]{link1.getHref(), link2.getHref()}, profiles.toArray());
+        verify(resource, times(1)).getLinks("profile");
+
+        profiles.clear();
+        LinkedHashSet<String> again = resource.getProfiles();
+        assertNotSame(profiles, again);
+        assertArrayEquals(new String[]{link1.getHref(), link2.getHref()}, again.toArray());
+        verify(resource, times(1)).getLinks("profile");
+    }
+
+
 }
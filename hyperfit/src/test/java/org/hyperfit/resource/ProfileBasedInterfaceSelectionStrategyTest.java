@@ -2,6 +2,7 @@ package org.hyperfit.resource;
 
 import org.hamcrest.Matchers;
 import org.hyperfit.annotation.Profiles;
+import org.hyperfit.resource.controls.link.HyperLink;
 import org.junit.Test;
 
 import java.util.Arrays;
@@ -245,4 +246,74 @@ public class ProfileBasedInterfaceSelectionStrategyTest {
         );
 
     }
+
+    @Test
+    public void testDetermineInterfacesCachedPerExpectedInterfaceAndProfiles(){
+        ProfileBasedInterfaceSelectionStrategy x = new ProfileBasedInterfaceSelectionStrategy(interfaces);
+
+        LinkedHashSet<String> profiles = new LinkedHashSet<String>();
+        profiles.add("/a/b/c/profile-resource-1");
+        HyperResource mockResource = mock(HyperResource.class);
+        when(mockResource.getProfiles())
+            .thenReturn(profiles);
+
+        LinkedHashSet<String> sameProfiles = new LinkedHashSet<String>(profiles);
+        HyperResource otherMockResource = mock(HyperResource.class);
+        when(otherMockResource.getProfiles())
+            .thenReturn(sameProfiles);
+
+        Class<?>[] result = x.determineInterfaces(BaseProfileResource.class, mockResource);
+
+        assertSame(result, x.determineInterfaces(BaseProfileResource.class, otherMockResource));
+        assertArrayEquals(new Class<?>[]{BaseProfileResource.class, ProfileResource1.class}, result);
+
+        assertThat(
+            "a different expected interface is selected separately",
+            x.determineInterfaces(HyperResource.class, mockResource),
+            Matchers.<Class<?>>arrayContaining(HyperResource.class, ProfileResource1.class)
+        );
+
+        profiles.add("/a/b/c/profile-resource-2");
+        assertThat(
+            "a different profile set is selected separately",
+            x.determineInterfaces(BaseProfileResource.class, mockResource),
+            Matchers.<Class<?>>arrayContaining(BaseProfileResource.class, ProfileResource1.class, ProfileResource2.class)
+        );
+    }
+
+    @Test
+    public void testDetermineInterfacesCachedPerRegisteredProfiles(){
+        ProfileBasedInterfaceSelectionStrategy x = new ProfileBasedInterfaceSelectionStrategy(interfaces);
+
+        HyperResource mockResource = mock(HyperResource.class);
+        when(mockResource.getProfiles())
+            .thenReturn(new LinkedHashSet<String>(Arrays.asList("/a/b/c/profile-resource-1", "/unregistered/1")));
+
+        HyperResource otherMockResource = mock(HyperResource.class);
+        when(otherMockResource.getProfiles())
+            .thenReturn(new LinkedHashSet<String>(Arrays.asList("/unregistered/2", "/a/b/c/profile-resource-1")));
+
+        Class<?>[] result = x.determineInterfaces(BaseProfileResource.class, mockResource);
+
+        assertSame("profiles without registered interfaces don't make a new entry", result, x.determineInterfaces(BaseProfileResource.class, otherMockResource));
+        assertArrayEquals(new Class<?>[]{BaseProfileResource.class, ProfileResource1.class}, result);
+    }
+
+    @Test
+    public void testDetermineInterfacesReadsBaseHyperResourceProfilesWithoutCopying(){
+        ProfileBasedInterfaceSelectionStrategy x = new ProfileBasedInterfaceSelectionStrategy(interfaces);
+
+        HyperLink profileLink = new HyperLink("/a/b/c/profile-resource-1", "profile", false, null, null, null, null, null, null){};
+        BaseHyperResource resource = mock(BaseHyperResource.class, CALLS_REAL_METHODS);
+        doReturn(new HyperLink[]{profileLink}).when(resource).getLinks("profile");
+
+        resource.getProfiles().add("/a/b/c/profile-resource-2");
+
+        assertArrayEquals(
+            "changing a copy returned by getProfiles doesn't change the selection",
+            new Class<?>[]{BaseProfileResource.class, ProfileResource1.class},
+            x.determineInterfaces(BaseProfileResource.class, resource)
+        );
+        verify(resource, times(1)).getProfiles();
+    }
 }
@@ -75,6 +75,7 @@ public class SimpleInterfaceSelectionStrategyTest {
         Class<?>[] result = x.determineInterfaces(facet.getClass(), facet);
 
         assertArrayEquals(new Class<?>[]{facet.getClass()}, result);
+        assertSame(result, x.determineInterfaces(facet.getClass(), facet));
 
     }
 }
@@ -0,0 +1,174 @@
+package org.hyperfit.utils;
+
+import org.hyperfit.resource.HyperResource;
+import org.javatuples.Pair;
+import org.junit.Test;
+import test.ChildFirstClassLoader;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static test.TestUtils.awaitCleared;
+
+public class TypeInfoTest {
+
+    interface Dog extends HyperResource {
+    }
+
+    interface Page<T extends HyperResource> extends HyperResource {
+        T[] items();
+
+        List<T> itemList();
+
+        List<? extends T> someItems();
+
+        List rawItems();
+
+        Page<T> next();
+
+        Wrapper<T> wrapped();
+    }
+
+    interface UnboundedPage<T> extends HyperResource {
+        T[] items();
+
+        UnboundedPage<T> next();
+    }
+
+    interface Wrapper<X extends HyperResource> extends HyperResource {
+        X[] items();
+    }
+
+    interface Pages extends HyperResource {
+        Page<Dog> dogs();
+
+        Page<? extends Dog> someDogs();
+
+        Page rawDogs();
+
+        UnboundedPage rawUnbounded();
+    }
+
+    private static Type genericReturnType(Class<?> clazz, String methodName) throws NoSuchMethodException {
+        return clazz.getMethod(methodName).getGenericReturnType();
+    }
+
+    private static Pair<? extends Class<?>, Type> items(TypeInfo typeInfo, Class<?> clazz) throws NoSuchMethodException {
+        return typeInfo.getArrayType(
+            clazz.getMethod("items").getReturnType(),
+            genericReturnType(clazz, "items"),
+            HyperResource.class
+        );
+    }
+
+    @Test
+    public void testMakeWithoutParameterizedTypeIsEmpty() {
+        assertSame(TypeInfo.empty(), TypeInfo.empty().make(null));
+        assertSame(TypeInfo.empty(), TypeInfo.empty().make(Dog.class));
+        assertSame(TypeInfo.empty(), new TypeInfo().make(Dog.class));
+    }
+
+    @Test
+    public void testMakeIsInterned() throws Exception {
+        TypeInfo dogs = TypeInfo.empty().make(genericReturnType(Pages.class, "dogs"));
+
+        assertSame(dogs, TypeInfo.empty().make(genericReturnType(Pages.class, "dogs")));
+        assertSame(dogs, new TypeInfo().make(genericReturnType(Pages.class, "dogs")));
+
+        //following next keeps the same bindings, so it's the same type info
+        assertSame(dogs, dogs.make(genericReturnType(Page.class, "next")));
+    }
+
+    @Test
+    public void testArrayTypeOfBoundVariable() throws Exception {
+        TypeInfo dogs = TypeInfo.empty().make(genericReturnType(Pages.class, "dogs"));
+
+        Pair<? extends Class<?>, Type> result = items(dogs, Page.class);
+
+        assertEquals(Dog.class, result.getValue0());
+        assertEquals(Dog.class, result.getValue1());
+        assertSame(result, items(dogs, Page.class));
+    }
+
+    @Test
+    public void testCollectionElementType() throws Exception {
+        TypeInfo dogs = TypeInfo.empty().make(genericReturnType(Pages.class, "dogs"));
+
+        for (String methodName : new String[]{"itemList", "someItems"}) {
+            Pair<? extends Class<?>, Type> result = dogs.getCollectionElementType(List.class, genericReturnType(Page.class, methodName), HyperResource.class);
+
+            assertEquals(Dog.class, result.getValue0());
+            assertEquals(Dog.class, result.getValue1());
+        }
+
+        assertEquals(
+            HyperResource.class,
+            dogs.getCollectionElementType(List.class, genericReturnType(Page.class, "rawItems"), HyperResource.class).getValue0()
+        );
+
+        TypeInfo rawDogs = TypeInfo.empty().make(genericReturnType(Pages.class, "rawDogs"));
+        assertEquals(
+            HyperResource.class,
+            rawDogs.getCollectionElementType(List.class, genericReturnType(Page.class, "itemList"), HyperResource.class).getValue0()
+        );
+    }
+
+    @Test
+    public void testArrayTypeOfDifferentlyNamedVariable() throws Exception {
+        TypeInfo dogs = TypeInfo.empty().make(genericReturnType(Pages.class, "dogs"));
+        TypeInfo wrapped = dogs.make(genericReturnType(Page.class, "wrapped"));
+
+        assertEquals(Dog.class, items(wrapped, Wrapper.class).getValue0());
+    }
+
+    @Test
+    public void testArrayTypeOfWildcard() throws Exception {
+        TypeInfo someDogs = TypeInfo.empty().make(genericReturnType(Pages.class, "someDogs"));
+
+        assertEquals(Dog.class, items(someDogs, Page.class).getValue0());
+    }
+
+    @Test
+    public void testArrayTypeOfErasedVariableFallsBackToBound() throws Exception {
+        TypeInfo rawDogs = TypeInfo.empty().make(genericReturnType(Pages.class, "rawDogs"));
+
+        assertEquals(HyperResource.class, items(rawDogs, Page.class).getValue0());
+
+        //previously following a link of a raw page threw as T could not be found
+        TypeInfo next = rawDogs.make(genericReturnType(Page.class, "next"));
+        assertEquals(HyperResource.class, items(next, Page.class).getValue0());
+    }
+
+    @Test
+    public void testArrayTypeOfUnboundedErasedVariableUsesFallback() throws Exception {
+        TypeInfo rawUnbounded = TypeInfo.empty().make(genericReturnType(Pages.class, "rawUnbounded"));
+        TypeInfo next = rawUnbounded.make(genericReturnType(UnboundedPage.class, "next"));
+
+        assertEquals(HyperResource.class, items(rawUnbounded, UnboundedPage.class).getValue0());
+        assertEquals(HyperResource.class, items(next, UnboundedPage.class).getValue0());
+    }
+
+    @Test
+    public void testClassLoaderNotHeld() throws Exception {
+        WeakReference<ClassLoader> loader = makeFromThrowawayLoader();
+        awaitCleared(loader);
+    }
+
+    private WeakReference<ClassLoader> makeFromThrowawayLoader() throws Exception {
+        //nested classes must be loaded with the class they're declared in
+        ClassLoader throwaway = new ChildFirstClassLoader(TypeInfoTest.class.getName());
+        Class<?> page = throwaway.loadClass(Page.class.getName());
+        Class<?> pages = throwaway.loadClass(Pages.class.getName());
+
+        TypeInfo dogs = TypeInfo.empty().make(genericReturnType(pages, "dogs"));
+        assertSame(dogs, TypeInfo.empty().make(genericReturnType(pages, "dogs")));
+        assertSame(throwaway.loadClass(Dog.class.getName()), items(dogs, page).getValue0());
+        assertSame(dogs, dogs.make(genericReturnType(page, "next")));
+        assertEquals(HyperResource.class, items(TypeInfo.empty(), page).getValue0());
+
+        return new WeakReference<ClassLoader>(throwaway);
+    }
+
+}
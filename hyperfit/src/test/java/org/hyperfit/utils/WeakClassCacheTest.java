@@ -0,0 +1,94 @@
+package org.hyperfit.utils;
+
+import org.hyperfit.resource.HyperResource;
+import org.junit.Test;
+import test.ChildFirstClassLoader;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static test.TestUtils.awaitCleared;
+
+public class WeakClassCacheTest {
+
+    public interface SomeResource extends HyperResource {
+    }
+
+    /**
+     * Caches an array holding the class, a value referring back to its class
+     */
+    private static class ArrayCache extends WeakClassCache<Class<?>[]> {
+        final AtomicInteger computed = new AtomicInteger();
+
+        @Override
+        protected Class<?>[] compute(Class<?> clazz) {
+            computed.incrementAndGet();
+            return new Class<?>[]{clazz};
+        }
+    }
+
+    @Test
+    public void testGet() {
+        ArrayCache cache = new ArrayCache();
+
+        Class<?>[] some = cache.get(SomeResource.class);
+        assertArrayEquals(new Class<?>[]{SomeResource.class}, some);
+        assertSame(some, cache.get(SomeResource.class));
+        assertArrayEquals(new Class<?>[]{HyperResource.class}, cache.get(HyperResource.class));
+
+        assertEquals(2, cache.computed.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testManyClasses() {
+        ArrayCache cache = new ArrayCache();
+        List<Class<?>> classes = new ArrayList<Class<?>>();
+        for (Class<?> clazz : new Class<?>[]{String.class, Integer.class, Long.class, List.class, ArrayList.class, Object.class}) {
+            classes.add(clazz);
+            classes.add(java.lang.reflect.Array.newInstance(clazz, 0).getClass());
+            classes.add(java.lang.reflect.Array.newInstance(clazz, 0, 0).getClass());
+            classes.add(java.lang.reflect.Array.newInstance(clazz, 0, 0, 0).getClass());
+        }
+
+        for (Class<?> clazz : classes) {
+            cache.get(clazz);
+        }
+        for (Class<?> clazz : classes) {
+            assertSame(clazz, cache.get(clazz)[0]);
+        }
+
+        assertEquals(classes.size(), cache.computed.get());
+        assertEquals(classes.size(), cache.size());
+    }
+
+    @Test
+    public void testClassLoaderNotHeld() throws Exception {
+        ArrayCache cache = new ArrayCache();
+
+        WeakReference<ClassLoader> loader = cacheFromThrowawayLoader(cache);
+        awaitCleared(loader);
+
+        //dropped the next time something is added
+        cache.get(SomeResource.class);
+        assertEquals(1, cache.size());
+    }
+
+    private WeakReference<ClassLoader> cacheFromThrowawayLoader(ArrayCache cache) throws Exception {
+        ClassLoader throwaway = new ChildFirstClassLoader(SomeResource.class.getName());
+        Class<?> someResource = throwaway.loadClass(SomeResource.class.getName());
+        assertNotSame(SomeResource.class, someResource);
+
+        assertSame(someResource, cache.get(someResource)[0]);
+        return new WeakReference<ClassLoader>(throwaway);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetNull() {
+        new ArrayCache().get(null);
+    }
+
+}
@@ -0,0 +1,51 @@
+package test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Loads its own copy of the named classes, and of the classes nested in them, everything else comes from the test's
+ * class loader.  Use it to check what's keeping classes from being unloaded.
+ */
+public class ChildFirstClassLoader extends ClassLoader {
+    private final Set<String> classNames;
+
+    public ChildFirstClassLoader(String... classNames) {
+        super(ChildFirstClassLoader.class.getClassLoader());
+        this.classNames = new HashSet<String>(Arrays.asList(classNames));
+    }
+
+    @Override
+    protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        int nested = name.indexOf('$');
+        if (!classNames.contains(name) && (nested == -1 || !classNames.contains(name.substring(0, nested)))) {
+            return super.loadClass(name, resolve);
+        }
+
+        Class<?> loaded = findLoadedClass(name);
+        if (loaded != null) {
+            return loaded;
+        }
+
+        InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class");
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                bytes.write(buffer, 0, read);
+            }
+            return defineClass(name, bytes.toByteArray(), 0, bytes.size());
+        } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+        } finally {
+            try {
+                in.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
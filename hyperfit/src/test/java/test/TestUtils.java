@@ -3,6 +3,7 @@ package test;
 import org.hyperfit.resource.controls.link.HyperLink;
 
 import java.io.IOException;
+import java.lang.ref.Reference;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.util.*;
@@ -24,6 +25,32 @@ public final class TestUtils {
         return new HyperLink("http://host/" + uniqueString(), rel, false, null, null, name, null, null, null){};
     }
 
+    /**
+     * Collects garbage until the reference is cleared, filling the heap so soft references are cleared too
+     */
+    public static void awaitCleared(Reference<?> reference) throws InterruptedException {
+        for (int i = 0; i < 10 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        try {
+            List<long[]> filler = new ArrayList<long[]>();
+            while (reference.get() != null) {
+                filler.add(new long[1024 * 1024]);
+            }
+        } catch (OutOfMemoryError e) {
+            //every soft reference is cleared before it's thrown
+        }
+
+        for (int i = 0; i < 10 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertNull("the reference wasn't cleared", reference.get());
+    }
+
     private static Random r = new Random();
     public static <T> T random(T[] array) {
         return array[r.nextInt(array.length)];